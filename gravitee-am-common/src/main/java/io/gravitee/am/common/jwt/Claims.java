@@ -69,4 +69,9 @@ public interface Claims {
      * The claims parameter used to request that specific Claims be returned
      */
     String claims = "claims_request_parameter";
+
+    /**
+     * The "stateless" claim identifies an access token which is not stored in the token store
+     */
+    String stateless = "stateless";
 }
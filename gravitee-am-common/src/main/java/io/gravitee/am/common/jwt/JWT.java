@@ -113,4 +113,12 @@ public class JWT extends HashMap<String, Object> {
     public void setClaimsRequestParameter(Object claims) {
         put(Claims.claims, claims);
     }
+
+    public boolean isStateless() {
+        return Boolean.TRUE.equals(get(Claims.stateless));
+    }
+
+    public void setStateless(boolean stateless) {
+        put(Claims.stateless, stateless);
+    }
 }
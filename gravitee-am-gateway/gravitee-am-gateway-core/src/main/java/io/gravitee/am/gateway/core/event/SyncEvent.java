@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.core.event;
+
+/**
+ * Published by the sync service, the content is the set of domains deployed by the synchronization.
+ *
+ * @author GraviteeSource Team
+ */
+public enum SyncEvent {
+
+    /**
+     * The domains found at startup have all been deployed.
+     */
+    SYNCHRONIZED,
+
+    /**
+     * The domains have been fully re-synchronized because events are missing from the journal, the gateway-wide
+     * resources (clients, certificates) must be reloaded.
+     */
+    RESYNCHRONIZED
+}
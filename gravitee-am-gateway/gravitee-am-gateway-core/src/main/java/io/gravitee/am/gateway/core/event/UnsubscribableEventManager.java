@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.core.event;
+
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventManager;
+
+/**
+ * Event manager allowing listeners to unsubscribe, used by the components of a security domain which can be
+ * undeployed while the gateway is running.
+ *
+ * @author GraviteeSource Team
+ */
+public interface UnsubscribableEventManager extends EventManager {
+
+    <T extends Enum> void unsubscribeForEvents(EventListener<T, ?> eventListener, Class<T> events);
+}
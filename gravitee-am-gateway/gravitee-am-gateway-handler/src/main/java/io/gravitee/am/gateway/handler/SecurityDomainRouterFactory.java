@@ -16,11 +16,11 @@
 package io.gravitee.am.gateway.handler;
 
 import io.gravitee.am.gateway.handler.auth.idp.IdentityProviderManager;
-import io.gravitee.am.gateway.handler.certificate.CertificateManager;
-import io.gravitee.am.gateway.handler.oauth2.client.ClientService;
 import io.gravitee.am.gateway.handler.oauth2.granter.extensiongrant.ExtensionGrantManager;
+import io.gravitee.am.gateway.handler.oauth2.scope.ScopeService;
 import io.gravitee.am.gateway.handler.spring.HandlerConfiguration;
 import io.gravitee.am.gateway.handler.vertx.VertxSecurityDomainHandler;
+import io.gravitee.am.gateway.service.RoleService;
 import io.gravitee.am.model.Domain;
 import io.gravitee.common.component.LifecycleComponent;
 import org.slf4j.Logger;
@@ -35,7 +35,10 @@ import org.springframework.core.env.ConfigurableEnvironment;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -48,11 +51,14 @@ public class SecurityDomainRouterFactory {
     @Autowired
     private ApplicationContext gatewayApplicationContext;
 
+    private final Map<VertxSecurityDomainHandler, AbstractApplicationContext> applicationContexts = new ConcurrentHashMap<>();
+
     public VertxSecurityDomainHandler create(Domain domain) {
         if (domain.isEnabled()) {
             AbstractApplicationContext internalApplicationContext = createApplicationContext(domain);
             startComponents(internalApplicationContext);
             VertxSecurityDomainHandler handler = internalApplicationContext.getBean(VertxSecurityDomainHandler.class);
+            applicationContexts.put(handler, internalApplicationContext);
             return handler;
         } else {
             logger.warn("Domain is disabled !");
@@ -60,6 +66,20 @@ public class SecurityDomainRouterFactory {
         }
     }
 
+    /**
+     * Stop the components of a handler and close its application context, releasing the resources (identity
+     * providers, listeners, ...) held by the domain.
+     *
+     * @param handler a handler created by this factory
+     */
+    public void destroy(VertxSecurityDomainHandler handler) {
+        AbstractApplicationContext internalApplicationContext = applicationContexts.remove(handler);
+        if (internalApplicationContext != null) {
+            stopComponents(internalApplicationContext);
+            internalApplicationContext.close();
+        }
+    }
+
     AbstractApplicationContext createApplicationContext(Domain domain) {
         AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
         context.setParent(gatewayApplicationContext);
@@ -86,14 +106,7 @@ public class SecurityDomainRouterFactory {
     }
 
     private void startComponents(ApplicationContext applicationContext) {
-        // register components that require event listener feature
-        List<Class<? extends LifecycleComponent>> components = new ArrayList<>();
-        components.add(ClientService.class);
-        components.add(CertificateManager.class);
-        components.add(IdentityProviderManager.class);
-        components.add(ExtensionGrantManager.class);
-
-        components.forEach(componentClass -> {
+        components().forEach(componentClass -> {
             LifecycleComponent lifecyclecomponent = applicationContext.getBean(componentClass);
             try {
                 lifecyclecomponent.start();
@@ -102,4 +115,28 @@ public class SecurityDomainRouterFactory {
             }
         });
     }
+
+    private void stopComponents(ApplicationContext applicationContext) {
+        List<Class<? extends LifecycleComponent>> components = components();
+        Collections.reverse(components);
+
+        components.forEach(componentClass -> {
+            LifecycleComponent lifecyclecomponent = applicationContext.getBean(componentClass);
+            try {
+                lifecyclecomponent.stop();
+            } catch (Exception e) {
+                logger.error("An error occurs while stopping component {}", componentClass.getSimpleName(), e);
+            }
+        });
+    }
+
+    private List<Class<? extends LifecycleComponent>> components() {
+        // register components that require event listener feature
+        List<Class<? extends LifecycleComponent>> components = new ArrayList<>();
+        components.add(IdentityProviderManager.class);
+        components.add(ExtensionGrantManager.class);
+        components.add(ScopeService.class);
+        components.add(RoleService.class);
+        return components;
+    }
 }
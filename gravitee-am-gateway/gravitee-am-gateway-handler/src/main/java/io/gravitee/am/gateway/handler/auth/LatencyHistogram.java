@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.auth;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with fixed millisecond buckets.
+ *
+ * @author GraviteeSource Team
+ */
+public class LatencyHistogram {
+
+    private static final long[] BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long duration, TimeUnit unit) {
+        long nanos = unit.toNanos(duration);
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BUCKETS.length && millis >= BUCKETS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return the average recorded value (milliseconds)
+     */
+    public double getAverage() {
+        long values = count.get();
+        return values == 0 ? 0 : (double) total.get() / values / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the maximum recorded value (milliseconds)
+     */
+    public long getMax() {
+        return TimeUnit.NANOSECONDS.toMillis(max.get());
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound (milliseconds) of the bucket holding the given percentile, or the maximum recorded value
+     * for the last bucket
+     */
+    public long getPercentile(double percentile) {
+        long values = count.get();
+        if (values == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(values * percentile / 100);
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS.length; i++) {
+            cumulated += counts.get(i);
+            if (cumulated >= rank) {
+                return BUCKETS[i];
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * @return the number of recorded values per bucket, keyed by the bucket exclusive upper bound (milliseconds)
+     */
+    public Map<String, Long> getBuckets() {
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS.length; i++) {
+            buckets.put(String.valueOf(BUCKETS[i]), counts.get(i));
+        }
+        buckets.put("+Inf", counts.get(BUCKETS.length));
+        return buckets;
+    }
+}
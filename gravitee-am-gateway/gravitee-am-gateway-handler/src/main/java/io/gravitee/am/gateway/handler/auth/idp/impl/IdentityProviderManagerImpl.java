@@ -16,7 +16,9 @@
 package io.gravitee.am.gateway.handler.auth.idp.impl;
 
 import io.gravitee.am.gateway.core.event.IdentityProviderEvent;
+import io.gravitee.am.gateway.core.event.UnsubscribableEventManager;
 import io.gravitee.am.gateway.handler.auth.idp.IdentityProviderManager;
+import io.gravitee.am.gateway.service.DomainResourceService;
 import io.gravitee.am.identityprovider.api.AuthenticationProvider;
 import io.gravitee.am.model.Domain;
 import io.gravitee.am.model.IdentityProvider;
@@ -55,6 +57,9 @@ public class IdentityProviderManagerImpl extends AbstractService implements Iden
     @Autowired
     private IdentityProviderRepository identityProviderRepository;
 
+    @Autowired
+    private DomainResourceService domainResourceService;
+
     @Autowired
     private EventManager eventManager;
 
@@ -80,7 +85,7 @@ public class IdentityProviderManagerImpl extends AbstractService implements Iden
         // identity providers are required for extension grants bean creation
         // make blocking call to create them first
         try {
-            Set<IdentityProvider> identityProviders = identityProviderRepository.findByDomain(domain.getId()).blockingGet();
+            Set<IdentityProvider> identityProviders = domainResourceService.findIdentityProviders(domain.getId()).blockingGet();
             identityProviders.forEach(identityProvider -> updateAuthenticationProvider(identityProvider));
             logger.info("Identity providers loaded for domain {}", domain.getName());
         } catch (Exception e) {
@@ -96,6 +101,17 @@ public class IdentityProviderManagerImpl extends AbstractService implements Iden
         eventManager.subscribeForEvents(this, IdentityProviderEvent.class);
     }
 
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+
+        logger.info("Unregister event listener for identity provider events and close identity providers for domain {}", domain.getName());
+        if (eventManager instanceof UnsubscribableEventManager) {
+            ((UnsubscribableEventManager) eventManager).unsubscribeForEvents(this, IdentityProviderEvent.class);
+        }
+        providers.keySet().forEach(this::removeIdentityProvider);
+    }
+
     @Override
     public void onEvent(Event<IdentityProviderEvent, Payload> event) {
         if (domain.getId().equals(event.content().getDomain())) {
@@ -126,7 +142,7 @@ public class IdentityProviderManagerImpl extends AbstractService implements Iden
 
     private void removeIdentityProvider(String identityProviderId) {
         logger.info("Domain {} has received identity provider event, delete identity provider {}", domain.getName(), identityProviderId);
-        providers.remove(identityProviderId);
+        identityProviderPluginManager.close(providers.remove(identityProviderId));
         identities.remove(identityProviderId);
     }
 
@@ -135,7 +151,10 @@ public class IdentityProviderManagerImpl extends AbstractService implements Iden
         AuthenticationProvider authenticationProvider =
                 identityProviderPluginManager.create(identityProvider.getType(), identityProvider.getConfiguration(),
                         identityProvider.getMappers(), identityProvider.getRoleMapper());
-        providers.put(identityProvider.getId(), authenticationProvider);
+        AuthenticationProvider previousAuthenticationProvider = providers.put(identityProvider.getId(), authenticationProvider);
+        if (previousAuthenticationProvider != null) {
+            identityProviderPluginManager.close(previousAuthenticationProvider);
+        }
         identities.put(identityProvider.getId(), identityProvider);
     }
 }
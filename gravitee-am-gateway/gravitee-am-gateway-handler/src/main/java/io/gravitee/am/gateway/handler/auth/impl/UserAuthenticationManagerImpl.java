@@ -15,6 +15,7 @@
  */
 package io.gravitee.am.gateway.handler.auth.impl;
 
+import io.gravitee.am.gateway.handler.auth.LatencyHistogram;
 import io.gravitee.am.gateway.handler.auth.UserAuthenticationManager;
 import io.gravitee.am.gateway.handler.auth.idp.IdentityProviderManager;
 import io.gravitee.am.gateway.handler.oauth2.utils.OAuth2Constants;
@@ -23,20 +24,28 @@ import io.gravitee.am.gateway.service.UserService;
 import io.gravitee.am.identityprovider.api.Authentication;
 import io.gravitee.am.identityprovider.api.DefaultUser;
 import io.gravitee.am.model.Client;
+import io.gravitee.am.model.IdentityProviderStrategy;
 import io.gravitee.am.model.User;
 import io.gravitee.am.service.exception.UserNotFoundException;
 import io.gravitee.am.service.exception.authentication.BadCredentialsException;
 import io.gravitee.am.service.exception.authentication.InternalAuthenticationServiceException;
+import io.reactivex.Completable;
 import io.reactivex.Maybe;
-import io.reactivex.Observable;
 import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.disposables.CompositeDisposable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -56,6 +65,11 @@ public class UserAuthenticationManagerImpl implements UserAuthenticationManager
     @Autowired
     private IdentityProviderManager identityProviderManager;
 
+    @Value("${authentication.hedgeDelay:200}")
+    private long hedgeDelay;
+
+    private final Map<String, LatencyHistogram> latencyHistograms = new ConcurrentHashMap<>();
+
     @Override
     public Single<User> authenticate(Client client, Authentication authentication) {
         logger.debug("Trying to authenticate [{}]", authentication);
@@ -69,10 +83,11 @@ public class UserAuthenticationManagerImpl implements UserAuthenticationManager
             return Single.error(new BadCredentialsException("No identity provider found for client : " + client.getClientId()));
         }
 
-        return Observable.fromIterable(client.getIdentities())
-                .flatMapMaybe(authProvider -> authenticate0(client, authentication, authProvider))
-                .takeUntil(userAuthentication -> userAuthentication.getUser() != null)
-                .lastOrError()
+        IdentityProviderStrategy strategy = client.getIdentityProviderStrategy() == null ? IdentityProviderStrategy.ORDERED : client.getIdentityProviderStrategy();
+        // the identity providers are kept in the priority order configured for the client
+        List<String> identities = new ArrayList<>(client.getIdentities());
+
+        return Single.<UserAuthentication>create(emitter -> new AuthenticationRace(client, authentication, identities, strategy, emitter).start())
                 .flatMap(userAuthentication -> {
                     io.gravitee.am.identityprovider.api.User user = userAuthentication.getUser();
                     if (user == null) {
@@ -112,25 +127,43 @@ public class UserAuthenticationManagerImpl implements UserAuthenticationManager
                         .flatMap(user -> enhanceUserWithRoles(user));
     }
 
+    /**
+     * @return the authentication latency of each identity provider
+     */
+    public Map<String, LatencyHistogram> getLatencyHistograms() {
+        return Collections.unmodifiableMap(latencyHistograms);
+    }
+
+    public void setHedgeDelay(long hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+
     private Maybe<UserAuthentication> authenticate0(Client client, Authentication authentication, String authProvider) {
+        return Maybe.defer(() -> {
+            final long start = System.nanoTime();
+            return authenticate1(client, authentication, authProvider)
+                    .doOnEvent((user, error) -> latencyHistograms.computeIfAbsent(authProvider, key -> new LatencyHistogram())
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        }).map(user -> {
+            logger.debug("Successfully Authenticated: " + authentication + " with provider authentication provider " + authProvider);
+            Map<String, Object> additionalInformation = user.getAdditionalInformation() == null ? new HashMap<>() : new HashMap<>(user.getAdditionalInformation());
+            additionalInformation.put("source", authProvider);
+            additionalInformation.put(OAuth2Constants.CLIENT_ID, client.getClientId());
+            ((DefaultUser ) user).setAdditonalInformation(additionalInformation);
+            return new UserAuthentication(user, null);
+        }).onErrorResumeNext(error -> {
+            logger.debug("Unable to authenticate [{}] with authentication provider [{}]", authentication, authProvider, error);
+            return Maybe.just(new UserAuthentication(null, error));
+        });
+    }
+
+    private Maybe<io.gravitee.am.identityprovider.api.User> authenticate1(Client client, Authentication authentication, String authProvider) {
         return identityProviderManager.get(authProvider)
                 .switchIfEmpty(Maybe.error(new BadCredentialsException("Unable to load authentication provider " + authProvider + ", an error occurred during the initialization stage")))
                 .flatMap(authenticationProvider -> {
                     logger.debug("Authentication attempt using identity provider {} ({})", authenticationProvider, authenticationProvider.getClass().getName());
                     return authenticationProvider.loadUserByUsername(authentication)
                             .switchIfEmpty(Maybe.error(new BadCredentialsException("Unable to authenticate user : " + authentication.getPrincipal() + " authentication provider has returned empty value")));
-                })
-                .map(user -> {
-                    logger.debug("Successfully Authenticated: " + authentication + " with provider authentication provider " + authProvider);
-                    Map<String, Object> additionalInformation = user.getAdditionalInformation() == null ? new HashMap<>() : new HashMap<>(user.getAdditionalInformation());
-                    additionalInformation.put("source", authProvider);
-                    additionalInformation.put(OAuth2Constants.CLIENT_ID, client.getClientId());
-                    ((DefaultUser ) user).setAdditonalInformation(additionalInformation);
-                    return new UserAuthentication(user, null);
-                })
-                .onErrorResumeNext(error -> {
-                    logger.debug("Unable to authenticate [{}] with authentication provider [{}]", authentication, authProvider, error);
-                    return Maybe.just(new UserAuthentication(null, error));
                 });
     }
 
@@ -147,6 +180,90 @@ public class UserAuthenticationManagerImpl implements UserAuthenticationManager
     }
 
 
+    /**
+     * Authentication attempts of a user against the identity providers of a client.
+     *
+     * The next identity provider is tried as soon as the previous one has failed (or has not answered within the hedge
+     * delay for the {@link IdentityProviderStrategy#HEDGED} strategy, or right away for the
+     * {@link IdentityProviderStrategy#PARALLEL} one). The winner is the first identity provider of the list which has
+     * authenticated the user once all the previous ones have failed: the attempts still in flight are then cancelled.
+     */
+    private class AuthenticationRace {
+        private final Client client;
+        private final Authentication authentication;
+        private final List<String> identities;
+        private final IdentityProviderStrategy strategy;
+        private final SingleEmitter<UserAuthentication> emitter;
+        private final boolean[] started;
+        private final UserAuthentication[] results;
+        private final CompositeDisposable attempts = new CompositeDisposable();
+        private boolean done;
+
+        AuthenticationRace(Client client, Authentication authentication, List<String> identities, IdentityProviderStrategy strategy, SingleEmitter<UserAuthentication> emitter) {
+            this.client = client;
+            this.authentication = authentication;
+            this.identities = identities;
+            this.strategy = strategy;
+            this.emitter = emitter;
+            this.started = new boolean[identities.size()];
+            this.results = new UserAuthentication[identities.size()];
+        }
+
+        synchronized void start() {
+            emitter.setDisposable(attempts);
+            if (strategy == IdentityProviderStrategy.PARALLEL) {
+                for (int i = 0; i < identities.size(); i++) {
+                    start(i);
+                }
+            } else {
+                start(0);
+            }
+        }
+
+        private synchronized void start(int index) {
+            if (done || index >= identities.size() || started[index]) {
+                return;
+            }
+            started[index] = true;
+            if (strategy == IdentityProviderStrategy.HEDGED && index + 1 < identities.size()) {
+                attempts.add(Completable.timer(hedgeDelay, TimeUnit.MILLISECONDS).subscribe(() -> start(index + 1)));
+            }
+            attempts.add(authenticate0(client, authentication, identities.get(index))
+                    .subscribe(userAuthentication -> onResult(index, userAuthentication)));
+        }
+
+        private synchronized void onResult(int index, UserAuthentication userAuthentication) {
+            if (done) {
+                return;
+            }
+            results[index] = userAuthentication;
+            if (userAuthentication.getUser() == null) {
+                start(index + 1);
+            }
+            if (done) {
+                return;
+            }
+            for (UserAuthentication result : results) {
+                if (result == null) {
+                    // a preceding identity provider has not answered yet
+                    return;
+                }
+                if (result.getUser() != null) {
+                    complete(result);
+                    return;
+                }
+            }
+            // all the identity providers have failed
+            complete(results[results.length - 1]);
+        }
+
+        private void complete(UserAuthentication userAuthentication) {
+            done = true;
+            attempts.dispose();
+            emitter.onSuccess(userAuthentication);
+        }
+    }
+
     private class UserAuthentication {
         private io.gravitee.am.identityprovider.api.User user;
         private Throwable lastException;
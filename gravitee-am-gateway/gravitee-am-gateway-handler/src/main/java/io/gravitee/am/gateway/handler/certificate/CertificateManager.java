@@ -30,6 +30,26 @@ public interface CertificateManager extends Service {
 
     Maybe<CertificateProvider> findByDomainAndId(String domain, String id);
 
+    /**
+     * Synchronous lookup used to sign tokens.
+     *
+     * @param domain the security domain
+     * @param id the certificate id
+     * @return the certificate provider, or the default certificate provider if the certificate is unknown
+     */
+    CertificateProvider getOrDefault(String domain, String id);
+
+    /**
+     * Synchronous lookup used to verify tokens, keys of rotated certificates are kept until the certificate is deleted.
+     * Only the keys of the given certificate are returned, or the default key if the certificate is unknown.
+     *
+     * @param domain the security domain
+     * @param certificateId the certificate id
+     * @param keyId the <code>kid</code> JWT header
+     * @return the certificate provider owning the key, or <code>null</code> if the key does not belong to the certificate
+     */
+    CertificateProvider findByCertificateAndKeyId(String domain, String certificateId, String keyId);
+
     Collection<CertificateProvider> providers();
 
     CertificateProvider defaultCertificateProvider();
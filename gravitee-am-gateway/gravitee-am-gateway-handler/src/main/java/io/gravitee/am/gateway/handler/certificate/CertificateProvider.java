@@ -25,6 +25,7 @@ import io.gravitee.am.gateway.handler.jwt.JwtParser;
 public class CertificateProvider {
 
     private io.gravitee.am.certificate.api.CertificateProvider provider;
+    private String keyId;
     private JwtParser jwtParser;
     private JwtBuilder jwtBuilder;
 
@@ -40,6 +41,14 @@ public class CertificateProvider {
         this.provider = provider;
     }
 
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
     public JwtParser getJwtParser() {
         return jwtParser;
     }
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.certificate;
+
+import io.gravitee.common.service.Service;
+
+import java.util.Collection;
+
+/**
+ * Gateway-wide index of the certificate providers, shared by all the security domains.
+ *
+ * Certificates are loaded once per node and kept up to date by certificate events.
+ *
+ * @author GraviteeSource Team
+ */
+public interface CertificateRegistry extends Service {
+
+    /**
+     * @param domain the security domain
+     * @param id the certificate id
+     * @return the certificate provider, or <code>null</code> if the certificate is unknown
+     */
+    CertificateProvider findByDomainAndId(String domain, String id);
+
+    /**
+     * @param domain the security domain
+     * @param certificateId the certificate id, the default certificate is used if the certificate is unknown
+     * @param keyId the <code>kid</code> JWT header
+     * @return the certificate provider owning the key, or <code>null</code> if the key does not belong to the certificate
+     */
+    CertificateProvider findByCertificateAndKeyId(String domain, String certificateId, String keyId);
+
+    Collection<CertificateProvider> providers();
+
+    CertificateProvider defaultCertificateProvider();
+}
@@ -0,0 +1,388 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.certificate.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gravitee.am.certificate.api.CertificateMetadata;
+import io.gravitee.am.certificate.api.DefaultKey;
+import io.gravitee.am.gateway.core.event.CertificateEvent;
+import io.gravitee.am.gateway.core.event.DomainEvent;
+import io.gravitee.am.gateway.core.event.SyncEvent;
+import io.gravitee.am.gateway.handler.certificate.CertificateRegistry;
+import io.gravitee.am.gateway.handler.certificate.CertificateProvider;
+import io.gravitee.am.gateway.handler.jwt.impl.JJwtBuilder;
+import io.gravitee.am.gateway.handler.jwt.impl.JJwtParser;
+import io.gravitee.am.model.Certificate;
+import io.gravitee.am.model.Domain;
+import io.gravitee.am.model.common.event.Payload;
+import io.gravitee.am.model.jose.JWK;
+import io.gravitee.am.plugins.certificate.core.CertificatePluginManager;
+import io.gravitee.am.repository.management.api.CertificateRepository;
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventManager;
+import io.gravitee.common.service.AbstractService;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.JacksonDeserializer;
+import io.jsonwebtoken.io.JacksonSerializer;
+import io.jsonwebtoken.security.Keys;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
+ * @author GraviteeSource Team
+ */
+public class CertificateRegistryImpl extends AbstractService implements CertificateRegistry, EventListener<CertificateEvent, Payload> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CertificateRegistryImpl.class);
+    private static final String defaultDigestAlgorithm = "SHA-256";
+
+    @Value("${jwt.secret:s3cR3t4grAv1t3310AMS1g1ingDftK3y}")
+    private String signingKeySecret;
+
+    @Value("${jwt.kid:default-gravitee-AM-key}")
+    private String signingKeyId;
+
+    /**
+     * Repository plugins are registered once the gateway context has been refreshed.
+     */
+    @Lazy
+    @Autowired
+    private CertificateRepository certificateRepository;
+
+    @Autowired
+    private CertificatePluginManager certificatePluginManager;
+
+    @Autowired
+    private EventManager eventManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * domain -> certificate id -> certificate provider
+     */
+    private ConcurrentMap<String, Map<String, CertificateProvider>> domainsCertificateProviders = new ConcurrentHashMap<>();
+
+    /**
+     * certificate id -> kid -> certificate provider (previous keys of a certificate are kept to verify tokens signed before a rotation)
+     */
+    private ConcurrentMap<String, Map<String, CertificateProvider>> certificatesKeyIdCertificateProviders = new ConcurrentHashMap<>();
+
+    /**
+     * certificate id -> last update date of the certificate provider, to only recreate the providers of the certificates
+     * which have changed when reloading a domain
+     */
+    private ConcurrentMap<String, Date> certificatesUpdatedAt = new ConcurrentHashMap<>();
+
+    private CertificateProvider defaultCertificateProvider;
+
+    /**
+     * Certificates found at startup are loaded at once, the certificates of a domain are only reloaded when the domain
+     * is (re)deployed after the initial synchronization.
+     */
+    private volatile boolean synchronizedDomains;
+
+    private final EventListener<DomainEvent, Domain> domainEventListener = event -> {
+        if (synchronizedDomains && (event.type() == DomainEvent.DEPLOY || event.type() == DomainEvent.UPDATE)) {
+            reloadCertificates(event.content().getId());
+        }
+    };
+
+    private final EventListener<SyncEvent, Set<Domain>> syncEventListener = event -> {
+        switch (event.type()) {
+            case SYNCHRONIZED:
+                synchronizedDomains = true;
+                break;
+            case RESYNCHRONIZED:
+                reloadCertificates();
+                break;
+        }
+    };
+
+    @Override
+    public CertificateProvider findByDomainAndId(String domain, String id) {
+        return find(domainsCertificateProviders, domain, id);
+    }
+
+    @Override
+    public CertificateProvider findByCertificateAndKeyId(String domain, String certificateId, String keyId) {
+        if (keyId == null) {
+            return null;
+        }
+        if (findByDomainAndId(domain, certificateId) == null) {
+            // tokens are signed with the default key, it is the only one allowed to verify them
+            return defaultCertificateProvider != null && keyId.equals(defaultCertificateProvider.getKeyId()) ? defaultCertificateProvider : null;
+        }
+        return find(certificatesKeyIdCertificateProviders, certificateId, keyId);
+    }
+
+    @Override
+    public Collection<CertificateProvider> providers() {
+        return domainsCertificateProviders
+                .entrySet()
+                .stream()
+                .flatMap(p -> p.getValue().entrySet().stream().map(Map.Entry::getValue))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CertificateProvider defaultCertificateProvider() {
+        return defaultCertificateProvider;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+
+        logger.info("Initializing default certificate provider");
+        initDefaultCertificateProvider();
+
+        // certificates must be available before the first security domain is deployed
+        logger.info("Initializing certificates");
+        certificateRepository.findAll().blockingGet().forEach(certificate -> {
+            try {
+                logger.info("Initializing certificate: {} [{}] for domain {}", certificate.getName(), certificate.getType(), certificate.getDomain());
+                updateCertificateProvider(certificate);
+            } catch (Exception ex) {
+                logger.error("Unable to initialize certificate {} for domain {}", certificate.getId(), certificate.getDomain(), ex);
+            }
+        });
+        logger.info("Certificates loaded");
+
+        logger.info("Register event listener for certificate events");
+        eventManager.subscribeForEvents(this, CertificateEvent.class);
+        eventManager.subscribeForEvents(domainEventListener, DomainEvent.class);
+        eventManager.subscribeForEvents(syncEventListener, SyncEvent.class);
+    }
+
+    @Override
+    public void onEvent(Event<CertificateEvent, Payload> event) {
+        switch (event.type()) {
+            case DEPLOY:
+            case UPDATE:
+                updateCertificate(event.content().getId(), event.type());
+                break;
+            case UNDEPLOY:
+                removeCertificate(event.content().getId(), event.content().getDomain());
+                break;
+        }
+    }
+
+    private void updateCertificate(String certificateId, CertificateEvent certificateEvent) {
+        final String eventType = certificateEvent.toString().toLowerCase();
+        logger.info("Gateway has received {} certificate event for {}", eventType, certificateId);
+        certificateRepository.findById(certificateId)
+                .subscribe(
+                        certificate -> {
+                            updateCertificateProvider(certificate);
+                            logger.info("Certificate {} {}d for domain {}", certificateId, eventType, certificate.getDomain());
+                        },
+                        error -> logger.error("Unable to {} certificate {}", eventType, certificateId, error),
+                        () -> logger.error("No certificate found with id {}", certificateId));
+    }
+
+    private void removeCertificate(String certificateId, String domainId) {
+        logger.info("Gateway has received certificate event, delete certificate {} for domain {}", certificateId, domainId);
+        removeCertificateProviders(domainId, Collections.singleton(certificateId));
+    }
+
+    /**
+     * Certificate events may have been missed while the domain was not deployed.
+     */
+    private void reloadCertificates(String domainId) {
+        try {
+            reloadCertificates(domainId, certificateRepository.findByDomain(domainId).blockingGet());
+            logger.info("Certificates reloaded for domain {}", domainId);
+        } catch (Exception ex) {
+            logger.error("Unable to reload certificates for domain {}", domainId, ex);
+        }
+    }
+
+    /**
+     * Certificate events may have been missed whatever the domain, reload the whole registry.
+     */
+    private void reloadCertificates() {
+        try {
+            Map<String, List<Certificate>> certificates = certificateRepository.findAll().blockingGet().stream()
+                    .collect(Collectors.groupingBy(Certificate::getDomain));
+            Set<String> domainIds = new HashSet<>(domainsCertificateProviders.keySet());
+            domainIds.addAll(certificates.keySet());
+            domainIds.forEach(domainId -> reloadCertificates(domainId, certificates.getOrDefault(domainId, Collections.emptyList())));
+            logger.info("Certificates reloaded");
+        } catch (Exception ex) {
+            logger.error("Unable to reload certificates", ex);
+        }
+    }
+
+    private void reloadCertificates(String domainId, Collection<Certificate> certificates) {
+        // certificates deleted in the meantime
+        Set<String> certificateIds = certificates.stream().map(Certificate::getId).collect(Collectors.toSet());
+        Set<String> deletedCertificateIds = domainsCertificateProviders.getOrDefault(domainId, Collections.emptyMap()).keySet().stream()
+                .filter(certificateId -> !certificateIds.contains(certificateId))
+                .collect(Collectors.toSet());
+        removeCertificateProviders(domainId, deletedCertificateIds);
+
+        // certificates created or updated in the meantime, keys are not reloaded for unchanged certificates
+        certificates.stream()
+                .filter(certificate -> certificate.getUpdatedAt() == null || !certificate.getUpdatedAt().equals(certificatesUpdatedAt.get(certificate.getId())))
+                .forEach(certificate -> {
+                    try {
+                        updateCertificateProvider(certificate);
+                    } catch (Exception ex) {
+                        logger.error("Unable to reload certificate {} for domain {}", certificate.getId(), domainId, ex);
+                    }
+                });
+    }
+
+    private void removeCertificateProviders(String domainId, Set<String> certificateIds) {
+        if (certificateIds.isEmpty()) {
+            return;
+        }
+        remove(domainsCertificateProviders, domainId, certificateIds);
+        certificatesKeyIdCertificateProviders.keySet().removeAll(certificateIds);
+        certificatesUpdatedAt.keySet().removeAll(certificateIds);
+    }
+
+    private void updateCertificateProvider(Certificate certificate) {
+        // create underline provider
+        io.gravitee.am.certificate.api.CertificateProvider provider = certificatePluginManager.create(certificate.getType(), certificate.getConfiguration(), certificate.getMetadata());
+
+        // create certificate provider
+        CertificateProvider certificateProvider = create(provider);
+
+        // add certificate provider to its domain, indexed by certificate id and by the key id of the certificate
+        put(domainsCertificateProviders, certificate.getDomain(), certificate.getId(), certificateProvider);
+        if (certificateProvider.getKeyId() != null) {
+            put(certificatesKeyIdCertificateProviders, certificate.getId(), certificateProvider.getKeyId(), certificateProvider);
+        }
+        if (certificate.getUpdatedAt() != null) {
+            certificatesUpdatedAt.put(certificate.getId(), certificate.getUpdatedAt());
+        }
+    }
+
+    public void setSigningKeySecret(String signingKeySecret) {
+        this.signingKeySecret = signingKeySecret;
+    }
+
+    public void setSigningKeyId(String signingKeyId) {
+        this.signingKeyId = signingKeyId;
+    }
+
+    private static CertificateProvider find(Map<String, Map<String, CertificateProvider>> index, String owner, String key) {
+        if (owner == null || key == null) {
+            return null;
+        }
+        Map<String, CertificateProvider> ownerCertificateProviders = index.get(owner);
+        return ownerCertificateProviders == null ? null : ownerCertificateProviders.get(key);
+    }
+
+    private static void put(ConcurrentMap<String, Map<String, CertificateProvider>> index, String owner, String key, CertificateProvider certificateProvider) {
+        // copy-on-write, readers never lock
+        index.compute(owner, (k, existingCertificateProviders) -> {
+            Map<String, CertificateProvider> updateCertificateProviders = existingCertificateProviders == null ? new HashMap<>() : new HashMap<>(existingCertificateProviders);
+            updateCertificateProviders.put(key, certificateProvider);
+            return Collections.unmodifiableMap(updateCertificateProviders);
+        });
+    }
+
+    private static void remove(ConcurrentMap<String, Map<String, CertificateProvider>> index, String domain, Set<String> keys) {
+        index.computeIfPresent(domain, (k, existingCertificateProviders) -> {
+            Map<String, CertificateProvider> updateCertificateProviders = new HashMap<>(existingCertificateProviders);
+            updateCertificateProviders.keySet().removeAll(keys);
+            return updateCertificateProviders.isEmpty() ? null : Collections.unmodifiableMap(updateCertificateProviders);
+        });
+    }
+
+    private void initDefaultCertificateProvider() {
+        // create default signing HMAC key
+        Key key = Keys.hmacShaKeyFor(signingKeySecret.getBytes());
+        io.gravitee.am.certificate.api.Key certificateKey = new DefaultKey(signingKeyId, key);
+
+        // create default certificate provider
+        setDefaultCertificateProvider(certificateKey);
+    }
+
+    private void setDefaultCertificateProvider(io.gravitee.am.certificate.api.Key key) {
+        CertificateMetadata certificateMetadata = new CertificateMetadata();
+        certificateMetadata.setMetadata(Collections.singletonMap(CertificateMetadata.DIGEST_ALGORITHM_NAME, defaultDigestAlgorithm));
+
+        io.gravitee.am.certificate.api.CertificateProvider defaultProvider = new io.gravitee.am.certificate.api.CertificateProvider() {
+
+            @Override
+            public Single<io.gravitee.am.certificate.api.Key> key() {
+                return Single.just(key);
+            }
+
+            @Override
+            public Single<String> publicKey() {
+                return null;
+            }
+
+            @Override
+            public Flowable<JWK> keys() {
+                return null;
+            }
+
+            @Override
+            public CertificateMetadata certificateMetadata() {
+                return certificateMetadata;
+            }
+        };
+
+        defaultCertificateProvider = create(defaultProvider);
+    }
+
+    private CertificateProvider create(io.gravitee.am.certificate.api.CertificateProvider provider) {
+        // create certificate provider
+        CertificateProvider certificateProvider = new CertificateProvider(provider);
+
+        // create parser and builder (default to jjwt)
+        io.gravitee.am.certificate.api.Key providerKey = provider.key().blockingGet();
+        Key signingKey = providerKey.getValue() instanceof KeyPair ? ((KeyPair) providerKey.getValue()).getPrivate() : (Key) providerKey.getValue();
+        Key verifyingKey = providerKey.getValue() instanceof KeyPair ? ((KeyPair) providerKey.getValue()).getPublic() : (Key) providerKey.getValue();
+
+        io.jsonwebtoken.JwtParser jjwtParser = Jwts.parser().deserializeJsonWith(new JacksonDeserializer(objectMapper)).setSigningKey(verifyingKey);
+        io.jsonwebtoken. JwtBuilder jjwtBuilder = Jwts.builder().serializeToJsonWith(new JacksonSerializer(objectMapper)).signWith(signingKey).setHeaderParam(JwsHeader.KEY_ID, providerKey.getKeyId());
+
+        certificateProvider.setKeyId(providerKey.getKeyId());
+        certificateProvider.setJwtParser(new JJwtParser(jjwtParser));
+        certificateProvider.setJwtBuilder(new JJwtBuilder(jjwtBuilder));
+
+        return certificateProvider;
+    }
+}
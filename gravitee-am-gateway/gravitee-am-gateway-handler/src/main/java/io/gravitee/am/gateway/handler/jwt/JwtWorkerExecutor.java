@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.jwt;
+
+import io.gravitee.am.gateway.handler.oauth2.exception.ServerErrorException;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded thread-pool used to sign and verify JWT outside of the Vert.x event loop (RSA signers can be very slow).
+ *
+ * The pool is shared by all the security domains of the gateway. When both the workers and the queue are full,
+ * the task is rejected and the caller receives a <code>server_error</code> instead of stalling the event loop.
+ *
+ * @author GraviteeSource Team
+ */
+public class JwtWorkerExecutor implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtWorkerExecutor.class);
+
+    @Value("${jwt.worker.poolSize:0}")
+    private int poolSize;
+
+    @Value("${jwt.worker.queueCapacity:1000}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong rejectedTasks = new AtomicLong();
+
+    /**
+     * Execute the given JWT operation on the worker pool.
+     *
+     * @param task the sign/verify operation
+     * @return the task result, or a {@link ServerErrorException} if the pool is saturated
+     */
+    public <T> Single<T> execute(Callable<T> task) {
+        return Single.create(emitter -> {
+            try {
+                Future<?> future = executor.submit(() -> {
+                    try {
+                        emitter.onSuccess(task.call());
+                    } catch (Throwable t) {
+                        emitter.tryOnError(t);
+                    }
+                });
+                emitter.setCancellable(() -> future.cancel(false));
+            } catch (RejectedExecutionException ex) {
+                rejectedTasks.incrementAndGet();
+                logger.warn("JWT worker pool is saturated (queue size: {}), rejecting task", executor.getQueue().size());
+                emitter.onError(new ServerErrorException("The server is too busy to process the token", ex));
+            }
+        });
+    }
+
+    /**
+     * @return the number of tasks waiting in the queue
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of threads actively executing tasks
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return the number of tasks completed since startup
+     */
+    public long getCompletedTaskCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    /**
+     * @return the number of tasks rejected because the pool was saturated
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTasks.get();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        logger.info("Initializing JWT worker pool [threads: {}, queue capacity: {}]", threads, queueCapacity);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "gio-am-jwt-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
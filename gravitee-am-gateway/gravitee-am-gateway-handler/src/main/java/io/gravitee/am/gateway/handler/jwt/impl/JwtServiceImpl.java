@@ -15,13 +15,16 @@
  */
 package io.gravitee.am.gateway.handler.jwt.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.gravitee.am.common.jwt.JWT;
 import io.gravitee.am.gateway.handler.certificate.CertificateManager;
 import io.gravitee.am.gateway.handler.certificate.CertificateProvider;
 import io.gravitee.am.gateway.handler.jwt.JwtService;
+import io.gravitee.am.gateway.handler.jwt.JwtWorkerExecutor;
 import io.gravitee.am.gateway.handler.oauth2.exception.InvalidTokenException;
 import io.gravitee.am.model.Client;
+import io.jsonwebtoken.JwsHeader;
 import io.reactivex.Single;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +48,9 @@ public class JwtServiceImpl implements JwtService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JwtWorkerExecutor jwtWorkerExecutor;
+
     @Override
     public Single<String> encode(JWT jwt, CertificateProvider certificateProvider) {
         Objects.requireNonNull(certificateProvider, "Certificate provider is required to sign JWT");
@@ -53,17 +59,19 @@ public class JwtServiceImpl implements JwtService {
 
     @Override
     public Single<String> encode(JWT jwt, Client client) {
-        return certificateManager.get(client.getCertificate())
-                .defaultIfEmpty(certificateManager.defaultCertificateProvider())
-                .flatMapSingle(certificateProvider -> encode(jwt, certificateProvider));
+        return encode(jwt, certificateManager.getOrDefault(client.getDomain(), client.getCertificate()));
     }
 
     @Override
     public Single<JWT> decodeAndVerify(String jwt, Client client) {
-        // use findByDomainAndId method because introspect token can be use across domains
-        return certificateManager.findByDomainAndId(client.getDomain(), client.getCertificate())
-                .defaultIfEmpty(certificateManager.defaultCertificateProvider())
-                .flatMapSingle(certificateProvider -> decode(certificateProvider, jwt))
+        // use the client's domain because introspect token can be use across domains
+        // select the key from the kid header first, tokens signed before a certificate rotation still verify
+        // the kid is only looked up among the keys of the client certificate, never the other keys of the domain
+        CertificateProvider certificateProvider = certificateManager.findByCertificateAndKeyId(client.getDomain(), client.getCertificate(), keyId(jwt));
+        if (certificateProvider == null) {
+            certificateProvider = certificateManager.getOrDefault(client.getDomain(), client.getCertificate());
+        }
+        return decode(certificateProvider, jwt)
                 .map(claims -> new JWT(claims));
     }
 
@@ -81,12 +89,29 @@ public class JwtServiceImpl implements JwtService {
 
     }
 
+    private String keyId(String jwt) {
+        try {
+            int index = jwt == null ? -1 : jwt.indexOf('.');
+            if (index <= 0) {
+                return null;
+            }
+            byte[] header = Base64.getUrlDecoder().decode(jwt.substring(0, index));
+            JsonNode keyId = objectMapper.readTree(header).get(JwsHeader.KEY_ID);
+            return keyId == null ? null : keyId.asText();
+        } catch (Exception ex) {
+            // let the parser reject the token
+            logger.debug("Failed to read JWT header", ex);
+            return null;
+        }
+    }
+
     private Single<String> sign(CertificateProvider certificateProvider, JWT jwt) {
-        return Single.just(certificateProvider.getJwtBuilder().sign(jwt));
+        // RSA Signer can be very slow, delegate work to a bounded thread-pool
+        return jwtWorkerExecutor.execute(() -> certificateProvider.getJwtBuilder().sign(jwt));
     }
 
     private Single<Map<String, Object>> decode(CertificateProvider certificateProvider, String payload) {
-        return Single.just(certificateProvider.getJwtParser().parse(payload));
+        return jwtWorkerExecutor.execute(() -> certificateProvider.getJwtParser().parse(payload));
     }
 
 }
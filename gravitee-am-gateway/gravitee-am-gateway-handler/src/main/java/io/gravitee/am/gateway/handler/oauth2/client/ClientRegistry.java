@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.oauth2.client;
+
+import io.gravitee.am.model.Client;
+import io.gravitee.common.service.Service;
+
+/**
+ * Gateway-wide index of the clients of every security domain, maintained by client events.
+ *
+ * Each client is held once in memory and shared by all the security domain handlers
+ * (tokens can be introspected across domains).
+ *
+ * @author GraviteeSource Team
+ */
+public interface ClientRegistry extends Service {
+
+    /**
+     * @param domain the security domain
+     * @param clientId the OAuth 2.0 client_id
+     * @return the client, or <code>null</code> if the client is unknown
+     */
+    Client findByDomainAndClientId(String domain, String clientId);
+
+    /**
+     * @return the number of indexed clients
+     */
+    int size();
+}
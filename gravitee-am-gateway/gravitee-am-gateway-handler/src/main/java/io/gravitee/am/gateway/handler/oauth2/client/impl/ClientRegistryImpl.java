@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.oauth2.client.impl;
+
+import io.gravitee.am.gateway.core.event.ClientEvent;
+import io.gravitee.am.gateway.core.event.DomainEvent;
+import io.gravitee.am.gateway.core.event.SyncEvent;
+import io.gravitee.am.gateway.handler.oauth2.client.ClientRegistry;
+import io.gravitee.am.model.Client;
+import io.gravitee.am.model.Domain;
+import io.gravitee.am.model.common.event.Payload;
+import io.gravitee.am.repository.management.api.ClientRepository;
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventManager;
+import io.gravitee.common.service.AbstractService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class ClientRegistryImpl extends AbstractService implements ClientRegistry, EventListener<ClientEvent, Payload> {
+
+    private final Logger logger = LoggerFactory.getLogger(ClientRegistryImpl.class);
+
+    /**
+     * Clients indexed by domain and then by client_id.
+     * Per-domain indexes are immutable and swapped atomically when a client is deployed, updated or removed.
+     */
+    private ConcurrentMap<String, Map<String, Client>> domainsClients = new ConcurrentHashMap<>();
+
+    /**
+     * Repository plugins are registered once the gateway context has been refreshed.
+     */
+    @Lazy
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private EventManager eventManager;
+
+    /**
+     * Clients found at startup are loaded at once, the clients of a domain are only reloaded when the domain is
+     * (re)deployed after the initial synchronization.
+     */
+    private volatile boolean synchronizedDomains;
+
+    private final EventListener<DomainEvent, Domain> domainEventListener = event -> {
+        if (synchronizedDomains && (event.type() == DomainEvent.DEPLOY || event.type() == DomainEvent.UPDATE)) {
+            reloadClients(event.content().getId());
+        }
+    };
+
+    private final EventListener<SyncEvent, Set<Domain>> syncEventListener = event -> {
+        switch (event.type()) {
+            case SYNCHRONIZED:
+                synchronizedDomains = true;
+                break;
+            case RESYNCHRONIZED:
+                reloadClients();
+                break;
+        }
+    };
+
+    @Override
+    public Client findByDomainAndClientId(String domain, String clientId) {
+        if (domain == null || clientId == null) {
+            return null;
+        }
+        Map<String, Client> clients = domainsClients.get(domain);
+        return (clients != null) ? clients.get(clientId) : null;
+    }
+
+    @Override
+    public int size() {
+        return domainsClients.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+
+        // clients must be available before the first security domain is deployed
+        logger.info("Initializing clients");
+        updateClients(clientRepository.findAll().blockingGet());
+        logger.info("{} clients loaded", size());
+
+        logger.info("Register event listener for client events");
+        eventManager.subscribeForEvents(this, ClientEvent.class);
+        eventManager.subscribeForEvents(domainEventListener, DomainEvent.class);
+        eventManager.subscribeForEvents(syncEventListener, SyncEvent.class);
+    }
+
+    @Override
+    public void onEvent(Event<ClientEvent, Payload> event) {
+        switch (event.type()) {
+            case DEPLOY:
+            case UPDATE:
+                updateClient(event.content().getId(), event.type());
+                break;
+            case UNDEPLOY:
+                removeClient(event.content().getId(), event.content().getDomain());
+                break;
+        }
+    }
+
+    private void updateClient(String clientId, ClientEvent clientEvent) {
+        final String eventType = clientEvent.toString().toLowerCase();
+        logger.info("Gateway has received {} client event for {}", eventType, clientId);
+        clientRepository.findById(clientId)
+                .subscribe(
+                        client -> {
+                            updateClients(Collections.singleton(client));
+                            logger.info("Client {} {}d for domain {}", clientId, eventType, client.getDomain());
+                        },
+                        error -> logger.error("Unable to {} client {}", eventType, clientId, error),
+                        () -> logger.error("No client found with id {}", clientId));
+    }
+
+    private void removeClient(String clientId, String domainId) {
+        logger.info("Gateway has received client event, delete client {} for domain {}", clientId, domainId);
+        domainsClients.computeIfPresent(domainId, (key, existingClients) -> {
+            Map<String, Client> updatedClients = new HashMap<>(existingClients);
+            updatedClients.values().removeIf(client -> client.getId().equals(clientId));
+            return updatedClients.isEmpty() ? null : Collections.unmodifiableMap(updatedClients);
+        });
+    }
+
+    /**
+     * Client events may have been missed while the domain was not deployed.
+     */
+    private void reloadClients(String domainId) {
+        try {
+            Map<String, Client> clients = index(clientRepository.findByDomain(domainId).blockingGet());
+            if (clients == null) {
+                domainsClients.remove(domainId);
+            } else {
+                domainsClients.put(domainId, clients);
+            }
+            logger.info("Clients reloaded for domain {}", domainId);
+        } catch (Exception ex) {
+            logger.error("Unable to reload clients for domain {}", domainId, ex);
+        }
+    }
+
+    /**
+     * Client events may have been missed whatever the domain, reload the whole registry.
+     */
+    private void reloadClients() {
+        try {
+            Map<String, List<Client>> clients = clientRepository.findAll().blockingGet().stream()
+                    .collect(Collectors.groupingBy(Client::getDomain));
+            domainsClients.keySet().retainAll(clients.keySet());
+            clients.forEach((domainId, domainClients) -> domainsClients.put(domainId, index(domainClients)));
+            logger.info("{} clients reloaded", size());
+        } catch (Exception ex) {
+            logger.error("Unable to reload clients", ex);
+        }
+    }
+
+    private static Map<String, Client> index(Collection<Client> clients) {
+        if (clients.isEmpty()) {
+            return null;
+        }
+        Map<String, Client> indexedClients = new HashMap<>(clients.size());
+        clients.forEach(client -> indexedClients.put(client.getClientId(), client));
+        return Collections.unmodifiableMap(indexedClients);
+    }
+
+    private void updateClients(Collection<Client> clients) {
+        clients.stream()
+                .collect(Collectors.groupingBy(Client::getDomain))
+                .forEach((domainId, domainClients) -> domainsClients.compute(domainId, (key, existingClients) -> {
+                    Map<String, Client> updatedClients;
+                    if (existingClients == null) {
+                        updatedClients = new HashMap<>(domainClients.size());
+                    } else {
+                        updatedClients = new HashMap<>(existingClients);
+                        // client_id may have changed, remove previous entries by technical id
+                        Set<String> ids = domainClients.stream().map(Client::getId).collect(Collectors.toSet());
+                        updatedClients.values().removeIf(client -> ids.contains(client.getId()));
+                    }
+                    domainClients.forEach(client -> updatedClients.put(client.getClientId(), client));
+                    return Collections.unmodifiableMap(updatedClients);
+                }));
+    }
+}
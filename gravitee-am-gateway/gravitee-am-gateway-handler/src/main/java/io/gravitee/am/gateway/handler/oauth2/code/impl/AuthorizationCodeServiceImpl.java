@@ -67,15 +67,9 @@ public class AuthorizationCodeServiceImpl implements AuthorizationCodeService {
 
     @Override
     public Maybe<AuthorizationCode> remove(String code, Client client) {
-        return authorizationCodeRepository.findByCode(code)
-                .switchIfEmpty(handleInvalidCode(code))
-                .flatMap(authorizationCode -> {
-                    if (!authorizationCode.getClientId().equals(client.getClientId())) {
-                        return Maybe.error(new InvalidGrantException("The authorization code " + code + " does not belong to the client " + client.getClientId() + "."));
-                    }
-                    return Maybe.just(authorizationCode);
-                })
-                .flatMap(authorizationCode -> authorizationCodeRepository.delete(authorizationCode.getId()));
+        // the code is looked up and deleted in a single atomic operation, concurrent redemptions of the same code cannot both succeed
+        return authorizationCodeRepository.consume(code, client.getClientId())
+                .switchIfEmpty(handleInvalidCode(code));
     }
 
 
@@ -17,6 +17,7 @@ package io.gravitee.am.gateway.handler.oauth2.granter.extensiongrant.impl;
 
 import io.gravitee.am.extensiongrant.api.ExtensionGrantProvider;
 import io.gravitee.am.gateway.core.event.ExtensionGrantEvent;
+import io.gravitee.am.gateway.core.event.UnsubscribableEventManager;
 import io.gravitee.am.gateway.handler.auth.idp.IdentityProviderManager;
 import io.gravitee.am.gateway.handler.oauth2.granter.CompositeTokenGranter;
 import io.gravitee.am.gateway.handler.oauth2.granter.TokenGranter;
@@ -24,6 +25,7 @@ import io.gravitee.am.gateway.handler.oauth2.granter.extensiongrant.ExtensionGra
 import io.gravitee.am.gateway.handler.oauth2.granter.extensiongrant.ExtensionGrantManager;
 import io.gravitee.am.gateway.handler.oauth2.request.TokenRequestResolver;
 import io.gravitee.am.gateway.handler.oauth2.token.TokenService;
+import io.gravitee.am.gateway.service.DomainResourceService;
 import io.gravitee.am.gateway.service.UserService;
 import io.gravitee.am.identityprovider.api.AuthenticationProvider;
 import io.gravitee.am.model.Domain;
@@ -67,6 +69,9 @@ public class ExtensionGrantManagerImpl extends AbstractService implements Extens
     @Autowired
     private ExtensionGrantRepository extensionGrantRepository;
 
+    @Autowired
+    private DomainResourceService domainResourceService;
+
     @Autowired
     private IdentityProviderManager identityProviderManager;
 
@@ -76,7 +81,7 @@ public class ExtensionGrantManagerImpl extends AbstractService implements Extens
     @Override
     public void afterPropertiesSet() {
         logger.info("Initializing extension grants for domain {}", domain.getName());
-        extensionGrantRepository.findByDomain(domain.getId())
+        domainResourceService.findExtensionGrants(domain.getId())
                 .subscribe(
                         extensionGrants -> {
                             extensionGrants.forEach(extensionGrant -> updateExtensionGrantProvider(extensionGrant));
@@ -93,6 +98,16 @@ public class ExtensionGrantManagerImpl extends AbstractService implements Extens
         eventManager.subscribeForEvents(this, ExtensionGrantEvent.class);
     }
 
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+
+        logger.info("Unregister event listener for extension grant events");
+        if (eventManager instanceof UnsubscribableEventManager) {
+            ((UnsubscribableEventManager) eventManager).unsubscribeForEvents(this, ExtensionGrantEvent.class);
+        }
+    }
+
     @Override
     public void onEvent(Event<ExtensionGrantEvent, Payload> event) {
         if (domain.getId().equals(event.content().getDomain())) {
@@ -0,0 +1,269 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.oauth2.introspection;
+
+import io.gravitee.am.common.jwt.JWT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-node cache of the access tokens already verified by the introspection endpoints, keyed by <code>jti</code>.
+ *
+ * An entry lives until the token expires (or the configured time-to-live, whichever comes first) and the cache is
+ * bounded both by its number of entries and by its estimated memory footprint (oldest entries are evicted first).
+ * A cached token is only returned for the exact same compact JWT, a forged token re-using a known <code>jti</code>
+ * is never considered as a hit.
+ *
+ * An invalidated token leaves a revocation mark for the time-to-live so that an introspection which verified the
+ * token before its revocation cannot cache it again afterwards. Invalidation is local to the node: the other nodes
+ * keep serving a revoked stateful token until their own entry expires, i.e. for up to the time-to-live.
+ *
+ * @author GraviteeSource Team
+ */
+public class IntrospectionCache implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntrospectionCache.class);
+
+    /**
+     * Rough size of an entry without the token itself (map node, claims, boxed values)
+     */
+    private static final int ENTRY_OVERHEAD = 512;
+
+    @Value("${oauth2.introspection.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${oauth2.introspection.cache.ttl:60}")
+    private int ttl;
+
+    @Value("${oauth2.introspection.cache.maxSize:10000}")
+    private int maxSize;
+
+    @Value("${oauth2.introspection.cache.maxMemory:32}")
+    private int maxMemory;
+
+    private long maxWeight;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Entries in insertion order, replaced or removed entries are skipped when evicting
+     */
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Revocation marks (jti, end of the mark)
+     */
+    private final ConcurrentMap<String, Long> revocations = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong weight = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param jti the token identifier
+     * @param token the compact JWT being introspected
+     * @return the verified claims of the token, or <code>null</code> if the token is not cached
+     */
+    public JWT get(String jti, String token) {
+        if (!enabled || jti == null) {
+            return null;
+        }
+
+        Entry entry = entries.get(jti);
+        if (entry != null && entry.expireAt <= System.currentTimeMillis()) {
+            if (remove(entry)) {
+                evictions.incrementAndGet();
+            }
+            entry = null;
+        }
+
+        if (entry == null || !entry.token.equals(token)) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return entry.jwt;
+    }
+
+    /**
+     * @param token the compact JWT which has been verified
+     * @param jwt the verified claims of the token
+     */
+    public void put(String token, JWT jwt) {
+        if (!enabled || jwt.getJti() == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long expireAt = Math.min(jwt.getExp() * 1000L, now + ttl * 1000L);
+        if (expireAt <= now || isRevoked(jwt.getJti(), now)) {
+            return;
+        }
+
+        Entry entry = new Entry(jwt.getJti(), token, jwt, expireAt);
+        Entry previous = entries.put(entry.jti, entry);
+        if (previous == null) {
+            size.incrementAndGet();
+        }
+        weight.addAndGet(previous == null ? entry.weight : entry.weight - previous.weight);
+
+        // the token may have been revoked since the first check, the revocation mark is set before the entry is
+        // removed so either the revocation removes this entry or this entry is removed here
+        if (isRevoked(entry.jti, now)) {
+            remove(entry);
+            return;
+        }
+
+        insertionOrder.offer(entry);
+        queued.incrementAndGet();
+        evict();
+    }
+
+    /**
+     * Remove a token from the cache (i.e. the token has been revoked).
+     *
+     * @param jti the token identifier
+     */
+    public void invalidate(String jti) {
+        if (jti == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        revocations.put(jti, now + ttl * 1000L);
+        Entry removed = entries.remove(jti);
+        if (removed != null) {
+            size.decrementAndGet();
+            weight.addAndGet(-removed.weight);
+        }
+
+        if (revocations.size() > maxSize) {
+            revocations.values().removeIf(until -> until <= now);
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return the estimated memory footprint of the cache (in bytes)
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        maxWeight = maxMemory * 1024L * 1024L;
+        logger.info("Initializing introspection cache [enabled: {}, ttl: {}s, max size: {}, max memory: {}MB]", enabled, ttl, maxSize, maxMemory);
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setTtl(int ttl) {
+        this.ttl = ttl;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public void setMaxMemory(int maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    private boolean isRevoked(String jti, long now) {
+        Long until = revocations.get(jti);
+        if (until == null) {
+            return false;
+        }
+        if (until <= now) {
+            revocations.remove(jti, until);
+            return false;
+        }
+        return true;
+    }
+
+    private void evict() {
+        // replaced or removed entries stay queued until they are polled, they are bounded as well
+        while (size.get() > maxSize || weight.get() > maxWeight || queued.get() > 2 * maxSize) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (remove(oldest)) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean remove(Entry entry) {
+        if (!entries.remove(entry.jti, entry)) {
+            return false;
+        }
+        size.decrementAndGet();
+        weight.addAndGet(-entry.weight);
+        return true;
+    }
+
+    private static class Entry {
+
+        private final String jti;
+        private final String token;
+        private final JWT jwt;
+        private final long expireAt;
+        private final int weight;
+
+        Entry(String jti, String token, JWT jwt, long expireAt) {
+            this.jti = jti;
+            this.token = token;
+            this.jwt = jwt;
+            this.expireAt = expireAt;
+            // the claims are roughly the decoded token payload, count the token twice (UTF-16 chars)
+            this.weight = ENTRY_OVERHEAD + 2 * 2 * token.length();
+        }
+    }
+}
@@ -15,8 +15,11 @@
  */
 package io.gravitee.am.gateway.handler.oauth2.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.gravitee.am.common.oidc.ResponseType;
 import io.gravitee.am.common.oidc.Scope;
+import io.gravitee.am.gateway.handler.oauth2.utils.OIDCParameters;
+import io.gravitee.am.gateway.handler.oidc.request.ClaimsRequest;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -32,6 +35,8 @@ public class OAuth2Request extends BaseRequest {
     private String grantType;
     private String responseType;
     private Map<String, Object> context = new HashMap<>();
+    private String claimsRequestValue;
+    private ClaimsRequest claimsRequest;
 
     public boolean isClientOnly() {
         return subject == null;
@@ -97,4 +102,18 @@ public class OAuth2Request extends BaseRequest {
                 && (ResponseType.ID_TOKEN_TOKEN.equals(getResponseType())
                 || ResponseType.CODE_ID_TOKEN_TOKEN.equals(getResponseType()));
     }
+
+    /**
+     * @return the claims request parameter, decoded once for the whole flow (ID Token and access token creation)
+     */
+    @JsonIgnore
+    public ClaimsRequest getClaimsRequest() {
+        String value = getRequestParameters() != null ? getRequestParameters().getFirst(OIDCParameters.CLAIMS) : null;
+        // reference comparison on purpose: decode again only if the parameter has been replaced
+        if (value != claimsRequestValue) {
+            claimsRequest = ClaimsRequest.parse(value);
+            claimsRequestValue = value;
+        }
+        return claimsRequest;
+    }
 }
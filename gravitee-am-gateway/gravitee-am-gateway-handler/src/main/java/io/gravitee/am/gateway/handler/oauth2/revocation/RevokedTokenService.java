@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.oauth2.revocation;
+
+import io.gravitee.am.gateway.handler.oauth2.token.Token;
+import io.gravitee.am.model.Client;
+import io.gravitee.common.service.Service;
+import io.reactivex.Completable;
+
+/**
+ * In-memory deny-list of revoked stateless access tokens, shared by all the security domains of the gateway.
+ *
+ * Entries are kept until the token expires and are synchronized between gateway nodes through the repository.
+ *
+ * @author GraviteeSource Team
+ */
+public interface RevokedTokenService extends Service {
+
+    /**
+     * @param jti the token identifier
+     * @return <code>true</code> if the token has been revoked and has not expired yet
+     */
+    boolean isRevoked(String jti);
+
+    Completable revoke(Token accessToken, Client client);
+}
@@ -17,8 +17,10 @@ package io.gravitee.am.gateway.handler.oauth2.revocation.impl;
 
 import io.gravitee.am.gateway.handler.oauth2.exception.InvalidGrantException;
 import io.gravitee.am.gateway.handler.oauth2.exception.InvalidTokenException;
+import io.gravitee.am.gateway.handler.oauth2.introspection.IntrospectionCache;
 import io.gravitee.am.gateway.handler.oauth2.revocation.RevocationTokenRequest;
 import io.gravitee.am.gateway.handler.oauth2.revocation.RevocationTokenService;
+import io.gravitee.am.gateway.handler.oauth2.revocation.RevokedTokenService;
 import io.gravitee.am.gateway.handler.oauth2.token.TokenService;
 import io.gravitee.am.gateway.handler.oauth2.utils.TokenTypeHint;
 import io.gravitee.am.model.Client;
@@ -39,6 +41,12 @@ public class RevocationTokenServiceImpl implements RevocationTokenService {
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+
+    @Autowired
+    private IntrospectionCache introspectionCache;
+
     @Override
     public Completable revoke(RevocationTokenRequest request, Client client) {
         String token = request.getToken();
@@ -127,6 +135,15 @@ public class RevocationTokenServiceImpl implements RevocationTokenService {
                         return Completable.error(new InvalidGrantException("Cannot revoke tokens issued to other clients."));
                     }
 
+                    // stop serving the token from the introspection cache right away, the revocation mark also keeps
+                    // a concurrent introspection from caching it again
+                    introspectionCache.invalidate(accessToken.getValue());
+
+                    // stateless access tokens are not stored, deny them until they expire
+                    if (accessToken.isStateless()) {
+                        return revokedTokenService.revoke(accessToken, client);
+                    }
+
                     return tokenService.deleteAccessToken(accessToken.getValue());
                 });
     }
@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.oauth2.revocation.impl;
+
+import io.gravitee.am.gateway.handler.oauth2.revocation.RevokedTokenService;
+import io.gravitee.am.gateway.handler.oauth2.token.Token;
+import io.gravitee.am.model.Client;
+import io.gravitee.am.repository.oauth2.api.RevokedTokenRepository;
+import io.gravitee.am.repository.oauth2.model.RevokedToken;
+import io.gravitee.common.service.AbstractService;
+import io.reactivex.Completable;
+import io.vertx.reactivex.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class RevokedTokenServiceImpl extends AbstractService implements RevokedTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevokedTokenServiceImpl.class);
+
+    @Value("${oauth2.revocation.sync.interval:5000}")
+    private long syncInterval;
+
+    /**
+     * Repository plugins are registered once the gateway context has been refreshed.
+     */
+    @Lazy
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private Vertx vertx;
+
+    /**
+     * jti -> expiration time (in milliseconds)
+     */
+    private final ConcurrentMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean syncing = new AtomicBoolean();
+
+    private volatile Date lastSync = new Date(0);
+
+    private long timerId;
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+
+        logger.info("Initializing revoked tokens deny-list [sync interval: {}ms]", syncInterval);
+        sync();
+        timerId = vertx.setPeriodic(syncInterval, id -> sync());
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+
+        vertx.cancelTimer(timerId);
+        revokedTokens.clear();
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        Long expireAt = revokedTokens.get(jti);
+        return expireAt != null && expireAt > System.currentTimeMillis();
+    }
+
+    @Override
+    public Completable revoke(Token accessToken, Client client) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setToken(accessToken.getValue());
+        revokedToken.setDomain(client.getDomain());
+        revokedToken.setClient(accessToken.getClientId());
+        revokedToken.setSubject(accessToken.getSubject());
+        revokedToken.setCreatedAt(new Date());
+        revokedToken.setExpireAt(accessToken.getExpireAt());
+
+        // deny the token locally right away, other nodes will get it at their next synchronization
+        add(revokedToken);
+        return revokedTokenRepository.create(revokedToken).toCompletable();
+    }
+
+    public int size() {
+        return revokedTokens.size();
+    }
+
+    private void sync() {
+        if (!syncing.compareAndSet(false, true)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expireAt -> expireAt <= now);
+
+        // go back one interval to catch up with tokens revoked by slower nodes or during the previous synchronization
+        Date from = new Date(Math.max(0, lastSync.getTime() - syncInterval));
+        Date nextSync = new Date(now);
+        revokedTokenRepository.findByCreatedAtAfter(from)
+                .doFinally(() -> syncing.set(false))
+                .subscribe(
+                        this::add,
+                        error -> logger.error("An error occurs while synchronizing revoked tokens", error),
+                        () -> lastSync = nextSync);
+    }
+
+    private void add(RevokedToken revokedToken) {
+        if (revokedToken.getToken() == null || revokedToken.getExpireAt() == null) {
+            return;
+        }
+        long expireAt = revokedToken.getExpireAt().getTime();
+        if (expireAt > System.currentTimeMillis()) {
+            revokedTokens.put(revokedToken.getToken(), expireAt);
+        }
+    }
+}
@@ -16,6 +16,8 @@
 package io.gravitee.am.gateway.handler.oauth2.scope;
 
 import io.gravitee.am.model.oauth2.Scope;
+import io.gravitee.common.service.Service;
+import io.reactivex.Maybe;
 import io.reactivex.Single;
 
 import java.util.Set;
@@ -24,7 +26,9 @@ import java.util.Set;
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
  * @author GraviteeSource Team
  */
-public interface ScopeService {
+public interface ScopeService extends Service {
 
     Single<Set<Scope>> getAll();
+
+    Maybe<Scope> findByKey(String key);
 }
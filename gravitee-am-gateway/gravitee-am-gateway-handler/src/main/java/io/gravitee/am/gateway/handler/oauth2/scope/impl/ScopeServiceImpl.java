@@ -15,29 +15,130 @@
  */
 package io.gravitee.am.gateway.handler.oauth2.scope.impl;
 
+import io.gravitee.am.gateway.core.event.ScopeEvent;
+import io.gravitee.am.gateway.core.event.UnsubscribableEventManager;
 import io.gravitee.am.gateway.handler.oauth2.scope.ScopeService;
+import io.gravitee.am.gateway.service.DomainResourceService;
 import io.gravitee.am.model.Domain;
+import io.gravitee.am.model.common.event.Payload;
 import io.gravitee.am.model.oauth2.Scope;
 import io.gravitee.am.repository.management.api.ScopeRepository;
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventManager;
+import io.gravitee.common.service.AbstractService;
+import io.reactivex.Maybe;
 import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
  * @author GraviteeSource Team
  */
-public class ScopeServiceImpl implements ScopeService {
+public class ScopeServiceImpl extends AbstractService implements ScopeService, InitializingBean, EventListener<ScopeEvent, Payload> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScopeServiceImpl.class);
 
     @Autowired
     private ScopeRepository scopeRepository;
 
+    @Autowired
+    private DomainResourceService domainResourceService;
+
     @Autowired
     private Domain domain;
 
+    @Autowired
+    private EventManager eventManager;
+
+    /**
+     * Domain scopes indexed by their (lower-cased) key.
+     */
+    private ConcurrentMap<String, Scope> scopes = new ConcurrentHashMap<>();
+
     @Override
     public Single<Set<Scope>> getAll() {
-        return scopeRepository.findByDomain(domain.getId());
+        return Single.just(new HashSet<>(scopes.values()));
+    }
+
+    @Override
+    public Maybe<Scope> findByKey(String key) {
+        Scope scope = (key != null) ? scopes.get(key.toLowerCase()) : null;
+        return (scope != null) ? Maybe.just(scope) : Maybe.empty();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        logger.info("Initializing scopes for domain {}", domain.getName());
+        domainResourceService.findScopes(domain.getId())
+                .subscribe(
+                        domainScopes -> {
+                            domainScopes.forEach(this::updateScope);
+                            logger.info("Scopes loaded for domain {}", domain.getName());
+                        },
+                        error -> logger.error("Unable to initialize scopes for domain {}", domain.getName(), error));
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+
+        logger.info("Register event listener for scope events");
+        eventManager.subscribeForEvents(this, ScopeEvent.class);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+
+        logger.info("Unregister event listener for scope events");
+        if (eventManager instanceof UnsubscribableEventManager) {
+            ((UnsubscribableEventManager) eventManager).unsubscribeForEvents(this, ScopeEvent.class);
+        }
+    }
+
+    @Override
+    public void onEvent(Event<ScopeEvent, Payload> event) {
+        if (domain.getId().equals(event.content().getDomain())) {
+            switch (event.type()) {
+                case DEPLOY:
+                case UPDATE:
+                    updateScope(event.content().getId(), event.type());
+                    break;
+                case UNDEPLOY:
+                    removeScope(event.content().getId());
+                    break;
+            }
+        }
+    }
+
+    private void updateScope(String scopeId, ScopeEvent scopeEvent) {
+        final String eventType = scopeEvent.toString().toLowerCase();
+        logger.info("Domain {} has received {} scope event for {}", domain.getName(), eventType, scopeId);
+        scopeRepository.findById(scopeId)
+                .subscribe(
+                        scope -> {
+                            updateScope(scope);
+                            logger.info("Scope {} {}d for domain {}", scopeId, eventType, domain.getName());
+                        },
+                        error -> logger.error("Unable to {} scope for domain {}", eventType, domain.getName(), error),
+                        () -> logger.error("No scope found with id {}", scopeId));
+    }
+
+    private void removeScope(String scopeId) {
+        logger.info("Domain {} has received scope event, delete scope {}", domain.getName(), scopeId);
+        scopes.values().removeIf(scope -> scopeId.equals(scope.getId()));
+    }
+
+    private void updateScope(Scope scope) {
+        scopes.put(scope.getKey().toLowerCase(), scope);
     }
 }
@@ -15,6 +15,10 @@
  */
 package io.gravitee.am.gateway.handler.oauth2.token;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.gravitee.am.common.jwt.Claims;
+import io.gravitee.am.gateway.handler.oidc.request.ClaimsRequest;
+
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -40,6 +44,9 @@ public abstract class Token {
     private Map<String, Object> additionalInformation = new HashMap<>();
     private Date createdAt;
     private Date expireAt;
+    private Object claimsRequestValue;
+    private ClaimsRequest claimsRequest;
+    private boolean stateless;
 
     public static final String BEARER_TYPE = "Bearer";
 
@@ -158,4 +165,30 @@ public abstract class Token {
     public void setExpireAt(Date expireAt) {
         this.expireAt = expireAt;
     }
+
+    /**
+     * @return <code>true</code> if the token was issued without being stored in the token store
+     */
+    @JsonIgnore
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    public void setStateless(boolean stateless) {
+        this.stateless = stateless;
+    }
+
+    /**
+     * @return the claims request parameter carried by the token, decoded once
+     */
+    @JsonIgnore
+    public ClaimsRequest getClaimsRequest() {
+        Object value = additionalInformation != null ? additionalInformation.get(Claims.claims) : null;
+        // reference comparison on purpose: decode again only if the parameter has been replaced
+        if (value != claimsRequestValue) {
+            claimsRequest = value instanceof String ? ClaimsRequest.parse((String) value) : null;
+            claimsRequestValue = value;
+        }
+        return claimsRequest;
+    }
 }
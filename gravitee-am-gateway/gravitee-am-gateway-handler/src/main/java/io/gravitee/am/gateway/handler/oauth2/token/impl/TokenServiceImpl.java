@@ -22,8 +22,10 @@ import io.gravitee.am.gateway.handler.jwt.JwtService;
 import io.gravitee.am.gateway.handler.oauth2.client.ClientService;
 import io.gravitee.am.gateway.handler.oauth2.exception.InvalidGrantException;
 import io.gravitee.am.gateway.handler.oauth2.exception.InvalidTokenException;
+import io.gravitee.am.gateway.handler.oauth2.introspection.IntrospectionCache;
 import io.gravitee.am.gateway.handler.oauth2.request.OAuth2Request;
 import io.gravitee.am.gateway.handler.oauth2.request.TokenRequest;
+import io.gravitee.am.gateway.handler.oauth2.revocation.RevokedTokenService;
 import io.gravitee.am.gateway.handler.oauth2.token.Token;
 import io.gravitee.am.gateway.handler.oauth2.token.TokenEnhancer;
 import io.gravitee.am.gateway.handler.oauth2.token.TokenService;
@@ -73,6 +75,12 @@ public class TokenServiceImpl implements TokenService {
     @Autowired
     private ClientService clientService;
 
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+
+    @Autowired
+    private IntrospectionCache introspectionCache;
+
     @Override
     public Maybe<Token> getAccessToken(String token, Client client) {
         return jwtService.decodeAndVerify(token, client)
@@ -82,18 +90,19 @@ public class TokenServiceImpl implements TokenService {
                     }
                     return Single.error(ex);
                 })
-                .flatMapMaybe(jwt -> accessTokenRepository.findByToken(jwt.getJti()).map(accessToken -> convertAccessToken(jwt)));
+                .flatMapMaybe(jwt -> {
+                    // stateless access tokens are not stored, the signature and the expiration date are enough
+                    // (the token itself tells how it was issued, the client setting may have changed since)
+                    if (jwt.isStateless()) {
+                        return revokedTokenService.isRevoked(jwt.getJti()) ? Maybe.empty() : Maybe.just(convertAccessToken(jwt));
+                    }
+                    return accessTokenRepository.findByToken(jwt.getJti()).map(accessToken -> convertAccessToken(jwt));
+                });
     }
 
     @Override
     public Maybe<Token> getRefreshToken(String refreshToken, Client client) {
-        return jwtService.decodeAndVerify(refreshToken, client)
-                .onErrorResumeNext(ex -> {
-                    if (ex instanceof JwtException) {
-                        return Single.error(new InvalidTokenException(ex.getMessage(), ex));
-                    }
-                    return Single.error(ex);
-                })
+        return decodeAndVerifyRefreshToken(refreshToken, client)
                 .flatMapMaybe(jwt -> refreshTokenRepository.findByToken(jwt.getJti()).map(refreshToken1 -> convertRefreshToken(jwt)));
     }
 
@@ -101,9 +110,17 @@ public class TokenServiceImpl implements TokenService {
     public Maybe<Token> introspect(String token) {
         // any client can introspect a token, we first need to decode the token to get the client's certificate to verify the token
         return jwtService.decode(token)
-                .flatMapMaybe(jwt -> clientService.findByDomainAndClientId(jwt.getDomain(), jwt.getAud()))
-                .switchIfEmpty(Maybe.error(new InvalidTokenException("Invalid or unknown client for this token")))
-                .flatMap(client -> getAccessToken(token, client));
+                .flatMapMaybe(jwt -> {
+                    // token already verified, no need to check its signature or to look for it in the token store
+                    JWT cachedJwt = introspectionCache.get(jwt.getJti(), token);
+                    if (cachedJwt != null && !revokedTokenService.isRevoked(cachedJwt.getJti())) {
+                        return Maybe.just(convertAccessToken(cachedJwt));
+                    }
+                    return clientService.findByDomainAndClientId(jwt.getDomain(), jwt.getAud())
+                            .switchIfEmpty(Maybe.error(new InvalidTokenException("Invalid or unknown client for this token")))
+                            .flatMap(client -> getAccessToken(token, client))
+                            .doOnSuccess(accessToken -> introspectionCache.put(token, jwt));
+                });
     }
 
     @Override
@@ -129,8 +146,8 @@ public class TokenServiceImpl implements TokenService {
     public Single<Token> refresh(String refreshToken, TokenRequest tokenRequest, Client client) {
         // invalid_grant : The provided authorization grant (e.g., authorization code, resource owner credentials) or refresh token is
         // invalid, expired, revoked or was issued to another client.
-        return getRefreshToken(refreshToken, client)
-                .switchIfEmpty(Single.error(new InvalidGrantException("Refresh token is invalid")))
+        return decodeAndVerifyRefreshToken(refreshToken, client)
+                .map(this::convertRefreshToken)
                 .flatMap(refreshToken1 -> {
                     if (refreshToken1.getExpireAt().before(new Date())) {
                         throw new InvalidGrantException("Refresh token is expired");
@@ -139,9 +156,10 @@ public class TokenServiceImpl implements TokenService {
                         throw new InvalidGrantException("Refresh token was issued to another client");
                     }
 
-                    // refresh token is used only once
-                    return refreshTokenRepository.delete(refreshToken1.getValue())
-                            .andThen(Single.just(refreshToken1));
+                    // refresh token is used only once, it is looked up and deleted in a single atomic operation
+                    return refreshTokenRepository.consume(refreshToken1.getValue())
+                            .switchIfEmpty(Single.error(new InvalidGrantException("Refresh token is invalid")))
+                            .map(consumedRefreshToken -> refreshToken1);
                 });
     }
 
@@ -184,6 +202,10 @@ public class TokenServiceImpl implements TokenService {
         if (refreshToken != null) {
             accessToken.setRefreshToken(refreshToken);
         }
+        // stateless access tokens are only encoded and never stored
+        if (client.isStatelessAccessTokens()) {
+            return Single.just(accessToken);
+        }
         return accessTokenRepository.create(accessToken);
     }
 
@@ -214,7 +236,11 @@ public class TokenServiceImpl implements TokenService {
      * @return access token response format
      */
     private Single<Token> convert(io.gravitee.am.repository.oauth2.model.AccessToken accessToken, io.gravitee.am.repository.oauth2.model.RefreshToken refreshToken, Client client, OAuth2Request oAuth2Request) {
-        return jwtService.encode(convert(accessToken, oAuth2Request), client)
+        JWT accessTokenJwt = convert(accessToken, oAuth2Request);
+        if (client.isStatelessAccessTokens()) {
+            accessTokenJwt.setStateless(true);
+        }
+        return jwtService.encode(accessTokenJwt, client)
                 .flatMap(encodedAccessToken -> {
                     if (refreshToken != null) {
                         return jwtService.encode(convert(refreshToken, oAuth2Request), client)
@@ -222,7 +248,7 @@ public class TokenServiceImpl implements TokenService {
                     } else {
                         return Single.just(convert(accessToken, encodedAccessToken, null, oAuth2Request));
                     }
-                }); // RSA Signer can be very slow, delegate work to a bounded thread-pool
+                });
     }
 
     /**
@@ -263,6 +289,19 @@ public class TokenServiceImpl implements TokenService {
         return convert(accessToken, jwt);
     }
 
+    /**
+     * Decode and verify a refresh token, JWT errors are reported as invalid token errors
+     */
+    private Single<JWT> decodeAndVerifyRefreshToken(String refreshToken, Client client) {
+        return jwtService.decodeAndVerify(refreshToken, client)
+                .onErrorResumeNext(ex -> {
+                    if (ex instanceof JwtException) {
+                        return Single.error(new InvalidTokenException(ex.getMessage(), ex));
+                    }
+                    return Single.error(ex);
+                });
+    }
+
     /**
      * Convert JWT object to Refresh Token
      * @param jwt jwt to convert
@@ -280,6 +319,7 @@ public class TokenServiceImpl implements TokenService {
         token.setCreatedAt(new Date(jwt.getIat() * 1000l));
         token.setExpireAt(new Date(jwt.getExp() * 1000l));
         token.setExpiresIn(token.getExpireAt() != null ? Long.valueOf((token.getExpireAt().getTime() - System.currentTimeMillis()) / 1000L).intValue() : 0);
+        token.setStateless(jwt.isStateless());
 
         // set add additional information (currently only claims parameter)
         if (jwt.getClaimsRequestParameter() != null) {
@@ -16,10 +16,13 @@
 package io.gravitee.am.gateway.handler.oauth2.token.jackson;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import io.gravitee.am.gateway.handler.oauth2.token.Token;
 import io.gravitee.am.gateway.handler.oauth2.token.impl.AccessToken;
+import io.gravitee.am.gateway.handler.oauth2.utils.OAuth2Constants;
 
 import java.io.IOException;
 import java.util.Map;
@@ -30,29 +33,58 @@ import java.util.Map;
  */
 public class AccessTokenSerializer extends StdSerializer<AccessToken> {
 
+    private static final SerializableString ACCESS_TOKEN = new SerializedString(Token.ACCESS_TOKEN);
+    private static final SerializableString TOKEN_TYPE = new SerializedString(Token.TOKEN_TYPE);
+    private static final SerializableString EXPIRES_IN = new SerializedString(Token.EXPIRES_IN);
+    private static final SerializableString SCOPE = new SerializedString(Token.SCOPE);
+    private static final SerializableString REFRESH_TOKEN = new SerializedString(Token.REFRESH_TOKEN);
+    private static final SerializableString ID_TOKEN = new SerializedString(OAuth2Constants.ID_TOKEN);
+
     public AccessTokenSerializer() {
         super(AccessToken.class);
     }
 
     @Override
     public void serialize(AccessToken token, JsonGenerator jsonGenerator, SerializerProvider provider) throws IOException {
+        write(token, jsonGenerator);
+    }
+
+    /**
+     * Write the token response with pre-encoded field names.
+     *
+     * @param token the token
+     * @param jsonGenerator the JSON generator, which must have a codec if the token carries additional information
+     * @throws IOException if the token cannot be written
+     */
+    public static void write(Token token, JsonGenerator jsonGenerator) throws IOException {
         jsonGenerator.writeStartObject();
-        jsonGenerator.writeStringField(Token.ACCESS_TOKEN, token.getValue());
-        jsonGenerator.writeStringField(Token.TOKEN_TYPE, token.getTokenType());
-        jsonGenerator.writeNumberField(Token.EXPIRES_IN, token.getExpiresIn());
+        jsonGenerator.writeFieldName(ACCESS_TOKEN);
+        jsonGenerator.writeString(token.getValue());
+        jsonGenerator.writeFieldName(TOKEN_TYPE);
+        jsonGenerator.writeString(token.getTokenType());
+        jsonGenerator.writeFieldName(EXPIRES_IN);
+        jsonGenerator.writeNumber(token.getExpiresIn());
 
         if (token.getScope() != null) {
-            jsonGenerator.writeStringField(Token.SCOPE, token.getScope());
+            jsonGenerator.writeFieldName(SCOPE);
+            jsonGenerator.writeString(token.getScope());
         }
 
         if (token.getRefreshToken() != null) {
-            jsonGenerator.writeStringField(Token.REFRESH_TOKEN, token.getRefreshToken());
+            jsonGenerator.writeFieldName(REFRESH_TOKEN);
+            jsonGenerator.writeString(token.getRefreshToken());
         }
 
         if (token.getAdditionalInformation() != null) {
             Map<String, Object> additionalInformation = token.getAdditionalInformation();
-            for (String key : additionalInformation.keySet()) {
-                jsonGenerator.writeObjectField(key, additionalInformation.get(key));
+            for (Map.Entry<String, Object> entry : additionalInformation.entrySet()) {
+                Object value = entry.getValue();
+                if (OAuth2Constants.ID_TOKEN.equals(entry.getKey()) && value instanceof String) {
+                    jsonGenerator.writeFieldName(ID_TOKEN);
+                    jsonGenerator.writeString((String) value);
+                } else {
+                    jsonGenerator.writeObjectField(entry.getKey(), value);
+                }
             }
         }
         jsonGenerator.writeEndObject();
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.oidc.claims;
+
+import io.gravitee.am.common.oidc.Scope;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Claim names requested by a set of OpenID Connect scope values.
+ *
+ * See <a href="https://openid.net/specs/openid-connect-core-1_0.html#ScopeClaims">5.4. Requesting Claims using Scope Values</a>
+ *
+ * The mapping from scope values to claims does not depend on the client: plans are resolved once per scope set and
+ * shared, so that assembling the claims of an ID Token or a UserInfo response is a loop over a fixed array.
+ *
+ * @author GraviteeSource Team
+ */
+public final class ClaimsPlan {
+
+    private static final int MAX_CACHED_PLANS = 1000;
+    private static final ClaimsPlan EMPTY = new ClaimsPlan(new String[0]);
+    private static final Map<String, Scope> SCOPES = new HashMap<>();
+    private static final ConcurrentMap<Set<String>, ClaimsPlan> plansByScopes = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, ClaimsPlan> plansByScopeParameter = new ConcurrentHashMap<>();
+
+    static {
+        for (Scope scope : Scope.values()) {
+            SCOPES.put(scope.name(), scope);
+        }
+    }
+
+    private final String[] claims;
+
+    private ClaimsPlan(String[] claims) {
+        this.claims = claims;
+    }
+
+    /**
+     * @param scopes the scope values
+     * @return the claims plan of the scope values
+     */
+    public static ClaimsPlan of(Set<String> scopes) {
+        if (scopes == null || scopes.isEmpty()) {
+            return EMPTY;
+        }
+        ClaimsPlan plan = plansByScopes.get(scopes);
+        if (plan == null) {
+            plan = resolve(scopes);
+            if (plansByScopes.size() < MAX_CACHED_PLANS) {
+                plansByScopes.putIfAbsent(Collections.unmodifiableSet(new HashSet<>(scopes)), plan);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @param scope the space-delimited scope values (as carried by an access token)
+     * @return the claims plan of the scope values
+     */
+    public static ClaimsPlan of(String scope) {
+        if (scope == null || scope.isEmpty()) {
+            return EMPTY;
+        }
+        ClaimsPlan plan = plansByScopeParameter.get(scope);
+        if (plan == null) {
+            Set<String> scopes = new LinkedHashSet<>();
+            Collections.addAll(scopes, scope.split("\\s+"));
+            plan = resolve(scopes);
+            if (plansByScopeParameter.size() < MAX_CACHED_PLANS) {
+                plansByScopeParameter.putIfAbsent(scope, plan);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @return <code>true</code> if no OpenID Connect scope value requesting claims is part of the scope set
+     */
+    public boolean isEmpty() {
+        return claims.length == 0;
+    }
+
+    /**
+     * Copy the planned claims available in the user claims to the requested claims, if not already requested.
+     *
+     * @param userClaims user full claims list
+     * @param requestedClaims requested claims
+     */
+    public void apply(Map<String, Object> userClaims, Map<String, Object> requestedClaims) {
+        for (String claim : claims) {
+            Object value = userClaims.get(claim);
+            if (value != null || userClaims.containsKey(claim)) {
+                requestedClaims.putIfAbsent(claim, value);
+            }
+        }
+    }
+
+    String[] getClaims() {
+        return claims;
+    }
+
+    private static ClaimsPlan resolve(Set<String> scopes) {
+        Set<String> claims = new LinkedHashSet<>();
+        for (String scopeValue : scopes) {
+            Scope scope = SCOPES.get(scopeValue.toUpperCase());
+            if (scope != null) {
+                claims.addAll(scope.getClaims());
+            }
+        }
+        return claims.isEmpty() ? EMPTY : new ClaimsPlan(claims.toArray(new String[0]));
+    }
+}
@@ -15,9 +15,7 @@
  */
 package io.gravitee.am.gateway.handler.oidc.idtoken.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.gravitee.am.certificate.api.CertificateMetadata;
-import io.gravitee.am.common.oidc.Scope;
 import io.gravitee.am.common.oidc.idtoken.Claims;
 import io.gravitee.am.common.oidc.idtoken.IDToken;
 import io.gravitee.am.gateway.handler.jwt.JwtService;
@@ -25,6 +23,7 @@ import io.gravitee.am.gateway.handler.certificate.CertificateManager;
 import io.gravitee.am.gateway.handler.oauth2.request.OAuth2Request;
 import io.gravitee.am.gateway.handler.oauth2.utils.OIDCParameters;
 import io.gravitee.am.gateway.handler.oidc.idtoken.IDTokenService;
+import io.gravitee.am.gateway.handler.oidc.claims.ClaimsPlan;
 import io.gravitee.am.gateway.handler.oidc.idtoken.IDTokenUtils;
 import io.gravitee.am.gateway.handler.oidc.request.ClaimsRequest;
 import io.gravitee.am.model.Client;
@@ -35,7 +34,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
@@ -55,9 +53,6 @@ public class IDTokenServiceImpl implements IDTokenService {
     @Autowired
     private JwtService jwtService;
 
-    @Autowired
-    private ObjectMapper objectMapper;
-
     @Override
     public Single<String> create(OAuth2Request oAuth2Request, Client client, User user) {
         IDToken idToken = new IDToken();
@@ -92,13 +87,15 @@ public class IDTokenServiceImpl implements IDTokenService {
             boolean requestForSpecificClaims = false;
             // processing claims list
             // 1. process the request using scope values
-            if (oAuth2Request.getScopes() != null) {
-                requestForSpecificClaims = processScopesRequest(oAuth2Request.getScopes(), userAdditionalInformation, idToken);
+            ClaimsPlan claimsPlan = ClaimsPlan.of(oAuth2Request.getScopes());
+            if (!claimsPlan.isEmpty()) {
+                claimsPlan.apply(userAdditionalInformation, idToken);
+                requestForSpecificClaims = true;
             }
             MultiValueMap<String, String> requestedParameters = oAuth2Request.getRequestParameters();
             // 2. process the request using the claims values (If present, the listed Claims are being requested to be added to the default Claims in the ID Token)
             if (requestedParameters != null && requestedParameters.getFirst(OIDCParameters.CLAIMS) != null) {
-                requestForSpecificClaims = processClaimsRequest(requestedParameters.getFirst(OIDCParameters.CLAIMS), userAdditionalInformation, idToken);
+                requestForSpecificClaims = processClaimsRequest(oAuth2Request.getClaimsRequest(), userAdditionalInformation, idToken);
             // 3. If not present, check if the client has enabled the ID token mapping claims.
             } else if (client.getIdTokenCustomClaims() != null && !client.getIdTokenCustomClaims().isEmpty()) {
                 client.getIdTokenCustomClaims().forEach((key, value) -> {
@@ -135,63 +132,21 @@ public class IDTokenServiceImpl implements IDTokenService {
                 });
     }
 
-    public void setObjectMapper(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
-    }
-
-    /**
-     * For OpenID Connect, scopes can be used to request that specific sets of information be made available as Claim Values.
-     *
-     * @param scopes scopes request parameter
-     * @param userClaims user full claims list
-     * @param requestedClaims requested claims
-     * @return true if OpenID Connect scopes have been found
-     */
-    private boolean processScopesRequest(Set<String> scopes, final Map<String, Object> userClaims, Map<String, Object> requestedClaims) {
-        // get requested scopes claims
-        final List<String> scopesClaims = scopes.stream()
-                .map(scope -> scope.toUpperCase())
-                .filter(scope -> Scope.exists(scope) && !Scope.valueOf(scope).getClaims().isEmpty())
-                .map(scope -> Scope.valueOf(scope))
-                .map(scope -> scope.getClaims())
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
-
-        // no OpenID Connect scopes requested continue
-        if (scopesClaims.isEmpty()) {
-            return false;
-        }
-
-        // return specific available sets of information made by scope value request
-        scopesClaims.forEach(scopeClaim -> {
-            if (userClaims.containsKey(scopeClaim)) {
-                requestedClaims.putIfAbsent(scopeClaim, userClaims.get(scopeClaim));
-            }
-        });
-
-        return true;
-    }
-
     /**
      * Handle claims request previously made during the authorization request
-     * @param claimsValue claims request parameter
+     * @param claimsRequest claims request parameter
      * @param userClaims user full claims list
      * @param idToken requested claims
      * @return true if id_token claims have been found
      */
-    private boolean processClaimsRequest(String claimsValue, final Map<String, Object> userClaims, IDToken idToken) {
-        try {
-            ClaimsRequest claimsRequest = objectMapper.readValue(claimsValue, ClaimsRequest.class);
-            if (claimsRequest != null && claimsRequest.getIdTokenClaims() != null) {
-                claimsRequest.getIdTokenClaims().forEach((key, value) -> {
-                    if (userClaims.containsKey(key)) {
-                        idToken.addAdditionalClaim(key, userClaims.get(key));
-                    }
-                });
-                return true;
-            }
-        } catch (Exception e) {
-            // Any members used that are not understood MUST be ignored.
+    private boolean processClaimsRequest(ClaimsRequest claimsRequest, final Map<String, Object> userClaims, IDToken idToken) {
+        if (claimsRequest != null && claimsRequest.getIdTokenClaims() != null) {
+            claimsRequest.getIdTokenClaims().forEach((key, value) -> {
+                if (userClaims.containsKey(key)) {
+                    idToken.addAdditionalClaim(key, userClaims.get(key));
+                }
+            });
+            return true;
         }
         return false;
     }
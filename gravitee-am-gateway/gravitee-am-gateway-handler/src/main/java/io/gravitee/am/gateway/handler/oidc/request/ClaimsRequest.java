@@ -17,6 +17,7 @@ package io.gravitee.am.gateway.handler.oidc.request;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.vertx.core.json.Json;
 
 import java.util.Map;
 
@@ -83,6 +84,23 @@ public class ClaimsRequest {
         this.idTokenClaims = idTokenClaims;
     }
 
+    /**
+     * Decode a claims request previously resolved from the claims request parameter.
+     *
+     * @param claimsValue the JSON claims request
+     * @return the claims request, or <code>null</code> if it cannot be decoded (any members used that are not understood MUST be ignored)
+     */
+    public static ClaimsRequest parse(String claimsValue) {
+        if (claimsValue == null) {
+            return null;
+        }
+        try {
+            return Json.decodeValue(claimsValue, ClaimsRequest.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public static class Essential {
         private boolean essential;
 
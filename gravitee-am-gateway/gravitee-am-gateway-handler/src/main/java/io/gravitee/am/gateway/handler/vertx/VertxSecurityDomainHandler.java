@@ -33,9 +33,14 @@ import io.vertx.reactivex.ext.web.Router;
 import io.vertx.reactivex.ext.web.RoutingContext;
 import io.vertx.reactivex.ext.web.handler.*;
 import io.vertx.reactivex.ext.web.sstore.LocalSessionStore;
+import io.vertx.reactivex.ext.web.templ.ThymeleafTemplateEngine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
@@ -70,10 +75,18 @@ public class VertxSecurityDomainHandler {
     @Autowired
     private Environment environment;
 
+    @Autowired
+    private ThymeleafTemplateEngine thymeleafTemplateEngine;
+
+    private final AtomicInteger inflightRequests = new AtomicInteger();
+
     public Router create() {
         // Create the security domain router
         final Router router = Router.router(vertx);
 
+        // in-flight requests handler, a replaced handler is only destroyed once its requests have been served
+        router.route().handler(this::inflightRequestHandler);
+
         // failure handler
         Handler<RoutingContext> authorizationEndpointFailureHandler = new AuthorizationEndpointFailureHandler(domain);
         router.route("/login").failureHandler(authorizationEndpointFailureHandler);
@@ -111,6 +124,38 @@ public class VertxSecurityDomainHandler {
         return '/' + domain.getPath();
     }
 
+    public Domain getDomain() {
+        return domain;
+    }
+
+    /**
+     * @return the number of requests currently processed by the routers of this handler
+     */
+    public int getInflightRequests() {
+        return inflightRequests.get();
+    }
+
+    /**
+     * Apply the metadata (name, path, login form, ...) of an updated domain to this handler, keeping its services.
+     * Routers created after this call use the new metadata.
+     *
+     * @param updatedDomain the updated domain
+     */
+    public void update(Domain updatedDomain) {
+        boolean loginFormChanged = !Objects.equals(loginFormContent(domain), loginFormContent(updatedDomain));
+
+        domain.setName(updatedDomain.getName());
+        domain.setDescription(updatedDomain.getDescription());
+        domain.setPath(updatedDomain.getPath());
+        domain.setLoginForm(updatedDomain.getLoginForm());
+        domain.setUpdatedAt(updatedDomain.getUpdatedAt());
+        domain.setLastEvent(updatedDomain.getLastEvent());
+
+        if (loginFormChanged && thymeleafTemplateEngine != null) {
+            thymeleafTemplateEngine.getDelegate().getThymeleafTemplateEngine().clearTemplateCache();
+        }
+    }
+
     public void setVertx(Vertx vertx) {
         this.vertx = vertx;
     }
@@ -119,6 +164,24 @@ public class VertxSecurityDomainHandler {
         this.domain = domain;
     }
 
+    private void inflightRequestHandler(RoutingContext context) {
+        inflightRequests.incrementAndGet();
+        // a request ends either with its response or with the connection
+        AtomicBoolean done = new AtomicBoolean();
+        Handler<Void> endHandler = v -> {
+            if (done.compareAndSet(false, true)) {
+                inflightRequests.decrementAndGet();
+            }
+        };
+        context.addBodyEndHandler(endHandler);
+        context.response().closeHandler(endHandler);
+        context.next();
+    }
+
+    private static String loginFormContent(Domain domain) {
+        return (domain.getLoginForm() != null && domain.getLoginForm().isEnabled()) ? domain.getLoginForm().getContent() : null;
+    }
+
     private void staticHandler(Router router) {
         StaticHandler staticHandler = StaticHandler.create();
         router.route().handler(staticHandler);
@@ -23,6 +23,7 @@ import io.gravitee.am.model.Client;
 import io.gravitee.am.model.oauth2.Scope;
 import io.gravitee.common.http.HttpHeaders;
 import io.gravitee.common.http.MediaType;
+import io.reactivex.Observable;
 import io.vertx.core.Handler;
 import io.vertx.reactivex.ext.web.RoutingContext;
 import io.vertx.reactivex.ext.web.templ.ThymeleafTemplateEngine;
@@ -58,20 +59,11 @@ public class UserApprovalEndpointHandler implements Handler<RoutingContext>  {
 
         clientService.findByClientId(authorizationRequest.getClientId())
                 .toSingle()
-                .zipWith(scopeService.getAll(), (client, domainScopes) -> {
-                    // fetch scope information (name + description) from the authorization request
-                    Set<Scope> requestedScopes = new HashSet<>();
-                    for (String requestScope : authorizationRequest.getScopes()) {
-                        Scope requestedScope = domainScopes
-                                .stream()
-                                .filter(scope -> scope.getKey().equalsIgnoreCase(requestScope))
-                                .findAny()
-                                .orElse(new Scope(requestScope));
-
-                        requestedScopes.add(requestedScope);
-                    }
-                    return new ApprovalData(client, requestedScopes);
-                })
+                .zipWith(Observable.fromIterable(authorizationRequest.getScopes())
+                        // fetch scope information (name + description) from the authorization request
+                        .flatMapSingle(requestScope -> scopeService.findByKey(requestScope).toSingle(new Scope(requestScope)))
+                        .toList(),
+                        (client, requestedScopes) -> new ApprovalData(client, new HashSet<>(requestedScopes)))
                 .subscribe(approvalData -> {
                         routingContext.put("client", approvalData.getClient());
                         routingContext.put("scopes", approvalData.getScopes());
@@ -16,22 +16,22 @@
 package io.gravitee.am.gateway.handler.vertx.handler.oidc.endpoint;
 
 import io.gravitee.am.common.jwt.Claims;
-import io.gravitee.am.common.oidc.Scope;
 import io.gravitee.am.common.oidc.StandardClaims;
 import io.gravitee.am.gateway.handler.oauth2.exception.InvalidRequestException;
 import io.gravitee.am.gateway.handler.oauth2.exception.InvalidTokenException;
 import io.gravitee.am.gateway.handler.oauth2.token.Token;
 import io.gravitee.am.gateway.handler.oauth2.token.impl.AccessToken;
+import io.gravitee.am.gateway.handler.oidc.claims.ClaimsPlan;
 import io.gravitee.am.gateway.handler.oidc.request.ClaimsRequest;
+import io.gravitee.am.gateway.handler.vertx.utils.JsonResponseWriter;
 import io.gravitee.am.gateway.service.UserService;
 import io.gravitee.common.http.HttpHeaders;
 import io.gravitee.common.http.MediaType;
 import io.vertx.core.Handler;
-import io.vertx.core.json.Json;
 import io.vertx.reactivex.ext.web.RoutingContext;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * The UserInfo Endpoint is an OAuth 2.0 Protected Resource that returns Claims about the authenticated End-User.
@@ -79,15 +79,16 @@ public class UserInfoEndpoint implements Handler<RoutingContext> {
                     boolean requestForSpecificClaims = false;
                     // processing claims list
                     // 1. process the request using scope values
-                    if (accessToken.getScope() != null) {
-                        final Set<String> scopes = new HashSet(Arrays.asList(accessToken.getScope().split("\\s+")));
-                        requestForSpecificClaims = processScopesRequest(scopes, userClaims, requestedClaims);
+                    ClaimsPlan claimsPlan = ClaimsPlan.of(accessToken.getScope());
+                    if (!claimsPlan.isEmpty()) {
+                        claimsPlan.apply(userClaims, requestedClaims);
+                        requestForSpecificClaims = true;
                     }
                     // 2. process the request using the claims values (If present, the listed Claims are being requested to be added to any Claims that are being requested using scope values.
                     // If not present, the Claims being requested from the UserInfo Endpoint are only those requested using scope values.)
                     Map<String, Object> requestedParameters = accessToken.getAdditionalInformation();
                     if (requestedParameters != null && requestedParameters.get(Claims.claims) != null) {
-                        requestForSpecificClaims = processClaimsRequest((String) requestedParameters.get(Claims.claims), userClaims, requestedClaims);
+                        requestForSpecificClaims = processClaimsRequest(accessToken.getClaimsRequest(), userClaims, requestedClaims);
                     }
 
                     return (requestForSpecificClaims) ? requestedClaims : userClaims;
@@ -97,66 +98,28 @@ public class UserInfoEndpoint implements Handler<RoutingContext> {
                                 .putHeader(HttpHeaders.CACHE_CONTROL, "no-store")
                                 .putHeader(HttpHeaders.PRAGMA, "no-cache")
                                 .putHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
-                                .end(Json.encodePrettily(claims)),
+                                .end(JsonResponseWriter.write(claims)),
                         error -> context.fail(error),
                         () -> context.fail(new InvalidTokenException("No user found for this token"))
                 );
 
     }
 
-    /**
-     * For OpenID Connect, scopes can be used to request that specific sets of information be made available as Claim Values.
-     *
-     * @param scopes scopes request parameter
-     * @param userClaims user full claims list
-     * @param requestedClaims requested claims
-     * @return true if OpenID Connect scopes have been found
-     */
-    private boolean processScopesRequest(Set<String> scopes, final Map<String, Object> userClaims, Map<String, Object> requestedClaims) {
-        // get requested scopes claims
-        final List<String> scopesClaims = scopes.stream()
-                .map(scope -> scope.toUpperCase())
-                .filter(scope -> Scope.exists(scope) && !Scope.valueOf(scope).getClaims().isEmpty())
-                .map(scope -> Scope.valueOf(scope))
-                .map(scope -> scope.getClaims())
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
-
-        // no OpenID Connect scopes requested continue
-        if (scopesClaims.isEmpty()) {
-            return false;
-        }
-
-        // return specific available sets of information made by scope value request
-        scopesClaims.forEach(scopeClaim -> {
-            if (userClaims.containsKey(scopeClaim)) {
-                requestedClaims.putIfAbsent(scopeClaim, userClaims.get(scopeClaim));
-            }
-        });
-
-        return true;
-    }
-
     /**
      * Handle claims request previously made during the authorization request
-     * @param claimsValue claims request parameter
+     * @param claimsRequest claims request parameter
      * @param userClaims user full claims list
      * @param requestedClaims requested claims
      * @return true if userinfo claims have been found
      */
-    private boolean processClaimsRequest(String claimsValue, final Map<String, Object> userClaims, Map<String, Object> requestedClaims) {
-        try {
-            ClaimsRequest claimsRequest = Json.decodeValue(claimsValue, ClaimsRequest.class);
-            if (claimsRequest != null && claimsRequest.getUserInfoClaims() != null) {
-                claimsRequest.getUserInfoClaims().forEach((key, value) -> {
-                    if (userClaims.containsKey(key)) {
-                        requestedClaims.putIfAbsent(key, userClaims.get(key));
-                    }
-                });
-                return true;
-            }
-        } catch (Exception e) {
-            // Any members used that are not understood MUST be ignored.
+    private boolean processClaimsRequest(ClaimsRequest claimsRequest, final Map<String, Object> userClaims, Map<String, Object> requestedClaims) {
+        if (claimsRequest != null && claimsRequest.getUserInfoClaims() != null) {
+            claimsRequest.getUserInfoClaims().forEach((key, value) -> {
+                if (userClaims.containsKey(key)) {
+                    requestedClaims.putIfAbsent(key, userClaims.get(key));
+                }
+            });
+            return true;
         }
         return false;
     }
@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.vertx.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.gravitee.am.common.oidc.StandardClaims;
+import io.gravitee.am.gateway.handler.oauth2.token.Token;
+import io.gravitee.am.gateway.handler.oauth2.token.jackson.AccessTokenSerializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.Json;
+import io.vertx.reactivex.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compact JSON writer for the machine-to-machine responses (claims, token responses).
+ *
+ * Responses are streamed with a Jackson generator straight into a Vert.x buffer, without pretty printing. The buffer
+ * is pre-sized from the size of the previous responses of the same kind, and the standard field names are
+ * pre-encoded. Values other than strings, numbers and booleans are written with the Vert.x object mapper, as before.
+ *
+ * @author GraviteeSource Team
+ */
+public final class JsonResponseWriter {
+
+    private static final JsonFactory JSON_FACTORY = Json.mapper.getFactory();
+    private static final int MIN_BUFFER_SIZE = 128;
+    private static final Map<String, SerializableString> CLAIM_NAMES = new HashMap<>();
+
+    private static final AtomicInteger claimsSize = new AtomicInteger(512);
+    private static final AtomicInteger tokenSize = new AtomicInteger(1024);
+
+    static {
+        StandardClaims.claims().forEach(claim -> CLAIM_NAMES.put(claim, new SerializedString(claim)));
+    }
+
+    private JsonResponseWriter() {
+    }
+
+    /**
+     * @param claims the claims of the user
+     * @return the claims as a JSON object
+     */
+    public static Buffer write(Map<String, Object> claims) {
+        ByteBuf byteBuf = Unpooled.buffer(initialSize(claimsSize));
+        OutputStream outputStream = new ByteBufOutputStream(byteBuf);
+        try (JsonGenerator jsonGenerator = JSON_FACTORY.createGenerator(outputStream)) {
+            writeClaims(claims, jsonGenerator);
+        } catch (IOException e) {
+            throw new EncodeException("Failed to encode claims: " + e.getMessage());
+        }
+        record(claimsSize, byteBuf.readableBytes());
+        return Buffer.newInstance(io.vertx.core.buffer.Buffer.buffer(byteBuf));
+    }
+
+    /**
+     * @param token the access token
+     * @return the token response as a JSON object
+     */
+    public static Buffer write(Token token) {
+        ByteBuf byteBuf = Unpooled.buffer(initialSize(tokenSize));
+        OutputStream outputStream = new ByteBufOutputStream(byteBuf);
+        try (JsonGenerator jsonGenerator = JSON_FACTORY.createGenerator(outputStream)) {
+            AccessTokenSerializer.write(token, jsonGenerator);
+        } catch (IOException e) {
+            throw new EncodeException("Failed to encode token: " + e.getMessage());
+        }
+        record(tokenSize, byteBuf.readableBytes());
+        return Buffer.newInstance(io.vertx.core.buffer.Buffer.buffer(byteBuf));
+    }
+
+    private static void writeClaims(Map<String, Object> claims, JsonGenerator jsonGenerator) throws IOException {
+        jsonGenerator.writeStartObject();
+        for (Map.Entry<String, Object> claim : claims.entrySet()) {
+            SerializableString claimName = CLAIM_NAMES.get(claim.getKey());
+            if (claimName != null) {
+                jsonGenerator.writeFieldName(claimName);
+            } else {
+                jsonGenerator.writeFieldName(claim.getKey());
+            }
+            writeValue(claim.getValue(), jsonGenerator);
+        }
+        jsonGenerator.writeEndObject();
+    }
+
+    private static void writeValue(Object value, JsonGenerator jsonGenerator) throws IOException {
+        if (value == null) {
+            jsonGenerator.writeNull();
+        } else if (value instanceof String) {
+            jsonGenerator.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            jsonGenerator.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            jsonGenerator.writeNumber((Integer) value);
+        } else if (value instanceof Long) {
+            jsonGenerator.writeNumber((Long) value);
+        } else if (value instanceof Collection) {
+            jsonGenerator.writeStartArray();
+            for (Object element : (Collection<?>) value) {
+                writeValue(element, jsonGenerator);
+            }
+            jsonGenerator.writeEndArray();
+        } else {
+            jsonGenerator.writeObject(value);
+        }
+    }
+
+    private static int initialSize(AtomicInteger expectedSize) {
+        // leave some room so that slightly bigger responses do not trigger a copy
+        int size = expectedSize.get();
+        return Math.max(MIN_BUFFER_SIZE, size + (size >> 2));
+    }
+
+    private static void record(AtomicInteger expectedSize, int size) {
+        // moving average of the response sizes
+        expectedSize.set((expectedSize.get() * 7 + size) >> 3);
+    }
+}
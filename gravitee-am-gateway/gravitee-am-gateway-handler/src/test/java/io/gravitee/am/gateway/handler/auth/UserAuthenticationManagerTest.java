@@ -22,11 +22,13 @@ import io.gravitee.am.identityprovider.api.Authentication;
 import io.gravitee.am.identityprovider.api.AuthenticationProvider;
 import io.gravitee.am.identityprovider.api.DefaultUser;
 import io.gravitee.am.model.Client;
+import io.gravitee.am.model.IdentityProviderStrategy;
 import io.gravitee.am.model.User;
 import io.gravitee.am.service.exception.authentication.BadCredentialsException;
 import io.reactivex.Maybe;
 import io.reactivex.Single;
 import io.reactivex.observers.TestObserver;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -37,6 +39,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -213,4 +217,158 @@ public class UserAuthenticationManagerTest {
         observer.assertComplete();
         observer.assertValue(user -> user.getUsername().equals("username"));
     }
+
+    @Test
+    public void shouldAuthenticateUser_ordered_notTryNextIdentityProvider() {
+        Client client = new Client();
+        client.setClientId("client-id");
+        client.setIdentities(new LinkedHashSet<>(Arrays.asList("idp-1", "idp-2")));
+        mockFindOrCreate();
+
+        AtomicBoolean idp2Subscribed = new AtomicBoolean();
+        when(identityProviderManager.get("idp-1")).thenReturn(Maybe.just(provider(Maybe.<io.gravitee.am.identityprovider.api.User>just(new DefaultUser("user-1")).delay(50, TimeUnit.MILLISECONDS))));
+        when(identityProviderManager.get("idp-2")).thenReturn(Maybe.just(provider(Maybe.<io.gravitee.am.identityprovider.api.User>just(new DefaultUser("user-2")).doOnSubscribe(d -> idp2Subscribed.set(true)))));
+
+        TestObserver<User> observer = userAuthenticationManager.authenticate(client, authentication()).test();
+        observer.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        observer.assertValue(user -> user.getUsername().equals("user-1"));
+        Assert.assertFalse(idp2Subscribed.get());
+    }
+
+    @Test
+    public void shouldAuthenticateUser_parallel_firstIdentityProviderWins() {
+        Client client = new Client();
+        client.setClientId("client-id");
+        client.setIdentities(new LinkedHashSet<>(Arrays.asList("idp-1", "idp-2")));
+        client.setIdentityProviderStrategy(IdentityProviderStrategy.PARALLEL);
+        mockFindOrCreate();
+
+        AtomicBoolean idp2Subscribed = new AtomicBoolean();
+        when(identityProviderManager.get("idp-1")).thenReturn(Maybe.just(provider(Maybe.<io.gravitee.am.identityprovider.api.User>just(new DefaultUser("user-1")).delay(50, TimeUnit.MILLISECONDS))));
+        when(identityProviderManager.get("idp-2")).thenReturn(Maybe.just(provider(Maybe.<io.gravitee.am.identityprovider.api.User>just(new DefaultUser("user-2")).doOnSubscribe(d -> idp2Subscribed.set(true)))));
+
+        TestObserver<User> observer = userAuthenticationManager.authenticate(client, authentication()).test();
+        observer.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        observer.assertValue(user -> user.getUsername().equals("user-1"));
+        Assert.assertTrue(idp2Subscribed.get());
+    }
+
+    @Test
+    public void shouldAuthenticateUser_parallel_priorityOrder() {
+        Client client = new Client();
+        client.setClientId("client-id");
+        // priority order configured for the client, not the natural order of the ids
+        client.setIdentities(new LinkedHashSet<>(Arrays.asList("idp-2", "idp-1")));
+        client.setIdentityProviderStrategy(IdentityProviderStrategy.PARALLEL);
+        mockFindOrCreate();
+
+        when(identityProviderManager.get("idp-1")).thenReturn(Maybe.just(provider(Maybe.just(new DefaultUser("user-1")))));
+        when(identityProviderManager.get("idp-2")).thenReturn(Maybe.just(provider(Maybe.<io.gravitee.am.identityprovider.api.User>just(new DefaultUser("user-2")).delay(50, TimeUnit.MILLISECONDS))));
+
+        TestObserver<User> observer = userAuthenticationManager.authenticate(client, authentication()).test();
+        observer.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        observer.assertValue(user -> user.getUsername().equals("user-2"));
+    }
+
+    @Test
+    public void shouldAuthenticateUser_parallel_firstIdentityProviderFails() {
+        Client client = new Client();
+        client.setClientId("client-id");
+        client.setIdentities(new LinkedHashSet<>(Arrays.asList("idp-1", "idp-2")));
+        client.setIdentityProviderStrategy(IdentityProviderStrategy.PARALLEL);
+        mockFindOrCreate();
+
+        when(identityProviderManager.get("idp-1")).thenReturn(Maybe.just(provider(Maybe.<io.gravitee.am.identityprovider.api.User>error(new BadCredentialsException()).delay(50, TimeUnit.MILLISECONDS))));
+        when(identityProviderManager.get("idp-2")).thenReturn(Maybe.just(provider(Maybe.just(new DefaultUser("user-2")))));
+
+        TestObserver<User> observer = userAuthenticationManager.authenticate(client, authentication()).test();
+        observer.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        observer.assertValue(user -> user.getUsername().equals("user-2"));
+    }
+
+    @Test
+    public void shouldNotAuthenticateUser_parallel_allIdentityProvidersFail() {
+        Client client = new Client();
+        client.setClientId("client-id");
+        client.setIdentities(new LinkedHashSet<>(Arrays.asList("idp-1", "idp-2")));
+        client.setIdentityProviderStrategy(IdentityProviderStrategy.PARALLEL);
+
+        when(identityProviderManager.get("idp-1")).thenReturn(Maybe.just(provider(Maybe.error(new BadCredentialsException()))));
+        when(identityProviderManager.get("idp-2")).thenReturn(Maybe.just(provider(Maybe.<io.gravitee.am.identityprovider.api.User>error(new BadCredentialsException()).delay(20, TimeUnit.MILLISECONDS))));
+
+        TestObserver<User> observer = userAuthenticationManager.authenticate(client, authentication()).test();
+        observer.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        observer.assertError(BadCredentialsException.class);
+        verifyZeroInteractions(userService);
+    }
+
+    @Test
+    public void shouldAuthenticateUser_hedged_cancelSlowIdentityProvider() {
+        Client client = new Client();
+        client.setClientId("client-id");
+        client.setIdentities(new LinkedHashSet<>(Arrays.asList("idp-1", "idp-2")));
+        client.setIdentityProviderStrategy(IdentityProviderStrategy.HEDGED);
+        userAuthenticationManager.setHedgeDelay(10);
+        mockFindOrCreate();
+
+        AtomicBoolean idp2Cancelled = new AtomicBoolean();
+        when(identityProviderManager.get("idp-1")).thenReturn(Maybe.just(provider(Maybe.<io.gravitee.am.identityprovider.api.User>just(new DefaultUser("user-1")).delay(100, TimeUnit.MILLISECONDS))));
+        when(identityProviderManager.get("idp-2")).thenReturn(Maybe.just(provider(Maybe.<io.gravitee.am.identityprovider.api.User>never().doOnDispose(() -> idp2Cancelled.set(true)))));
+
+        TestObserver<User> observer = userAuthenticationManager.authenticate(client, authentication()).test();
+        observer.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        observer.assertValue(user -> user.getUsername().equals("user-1"));
+        Assert.assertTrue(idp2Cancelled.get());
+        Assert.assertEquals(1, userAuthenticationManager.getLatencyHistograms().get("idp-1").getCount());
+        Assert.assertTrue(userAuthenticationManager.getLatencyHistograms().get("idp-1").getMax() >= 100);
+        Assert.assertNull(userAuthenticationManager.getLatencyHistograms().get("idp-2"));
+    }
+
+    private void mockFindOrCreate() {
+        when(userService.findOrCreate(any())).then(invocation -> {
+            io.gravitee.am.identityprovider.api.User idpUser = invocation.getArgumentAt(0, io.gravitee.am.identityprovider.api.User.class);
+            User user = new User();
+            user.setUsername(idpUser.getUsername());
+            return Single.just(user);
+        });
+    }
+
+    private AuthenticationProvider provider(Maybe<io.gravitee.am.identityprovider.api.User> user) {
+        return new AuthenticationProvider() {
+            @Override
+            public Maybe<io.gravitee.am.identityprovider.api.User> loadUserByUsername(Authentication authentication) {
+                return user;
+            }
+
+            @Override
+            public Maybe<io.gravitee.am.identityprovider.api.User> loadUserByUsername(String username) {
+                return Maybe.empty();
+            }
+        };
+    }
+
+    private Authentication authentication() {
+        return new Authentication() {
+            @Override
+            public Object getCredentials() {
+                return null;
+            }
+
+            @Override
+            public Object getPrincipal() {
+                return null;
+            }
+
+            @Override
+            public Map<String, Object> getAdditionalInformation() {
+                return null;
+            }
+        };
+    }
 }
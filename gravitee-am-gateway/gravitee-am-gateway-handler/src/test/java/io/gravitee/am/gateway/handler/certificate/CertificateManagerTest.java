@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.certificate;
+
+import io.gravitee.am.gateway.handler.certificate.impl.CertificateManagerImpl;
+import io.gravitee.am.model.Domain;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CertificateManagerTest {
+
+    private static final String DOMAIN = "domain-1";
+
+    @InjectMocks
+    private CertificateManagerImpl certificateManager = new CertificateManagerImpl();
+
+    @Mock
+    private Domain domain;
+
+    @Mock
+    private CertificateRegistry certificateRegistry;
+
+    @Test
+    public void shouldGet() {
+        CertificateProvider certificateProvider = mock(CertificateProvider.class);
+        when(domain.getId()).thenReturn(DOMAIN);
+        when(certificateRegistry.findByDomainAndId(DOMAIN, "certificate-1")).thenReturn(certificateProvider);
+
+        certificateManager.get("certificate-1").test().assertValue(certificateProvider);
+    }
+
+    @Test
+    public void shouldNotGet_unknownCertificate() {
+        when(domain.getId()).thenReturn(DOMAIN);
+
+        certificateManager.get("unknown").test().assertNoValues();
+        certificateManager.get(null).test().assertNoValues();
+    }
+
+    @Test
+    public void shouldGetOrDefault() {
+        CertificateProvider certificateProvider = mock(CertificateProvider.class);
+        CertificateProvider defaultCertificateProvider = mock(CertificateProvider.class);
+        when(certificateRegistry.findByDomainAndId(DOMAIN, "certificate-1")).thenReturn(certificateProvider);
+        when(certificateRegistry.defaultCertificateProvider()).thenReturn(defaultCertificateProvider);
+
+        Assert.assertSame(certificateProvider, certificateManager.getOrDefault(DOMAIN, "certificate-1"));
+        Assert.assertSame(defaultCertificateProvider, certificateManager.getOrDefault(DOMAIN, "unknown"));
+    }
+
+    @Test
+    public void shouldFindByCertificateAndKeyId() {
+        CertificateProvider certificateProvider = mock(CertificateProvider.class);
+        when(certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-1", "kid-1")).thenReturn(certificateProvider);
+
+        Assert.assertSame(certificateProvider, certificateManager.findByCertificateAndKeyId(DOMAIN, "certificate-1", "kid-1"));
+        Assert.assertNull(certificateManager.findByCertificateAndKeyId(DOMAIN, "certificate-1", "unknown"));
+    }
+}
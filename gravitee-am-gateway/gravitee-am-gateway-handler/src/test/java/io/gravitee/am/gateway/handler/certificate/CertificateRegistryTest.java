@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.certificate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gravitee.am.certificate.api.DefaultKey;
+import io.gravitee.am.gateway.core.event.CertificateEvent;
+import io.gravitee.am.gateway.core.event.DomainEvent;
+import io.gravitee.am.gateway.core.event.SyncEvent;
+import io.gravitee.am.gateway.handler.certificate.impl.CertificateRegistryImpl;
+import io.gravitee.am.model.Certificate;
+import io.gravitee.am.model.Domain;
+import io.gravitee.am.model.common.event.Action;
+import io.gravitee.am.model.common.event.Payload;
+import io.gravitee.am.plugins.certificate.core.CertificatePluginManager;
+import io.gravitee.am.repository.management.api.CertificateRepository;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventManager;
+import io.gravitee.common.event.impl.SimpleEvent;
+import io.jsonwebtoken.security.Keys;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CertificateRegistryTest {
+
+    private static final String DOMAIN = "domain-1";
+
+    @InjectMocks
+    private CertificateRegistryImpl certificateRegistry = new CertificateRegistryImpl();
+
+    @Mock
+    private CertificateRepository certificateRepository;
+
+    @Mock
+    private CertificatePluginManager certificatePluginManager;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private EventManager eventManager;
+
+    @Test
+    public void shouldFindByIdAndKeyId() {
+        deploy("certificate-1", "kid-1");
+
+        CertificateProvider certificateProvider = certificateRegistry.findByDomainAndId(DOMAIN, "certificate-1");
+        Assert.assertNotNull(certificateProvider);
+        Assert.assertEquals("kid-1", certificateProvider.getKeyId());
+        Assert.assertSame(certificateProvider, certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-1", "kid-1"));
+    }
+
+    @Test
+    public void shouldNotFind_otherDomain() {
+        deploy("certificate-1", "kid-1");
+
+        Assert.assertNull(certificateRegistry.findByCertificateAndKeyId("domain-2", "certificate-1", "kid-1"));
+        Assert.assertNull(certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-1", "unknown-kid"));
+        Assert.assertNull(certificateRegistry.findByDomainAndId("domain-2", "certificate-1"));
+    }
+
+    @Test
+    public void shouldKeepPreviousKey_rotation() {
+        deploy("certificate-1", "kid-1");
+        CertificateProvider previousCertificateProvider = certificateRegistry.findByDomainAndId(DOMAIN, "certificate-1");
+        deploy("certificate-1", "kid-2");
+
+        Assert.assertEquals("kid-2", certificateRegistry.findByDomainAndId(DOMAIN, "certificate-1").getKeyId());
+        Assert.assertSame(previousCertificateProvider, certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-1", "kid-1"));
+        Assert.assertNotNull(certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-1", "kid-2"));
+    }
+
+    @Test
+    public void shouldNotFind_otherCertificateKeyId() {
+        deploy("certificate-1", "kid-1");
+        deploy("certificate-2", "kid-2");
+
+        Assert.assertNull(certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-1", "kid-2"));
+        Assert.assertNull(certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-2", "kid-1"));
+    }
+
+    @Test
+    public void shouldNotFind_defaultKeyId_clientCertificate() throws Exception {
+        when(certificateRepository.findAll()).thenReturn(Single.just(new HashSet<>()));
+        certificateRegistry.setSigningKeySecret("s3cR3t4grAv1t3310AMS1g1ingDftK3y");
+        certificateRegistry.setSigningKeyId("default-kid");
+        certificateRegistry.start();
+        deploy("certificate-1", "kid-1");
+
+        Assert.assertNull(certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-1", "default-kid"));
+        Assert.assertSame(certificateRegistry.defaultCertificateProvider(), certificateRegistry.findByCertificateAndKeyId(DOMAIN, null, "default-kid"));
+        Assert.assertNull(certificateRegistry.findByCertificateAndKeyId(DOMAIN, null, "kid-1"));
+    }
+
+    @Test
+    public void shouldRemoveAllKeys_undeploy() {
+        deploy("certificate-1", "kid-1");
+        deploy("certificate-1", "kid-2");
+        deploy("certificate-2", "kid-3");
+
+        certificateRegistry.onEvent(new SimpleEvent<>(CertificateEvent.UNDEPLOY, new Payload("certificate-1", DOMAIN, Action.DELETE)));
+
+        Assert.assertNull(certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-1", "kid-1"));
+        Assert.assertNull(certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-1", "kid-2"));
+        Assert.assertNotNull(certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-2", "kid-3"));
+        Assert.assertNull(certificateRegistry.findByDomainAndId(DOMAIN, "certificate-1"));
+    }
+
+    @Test
+    public void shouldLoadCertificatesOnce_start() throws Exception {
+        Certificate certificate1 = certificate("certificate-1", DOMAIN, "type-1");
+        Certificate certificate2 = certificate("certificate-2", "domain-2", "type-2");
+        Certificate invalidCertificate = certificate("certificate-3", "domain-3", "invalid-type");
+        when(certificateRepository.findAll()).thenReturn(Single.just(new HashSet<>(Arrays.asList(certificate1, invalidCertificate, certificate2))));
+        io.gravitee.am.certificate.api.CertificateProvider provider1 = provider("kid-1");
+        io.gravitee.am.certificate.api.CertificateProvider provider2 = provider("kid-2");
+        when(certificatePluginManager.create(eq("type-1"), any(), any())).thenReturn(provider1);
+        when(certificatePluginManager.create(eq("type-2"), any(), any())).thenReturn(provider2);
+        when(certificatePluginManager.create(eq("invalid-type"), any(), any())).thenThrow(new IllegalStateException("invalid certificate"));
+
+        certificateRegistry.setSigningKeySecret("s3cR3t4grAv1t3310AMS1g1ingDftK3y");
+        certificateRegistry.setSigningKeyId("default-kid");
+        certificateRegistry.start();
+
+        Assert.assertEquals("kid-1", certificateRegistry.findByDomainAndId(DOMAIN, "certificate-1").getKeyId());
+        Assert.assertEquals("kid-2", certificateRegistry.findByDomainAndId("domain-2", "certificate-2").getKeyId());
+        Assert.assertNull(certificateRegistry.findByDomainAndId("domain-3", "certificate-3"));
+        Assert.assertEquals(2, certificateRegistry.providers().size());
+        Assert.assertEquals("default-kid", certificateRegistry.defaultCertificateProvider().getKeyId());
+        Assert.assertSame(certificateRegistry.defaultCertificateProvider(), certificateRegistry.findByCertificateAndKeyId(DOMAIN, null, "default-kid"));
+        verify(certificateRepository, times(1)).findAll();
+        verify(eventManager, times(1)).subscribeForEvents(certificateRegistry, CertificateEvent.class);
+    }
+
+    @Test
+    public void shouldReloadCertificates_domainRedeployed() throws Exception {
+        Certificate certificate1 = certificate("certificate-1", DOMAIN, "type-1", new Date(1000));
+        Certificate certificate2 = certificate("certificate-2", DOMAIN, "type-2", new Date(1000));
+        Certificate certificate3 = certificate("certificate-3", DOMAIN, "type-3", new Date(1000));
+        start(certificate1, certificate2, certificate3);
+        io.gravitee.am.certificate.api.CertificateProvider rotatedProvider1 = provider("kid-1-rotated");
+        when(certificatePluginManager.create(eq("type-1"), any(), any())).thenReturn(rotatedProvider1);
+        EventListener<DomainEvent, Domain> domainListener = listener(DomainEvent.class);
+        EventListener<SyncEvent, Set<Domain>> syncListener = listener(SyncEvent.class);
+        syncListener.onEvent(new SimpleEvent<>(SyncEvent.SYNCHRONIZED, Collections.emptySet()));
+        CertificateProvider certificateProvider2 = certificateRegistry.findByDomainAndId(DOMAIN, "certificate-2");
+
+        // certificate rotated and certificate deleted while the domain is not deployed, their events never reach the registry
+        domainListener.onEvent(new SimpleEvent<>(DomainEvent.UNDEPLOY, domain(DOMAIN)));
+        when(certificateRepository.findByDomain(DOMAIN)).thenReturn(Single.just(new HashSet<>(Arrays.asList(
+                certificate("certificate-1", DOMAIN, "type-1", new Date(2000)),
+                certificate("certificate-2", DOMAIN, "type-2", new Date(1000))))));
+        domainListener.onEvent(new SimpleEvent<>(DomainEvent.DEPLOY, domain(DOMAIN)));
+
+        Assert.assertEquals("kid-1-rotated", certificateRegistry.findByDomainAndId(DOMAIN, "certificate-1").getKeyId());
+        Assert.assertNotNull(certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-1", "kid-1"));
+        Assert.assertSame(certificateProvider2, certificateRegistry.findByDomainAndId(DOMAIN, "certificate-2"));
+        Assert.assertNull(certificateRegistry.findByDomainAndId(DOMAIN, "certificate-3"));
+        Assert.assertNull(certificateRegistry.findByCertificateAndKeyId(DOMAIN, "certificate-3", "kid-3"));
+        // the unchanged certificate is not reloaded
+        verify(certificatePluginManager, times(2)).create(eq("type-1"), any(), any());
+        verify(certificatePluginManager, times(1)).create(eq("type-2"), any(), any());
+    }
+
+    @Test
+    public void shouldNotReloadCertificates_initialSynchronization() throws Exception {
+        start(certificate("certificate-1", DOMAIN, "type-1", new Date(1000)));
+        EventListener<DomainEvent, Domain> domainListener = listener(DomainEvent.class);
+
+        // certificates have just been loaded at startup
+        domainListener.onEvent(new SimpleEvent<>(DomainEvent.DEPLOY, domain(DOMAIN)));
+
+        verify(certificateRepository, never()).findByDomain(DOMAIN);
+        Assert.assertEquals("kid-1", certificateRegistry.findByDomainAndId(DOMAIN, "certificate-1").getKeyId());
+    }
+
+    @Test
+    public void shouldReloadCertificates_resynchronized() throws Exception {
+        start(certificate("certificate-1", DOMAIN, "type-1", new Date(1000)),
+                certificate("certificate-2", "domain-2", "type-2", new Date(1000)));
+        EventListener<SyncEvent, Set<Domain>> syncListener = listener(SyncEvent.class);
+
+        io.gravitee.am.certificate.api.CertificateProvider provider3 = provider("kid-3");
+        when(certificatePluginManager.create(eq("type-3"), any(), any())).thenReturn(provider3);
+        when(certificateRepository.findAll()).thenReturn(Single.just(new HashSet<>(Arrays.asList(
+                certificate("certificate-1", DOMAIN, "type-1", new Date(1000)),
+                certificate("certificate-3", "domain-3", "type-3", new Date(1000))))));
+        syncListener.onEvent(new SimpleEvent<>(SyncEvent.RESYNCHRONIZED, Collections.emptySet()));
+
+        Assert.assertEquals("kid-1", certificateRegistry.findByDomainAndId(DOMAIN, "certificate-1").getKeyId());
+        Assert.assertNull(certificateRegistry.findByDomainAndId("domain-2", "certificate-2"));
+        Assert.assertEquals("kid-3", certificateRegistry.findByDomainAndId("domain-3", "certificate-3").getKeyId());
+        Assert.assertEquals(2, certificateRegistry.providers().size());
+        verify(certificatePluginManager, times(1)).create(eq("type-1"), any(), any());
+    }
+
+    private void start(Certificate... certificates) throws Exception {
+        when(certificateRepository.findAll()).thenReturn(Single.just(new HashSet<>(Arrays.asList(certificates))));
+        for (Certificate certificate : certificates) {
+            io.gravitee.am.certificate.api.CertificateProvider provider = provider("kid-" + certificate.getId().substring("certificate-".length()));
+            when(certificatePluginManager.create(eq(certificate.getType()), any(), any())).thenReturn(provider);
+        }
+        certificateRegistry.setSigningKeySecret("s3cR3t4grAv1t3310AMS1g1ingDftK3y");
+        certificateRegistry.setSigningKeyId("default-kid");
+        certificateRegistry.start();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Enum<T>, S> EventListener<T, S> listener(Class<T> events) {
+        ArgumentCaptor<EventListener> listener = ArgumentCaptor.forClass(EventListener.class);
+        verify(eventManager).subscribeForEvents(listener.capture(), eq(events));
+        return listener.getValue();
+    }
+
+    private void deploy(String certificateId, String keyId) {
+        Certificate certificate = certificate(certificateId, DOMAIN, "certificate-type");
+        io.gravitee.am.certificate.api.CertificateProvider provider = provider(keyId);
+
+        when(certificateRepository.findById(certificateId)).thenReturn(Maybe.just(certificate));
+        when(certificatePluginManager.create(anyString(), any(), any())).thenReturn(provider);
+
+        certificateRegistry.onEvent(new SimpleEvent<>(CertificateEvent.DEPLOY, new Payload(certificateId, DOMAIN, Action.CREATE)));
+    }
+
+    private static Certificate certificate(String certificateId, String domain, String type) {
+        Certificate certificate = new Certificate();
+        certificate.setId(certificateId);
+        certificate.setDomain(domain);
+        certificate.setType(type);
+        return certificate;
+    }
+
+    private static Certificate certificate(String certificateId, String domain, String type, Date updatedAt) {
+        Certificate certificate = certificate(certificateId, domain, type);
+        certificate.setUpdatedAt(updatedAt);
+        return certificate;
+    }
+
+    private static Domain domain(String id) {
+        Domain domain = new Domain();
+        domain.setId(id);
+        return domain;
+    }
+
+    private static io.gravitee.am.certificate.api.CertificateProvider provider(String keyId) {
+        io.gravitee.am.certificate.api.CertificateProvider provider = mock(io.gravitee.am.certificate.api.CertificateProvider.class);
+        when(provider.key()).thenReturn(Single.just(new DefaultKey(keyId, Keys.hmacShaKeyFor("s3cR3t4grAv1t3310AMS1g1ingDftK3y".getBytes()))));
+        return provider;
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gravitee.am.common.jwt.JWT;
+import io.gravitee.am.common.jwt.exception.SignatureException;
+import io.gravitee.am.gateway.handler.certificate.CertificateManager;
+import io.gravitee.am.gateway.handler.certificate.CertificateProvider;
+import io.gravitee.am.gateway.handler.jwt.impl.JJwtParser;
+import io.gravitee.am.gateway.handler.jwt.impl.JwtServiceImpl;
+import io.gravitee.am.model.Client;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.util.Base64;
+import java.util.concurrent.Callable;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class JwtServiceTest {
+
+    @InjectMocks
+    private JwtServiceImpl jwtService = new JwtServiceImpl();
+
+    @Mock
+    private CertificateManager certificateManager;
+
+    @Mock
+    private JwtWorkerExecutor jwtWorkerExecutor;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Before
+    public void setUp() {
+        when(jwtWorkerExecutor.execute(any())).thenAnswer(invocation -> Single.fromCallable((Callable) invocation.getArguments()[0]));
+    }
+
+    @Test
+    public void shouldDecodeAndVerify_keyIdHeader() {
+        Client client = client();
+        CertificateProvider rotatedCertificateProvider = certificateProvider();
+        when(certificateManager.findByCertificateAndKeyId("domain-id", "certificate-id", "previous-kid")).thenReturn(rotatedCertificateProvider);
+
+        String token = token("previous-kid");
+        TestObserver<JWT> testObserver = jwtService.decodeAndVerify(token, client).test();
+        testObserver.assertComplete();
+        testObserver.assertValue(jwt -> "token-id".equals(jwt.getJti()));
+
+        verify(rotatedCertificateProvider.getJwtParser(), times(1)).parse(token);
+        verify(certificateManager, never()).getOrDefault(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldDecodeAndVerify_unknownKeyId() {
+        Client client = client();
+        CertificateProvider clientCertificateProvider = certificateProvider();
+        when(certificateManager.findByCertificateAndKeyId("domain-id", "certificate-id", "unknown-kid")).thenReturn(null);
+        when(certificateManager.getOrDefault("domain-id", "certificate-id")).thenReturn(clientCertificateProvider);
+
+        String token = token("unknown-kid");
+        TestObserver<JWT> testObserver = jwtService.decodeAndVerify(token, client).test();
+        testObserver.assertComplete();
+
+        verify(clientCertificateProvider.getJwtParser(), times(1)).parse(token);
+    }
+
+    @Test
+    public void shouldNotDecodeAndVerify_otherCertificateKeyId() throws Exception {
+        Client client = client();
+        KeyPair clientKeyPair = rsaKeyPair();
+        KeyPair otherKeyPair = rsaKeyPair();
+        CertificateProvider clientCertificateProvider = rsaCertificateProvider(clientKeyPair.getPublic());
+        when(certificateManager.findByCertificateAndKeyId("domain-id", "certificate-id", "other-kid")).thenReturn(null);
+        when(certificateManager.getOrDefault("domain-id", "certificate-id")).thenReturn(clientCertificateProvider);
+
+        String token = Jwts.builder().setId("token-id").setHeaderParam(JwsHeader.KEY_ID, "other-kid").signWith(otherKeyPair.getPrivate()).compact();
+        TestObserver<JWT> testObserver = jwtService.decodeAndVerify(token, client).test();
+        testObserver.assertError(SignatureException.class);
+    }
+
+    @Test
+    public void shouldNotDecodeAndVerify_defaultKeyId() throws Exception {
+        Client client = client();
+        CertificateProvider clientCertificateProvider = rsaCertificateProvider(rsaKeyPair().getPublic());
+        when(certificateManager.findByCertificateAndKeyId("domain-id", "certificate-id", "default-kid")).thenReturn(null);
+        when(certificateManager.getOrDefault("domain-id", "certificate-id")).thenReturn(clientCertificateProvider);
+
+        // HS256 token signed with the well-known default secret
+        String token = Jwts.builder().setId("token-id").setHeaderParam(JwsHeader.KEY_ID, "default-kid")
+                .signWith(Keys.hmacShaKeyFor("s3cR3t4grAv1t3310AMS1g1ingDftK3y".getBytes())).compact();
+        TestObserver<JWT> testObserver = jwtService.decodeAndVerify(token, client).test();
+        testObserver.assertError(SignatureException.class);
+        verify(certificateManager, never()).defaultCertificateProvider();
+    }
+
+    private Client client() {
+        Client client = new Client();
+        client.setDomain("domain-id");
+        client.setCertificate("certificate-id");
+        return client;
+    }
+
+    private CertificateProvider certificateProvider() {
+        JWT jwt = new JWT();
+        jwt.setJti("token-id");
+        JwtParser jwtParser = mock(JwtParser.class);
+        when(jwtParser.parse(anyString())).thenReturn(jwt);
+
+        CertificateProvider certificateProvider = new CertificateProvider(null);
+        certificateProvider.setJwtParser(jwtParser);
+        return certificateProvider;
+    }
+
+    private CertificateProvider rsaCertificateProvider(PublicKey publicKey) {
+        CertificateProvider certificateProvider = new CertificateProvider(null);
+        certificateProvider.setJwtParser(new JJwtParser(Jwts.parser().setSigningKey(publicKey)));
+        return certificateProvider;
+    }
+
+    private KeyPair rsaKeyPair() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private String token(String keyId) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(("{\"alg\":\"HS256\",\"kid\":\"" + keyId + "\"}").getBytes())
+                + "." + encoder.encodeToString("{\"jti\":\"token-id\"}".getBytes())
+                + ".signature";
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.jwt;
+
+import io.gravitee.am.gateway.handler.oauth2.exception.ServerErrorException;
+import io.reactivex.observers.TestObserver;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class JwtWorkerExecutorTest {
+
+    private JwtWorkerExecutor jwtWorkerExecutor;
+
+    @Before
+    public void setUp() {
+        jwtWorkerExecutor = new JwtWorkerExecutor();
+        jwtWorkerExecutor.setPoolSize(1);
+        jwtWorkerExecutor.setQueueCapacity(1);
+        jwtWorkerExecutor.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() {
+        jwtWorkerExecutor.destroy();
+    }
+
+    @Test
+    public void shouldExecuteOnWorkerThread() {
+        TestObserver<String> testObserver = jwtWorkerExecutor.execute(() -> Thread.currentThread().getName()).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertValue(threadName -> threadName.startsWith("gio-am-jwt-worker-"));
+    }
+
+    @Test
+    public void shouldPropagateTaskError() {
+        TestObserver<String> testObserver = jwtWorkerExecutor.<String>execute(() -> {
+            throw new IllegalStateException("invalid signature");
+        }).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertError(IllegalStateException.class);
+    }
+
+    @Test
+    public void shouldRejectTask_poolSaturated() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // one running task + one queued task
+        TestObserver<Boolean> running = jwtWorkerExecutor.execute(() -> latch.await(5, TimeUnit.SECONDS)).test();
+        TestObserver<Boolean> queued = jwtWorkerExecutor.execute(() -> true).test();
+
+        TestObserver<Boolean> rejected = jwtWorkerExecutor.execute(() -> true).test();
+        rejected.assertError(ServerErrorException.class);
+        Assert.assertEquals(1, jwtWorkerExecutor.getRejectedTaskCount());
+
+        latch.countDown();
+        running.awaitTerminalEvent();
+        queued.awaitTerminalEvent();
+        running.assertValue(true);
+        queued.assertValue(true);
+    }
+}
@@ -0,0 +1,283 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.oauth2.client;
+
+import io.gravitee.am.gateway.core.event.ClientEvent;
+import io.gravitee.am.gateway.core.event.DomainEvent;
+import io.gravitee.am.gateway.core.event.SyncEvent;
+import io.gravitee.am.gateway.handler.oauth2.client.impl.ClientRegistryImpl;
+import io.gravitee.am.model.Client;
+import io.gravitee.am.model.Domain;
+import io.gravitee.am.model.common.event.Action;
+import io.gravitee.am.model.common.event.Payload;
+import io.gravitee.am.repository.management.api.ClientRepository;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventManager;
+import io.gravitee.common.event.impl.SimpleEvent;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ClientRegistryTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientRegistryTest.class);
+
+    @InjectMocks
+    private ClientRegistryImpl clientRegistry = new ClientRegistryImpl();
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private EventManager eventManager;
+
+    private void start() throws Exception {
+        when(clientRepository.findAll()).thenReturn(Single.just(new HashSet<>(Arrays.asList(
+                client("id-1", "client-1", "domain-1"),
+                client("id-2", "client-2", "domain-1"),
+                client("id-3", "client-3", "domain-2")))));
+        clientRegistry.start();
+    }
+
+    @Test
+    public void shouldFindByDomainAndClientId() throws Exception {
+        start();
+
+        Assert.assertEquals("id-1", clientRegistry.findByDomainAndClientId("domain-1", "client-1").getId());
+        Assert.assertEquals("id-3", clientRegistry.findByDomainAndClientId("domain-2", "client-3").getId());
+        Assert.assertEquals(3, clientRegistry.size());
+    }
+
+    @Test
+    public void shouldNotFindByDomainAndClientId_wrongDomain() throws Exception {
+        start();
+
+        Assert.assertNull(clientRegistry.findByDomainAndClientId("domain-1", "client-3"));
+        Assert.assertNull(clientRegistry.findByDomainAndClientId("unknown-domain", "client-1"));
+        Assert.assertNull(clientRegistry.findByDomainAndClientId(null, "client-1"));
+    }
+
+    @Test
+    public void shouldUpdateClient_clientIdChanged() throws Exception {
+        start();
+
+        when(clientRepository.findById("id-1")).thenReturn(Maybe.just(client("id-1", "client-1-renamed", "domain-1")));
+
+        clientRegistry.onEvent(new SimpleEvent<>(ClientEvent.UPDATE, new Payload("id-1", "domain-1", Action.UPDATE)));
+
+        Assert.assertNull(clientRegistry.findByDomainAndClientId("domain-1", "client-1"));
+        Assert.assertEquals("id-1", clientRegistry.findByDomainAndClientId("domain-1", "client-1-renamed").getId());
+        Assert.assertEquals("id-2", clientRegistry.findByDomainAndClientId("domain-1", "client-2").getId());
+    }
+
+    @Test
+    public void shouldRemoveClient() throws Exception {
+        start();
+
+        clientRegistry.onEvent(new SimpleEvent<>(ClientEvent.UNDEPLOY, new Payload("id-1", "domain-1", Action.DELETE)));
+
+        Assert.assertNull(clientRegistry.findByDomainAndClientId("domain-1", "client-1"));
+        Assert.assertEquals("id-2", clientRegistry.findByDomainAndClientId("domain-1", "client-2").getId());
+    }
+
+    @Test
+    public void shouldReloadClients_domainRedeployed() throws Exception {
+        start();
+        EventListener<DomainEvent, Domain> domainListener = listener(DomainEvent.class);
+        EventListener<SyncEvent, Set<Domain>> syncListener = listener(SyncEvent.class);
+        syncListener.onEvent(new SimpleEvent<>(SyncEvent.SYNCHRONIZED, Collections.emptySet()));
+
+        // clients updated and deleted while the domain is not deployed, their events never reach the registry
+        domainListener.onEvent(new SimpleEvent<>(DomainEvent.UNDEPLOY, domain("domain-1")));
+        when(clientRepository.findByDomain("domain-1")).thenReturn(Single.just(Collections.singleton(
+                client("id-1", "client-1-renamed", "domain-1"))));
+        domainListener.onEvent(new SimpleEvent<>(DomainEvent.DEPLOY, domain("domain-1")));
+
+        Assert.assertNull(clientRegistry.findByDomainAndClientId("domain-1", "client-1"));
+        Assert.assertNull(clientRegistry.findByDomainAndClientId("domain-1", "client-2"));
+        Assert.assertEquals("id-1", clientRegistry.findByDomainAndClientId("domain-1", "client-1-renamed").getId());
+        Assert.assertEquals("id-3", clientRegistry.findByDomainAndClientId("domain-2", "client-3").getId());
+        Assert.assertEquals(2, clientRegistry.size());
+    }
+
+    @Test
+    public void shouldNotReloadClients_initialSynchronization() throws Exception {
+        start();
+        EventListener<DomainEvent, Domain> domainListener = listener(DomainEvent.class);
+
+        // clients have just been loaded at startup
+        domainListener.onEvent(new SimpleEvent<>(DomainEvent.DEPLOY, domain("domain-1")));
+
+        verify(clientRepository, never()).findByDomain("domain-1");
+        Assert.assertEquals(3, clientRegistry.size());
+    }
+
+    @Test
+    public void shouldReloadClients_resynchronized() throws Exception {
+        start();
+        EventListener<SyncEvent, Set<Domain>> syncListener = listener(SyncEvent.class);
+
+        when(clientRepository.findAll()).thenReturn(Single.just(new HashSet<>(Arrays.asList(
+                client("id-1", "client-1", "domain-1"),
+                client("id-4", "client-4", "domain-3")))));
+        syncListener.onEvent(new SimpleEvent<>(SyncEvent.RESYNCHRONIZED, Collections.emptySet()));
+
+        Assert.assertEquals("id-1", clientRegistry.findByDomainAndClientId("domain-1", "client-1").getId());
+        Assert.assertNull(clientRegistry.findByDomainAndClientId("domain-1", "client-2"));
+        Assert.assertNull(clientRegistry.findByDomainAndClientId("domain-2", "client-3"));
+        Assert.assertEquals("id-4", clientRegistry.findByDomainAndClientId("domain-3", "client-4").getId());
+        Assert.assertEquals(2, clientRegistry.size());
+    }
+
+    @Test
+    public void shouldShareClients_heapFootprint() throws Exception {
+        final int domains = 100;
+        final int clientsPerDomain = 10;
+        Set<Client> catalog = new HashSet<>();
+        for (int i = 0; i < domains; i++) {
+            for (int j = 0; j < clientsPerDomain; j++) {
+                catalog.add(client("id-" + i + "-" + j, "client-" + j, "domain-" + i));
+            }
+        }
+
+        // the repository returns new instances for each query, as a real repository does
+        when(clientRepository.findAll()).thenAnswer(invocation -> Single.just(copy(catalog)));
+
+        // previous behavior: each security domain loads the whole catalog
+        Set<Client> perDomainHeap = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < domains; i++) {
+            perDomainHeap.addAll(clientRepository.findAll().blockingGet());
+        }
+
+        // gateway-wide registry shared by every security domain
+        clientRegistry.start();
+
+        Set<Client> sharedHeap = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < domains; i++) {
+            for (int j = 0; j < clientsPerDomain; j++) {
+                // lookups from every domain handler, including cross-domain ones
+                sharedHeap.add(clientRegistry.findByDomainAndClientId("domain-" + i, "client-" + j));
+                sharedHeap.add(clientRegistry.findByDomainAndClientId("domain-" + ((i + 1) % domains), "client-" + j));
+            }
+        }
+
+        Assert.assertEquals(domains * clientsPerDomain * domains, perDomainHeap.size());
+        Assert.assertEquals(domains * clientsPerDomain, sharedHeap.size());
+        Assert.assertEquals(domains * clientsPerDomain, clientRegistry.size());
+        verify(clientRepository, times(domains + 1)).findAll();
+    }
+
+    /**
+     * Lookup latency according to the number of clients of a domain, compared to the former linear scan of the
+     * domain's clients.
+     */
+    @Test
+    public void shouldFindInConstantTime_benchmark() throws Exception {
+        final int lookups = 200;
+        int[] clientCounts = {10, 1_000, 100_000};
+        Map<Integer, Set<Client>> domainsClients = new HashMap<>();
+        Set<Client> catalog = new HashSet<>();
+        for (int clients : clientCounts) {
+            Set<Client> domainClients = new HashSet<>();
+            for (int i = 0; i < clients; i++) {
+                domainClients.add(client("id-" + clients + "-" + i, "client-" + i, "domain-" + clients));
+            }
+            domainsClients.put(clients, domainClients);
+            catalog.addAll(domainClients);
+        }
+        when(clientRepository.findAll()).thenReturn(Single.just(catalog));
+        clientRegistry.start();
+
+        List<Long> scanLatencies = new ArrayList<>();
+        List<Long> registryLatencies = new ArrayList<>();
+        for (int clients : clientCounts) {
+            String domain = "domain-" + clients;
+            String clientId = "client-" + (clients - 1);
+            Set<Client> domainClients = domainsClients.get(clients);
+
+            long scanLatency = measure(() -> Observable.fromIterable(domainClients)
+                    .filter(client -> domain.equals(client.getDomain()) && clientId.equals(client.getClientId()))
+                    .firstElement()
+                    .blockingGet(), lookups);
+            long registryLatency = measure(() -> clientRegistry.findByDomainAndClientId(domain, clientId), lookups);
+            logger.info("{} clients: scan lookup {}ns, registry lookup {}ns", clients, scanLatency, registryLatency);
+            scanLatencies.add(scanLatency);
+            registryLatencies.add(registryLatency);
+        }
+
+        // the scan depends on the number of clients of the domain while the registry lookup does not
+        Assert.assertTrue(registryLatencies.get(2) < scanLatencies.get(2));
+    }
+
+    private static long measure(Supplier<Client> lookup, int lookups) {
+        // warm-up
+        for (int i = 0; i < lookups; i++) {
+            Assert.assertNotNull(lookup.get());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            lookup.get();
+        }
+        return (System.nanoTime() - start) / lookups;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Enum<T>, S> EventListener<T, S> listener(Class<T> events) {
+        ArgumentCaptor<EventListener> listener = ArgumentCaptor.forClass(EventListener.class);
+        verify(eventManager).subscribeForEvents(listener.capture(), eq(events));
+        return listener.getValue();
+    }
+
+    private static Domain domain(String id) {
+        Domain domain = new Domain();
+        domain.setId(id);
+        return domain;
+    }
+
+    private static Set<Client> copy(Set<Client> clients) {
+        Set<Client> copy = new HashSet<>();
+        clients.forEach(client -> copy.add(client(client.getId(), client.getClientId(), client.getDomain())));
+        return copy;
+    }
+
+    private static Client client(String id, String clientId, String domain) {
+        Client client = new Client();
+        client.setId(id);
+        client.setClientId(clientId);
+        client.setDomain(domain);
+        return client;
+    }
+}
@@ -15,9 +15,79 @@
  */
 package io.gravitee.am.gateway.handler.oauth2.client;
 
+import io.gravitee.am.gateway.handler.oauth2.client.impl.ClientServiceImpl;
+import io.gravitee.am.model.Client;
+import io.gravitee.am.model.Domain;
+import io.reactivex.observers.TestObserver;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.mockito.Mockito.when;
+
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
  * @author GraviteeSource Team
  */
+@RunWith(MockitoJUnitRunner.class)
 public class ClientServiceTest {
+
+    @InjectMocks
+    private ClientServiceImpl clientService = new ClientServiceImpl();
+
+    @Mock
+    private ClientRegistry clientRegistry;
+
+    @Mock
+    private Domain domain;
+
+    @Before
+    public void setUp() {
+        when(domain.getId()).thenReturn("domain-1");
+        when(clientRegistry.findByDomainAndClientId("domain-1", "client-1")).thenReturn(client("id-1", "client-1", "domain-1"));
+        when(clientRegistry.findByDomainAndClientId("domain-2", "client-3")).thenReturn(client("id-3", "client-3", "domain-2"));
+    }
+
+    @Test
+    public void shouldFindByClientId() {
+        TestObserver<Client> testObserver = clientService.findByClientId("client-1").test();
+
+        testObserver.assertComplete();
+        testObserver.assertValue(client -> "id-1".equals(client.getId()));
+    }
+
+    @Test
+    public void shouldFindByDomainAndClientId_otherDomain() {
+        TestObserver<Client> testObserver = clientService.findByDomainAndClientId("domain-2", "client-3").test();
+
+        testObserver.assertComplete();
+        testObserver.assertValue(client -> "id-3".equals(client.getId()));
+    }
+
+    @Test
+    public void shouldNotFindByClientId_wrongDomain() {
+        TestObserver<Client> testObserver = clientService.findByClientId("client-3").test();
+
+        testObserver.assertComplete();
+        testObserver.assertNoValues();
+    }
+
+    @Test
+    public void shouldNotFindByDomainAndClientId_unknownDomain() {
+        TestObserver<Client> testObserver = clientService.findByDomainAndClientId("unknown-domain", "client-1").test();
+
+        testObserver.assertComplete();
+        testObserver.assertNoValues();
+    }
+
+    private Client client(String id, String clientId, String domain) {
+        Client client = new Client();
+        client.setId(id);
+        client.setClientId(clientId);
+        client.setDomain(domain);
+        return client;
+    }
 }
@@ -91,21 +91,36 @@ public class AuthorizationCodeServiceTest {
         authorizationCode.setCode("my-code");
         authorizationCode.setClientId("my-client-id");
 
-        when(authorizationCodeRepository.findByCode(any())).thenReturn(Maybe.just(authorizationCode));
-        when(authorizationCodeRepository.delete(anyString())).thenReturn(Maybe.just(authorizationCode));
+        when(authorizationCodeRepository.consume("my-code", "my-client-id")).thenReturn(Maybe.just(authorizationCode));
         when(accessTokenRepository.findByAuthorizationCode(anyString())).thenReturn(Observable.empty());
 
         TestObserver<AuthorizationCode> testObserver = authorizationCodeService.remove(authorizationCode.getCode(), client).test();
         testObserver.assertComplete();
         testObserver.assertNoErrors();
+        testObserver.assertValue(authorizationCode);
 
-        verify(authorizationCodeRepository, times(1)).findByCode(any());
-        verify(authorizationCodeRepository, times(1)).delete(any());
-        verify(accessTokenRepository, times(1)).findByAuthorizationCode(anyString());
+        verify(authorizationCodeRepository, times(1)).consume("my-code", "my-client-id");
+        verify(authorizationCodeRepository, never()).findByCode(any());
+        verify(authorizationCodeRepository, never()).delete(any());
         verify(accessTokenRepository, never()).delete(anyString());
         verify(refreshTokenRepository, never()).delete(anyString());
     }
 
+    @Test
+    public void shouldNotRemove_otherClient() {
+        Client client = new Client();
+        client.setClientId("other-client-id");
+
+        when(authorizationCodeRepository.consume("my-code", "other-client-id")).thenReturn(Maybe.empty());
+        when(accessTokenRepository.findByAuthorizationCode(anyString())).thenReturn(Observable.empty());
+
+        TestObserver<AuthorizationCode> testObserver = authorizationCodeService.remove("my-code", client).test();
+        testObserver.assertError(InvalidGrantException.class);
+
+        verify(authorizationCodeRepository, times(1)).consume("my-code", "other-client-id");
+        verify(authorizationCodeRepository, never()).delete(any());
+    }
+
     @Test
     public void shouldRemove_invalidCode_existingTokens_noRefreshToken() {
         AuthorizationRequest authorizationRequest = new AuthorizationRequest();
@@ -128,14 +143,14 @@ public class AuthorizationCodeServiceTest {
 
         List<AccessToken> tokens = Arrays.asList(accessToken, accessToken2);
 
-        when(authorizationCodeRepository.findByCode(any())).thenReturn(Maybe.empty());
+        when(authorizationCodeRepository.consume(anyString(), anyString())).thenReturn(Maybe.empty());
         when(accessTokenRepository.findByAuthorizationCode(anyString())).thenReturn(Observable.fromIterable(tokens));
         when(accessTokenRepository.delete(anyString())).thenReturn(Completable.complete());
 
         TestObserver<AuthorizationCode> testObserver = authorizationCodeService.remove(authorizationCode.getCode(), client).test();
         testObserver.assertError(InvalidGrantException.class);
 
-        verify(authorizationCodeRepository, times(1)).findByCode(any());
+        verify(authorizationCodeRepository, times(1)).consume(anyString(), anyString());
         verify(accessTokenRepository, times(1)).findByAuthorizationCode(anyString());
         verify(accessTokenRepository, times(2)).delete(anyString());
         verify(authorizationCodeRepository, never()).delete(any());
@@ -166,7 +181,7 @@ public class AuthorizationCodeServiceTest {
 
         List<AccessToken> tokens = Arrays.asList(accessToken, accessToken2);
 
-        when(authorizationCodeRepository.findByCode(any())).thenReturn(Maybe.empty());
+        when(authorizationCodeRepository.consume(anyString(), anyString())).thenReturn(Maybe.empty());
         when(accessTokenRepository.findByAuthorizationCode(anyString())).thenReturn(Observable.fromIterable(tokens));
         when(accessTokenRepository.delete(anyString())).thenReturn(Completable.complete());
         when(refreshTokenRepository.delete(anyString())).thenReturn(Completable.complete());
@@ -174,7 +189,7 @@ public class AuthorizationCodeServiceTest {
         TestObserver<AuthorizationCode> testObserver = authorizationCodeService.remove(authorizationCode.getCode(), client).test();
         testObserver.assertError(InvalidGrantException.class);
 
-        verify(authorizationCodeRepository, times(1)).findByCode(any());
+        verify(authorizationCodeRepository, times(1)).consume(anyString(), anyString());
         verify(accessTokenRepository, times(1)).findByAuthorizationCode(anyString());
         verify(accessTokenRepository, times(2)).delete(anyString());
         verify(refreshTokenRepository, times(2)).delete(anyString());
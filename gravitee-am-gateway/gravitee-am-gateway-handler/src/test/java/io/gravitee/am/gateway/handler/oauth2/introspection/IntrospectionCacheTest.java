@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.oauth2.introspection;
+
+import io.gravitee.am.common.jwt.JWT;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class IntrospectionCacheTest {
+
+    private IntrospectionCache introspectionCache;
+
+    @Before
+    public void setUp() {
+        introspectionCache = new IntrospectionCache();
+        introspectionCache.setEnabled(true);
+        introspectionCache.setTtl(60);
+        introspectionCache.setMaxSize(2);
+        introspectionCache.setMaxMemory(1);
+        introspectionCache.afterPropertiesSet();
+    }
+
+    @Test
+    public void shouldGet() {
+        introspectionCache.put("token", jwt("jti", 60));
+
+        Assert.assertNotNull(introspectionCache.get("jti", "token"));
+        Assert.assertEquals(1, introspectionCache.getHitCount());
+        Assert.assertEquals(0, introspectionCache.getMissCount());
+    }
+
+    @Test
+    public void shouldNotGet_otherToken() {
+        introspectionCache.put("token", jwt("jti", 60));
+
+        Assert.assertNull(introspectionCache.get("jti", "forged-token"));
+        Assert.assertEquals(0, introspectionCache.getHitCount());
+        Assert.assertEquals(1, introspectionCache.getMissCount());
+    }
+
+    @Test
+    public void shouldNotPut_expiredToken() {
+        introspectionCache.put("token", jwt("jti", -60));
+
+        Assert.assertNull(introspectionCache.get("jti", "token"));
+        Assert.assertEquals(0, introspectionCache.size());
+    }
+
+    @Test
+    public void shouldInvalidate() {
+        introspectionCache.put("token", jwt("jti", 60));
+        introspectionCache.invalidate("jti");
+
+        Assert.assertNull(introspectionCache.get("jti", "token"));
+        Assert.assertEquals(0, introspectionCache.size());
+        Assert.assertEquals(0, introspectionCache.getWeight());
+    }
+
+    @Test
+    public void shouldNotPut_revokedDuringVerification() {
+        // the introspection verified the token before its revocation and caches it afterwards
+        introspectionCache.invalidate("jti");
+        introspectionCache.put("token", jwt("jti", 60));
+
+        Assert.assertNull(introspectionCache.get("jti", "token"));
+        Assert.assertEquals(0, introspectionCache.size());
+    }
+
+    @Test
+    public void shouldNotGet_concurrentPutAndInvalidate() throws Exception {
+        introspectionCache.setMaxSize(10000);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                String jti = "jti" + i;
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<?> put = executor.submit(() -> {
+                    barrier.await();
+                    introspectionCache.put("token", jwt(jti, 60));
+                    return null;
+                });
+                Future<?> invalidate = executor.submit(() -> {
+                    barrier.await();
+                    introspectionCache.invalidate(jti);
+                    return null;
+                });
+                put.get();
+                invalidate.get();
+
+                Assert.assertNull(introspectionCache.get(jti, "token"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(0, introspectionCache.size());
+        Assert.assertEquals(0, introspectionCache.getWeight());
+    }
+
+    @Test
+    public void shouldEvictOldest_maxSize() {
+        introspectionCache.put("token1", jwt("jti1", 60));
+        introspectionCache.put("token2", jwt("jti2", 60));
+        introspectionCache.put("token3", jwt("jti3", 60));
+
+        Assert.assertEquals(2, introspectionCache.size());
+        Assert.assertEquals(1, introspectionCache.getEvictionCount());
+        Assert.assertNull(introspectionCache.get("jti1", "token1"));
+        Assert.assertNotNull(introspectionCache.get("jti3", "token3"));
+    }
+
+    @Test
+    public void shouldEvict_maxMemory() {
+        introspectionCache.setMaxSize(10);
+
+        // each entry is worth more than half of the 1MB memory budget
+        char[] chars = new char[160 * 1024];
+        Arrays.fill(chars, 'a');
+        String token = new String(chars);
+        introspectionCache.put(token + "1", jwt("jti1", 60));
+        introspectionCache.put(token + "2", jwt("jti2", 60));
+
+        Assert.assertEquals(1, introspectionCache.size());
+        Assert.assertEquals(1, introspectionCache.getEvictionCount());
+        Assert.assertTrue(introspectionCache.getWeight() <= 1024 * 1024);
+    }
+
+    @Test
+    public void shouldNotGet_disabled() {
+        introspectionCache.setEnabled(false);
+        introspectionCache.put("token", jwt("jti", 60));
+
+        Assert.assertNull(introspectionCache.get("jti", "token"));
+    }
+
+    private JWT jwt(String jti, long expiresIn) {
+        JWT jwt = new JWT();
+        jwt.setJti(jti);
+        jwt.setExp(System.currentTimeMillis() / 1000L + expiresIn);
+        return jwt;
+    }
+}
@@ -16,6 +16,7 @@
 package io.gravitee.am.gateway.handler.oauth2.revocation;
 
 import io.gravitee.am.gateway.handler.oauth2.exception.InvalidGrantException;
+import io.gravitee.am.gateway.handler.oauth2.introspection.IntrospectionCache;
 import io.gravitee.am.gateway.handler.oauth2.revocation.impl.RevocationTokenServiceImpl;
 import io.gravitee.am.gateway.handler.oauth2.token.Token;
 import io.gravitee.am.gateway.handler.oauth2.token.TokenService;
@@ -48,6 +49,12 @@ public class RevocationServiceTest {
     @Mock
     private TokenService tokenService;
 
+    @Mock
+    private RevokedTokenService revokedTokenService;
+
+    @Mock
+    private IntrospectionCache introspectionCache;
+
     @Test
     public void shouldNotRevoke_WrongRequestedClientId() {
         final RevocationTokenRequest revocationTokenRequest = new RevocationTokenRequest("token");
@@ -114,11 +121,86 @@ public class RevocationServiceTest {
 
         verify(tokenService, times(1)).getAccessToken("token", client);
         verify(tokenService, times(1)).deleteAccessToken("token");
+        verify(introspectionCache, atLeastOnce()).invalidate("token");
         verify(tokenService, never()).getRefreshToken(anyString(), any());
         verify(tokenService, never()).deleteRefreshToken(anyString());
 
     }
 
+    @Test
+    public void shouldRevoke_statelessAccessToken() {
+        final RevocationTokenRequest revocationTokenRequest = new RevocationTokenRequest("token");
+
+        Client client = new Client();
+        client.setClientId("client-id");
+        client.setStatelessAccessTokens(true);
+
+        AccessToken accessToken = new AccessToken("token");
+        accessToken.setClientId("client-id");
+        accessToken.setStateless(true);
+
+        when(tokenService.getAccessToken("token", client)).thenReturn(Maybe.just(accessToken));
+        when(revokedTokenService.revoke(accessToken, client)).thenReturn(Completable.complete());
+
+        TestObserver testObserver = revocationTokenService.revoke(revocationTokenRequest, client).test();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+
+        verify(revokedTokenService, times(1)).revoke(accessToken, client);
+        verify(tokenService, never()).deleteAccessToken(anyString());
+        verify(tokenService, never()).getRefreshToken(anyString(), any());
+    }
+
+    @Test
+    public void shouldRevoke_statelessAccessToken_clientSettingChanged() {
+        final RevocationTokenRequest revocationTokenRequest = new RevocationTokenRequest("token");
+
+        // the token has been issued stateless, then the client switched back to stateful access tokens
+        Client client = new Client();
+        client.setClientId("client-id");
+        client.setStatelessAccessTokens(false);
+
+        AccessToken accessToken = new AccessToken("token");
+        accessToken.setClientId("client-id");
+        accessToken.setStateless(true);
+
+        when(tokenService.getAccessToken("token", client)).thenReturn(Maybe.just(accessToken));
+        when(revokedTokenService.revoke(accessToken, client)).thenReturn(Completable.complete());
+
+        TestObserver testObserver = revocationTokenService.revoke(revocationTokenRequest, client).test();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+
+        verify(revokedTokenService, times(1)).revoke(accessToken, client);
+        verify(tokenService, never()).deleteAccessToken(anyString());
+    }
+
+    @Test
+    public void shouldRevoke_statefulAccessToken_clientSettingChanged() {
+        final RevocationTokenRequest revocationTokenRequest = new RevocationTokenRequest("token");
+
+        // the token has been stored, then the client switched to stateless access tokens
+        Client client = new Client();
+        client.setClientId("client-id");
+        client.setStatelessAccessTokens(true);
+
+        AccessToken accessToken = new AccessToken("token");
+        accessToken.setClientId("client-id");
+
+        when(tokenService.getAccessToken("token", client)).thenReturn(Maybe.just(accessToken));
+        when(tokenService.deleteAccessToken("token")).thenReturn(Completable.complete());
+
+        TestObserver testObserver = revocationTokenService.revoke(revocationTokenRequest, client).test();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+
+        verify(tokenService, times(1)).deleteAccessToken("token");
+        verify(revokedTokenService, never()).revoke(any(), any());
+    }
+
     @Test
     public void shouldRevoke_refreshToken() {
         final RevocationTokenRequest revocationTokenRequest = new RevocationTokenRequest("token");
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.oauth2.revocation;
+
+import io.gravitee.am.gateway.handler.oauth2.revocation.impl.RevokedTokenServiceImpl;
+import io.gravitee.am.gateway.handler.oauth2.token.impl.AccessToken;
+import io.gravitee.am.model.Client;
+import io.gravitee.am.repository.oauth2.api.RevokedTokenRepository;
+import io.gravitee.am.repository.oauth2.model.RevokedToken;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.vertx.core.Handler;
+import io.vertx.reactivex.core.Vertx;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Date;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RevokedTokenServiceTest {
+
+    @InjectMocks
+    private RevokedTokenServiceImpl revokedTokenService = new RevokedTokenServiceImpl();
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private Vertx vertx;
+
+    @Test
+    public void shouldRevoke() {
+        Client client = new Client();
+        client.setDomain("domain-id");
+
+        AccessToken accessToken = new AccessToken("token-id");
+        accessToken.setClientId("client-id");
+        accessToken.setExpireAt(new Date(System.currentTimeMillis() + 60000));
+
+        when(revokedTokenRepository.create(any(RevokedToken.class))).thenReturn(Single.just(new RevokedToken()));
+
+        TestObserver testObserver = revokedTokenService.revoke(accessToken, client).test();
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+
+        Assert.assertTrue(revokedTokenService.isRevoked("token-id"));
+        Assert.assertFalse(revokedTokenService.isRevoked("other-token-id"));
+        verify(revokedTokenRepository, times(1)).create(any(RevokedToken.class));
+    }
+
+    @Test
+    public void shouldLoadRevokedTokens_onStart() throws Exception {
+        when(revokedTokenRepository.findByCreatedAtAfter(any(Date.class))).thenReturn(Observable.just(
+                revokedToken("token-id", 60000),
+                revokedToken("expired-token-id", -60000)));
+
+        revokedTokenService.start();
+
+        Assert.assertTrue(revokedTokenService.isRevoked("token-id"));
+        Assert.assertFalse(revokedTokenService.isRevoked("expired-token-id"));
+        Assert.assertEquals(1, revokedTokenService.size());
+    }
+
+    @Test
+    public void shouldSyncRevokedTokens_periodically() throws Exception {
+        ArgumentCaptor<Handler> handlerCaptor = ArgumentCaptor.forClass(Handler.class);
+        when(vertx.setPeriodic(anyLong(), handlerCaptor.capture())).thenReturn(1L);
+        when(revokedTokenRepository.findByCreatedAtAfter(any(Date.class)))
+                .thenReturn(Observable.empty())
+                .thenReturn(Observable.just(revokedToken("token-id", 60000)));
+
+        revokedTokenService.start();
+        Assert.assertFalse(revokedTokenService.isRevoked("token-id"));
+
+        handlerCaptor.getValue().handle(1L);
+        Assert.assertTrue(revokedTokenService.isRevoked("token-id"));
+        verify(revokedTokenRepository, times(2)).findByCreatedAtAfter(any(Date.class));
+    }
+
+    private RevokedToken revokedToken(String token, long expiresIn) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setToken(token);
+        revokedToken.setCreatedAt(new Date());
+        revokedToken.setExpireAt(new Date(System.currentTimeMillis() + expiresIn));
+        return revokedToken;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.oauth2.scope;
+
+import io.gravitee.am.gateway.core.event.ScopeEvent;
+import io.gravitee.am.gateway.handler.oauth2.scope.impl.ScopeServiceImpl;
+import io.gravitee.am.gateway.service.DomainResourceService;
+import io.gravitee.am.model.Domain;
+import io.gravitee.am.model.common.event.Action;
+import io.gravitee.am.model.common.event.Payload;
+import io.gravitee.am.model.oauth2.Scope;
+import io.gravitee.am.repository.management.api.ScopeRepository;
+import io.gravitee.common.event.impl.SimpleEvent;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ScopeServiceTest {
+
+    private static final String DOMAIN = "domain-1";
+
+    @InjectMocks
+    private ScopeServiceImpl scopeService = new ScopeServiceImpl();
+
+    @Mock
+    private ScopeRepository scopeRepository;
+
+    @Mock
+    private DomainResourceService domainResourceService;
+
+    @Mock
+    private Domain domain;
+
+    @Before
+    public void setUp() {
+        when(domain.getId()).thenReturn(DOMAIN);
+        when(domainResourceService.findScopes(DOMAIN)).thenReturn(Single.just(new HashSet<>(Arrays.asList(
+                scope("id-1", "read", "Read"),
+                scope("id-2", "write", "Write")))));
+        scopeService.afterPropertiesSet();
+    }
+
+    @Test
+    public void shouldGetAll_withoutRepositoryCall() {
+        TestObserver<Set<Scope>> testObserver = scopeService.getAll().test();
+
+        testObserver.assertComplete();
+        testObserver.assertValue(scopes -> scopes.size() == 2);
+        verify(domainResourceService, times(1)).findScopes(DOMAIN);
+    }
+
+    @Test
+    public void shouldFindByKey_ignoreCase() {
+        TestObserver<Scope> testObserver = scopeService.findByKey("READ").test();
+
+        testObserver.assertComplete();
+        testObserver.assertValue(scope -> "Read".equals(scope.getName()));
+    }
+
+    @Test
+    public void shouldNotFindByKey_unknownScope() {
+        scopeService.findByKey("unknown").test().assertNoValues();
+    }
+
+    @Test
+    public void shouldUpdateScope() {
+        when(scopeRepository.findById("id-1")).thenReturn(Maybe.just(scope("id-1", "read", "Read resources")));
+
+        scopeService.onEvent(new SimpleEvent<>(ScopeEvent.UPDATE, new Payload("id-1", DOMAIN, Action.UPDATE)));
+
+        scopeService.findByKey("read").test().assertValue(scope -> "Read resources".equals(scope.getName()));
+    }
+
+    @Test
+    public void shouldRemoveScope() {
+        scopeService.onEvent(new SimpleEvent<>(ScopeEvent.UNDEPLOY, new Payload("id-2", DOMAIN, Action.DELETE)));
+
+        scopeService.findByKey("write").test().assertNoValues();
+        scopeService.findByKey("read").test().assertValueCount(1);
+    }
+
+    @Test
+    public void shouldIgnoreEvent_otherDomain() {
+        scopeService.onEvent(new SimpleEvent<>(ScopeEvent.UNDEPLOY, new Payload("id-2", "other-domain", Action.DELETE)));
+
+        scopeService.findByKey("write").test().assertValueCount(1);
+        verify(scopeRepository, never()).findById(anyString());
+    }
+
+    private Scope scope(String id, String key, String name) {
+        Scope scope = new Scope(key);
+        scope.setId(id);
+        scope.setDomain(DOMAIN);
+        scope.setName(name);
+        return scope;
+    }
+}
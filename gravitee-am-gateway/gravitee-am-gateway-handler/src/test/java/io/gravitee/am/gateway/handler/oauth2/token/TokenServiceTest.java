@@ -17,9 +17,12 @@ package io.gravitee.am.gateway.handler.oauth2.token;
 
 import io.gravitee.am.common.jwt.JWT;
 import io.gravitee.am.gateway.handler.jwt.JwtService;
+import io.gravitee.am.gateway.handler.oauth2.client.ClientService;
 import io.gravitee.am.gateway.handler.oauth2.exception.InvalidGrantException;
+import io.gravitee.am.gateway.handler.oauth2.introspection.IntrospectionCache;
 import io.gravitee.am.gateway.handler.oauth2.request.OAuth2Request;
 import io.gravitee.am.gateway.handler.oauth2.request.TokenRequest;
+import io.gravitee.am.gateway.handler.oauth2.revocation.RevokedTokenService;
 import io.gravitee.am.gateway.handler.oauth2.token.impl.AccessToken;
 import io.gravitee.am.gateway.handler.oauth2.token.impl.TokenServiceImpl;
 import io.gravitee.am.model.Client;
@@ -65,6 +68,15 @@ public class TokenServiceTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private RevokedTokenService revokedTokenService;
+
+    @Mock
+    private IntrospectionCache introspectionCache;
+
+    @Mock
+    private ClientService clientService;
+
     @Test
     public void shouldCreate() {
         OAuth2Request oAuth2Request = new OAuth2Request();
@@ -89,6 +101,188 @@ public class TokenServiceTest {
         Assert.assertTrue("client should be client_id", client.getClientId().equals(accessTokenCaptor.getValue().getClient()));
     }
 
+    @Test
+    public void shouldCreate_stateless() {
+        OAuth2Request oAuth2Request = new OAuth2Request();
+
+        Client client = new Client();
+        client.setClientId("my-client-id");
+        client.setStatelessAccessTokens(true);
+
+        ArgumentCaptor<JWT> jwtCaptor = ArgumentCaptor.forClass(JWT.class);
+        when(jwtService.encode(jwtCaptor.capture(), any(Client.class))).thenReturn(Single.just(""));
+        when(tokenEnhancer.enhance(any(), any(), any(), any())).thenReturn(Single.just(new AccessToken("token-id")));
+
+        TestObserver<Token> testObserver = tokenService.create(oAuth2Request, client, null).test();
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+
+        verify(accessTokenRepository, never()).create(any());
+        Assert.assertTrue(jwtCaptor.getValue().isStateless());
+    }
+
+    @Test
+    public void shouldGetAccessToken_statelessClientSettingChanged() {
+        OAuth2Request oAuth2Request = new OAuth2Request();
+
+        Client client = new Client();
+        client.setClientId("my-client-id");
+        client.setStatelessAccessTokens(true);
+
+        ArgumentCaptor<JWT> jwtCaptor = ArgumentCaptor.forClass(JWT.class);
+        when(jwtService.encode(jwtCaptor.capture(), any(Client.class))).thenReturn(Single.just("token"));
+        when(tokenEnhancer.enhance(any(), any(), any(), any())).thenReturn(Single.just(new AccessToken("token")));
+
+        tokenService.create(oAuth2Request, client, null).test().assertComplete();
+
+        // the client switches back to stateful access tokens after the token has been issued
+        client.setStatelessAccessTokens(false);
+        when(jwtService.decodeAndVerify("token", client)).thenReturn(Single.just(jwtCaptor.getValue()));
+        when(revokedTokenService.isRevoked(anyString())).thenReturn(false);
+
+        TestObserver<Token> testObserver = tokenService.getAccessToken("token", client).test();
+        testObserver.assertComplete();
+        testObserver.assertValue(Token::isStateless);
+
+        verify(accessTokenRepository, never()).findByToken(anyString());
+    }
+
+    @Test
+    public void shouldGetAccessToken_statefulClientSettingChanged() {
+        // the client switches to stateless access tokens after the token has been issued
+        Client client = new Client();
+        client.setClientId("my-client-id");
+        client.setStatelessAccessTokens(true);
+
+        JWT jwt = new JWT();
+        jwt.setJti("token-id");
+        jwt.setAud("my-client-id");
+        jwt.setExp((System.currentTimeMillis() + 10000) / 1000l);
+
+        when(jwtService.decodeAndVerify(any(), any())).thenReturn(Single.just(jwt));
+        when(accessTokenRepository.findByToken("token-id")).thenReturn(Maybe.empty());
+
+        TestObserver<Token> testObserver = tokenService.getAccessToken("token", client).test();
+        testObserver.assertComplete();
+        testObserver.assertNoValues();
+
+        verify(accessTokenRepository, times(1)).findByToken("token-id");
+        verify(revokedTokenService, never()).isRevoked(anyString());
+    }
+
+    @Test
+    public void shouldGetAccessToken_stateless() {
+        Client client = new Client();
+        client.setClientId("my-client-id");
+        client.setStatelessAccessTokens(true);
+
+        JWT jwt = new JWT();
+        jwt.setJti("token-id");
+        jwt.setAud("my-client-id");
+        jwt.setExp((System.currentTimeMillis() + 10000) / 1000l);
+        jwt.setStateless(true);
+
+        when(jwtService.decodeAndVerify(any(), any())).thenReturn(Single.just(jwt));
+        when(revokedTokenService.isRevoked("token-id")).thenReturn(false);
+
+        TestObserver<Token> testObserver = tokenService.getAccessToken("token", client).test();
+        testObserver.assertComplete();
+        testObserver.assertValue(token -> "token-id".equals(token.getValue()));
+
+        verify(accessTokenRepository, never()).findByToken(anyString());
+    }
+
+    @Test
+    public void shouldNotGetAccessToken_statelessRevoked() {
+        Client client = new Client();
+        client.setClientId("my-client-id");
+        client.setStatelessAccessTokens(true);
+
+        JWT jwt = new JWT();
+        jwt.setJti("token-id");
+        jwt.setAud("my-client-id");
+        jwt.setExp((System.currentTimeMillis() + 10000) / 1000l);
+        jwt.setStateless(true);
+
+        when(jwtService.decodeAndVerify(any(), any())).thenReturn(Single.just(jwt));
+        when(revokedTokenService.isRevoked("token-id")).thenReturn(true);
+
+        TestObserver<Token> testObserver = tokenService.getAccessToken("token", client).test();
+        testObserver.assertComplete();
+        testObserver.assertNoValues();
+
+        verify(accessTokenRepository, never()).findByToken(anyString());
+    }
+
+    @Test
+    public void shouldIntrospect_cacheHit() {
+        JWT jwt = new JWT();
+        jwt.setJti("token-id");
+        jwt.setAud("my-client-id");
+        jwt.setExp((System.currentTimeMillis() + 10000) / 1000l);
+
+        when(jwtService.decode("token")).thenReturn(Single.just(jwt));
+        when(introspectionCache.get("token-id", "token")).thenReturn(jwt);
+
+        TestObserver<Token> testObserver = tokenService.introspect("token").test();
+        testObserver.assertComplete();
+        testObserver.assertValue(token -> "token-id".equals(token.getValue()) && token.getExpiresIn() > 0);
+
+        verify(clientService, never()).findByDomainAndClientId(anyString(), anyString());
+        verify(jwtService, never()).decodeAndVerify(any(), any());
+        verify(accessTokenRepository, never()).findByToken(anyString());
+    }
+
+    @Test
+    public void shouldIntrospect_cacheMiss() {
+        Client client = new Client();
+        client.setClientId("my-client-id");
+
+        JWT jwt = new JWT();
+        jwt.setJti("token-id");
+        jwt.setDomain("domain-id");
+        jwt.setAud("my-client-id");
+        jwt.setExp((System.currentTimeMillis() + 10000) / 1000l);
+
+        when(jwtService.decode("token")).thenReturn(Single.just(jwt));
+        when(introspectionCache.get("token-id", "token")).thenReturn(null);
+        when(clientService.findByDomainAndClientId("domain-id", "my-client-id")).thenReturn(Maybe.just(client));
+        when(jwtService.decodeAndVerify("token", client)).thenReturn(Single.just(jwt));
+        when(accessTokenRepository.findByToken("token-id")).thenReturn(Maybe.just(new io.gravitee.am.repository.oauth2.model.AccessToken()));
+
+        TestObserver<Token> testObserver = tokenService.introspect("token").test();
+        testObserver.assertComplete();
+        testObserver.assertValue(token -> "token-id".equals(token.getValue()));
+
+        verify(introspectionCache, times(1)).put("token", jwt);
+    }
+
+    @Test
+    public void shouldIntrospect_cacheHitRevoked() {
+        Client client = new Client();
+        client.setClientId("my-client-id");
+        client.setStatelessAccessTokens(true);
+
+        JWT jwt = new JWT();
+        jwt.setJti("token-id");
+        jwt.setDomain("domain-id");
+        jwt.setAud("my-client-id");
+        jwt.setExp((System.currentTimeMillis() + 10000) / 1000l);
+        jwt.setStateless(true);
+
+        when(jwtService.decode("token")).thenReturn(Single.just(jwt));
+        when(introspectionCache.get("token-id", "token")).thenReturn(jwt);
+        when(revokedTokenService.isRevoked("token-id")).thenReturn(true);
+        when(clientService.findByDomainAndClientId("domain-id", "my-client-id")).thenReturn(Maybe.just(client));
+        when(jwtService.decodeAndVerify("token", client)).thenReturn(Single.just(jwt));
+
+        TestObserver<Token> testObserver = tokenService.introspect("token").test();
+        testObserver.assertComplete();
+        testObserver.assertNoValues();
+
+        verify(introspectionCache, never()).put(anyString(), any());
+    }
+
     @Test
     public void shouldRefresh() {
         String clientId = "client-id";
@@ -112,8 +306,7 @@ public class TokenServiceTest {
         jwt.setExp(refreshToken.getExpireAt().getTime() / 1000l);
 
         when(jwtService.decodeAndVerify(any(), any())).thenReturn(Single.just(jwt));
-        when(refreshTokenRepository.findByToken(any())).thenReturn(Maybe.just(refreshToken));
-        when(refreshTokenRepository.delete(anyString())).thenReturn(Completable.complete());
+        when(refreshTokenRepository.consume(token)).thenReturn(Maybe.just(refreshToken));
         when(accessTokenRepository.create(any())).thenReturn(Single.just(new io.gravitee.am.repository.oauth2.model.AccessToken()));
         when(tokenEnhancer.enhance(any(), any(), any(), any())).thenReturn(Single.just(new AccessToken("token-id")));
 
@@ -121,8 +314,9 @@ public class TokenServiceTest {
         testObserver.assertComplete();
         testObserver.assertNoErrors();
 
-        verify(refreshTokenRepository, times(1)).findByToken(any());
-        verify(refreshTokenRepository, times(1)).delete(anyString());
+        verify(refreshTokenRepository, times(1)).consume(token);
+        verify(refreshTokenRepository, never()).findByToken(any());
+        verify(refreshTokenRepository, never()).delete(anyString());
     }
 
     @Test
@@ -146,13 +340,13 @@ public class TokenServiceTest {
         jwt.setExp(refreshToken.getExpireAt().getTime() / 1000l);
 
         when(jwtService.decodeAndVerify(any(), any())).thenReturn(Single.just(jwt));
-        when(refreshTokenRepository.findByToken(any())).thenReturn(Maybe.empty());
+        when(refreshTokenRepository.consume(any())).thenReturn(Maybe.empty());
 
         TestObserver<Token> testObserver = tokenService.refresh(any(), tokenRequest, any()).test();
         testObserver.assertNotComplete();
         testObserver.assertError(InvalidGrantException.class);
 
-        verify(refreshTokenRepository, times(1)).findByToken(any());
+        verify(refreshTokenRepository, times(1)).consume(any());
         verify(refreshTokenRepository, never()).delete(anyString());
         verify(accessTokenRepository, never()).create(any());
     }
@@ -178,13 +372,12 @@ public class TokenServiceTest {
         jwt.setExp(refreshToken.getExpireAt().getTime() / 1000l);
 
         when(jwtService.decodeAndVerify(any(), any())).thenReturn(Single.just(jwt));
-        when(refreshTokenRepository.findByToken(any())).thenReturn(Maybe.just(refreshToken));
 
         TestObserver<Token> testObserver = tokenService.refresh(refreshToken.getToken(), any(), any()).test();
         testObserver.assertNotComplete();
         testObserver.assertError(InvalidGrantException.class);
 
-        verify(refreshTokenRepository, times(1)).findByToken(any());
+        verify(refreshTokenRepository, never()).consume(any());
         verify(refreshTokenRepository, never()).delete(anyString());
         verify(accessTokenRepository, never()).create(any());
     }
@@ -210,13 +403,12 @@ public class TokenServiceTest {
         jwt.setExp(refreshToken.getExpireAt().getTime() / 1000l);
 
         when(jwtService.decodeAndVerify(any(), any())).thenReturn(Single.just(jwt));
-        when(refreshTokenRepository.findByToken(any())).thenReturn(Maybe.just(refreshToken));
 
         TestObserver<Token> testObserver = tokenService.refresh(refreshToken.getToken(), tokenRequest, client).test();
         testObserver.assertNotComplete();
         testObserver.assertError(InvalidGrantException.class);
 
-        verify(refreshTokenRepository, times(1)).findByToken(any());
+        verify(refreshTokenRepository, never()).consume(any());
         verify(refreshTokenRepository, never()).delete(anyString());
         verify(accessTokenRepository, never()).create(any());
     }
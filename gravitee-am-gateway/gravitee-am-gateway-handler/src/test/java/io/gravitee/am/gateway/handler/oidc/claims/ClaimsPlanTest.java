@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.oidc.claims;
+
+import io.gravitee.am.common.oidc.Scope;
+import io.gravitee.am.common.oidc.StandardClaims;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class ClaimsPlanTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClaimsPlanTest.class);
+
+    @Test
+    public void shouldResolveScopeClaims() {
+        ClaimsPlan claimsPlan = ClaimsPlan.of(new HashSet<>(Arrays.asList("openid", "email", "phone")));
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList(StandardClaims.EMAIL, StandardClaims.EMAIL_VERIFIED,
+                StandardClaims.PHONE_NUMBER, StandardClaims.PHONE_NUMBER_VERIFIED)), new HashSet<>(Arrays.asList(claimsPlan.getClaims())));
+    }
+
+    @Test
+    public void shouldResolveScopeClaims_scopeParameter() {
+        ClaimsPlan claimsPlan = ClaimsPlan.of("openid  EMAIL offline_access");
+
+        Assert.assertArrayEquals(new String[] { StandardClaims.EMAIL, StandardClaims.EMAIL_VERIFIED }, claimsPlan.getClaims());
+    }
+
+    @Test
+    public void shouldBeEmpty_noClaimsScope() {
+        Assert.assertTrue(ClaimsPlan.of(new HashSet<>(Arrays.asList("openid", "read"))).isEmpty());
+        Assert.assertTrue(ClaimsPlan.of("openid read").isEmpty());
+        Assert.assertTrue(ClaimsPlan.of((String) null).isEmpty());
+        Assert.assertTrue(ClaimsPlan.of(Collections.<String>emptySet()).isEmpty());
+    }
+
+    @Test
+    public void shouldCachePlan() {
+        Set<String> scopes = new HashSet<>(Arrays.asList("openid", "profile"));
+
+        ClaimsPlan claimsPlan = ClaimsPlan.of(scopes);
+        scopes.add("email");
+
+        Assert.assertSame(claimsPlan, ClaimsPlan.of(new HashSet<>(Arrays.asList("profile", "openid"))));
+        Assert.assertNotSame(claimsPlan, ClaimsPlan.of(scopes));
+        Assert.assertSame(ClaimsPlan.of("openid profile"), ClaimsPlan.of("openid profile"));
+    }
+
+    @Test
+    public void shouldApply() {
+        Map<String, Object> userClaims = userClaims();
+        userClaims.put(StandardClaims.PHONE_NUMBER, null);
+        Map<String, Object> requestedClaims = new HashMap<>();
+        requestedClaims.put(StandardClaims.EMAIL, "other@example.com");
+
+        ClaimsPlan.of("openid email phone").apply(userClaims, requestedClaims);
+
+        Map<String, Object> expectedClaims = new HashMap<>();
+        expectedClaims.put(StandardClaims.EMAIL, "other@example.com");
+        expectedClaims.put(StandardClaims.EMAIL_VERIFIED, true);
+        expectedClaims.put(StandardClaims.PHONE_NUMBER, null);
+        Assert.assertEquals(expectedClaims, requestedClaims);
+    }
+
+    /**
+     * Bytes allocated to select the claims of an "openid profile email" request, with the former per-request
+     * scope-to-claims mapping and with a claims plan.
+     */
+    @Test
+    public void shouldReduceAllocations_benchmark() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assume.assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported() && allocationMXBean.isThreadAllocatedMemoryEnabled());
+
+        final int iterations = 100000;
+        final Set<String> scopes = new HashSet<>(Arrays.asList("openid", "profile", "email"));
+        final Map<String, Object> userClaims = userClaims();
+        final long threadId = Thread.currentThread().getId();
+
+        // warm-up
+        for (int i = 0; i < iterations; i++) {
+            perRequestMapping(scopes, userClaims, new HashMap<>(32));
+            ClaimsPlan.of(scopes).apply(userClaims, new HashMap<>(32));
+        }
+
+        long start = allocationMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            perRequestMapping(scopes, userClaims, new HashMap<>(32));
+        }
+        long perRequestBytes = (allocationMXBean.getThreadAllocatedBytes(threadId) - start) / iterations;
+
+        start = allocationMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            ClaimsPlan.of(scopes).apply(userClaims, new HashMap<>(32));
+        }
+        long claimsPlanBytes = (allocationMXBean.getThreadAllocatedBytes(threadId) - start) / iterations;
+
+        logger.info("Claims selection: {} bytes/op with per-request scope mapping, {} bytes/op with a claims plan", perRequestBytes, claimsPlanBytes);
+
+        Assert.assertTrue(claimsPlanBytes < perRequestBytes);
+    }
+
+    private static void perRequestMapping(Set<String> scopes, Map<String, Object> userClaims, Map<String, Object> requestedClaims) {
+        final List<String> scopesClaims = scopes.stream()
+                .map(scope -> scope.toUpperCase())
+                .filter(scope -> Scope.exists(scope) && !Scope.valueOf(scope).getClaims().isEmpty())
+                .map(scope -> Scope.valueOf(scope))
+                .map(scope -> scope.getClaims())
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        scopesClaims.forEach(scopeClaim -> {
+            if (userClaims.containsKey(scopeClaim)) {
+                requestedClaims.putIfAbsent(scopeClaim, userClaims.get(scopeClaim));
+            }
+        });
+    }
+
+    private static Map<String, Object> userClaims() {
+        Map<String, Object> userClaims = new HashMap<>();
+        userClaims.put(StandardClaims.SUB, "id-subject");
+        userClaims.put(StandardClaims.NAME, "John Doe");
+        userClaims.put(StandardClaims.GIVEN_NAME, "John");
+        userClaims.put(StandardClaims.FAMILY_NAME, "Doe");
+        userClaims.put(StandardClaims.PREFERRED_USERNAME, "john.doe");
+        userClaims.put(StandardClaims.LOCALE, "fr-FR");
+        userClaims.put(StandardClaims.EMAIL, "john.doe@example.com");
+        userClaims.put(StandardClaims.EMAIL_VERIFIED, true);
+        return userClaims;
+    }
+}
@@ -15,7 +15,6 @@
  */
 package io.gravitee.am.gateway.handler.oidc.idtoken;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.gravitee.am.certificate.api.CertificateProvider;
 import io.gravitee.am.common.jwt.JWT;
 import io.gravitee.am.common.oidc.StandardClaims;
@@ -64,8 +63,6 @@ public class IDTokenServiceTest {
     @Mock
     private JwtService jwtService;
 
-    private ObjectMapper objectMapper = new ObjectMapper();
-
     @Test
     public void shouldCreateIDToken_clientOnly_clientCertificate() {
         OAuth2Request oAuth2Request = new OAuth2Request();
@@ -141,7 +138,6 @@ public class IDTokenServiceTest {
         when(certificateManager.defaultCertificateProvider()).thenReturn(new io.gravitee.am.gateway.handler.certificate.CertificateProvider(defaultCertificateProvider));
         when(certificateManager.get(anyString())).thenReturn(Maybe.just(new io.gravitee.am.gateway.handler.certificate.CertificateProvider(certificateProvider)));
         when(jwtService.encode(any(), any(io.gravitee.am.gateway.handler.certificate.CertificateProvider.class))).thenReturn(Single.just("test"));
-        ((IDTokenServiceImpl) idTokenService).setObjectMapper(objectMapper);
 
         TestObserver<String> testObserver = idTokenService.create(oAuth2Request, client, user).test();
 
@@ -300,7 +296,6 @@ public class IDTokenServiceTest {
         when(certificateManager.defaultCertificateProvider()).thenReturn(new io.gravitee.am.gateway.handler.certificate.CertificateProvider(defaultCertificateProvider));
         when(certificateManager.get(anyString())).thenReturn(Maybe.just(new io.gravitee.am.gateway.handler.certificate.CertificateProvider(certificateProvider)));
         when(jwtService.encode(any(), any(io.gravitee.am.gateway.handler.certificate.CertificateProvider.class))).thenReturn(Single.just("test"));
-        ((IDTokenServiceImpl) idTokenService).setObjectMapper(objectMapper);
 
         TestObserver<String> testObserver = idTokenService.create(oAuth2Request, client, user).test();
 
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.handler.vertx.utils;
+
+import io.gravitee.am.common.oidc.StandardClaims;
+import io.gravitee.am.gateway.handler.oauth2.token.impl.AccessToken;
+import io.gravitee.am.gateway.handler.oauth2.utils.OAuth2Constants;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class JsonResponseWriterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonResponseWriterTest.class);
+
+    @Test
+    public void shouldWriteClaims() {
+        Map<String, Object> claims = claims();
+
+        String json = JsonResponseWriter.write(claims).toString();
+
+        Assert.assertFalse(json.contains("\n"));
+        Assert.assertEquals(new JsonObject(Json.encodePrettily(claims)), new JsonObject(json));
+    }
+
+    @Test
+    public void shouldWriteClaims_nestedValues() {
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("street_address", "1 rue \"Gravitee\"");
+        address.put("country", null);
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(StandardClaims.SUB, "id-subject");
+        claims.put(StandardClaims.ADDRESS, address);
+        claims.put("groups", Arrays.asList("admin", "dev"));
+        claims.put("score", 12.5d);
+        claims.put(StandardClaims.UPDATED_AT, 1500000000L);
+
+        String json = JsonResponseWriter.write(claims).toString();
+
+        Assert.assertEquals(new JsonObject(Json.encodePrettily(claims)), new JsonObject(json));
+    }
+
+    @Test
+    public void shouldWriteAccessToken() {
+        AccessToken accessToken = accessToken();
+
+        String json = JsonResponseWriter.write(accessToken).toString();
+
+        Assert.assertFalse(json.contains("\n"));
+        Assert.assertEquals(new JsonObject(Json.encodePrettily(accessToken)), new JsonObject(json));
+        Assert.assertTrue(json.startsWith("{\"access_token\":\"" + accessToken.getValue() + "\",\"token_type\":\"bearer\""));
+    }
+
+    @Test
+    public void shouldWriteAccessToken_withoutOptionalFields() {
+        AccessToken accessToken = new AccessToken("token-value");
+        accessToken.setTokenType("bearer");
+        accessToken.setExpiresIn(7200);
+
+        Assert.assertEquals("{\"access_token\":\"token-value\",\"token_type\":\"bearer\",\"expires_in\":7200}",
+                JsonResponseWriter.write(accessToken).toString());
+    }
+
+    /**
+     * Encoding of a typical 20 claims UserInfo response and of a token response with an id_token, compared to the
+     * pretty printed encoding through the object mapper.
+     */
+    @Test
+    public void shouldBeCompact_benchmark() {
+        final int iterations = 20000;
+        Map<String, Object> claims = claims();
+        AccessToken accessToken = accessToken();
+
+        // warm-up
+        for (int i = 0; i < iterations; i++) {
+            Json.encodePrettily(claims);
+            Json.encodePrettily(accessToken);
+            JsonResponseWriter.write(claims);
+            JsonResponseWriter.write(accessToken);
+        }
+
+        long start = System.nanoTime();
+        int prettyClaimsSize = 0;
+        for (int i = 0; i < iterations; i++) {
+            prettyClaimsSize = io.vertx.core.buffer.Buffer.buffer(Json.encodePrettily(claims)).length();
+        }
+        long prettyClaimsDuration = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int compactClaimsSize = 0;
+        for (int i = 0; i < iterations; i++) {
+            compactClaimsSize = JsonResponseWriter.write(claims).length();
+        }
+        long compactClaimsDuration = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int prettyTokenSize = 0;
+        for (int i = 0; i < iterations; i++) {
+            prettyTokenSize = io.vertx.core.buffer.Buffer.buffer(Json.encodePrettily(accessToken)).length();
+        }
+        long prettyTokenDuration = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int compactTokenSize = 0;
+        for (int i = 0; i < iterations; i++) {
+            compactTokenSize = JsonResponseWriter.write(accessToken).length();
+        }
+        long compactTokenDuration = System.nanoTime() - start;
+
+        logger.info("UserInfo response: pretty {} bytes in {}ns/op, compact {} bytes in {}ns/op",
+                prettyClaimsSize, prettyClaimsDuration / iterations, compactClaimsSize, compactClaimsDuration / iterations);
+        logger.info("Token response: pretty {} bytes in {}ns/op, compact {} bytes in {}ns/op",
+                prettyTokenSize, prettyTokenDuration / iterations, compactTokenSize, compactTokenDuration / iterations);
+
+        Assert.assertTrue(compactClaimsSize < prettyClaimsSize);
+        Assert.assertTrue(compactTokenSize < prettyTokenSize);
+    }
+
+    private Map<String, Object> claims() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(StandardClaims.SUB, "0b3bd0b4-5ad5-4e64-9d1f-f4c6e9c3e7a1");
+        claims.put(StandardClaims.NAME, "John Doe");
+        claims.put(StandardClaims.GIVEN_NAME, "John");
+        claims.put(StandardClaims.FAMILY_NAME, "Doe");
+        claims.put(StandardClaims.MIDDLE_NAME, "Jim");
+        claims.put(StandardClaims.NICKNAME, "johnny");
+        claims.put(StandardClaims.PREFERRED_USERNAME, "john.doe");
+        claims.put(StandardClaims.PROFILE, "https://profiles.example.com/john.doe");
+        claims.put(StandardClaims.PICTURE, "https://profiles.example.com/john.doe/picture.png");
+        claims.put(StandardClaims.WEBSITE, "https://john.doe.example.com");
+        claims.put(StandardClaims.EMAIL, "john.doe@example.com");
+        claims.put(StandardClaims.EMAIL_VERIFIED, true);
+        claims.put(StandardClaims.GENDER, "male");
+        claims.put(StandardClaims.BIRTHDATE, "1970-01-01");
+        claims.put(StandardClaims.ZONEINFO, "Europe/Paris");
+        claims.put(StandardClaims.LOCALE, "fr-FR");
+        claims.put(StandardClaims.PHONE_NUMBER, "+33 1 23 45 67 89");
+        claims.put(StandardClaims.PHONE_NUMBER_VERIFIED, false);
+        claims.put(StandardClaims.UPDATED_AT, 1530000000);
+        claims.put("department", "Engineering");
+        return claims;
+    }
+
+    private AccessToken accessToken() {
+        AccessToken accessToken = new AccessToken("b4e6d4a8-7e2f-4c4c-8b7d-1d2a0c5b9e3f");
+        accessToken.setTokenType("bearer");
+        accessToken.setExpiresIn(7200);
+        accessToken.setScope("openid profile email");
+        accessToken.setRefreshToken("0c5e8e8c-1b3c-4f11-a2c7-3d2f7e4c9a10");
+        StringBuilder idToken = new StringBuilder("eyJraWQiOiJkZWZhdWx0LWdyYXZpdGVlLUFNLWtleSIsImFsZyI6IlJTMjU2In0.");
+        for (int i = 0; i < 12; i++) {
+            idToken.append("eyJzdWIiOiIwYjNiZDBiNC01YWQ1LTRlNjQtOWQxZi1mNGM2ZTljM2U3YTEifQ");
+        }
+        idToken.append(".c2lnbmF0dXJl");
+        accessToken.setAdditionalInformation(Collections.singletonMap(OAuth2Constants.ID_TOKEN, idToken.toString()));
+        return accessToken;
+    }
+}
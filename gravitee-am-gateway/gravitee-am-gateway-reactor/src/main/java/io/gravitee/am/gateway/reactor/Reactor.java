@@ -26,6 +26,15 @@ public interface Reactor extends Service {
 
     Router route();
 
+    /**
+     * Mount a router on the given context path. If a router is already mounted on this path, it is atomically
+     * replaced: requests already dispatched to the previous router complete on it, the next ones are handled by the
+     * new router.
+     *
+     * @param contextPath the context path
+     * @param child the router to mount
+     * @return the root router
+     */
     Router mountSubRouter(String contextPath, Router child);
 
     Router unMountSubRouter(String contextPath);
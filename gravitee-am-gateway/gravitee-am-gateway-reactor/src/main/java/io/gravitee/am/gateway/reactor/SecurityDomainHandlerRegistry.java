@@ -19,6 +19,7 @@ import io.gravitee.am.gateway.handler.vertx.VertxSecurityDomainHandler;
 import io.gravitee.am.model.Domain;
 
 import java.util.Collection;
+import java.util.Map;
 
 /**
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
@@ -35,4 +36,14 @@ public interface SecurityDomainHandlerRegistry {
     void clear();
 
     Collection<VertxSecurityDomainHandler> getSecurityDomainHandlers();
+
+    /**
+     * @return <code>true</code> once the domains found at startup have all been deployed
+     */
+    boolean isReady();
+
+    /**
+     * @return the duration (ms) of the last deployment of each domain, indexed by domain id
+     */
+    Map<String, Long> getDeploymentTimes();
 }
@@ -30,10 +30,14 @@ import io.vertx.reactivex.core.Vertx;
 import io.vertx.reactivex.core.buffer.Buffer;
 import io.vertx.reactivex.core.http.HttpServerResponse;
 import io.vertx.reactivex.ext.web.Router;
+import io.vertx.reactivex.ext.web.RoutingContext;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
@@ -55,6 +59,11 @@ public class DefaultReactor extends AbstractService implements Reactor, EventLis
 
     private Router router;
 
+    private final ConcurrentMap<String, MountPoint> mountPoints = new ConcurrentHashMap<>();
+
+    // number of segments of the deepest mounted context path
+    private volatile int maxDepth;
+
     @Override
     public void doStart() throws Exception {
         super.doStart();
@@ -91,16 +100,27 @@ public class DefaultReactor extends AbstractService implements Reactor, EventLis
 
     @Override
     public Router mountSubRouter(String contextPath, Router child) {
-        router.mountSubRouter(contextPath, child);
+        // each mount point has its own dispatcher router holding a single route, as created by Router#mountSubRouter,
+        // which delegates to the current router of the mount point so that it can be swapped
+        mountPoints.compute(contextPath, (path, mountPoint) -> {
+            if (mountPoint == null) {
+                MountPoint newMountPoint = new MountPoint(Router.router(vertx), child);
+                newMountPoint.dispatcher.route(path + "*")
+                        .handler(context -> newMountPoint.router.handleContext(context))
+                        .failureHandler(context -> newMountPoint.router.handleFailure(context));
+                return newMountPoint;
+            }
+            mountPoint.router = child;
+            return mountPoint;
+        });
+        maxDepth = Math.max(maxDepth, depth(contextPath));
 
         return router;
     }
 
     @Override
     public Router unMountSubRouter(String contextPath) {
-        router.getRoutes().stream()
-                .filter(route -> route.getPath() != null && route.getPath().startsWith(contextPath))
-                .forEach(route -> route.remove());
+        mountPoints.remove(contextPath);
 
         return router;
     }
@@ -108,9 +128,54 @@ public class DefaultReactor extends AbstractService implements Reactor, EventLis
     @Override
     public void afterPropertiesSet() {
         router = Router.router(vertx);
+        // a single route for all the security domains, the mount point is looked up from the request path instead of
+        // matching the route of every mounted domain
+        router.route("/*")
+                .handler(context -> dispatch(context, false))
+                .failureHandler(context -> dispatch(context, true));
         router.route().last().handler(context -> sendNotFound(context.response()));
     }
 
+    private void dispatch(RoutingContext context, boolean failure) {
+        MountPoint mountPoint = lookup(context.normalisedPath());
+        if (mountPoint == null) {
+            context.next();
+        } else if (failure) {
+            mountPoint.dispatcher.handleFailure(context);
+        } else {
+            mountPoint.dispatcher.handleContext(context);
+        }
+    }
+
+    /**
+     * Look up the mount point of a request path by probing its first segments ("/a", then "/a/b", ...), the deepest
+     * mounted context path wins. Domains being mounted on a single segment, this is a single map lookup.
+     */
+    private MountPoint lookup(String path) {
+        MountPoint found = null;
+        int end = 0;
+        for (int depth = 0; depth < maxDepth && end < path.length(); depth++) {
+            int next = path.indexOf('/', end + 1);
+            end = (next == -1) ? path.length() : next;
+            MountPoint mountPoint = mountPoints.get(path.substring(0, end));
+            if (mountPoint != null) {
+                found = mountPoint;
+            }
+        }
+
+        return (found != null) ? found : mountPoints.get("/");
+    }
+
+    private static int depth(String contextPath) {
+        int depth = 0;
+        for (int i = 0; i < contextPath.length(); i++) {
+            if (contextPath.charAt(i) == '/') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
     private void sendNotFound(HttpServerResponse serverResponse) {
         // Send a NOT_FOUND HTTP status code (404)
         serverResponse.setStatusCode(HttpStatusCode.NOT_FOUND_404);
@@ -124,4 +189,14 @@ public class DefaultReactor extends AbstractService implements Reactor, EventLis
         serverResponse.end();
     }
 
+    private static class MountPoint {
+
+        private final Router dispatcher;
+        private volatile Router router;
+
+        private MountPoint(Router dispatcher, Router router) {
+            this.dispatcher = dispatcher;
+            this.router = router;
+        }
+    }
 }
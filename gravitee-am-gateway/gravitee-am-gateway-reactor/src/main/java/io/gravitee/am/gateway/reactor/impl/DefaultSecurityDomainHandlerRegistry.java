@@ -15,28 +15,57 @@
  */
 package io.gravitee.am.gateway.reactor.impl;
 
+import io.gravitee.am.gateway.core.event.SyncEvent;
 import io.gravitee.am.gateway.handler.SecurityDomainRouterFactory;
 import io.gravitee.am.gateway.handler.vertx.VertxSecurityDomainHandler;
 import io.gravitee.am.gateway.reactor.Reactor;
 import io.gravitee.am.gateway.reactor.SecurityDomainHandlerRegistry;
 import io.gravitee.am.model.Domain;
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Registry of the deployed security domain handlers.
+ *
+ * An updated domain keeps its handler (and its services): the new metadata is applied to the handler and a new router
+ * is swapped in place of the mounted one. A redeployed domain gets a new handler, the replaced handler is destroyed
+ * (components stopped, application context closed) once its in-flight requests have been served, or after the drain
+ * timeout.
+ *
+ * Handlers are built outside of the registry lock so that domains can be deployed in parallel. The registry is ready
+ * once the domains found by the initial synchronization have been deployed.
+ *
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
  * @author GraviteeSource Team
  */
-public class DefaultSecurityDomainHandlerRegistry implements SecurityDomainHandlerRegistry {
+public class DefaultSecurityDomainHandlerRegistry implements SecurityDomainHandlerRegistry, EventListener<SyncEvent, Set<Domain>>, InitializingBean {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultSecurityDomainHandlerRegistry.class);
+    private static final long DRAIN_CHECK_INTERVAL = 100;
+
     private final ConcurrentMap<String, VertxSecurityDomainHandler> handlers = new ConcurrentHashMap<>();
     private final ConcurrentMap<Object, String> contextPaths = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService drainExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "gio-am-domain-drain");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Autowired
     private SecurityDomainRouterFactory securityDomainRouterFactory;
@@ -44,48 +73,76 @@ public class DefaultSecurityDomainHandlerRegistry implements SecurityDomainHandl
     @Autowired
     private Reactor reactor;
 
+    @Autowired
+    private EventManager eventManager;
+
+    @Value("${handlers.domain.drainTimeout:30000}")
+    private long drainTimeout;
+
+    private final ConcurrentMap<String, Long> deploymentTimes = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
     @Override
     public void create(Domain domain) {
-        logger.info("Register a new domain for {} on path {}", domain.getId(), domain.getPath());
+        if (contextPaths.containsKey(domain)) {
+            logger.info("Reload domain {} on path {}", domain.getId(), domain.getPath());
+        } else {
+            logger.info("Register a new domain for {} on path {}", domain.getId(), domain.getPath());
+        }
 
+        // the handler is built outside of the lock, domains are deployed in parallel at startup
+        long start = System.currentTimeMillis();
         VertxSecurityDomainHandler handler = create0(domain);
-        if (handler != null) {
-            try {
-                //handler.start();
-                handlers.putIfAbsent(handler.contextPath(), handler);
-                contextPaths.putIfAbsent(domain, handler.contextPath());
-                reactor.mountSubRouter(handler.contextPath(), handler.create());
-            } catch (Exception ex) {
-                logger.error("Unable to register handler", ex);
-            }
-        }
+        register(domain, handler, start);
     }
 
     @Override
-    public void update(Domain domain) {
+    public synchronized void update(Domain domain) {
         String contextPath = contextPaths.get(domain);
-        if (contextPath != null) {
-            VertxSecurityDomainHandler handler = handlers.get(contextPath);
-            if (handler != null) {
-                remove(domain);
-                create(domain);
-            }
-        } else {
+        VertxSecurityDomainHandler handler = (contextPath != null) ? handlers.get(contextPath) : null;
+        if (handler == null) {
             create(domain);
+            return;
+        }
+
+        if (!domain.isEnabled()) {
+            remove(domain);
+            return;
+        }
+
+        logger.info("Update domain {} on path {}", domain.getId(), domain.getPath());
+        String newContextPath = '/' + domain.getPath();
+        if (!newContextPath.equals(contextPath) && handlers.containsKey(newContextPath)) {
+            logger.error("Unable to move domain {} to path {}, the path is already used", domain.getId(), newContextPath);
+            return;
+        }
+
+        try {
+            handler.update(domain);
+            reactor.mountSubRouter(newContextPath, handler.create());
+            if (!newContextPath.equals(contextPath)) {
+                handlers.put(newContextPath, handler);
+                contextPaths.put(domain, newContextPath);
+                handlers.remove(contextPath);
+                reactor.unMountSubRouter(contextPath);
+            }
+        } catch (Exception ex) {
+            logger.error("Unable to update handler", ex);
         }
     }
 
     @Override
-    public void remove(Domain domain) {
+    public synchronized void remove(Domain domain) {
         String contextPath = contextPaths.remove(domain);
+        deploymentTimes.remove(domain.getId());
         if (contextPath != null) {
             VertxSecurityDomainHandler handler = handlers.remove(contextPath);
 
             if (handler != null) {
                 try {
-                    //handler.stop();
-                    handlers.remove(handler.contextPath());
-                    reactor.unMountSubRouter(handler.contextPath());
+                    reactor.unMountSubRouter(contextPath);
+                    retire(handler);
                     logger.info("Security Domain has been unregistered");
                 } catch (Exception e) {
                     logger.error("Unable to un-register handler", e);
@@ -95,16 +152,17 @@ public class DefaultSecurityDomainHandlerRegistry implements SecurityDomainHandl
     }
 
     @Override
-    public void clear() {
-        handlers.forEach((s, handler) -> {
+    public synchronized void clear() {
+        handlers.forEach((contextPath, handler) -> {
             try {
-               // handler.stop();
-                handlers.remove(handler.contextPath());
+                handlers.remove(contextPath);
+                securityDomainRouterFactory.destroy(handler);
             } catch (Exception e) {
                 logger.error("Unable to un-register handler", e);
             }
         });
         contextPaths.clear();
+        deploymentTimes.clear();
     }
 
     @Override
@@ -112,6 +170,117 @@ public class DefaultSecurityDomainHandlerRegistry implements SecurityDomainHandl
         return handlers.values();
     }
 
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public Map<String, Long> getDeploymentTimes() {
+        return Collections.unmodifiableMap(deploymentTimes);
+    }
+
+    @Override
+    public void onEvent(Event<SyncEvent, Set<Domain>> event) {
+        if (event.type() == SyncEvent.SYNCHRONIZED && !ready) {
+            Set<Domain> domains = event.content();
+            long mountedDomains = domains.stream().filter(contextPaths::containsKey).count();
+            if (mountedDomains < domains.size()) {
+                logger.warn("{} of {} security domains have failed to deploy", domains.size() - mountedDomains, domains.size());
+            }
+            deploymentTimes.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .ifPresent(slowest -> logger.info("{} security domains deployed, the slowest one ({}) in {} ms",
+                            mountedDomains, slowest.getKey(), slowest.getValue()));
+            ready = true;
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        eventManager.subscribeForEvents(this, SyncEvent.class);
+    }
+
+    public void setDrainTimeout(long drainTimeout) {
+        this.drainTimeout = drainTimeout;
+    }
+
+    private synchronized void register(Domain domain, VertxSecurityDomainHandler handler, long start) {
+        String contextPath = contextPaths.get(domain);
+        // domain already deployed, reload it
+        boolean registered = (contextPath != null) ? replace(domain, contextPath, handler) : mount(domain, handler);
+
+        if (registered) {
+            long deploymentTime = System.currentTimeMillis() - start;
+            deploymentTimes.put(domain.getId(), deploymentTime);
+            logger.info("Domain {} deployed on path {} in {} ms", domain.getId(), handler.contextPath(), deploymentTime);
+        }
+    }
+
+    private boolean mount(Domain domain, VertxSecurityDomainHandler handler) {
+        if (handler == null) {
+            return false;
+        }
+
+        try {
+            handlers.put(handler.contextPath(), handler);
+            contextPaths.put(domain, handler.contextPath());
+            reactor.mountSubRouter(handler.contextPath(), handler.create());
+            return true;
+        } catch (Exception ex) {
+            logger.error("Unable to register handler", ex);
+            return false;
+        }
+    }
+
+    private boolean replace(Domain domain, String contextPath, VertxSecurityDomainHandler handler) {
+        if (handler == null) {
+            remove(domain);
+            return false;
+        }
+
+        try {
+            // mount the new handler before retiring the previous one, requests are never left without a router
+            reactor.mountSubRouter(handler.contextPath(), handler.create());
+            VertxSecurityDomainHandler previousHandler = handlers.remove(contextPath);
+            handlers.put(handler.contextPath(), handler);
+            contextPaths.put(domain, handler.contextPath());
+            if (!handler.contextPath().equals(contextPath)) {
+                reactor.unMountSubRouter(contextPath);
+            }
+            if (previousHandler != null) {
+                retire(previousHandler);
+            }
+            return true;
+        } catch (Exception ex) {
+            logger.error("Unable to reload handler", ex);
+            return false;
+        }
+    }
+
+    private void retire(VertxSecurityDomainHandler handler) {
+        // the first check is delayed, a request may have been dispatched to the previous router just before the swap
+        long retiredAt = System.currentTimeMillis();
+        drainExecutor.schedule(() -> drain(handler, retiredAt), DRAIN_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private void drain(VertxSecurityDomainHandler handler, long retiredAt) {
+        int inflightRequests = handler.getInflightRequests();
+        if (inflightRequests > 0 && System.currentTimeMillis() - retiredAt < drainTimeout) {
+            drainExecutor.schedule(() -> drain(handler, retiredAt), DRAIN_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        if (inflightRequests > 0) {
+            logger.warn("Destroying handler of domain {} with {} in-flight requests", handler.getDomain().getId(), inflightRequests);
+        }
+        try {
+            securityDomainRouterFactory.destroy(handler);
+        } catch (Exception ex) {
+            logger.error("Unable to destroy handler of domain {}", handler.getDomain().getId(), ex);
+        }
+    }
+
     private VertxSecurityDomainHandler create0(Domain domain) {
         return securityDomainRouterFactory.create(domain);
     }
@@ -16,10 +16,21 @@
 package io.gravitee.am.gateway.reactor.spring;
 
 import io.gravitee.am.gateway.handler.SecurityDomainRouterFactory;
+import io.gravitee.am.gateway.handler.certificate.CertificateRegistry;
+import io.gravitee.am.gateway.handler.certificate.impl.CertificateRegistryImpl;
+import io.gravitee.am.gateway.handler.jwt.JwtWorkerExecutor;
+import io.gravitee.am.gateway.handler.oauth2.client.ClientRegistry;
+import io.gravitee.am.gateway.handler.oauth2.client.impl.ClientRegistryImpl;
+import io.gravitee.am.gateway.handler.oauth2.introspection.IntrospectionCache;
+import io.gravitee.am.gateway.handler.oauth2.revocation.RevokedTokenService;
+import io.gravitee.am.gateway.handler.oauth2.revocation.impl.RevokedTokenServiceImpl;
 import io.gravitee.am.gateway.reactor.Reactor;
 import io.gravitee.am.gateway.reactor.SecurityDomainHandlerRegistry;
 import io.gravitee.am.gateway.reactor.impl.DefaultReactor;
 import io.gravitee.am.gateway.reactor.impl.DefaultSecurityDomainHandlerRegistry;
+import io.gravitee.am.gateway.service.DomainResourceService;
+import io.gravitee.am.gateway.service.impl.DomainResourceServiceImpl;
+import io.gravitee.am.service.authentication.crypto.password.PasswordHashingExecutor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -44,4 +55,39 @@ public class ReactorConfiguration {
     public SecurityDomainRouterFactory securityDomainRouterFactory() {
         return new SecurityDomainRouterFactory();
     }
+
+    @Bean
+    public JwtWorkerExecutor jwtWorkerExecutor() {
+        return new JwtWorkerExecutor();
+    }
+
+    @Bean
+    public PasswordHashingExecutor passwordHashingExecutor() {
+        return new PasswordHashingExecutor();
+    }
+
+    @Bean
+    public ClientRegistry clientRegistry() {
+        return new ClientRegistryImpl();
+    }
+
+    @Bean
+    public CertificateRegistry certificateRegistry() {
+        return new CertificateRegistryImpl();
+    }
+
+    @Bean
+    public IntrospectionCache introspectionCache() {
+        return new IntrospectionCache();
+    }
+
+    @Bean
+    public RevokedTokenService revokedTokenService() {
+        return new RevokedTokenServiceImpl();
+    }
+
+    @Bean
+    public DomainResourceService domainResourceService() {
+        return new DomainResourceServiceImpl();
+    }
 }
@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.reactor.impl;
+
+import io.gravitee.am.gateway.reactor.SecurityDomainHandlerRegistry;
+import io.gravitee.common.event.EventManager;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.ext.web.Router;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultReactorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultReactorTest.class);
+
+    private static final Vertx vertx = Vertx.vertx();
+
+    @InjectMocks
+    private DefaultReactor reactor = new DefaultReactor();
+
+    @Spy
+    private Vertx spyVertx = vertx;
+
+    @Mock
+    private Environment environment;
+
+    @Mock
+    private SecurityDomainHandlerRegistry securityDomainHandlerRegistry;
+
+    @Mock
+    private EventManager eventManager;
+
+    private final AtomicReference<String> handledBy = new AtomicReference<>();
+
+    @Before
+    public void setUp() {
+        when(environment.getProperty("http.errors[404].message", "")).thenReturn("Not found");
+        reactor.afterPropertiesSet();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        vertx.close();
+    }
+
+    @Test
+    public void shouldDispatchToDomain() {
+        reactor.mountSubRouter("/domain-1", domainRouter("domain-1"));
+        reactor.mountSubRouter("/domain-2", domainRouter("domain-2"));
+
+        Assert.assertEquals("domain-2", dispatch("/domain-2/oauth/token"));
+        Assert.assertEquals("domain-1", dispatch("/domain-1/oauth/token?grant_type=client_credentials"));
+    }
+
+    @Test
+    public void shouldNotDispatch_unknownDomain() {
+        reactor.mountSubRouter("/domain-1", domainRouter("domain-1"));
+
+        HttpServerResponse response = mock(HttpServerResponse.class);
+        Assert.assertNull(dispatch("/domain-2/oauth/token", response));
+        verify(response).setStatusCode(404);
+    }
+
+    @Test
+    public void shouldNotDispatch_pathPrefix() {
+        reactor.mountSubRouter("/domain-1", domainRouter("domain-1"));
+
+        Assert.assertNull(dispatch("/domain-10/oauth/token"));
+    }
+
+    @Test
+    public void shouldDispatchToDomain_multipleSegments() {
+        reactor.mountSubRouter("/tenant", domainRouter("tenant"));
+        reactor.mountSubRouter("/tenant/domain-1", domainRouter("tenant-domain-1"));
+
+        Assert.assertEquals("tenant-domain-1", dispatch("/tenant/domain-1/oauth/token"));
+        Assert.assertEquals("tenant", dispatch("/tenant/oauth/token"));
+    }
+
+    @Test
+    public void shouldDispatchToSwappedRouter() {
+        reactor.mountSubRouter("/domain-1", domainRouter("domain-1"));
+        reactor.mountSubRouter("/domain-1", domainRouter("domain-1-updated"));
+
+        Assert.assertEquals("domain-1-updated", dispatch("/domain-1/oauth/token"));
+    }
+
+    @Test
+    public void shouldNotDispatch_unmounted() {
+        reactor.mountSubRouter("/domain-1", domainRouter("domain-1"));
+        reactor.unMountSubRouter("/domain-1");
+
+        Assert.assertNull(dispatch("/domain-1/oauth/token"));
+    }
+
+    @Test
+    public void shouldHandleDomainFailure() {
+        Router domainRouter = Router.router(vertx);
+        domainRouter.route("/oauth/token").handler(context -> context.fail(new IllegalStateException()));
+        domainRouter.route().failureHandler(context -> handledBy.set("domain-1-failure"));
+        reactor.mountSubRouter("/domain-1", domainRouter);
+
+        Assert.assertEquals("domain-1-failure", dispatch("/domain-1/oauth/token"));
+    }
+
+    /**
+     * Dispatch latency according to the number of mounted domains, compared to a root router on which every domain is
+     * mounted as a sub-router. Latencies are only logged, the dispatch is checked not to depend on the mounted domains.
+     */
+    @Test
+    public void shouldDispatchInConstantTime_benchmark() {
+        final int requests = 500;
+        long[] domainCounts = {10, 1000, 10000};
+
+        for (long domains : domainCounts) {
+            Router subRouters = Router.router(vertx);
+            for (int i = 0; i < domains; i++) {
+                subRouters.mountSubRouter("/domain-" + i, domainRouter("domain-" + i));
+                reactor.mountSubRouter("/domain-" + i, domainRouter("domain-" + i));
+            }
+            // worst case of the sub-routers, the last mounted domain
+            String lastDomain = "domain-" + (domains - 1);
+            String path = "/" + lastDomain + "/oauth/token";
+
+            long subRouterLatency = measure(subRouters, path, requests);
+            Assert.assertEquals(lastDomain, handledBy.get());
+            long reactorLatency = measure(reactor.route(), path, requests);
+            Assert.assertEquals(lastDomain, handledBy.get());
+            logger.info("{} domains: sub-routers dispatch {}ns, reactor dispatch {}ns", domains, subRouterLatency, reactorLatency);
+
+            // the sub-routers hold a route per domain to be matched one by one, the reactor a single route whatever the
+            // number of domains, the mount point being looked up from the request path
+            Assert.assertEquals(domains, subRouters.getDelegate().getRoutes().size());
+            Assert.assertEquals(2, reactor.route().getDelegate().getRoutes().size());
+        }
+
+        // the deepest mount point wins over the last mounted domain
+        reactor.mountSubRouter("/domain-9999/tenant", domainRouter("tenant"));
+        Assert.assertEquals("tenant", dispatch("/domain-9999/tenant/oauth/token"));
+        Assert.assertEquals("domain-9999", dispatch("/domain-9999/oauth/token"));
+        Assert.assertEquals("domain-0", dispatch("/domain-0/oauth/token"));
+    }
+
+    private long measure(Router router, String path, int requests) {
+        // plain stub rather than a mock, which would cost more than the dispatch itself
+        HttpServerRequest request = stub(HttpServerRequest.class, path, stub(HttpServerResponse.class, null, null));
+        // warm-up
+        for (int i = 0; i < requests; i++) {
+            router.getDelegate().accept(request);
+        }
+        handledBy.set(null);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            router.getDelegate().accept(request);
+        }
+        long latency = (System.nanoTime() - start) / requests;
+
+        Assert.assertNotNull(handledBy.get());
+        return latency;
+    }
+
+    private Router domainRouter(String name) {
+        Router domainRouter = Router.router(vertx);
+        domainRouter.route("/oauth/token").handler(context -> handledBy.set(name));
+        return domainRouter;
+    }
+
+    private String dispatch(String uri) {
+        return dispatch(uri, mock(HttpServerResponse.class));
+    }
+
+    private String dispatch(String uri, HttpServerResponse response) {
+        handledBy.set(null);
+        reactor.route().getDelegate().accept(request(uri, response));
+        return handledBy.get();
+    }
+
+    private static HttpServerRequest request(String uri, HttpServerResponse response) {
+        HttpServerRequest request = mock(HttpServerRequest.class);
+        int query = uri.indexOf('?');
+        when(request.uri()).thenReturn(uri);
+        when(request.path()).thenReturn(query == -1 ? uri : uri.substring(0, query));
+        when(request.method()).thenReturn(HttpMethod.POST);
+        when(request.headers()).thenReturn(MultiMap.caseInsensitiveMultiMap());
+        when(request.params()).thenReturn(MultiMap.caseInsensitiveMultiMap());
+        when(request.response()).thenReturn(response);
+        when(response.headers()).thenReturn(MultiMap.caseInsensitiveMultiMap());
+        when(response.setStatusCode(anyInt())).thenReturn(response);
+        return request;
+    }
+
+    private static <T> T stub(Class<T> type, String path, HttpServerResponse response) {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "uri":
+                case "path":
+                    return path;
+                case "method":
+                    return HttpMethod.POST;
+                case "headers":
+                case "params":
+                    return headers;
+                case "response":
+                    return response;
+                default:
+                    if (method.getReturnType() == type) {
+                        return proxy;
+                    }
+                    return method.getReturnType() == boolean.class ? false : method.getReturnType() == int.class ? 0 : null;
+            }
+        }));
+    }
+}
@@ -0,0 +1,375 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.reactor.impl;
+
+import io.gravitee.am.gateway.core.event.SyncEvent;
+import io.gravitee.am.gateway.handler.SecurityDomainRouterFactory;
+import io.gravitee.am.gateway.handler.vertx.VertxSecurityDomainHandler;
+import io.gravitee.am.gateway.reactor.Reactor;
+import io.gravitee.am.model.Domain;
+import io.gravitee.common.component.Lifecycle;
+import io.gravitee.common.event.EventManager;
+import io.gravitee.common.event.impl.EventManagerImpl;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.ext.web.Router;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.ref.WeakReference;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class DefaultSecurityDomainHandlerRegistryTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultSecurityDomainHandlerRegistryTest.class);
+
+    private static final Vertx vertx = Vertx.vertx();
+
+    private AnnotationConfigApplicationContext context;
+    private DefaultSecurityDomainHandlerRegistry registry;
+    private StubSecurityDomainRouterFactory factory;
+    private StubReactor reactor;
+
+    @Before
+    public void setUp() {
+        // no mocks: recorded invocations would keep the retired handlers reachable
+        context = new AnnotationConfigApplicationContext(TestConfiguration.class);
+        registry = context.getBean(DefaultSecurityDomainHandlerRegistry.class);
+        factory = context.getBean(StubSecurityDomainRouterFactory.class);
+        reactor = context.getBean(StubReactor.class);
+        registry.setDrainTimeout(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void shouldUpdateDomain_keepHandler() {
+        registry.create(domain("domain-1", "my-domain", "My domain"));
+        VertxSecurityDomainHandler handler = handler();
+        Router router = reactor.mounted.get("/my-domain");
+
+        registry.update(domain("domain-1", "my-domain", "My updated domain"));
+
+        Assert.assertSame(handler, handler());
+        Assert.assertEquals("My updated domain", handler.getDomain().getName());
+        Assert.assertNotSame(router, reactor.mounted.get("/my-domain"));
+        Assert.assertEquals(1, factory.created.get());
+        Assert.assertTrue(factory.destroyed.isEmpty());
+    }
+
+    @Test
+    public void shouldUpdateDomain_pathChanged() {
+        registry.create(domain("domain-1", "my-domain", "My domain"));
+        VertxSecurityDomainHandler handler = handler();
+
+        registry.update(domain("domain-1", "my-new-domain", "My domain"));
+
+        Assert.assertSame(handler, handler());
+        Assert.assertEquals("/my-new-domain", handler.contextPath());
+        Assert.assertEquals(Collections.singleton("/my-new-domain"), reactor.mounted.keySet());
+        Assert.assertEquals(1, factory.created.get());
+    }
+
+    @Test
+    public void shouldRedeployDomain_afterInflightRequests() throws Exception {
+        registry.create(domain("domain-1", "my-domain", "My domain"));
+        StubSecurityDomainHandler handler = (StubSecurityDomainHandler) handler();
+        handler.inflightRequests.set(1);
+
+        registry.create(domain("domain-1", "my-domain", "My domain"));
+
+        Assert.assertNotSame(handler, handler());
+        Assert.assertEquals(1, registry.getSecurityDomainHandlers().size());
+        Thread.sleep(500);
+        Assert.assertTrue(factory.destroyed.isEmpty());
+
+        handler.inflightRequests.set(0);
+        Assert.assertTrue(await(() -> factory.destroyed.contains(handler)));
+    }
+
+    @Test
+    public void shouldRedeployDomain_drainTimeout() {
+        registry.setDrainTimeout(200);
+        registry.create(domain("domain-1", "my-domain", "My domain"));
+        StubSecurityDomainHandler handler = (StubSecurityDomainHandler) handler();
+        handler.inflightRequests.set(1);
+
+        registry.create(domain("domain-1", "my-domain", "My domain"));
+
+        Assert.assertTrue(await(() -> factory.destroyed.contains(handler)));
+    }
+
+    @Test
+    public void shouldDeployDomains_inParallel() throws Exception {
+        factory.creationDelay = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            long start = System.currentTimeMillis();
+            List<Future<?>> deployments = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Domain domain = domain("domain-" + i, "my-domain-" + i, "My domain " + i);
+                deployments.add(executor.submit(() -> registry.create(domain)));
+            }
+            for (Future<?> deployment : deployments) {
+                deployment.get();
+            }
+
+            // the application contexts are not created one after the other
+            Assert.assertTrue(System.currentTimeMillis() - start < 8 * 200 / 2);
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(8, reactor.mounted.size());
+        Assert.assertEquals(8, registry.getDeploymentTimes().size());
+        Assert.assertTrue(registry.getDeploymentTimes().values().stream().allMatch(deploymentTime -> deploymentTime >= 200));
+    }
+
+    @Test
+    public void shouldBeReady_afterSynchronization() {
+        Domain domain = domain("domain-1", "my-domain", "My domain");
+        EventManager eventManager = context.getBean(EventManager.class);
+
+        registry.create(domain);
+        Assert.assertFalse(registry.isReady());
+
+        eventManager.publishEvent(SyncEvent.SYNCHRONIZED, Collections.singleton(domain));
+        Assert.assertTrue(registry.isReady());
+    }
+
+    @Test
+    public void shouldRemoveDomain() {
+        Domain domain = domain("domain-1", "my-domain", "My domain");
+        registry.create(domain);
+        VertxSecurityDomainHandler handler = handler();
+
+        registry.remove(domain);
+
+        Assert.assertTrue(registry.getSecurityDomainHandlers().isEmpty());
+        Assert.assertTrue(reactor.mounted.isEmpty());
+        Assert.assertTrue(await(() -> factory.destroyed.contains(handler)));
+    }
+
+    /**
+     * 1000 updates and 1000 redeployments of a domain whose services retain 1MB: every replaced handler is destroyed
+     * and collected, the heap stays flat.
+     */
+    @Test
+    public void shouldNotLeakHandlers_soak() {
+        final int updates = 1000;
+        registry.create(domain("domain-1", "my-domain", "My domain"));
+
+        // warm-up, the heap baseline must not include the classes and caches initialized by the first updates
+        for (int i = 0; i < 100; i++) {
+            registry.create(domain("domain-1", "my-domain", "My domain " + i));
+        }
+        Assert.assertTrue(await(() -> factory.destroyed.size() == 100));
+        factory.destroyed.clear();
+        long initialHeap = usedHeap();
+
+        List<WeakReference<VertxSecurityDomainHandler>> retiredHandlers = new ArrayList<>();
+        for (int i = 0; i < updates; i++) {
+            registry.update(domain("domain-1", "my-domain", "My domain " + i));
+            retiredHandlers.add(new WeakReference<>(handler()));
+            registry.create(domain("domain-1", "my-domain", "My domain " + i));
+        }
+
+        Assert.assertTrue(await(() -> factory.destroyed.size() == updates));
+        factory.destroyed.clear();
+        Assert.assertTrue(await(() -> {
+            System.gc();
+            return retiredHandlers.stream().allMatch(reference -> reference.get() == null);
+        }));
+        long heapGrowth = usedHeap() - initialHeap;
+        logger.info("Heap growth after {} domain updates: {}KB", updates, heapGrowth / 1024);
+
+        Assert.assertEquals(1, registry.getSecurityDomainHandlers().size());
+        Assert.assertEquals(1, reactor.mounted.size());
+        Assert.assertEquals(updates + 101, factory.created.get());
+        Assert.assertTrue(heapGrowth < 16 * 1024 * 1024);
+    }
+
+    private VertxSecurityDomainHandler handler() {
+        return registry.getSecurityDomainHandlers().iterator().next();
+    }
+
+    private static Domain domain(String id, String path, String name) {
+        Domain domain = new Domain();
+        domain.setId(id);
+        domain.setPath(path);
+        domain.setName(name);
+        domain.setEnabled(true);
+        domain.setUpdatedAt(new Date());
+        return domain;
+    }
+
+    private static long usedHeap() {
+        // heap occupied by live objects, as measured by the last (full) collection once pending finalizers have run
+        System.gc();
+        System.runFinalization();
+        System.gc();
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+                .mapToLong(pool -> pool.getCollectionUsage().getUsed())
+                .sum();
+    }
+
+    private static boolean await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Configuration
+    static class TestConfiguration {
+
+        @Bean
+        public DefaultSecurityDomainHandlerRegistry securityDomainHandlerRegistry() {
+            return new DefaultSecurityDomainHandlerRegistry();
+        }
+
+        @Bean
+        public StubSecurityDomainRouterFactory securityDomainRouterFactory() {
+            return new StubSecurityDomainRouterFactory();
+        }
+
+        @Bean
+        public StubReactor reactor() {
+            return new StubReactor();
+        }
+
+        @Bean
+        public EventManager eventManager() {
+            return new EventManagerImpl();
+        }
+    }
+
+    private static class StubSecurityDomainHandler extends VertxSecurityDomainHandler {
+
+        // stands for the services of the domain application context
+        private final byte[] services = new byte[1024 * 1024];
+        private final AtomicInteger inflightRequests = new AtomicInteger();
+
+        private StubSecurityDomainHandler(Domain domain) {
+            setDomain(domain);
+            setVertx(vertx);
+        }
+
+        @Override
+        public Router create() {
+            return Router.router(vertx);
+        }
+
+        @Override
+        public int getInflightRequests() {
+            return inflightRequests.get();
+        }
+    }
+
+    private static class StubSecurityDomainRouterFactory extends SecurityDomainRouterFactory {
+
+        private final AtomicInteger created = new AtomicInteger();
+        private final Set<VertxSecurityDomainHandler> destroyed = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        // stands for the creation of the domain application context
+        private volatile long creationDelay;
+
+        @Override
+        public VertxSecurityDomainHandler create(Domain domain) {
+            created.incrementAndGet();
+            if (creationDelay > 0) {
+                try {
+                    Thread.sleep(creationDelay);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new StubSecurityDomainHandler(domain);
+        }
+
+        @Override
+        public void destroy(VertxSecurityDomainHandler handler) {
+            destroyed.add(handler);
+        }
+    }
+
+    private static class StubReactor implements Reactor {
+
+        private final Map<String, Router> mounted = new ConcurrentHashMap<>();
+
+        @Override
+        public Router route() {
+            return null;
+        }
+
+        @Override
+        public Router mountSubRouter(String contextPath, Router child) {
+            mounted.put(contextPath, child);
+            return null;
+        }
+
+        @Override
+        public Router unMountSubRouter(String contextPath) {
+            mounted.remove(contextPath);
+            return null;
+        }
+
+        @Override
+        public Lifecycle.State lifecycleState() {
+            return Lifecycle.State.STARTED;
+        }
+
+        @Override
+        public Object start() {
+            return this;
+        }
+
+        @Override
+        public Object stop() {
+            return this;
+        }
+    }
+}
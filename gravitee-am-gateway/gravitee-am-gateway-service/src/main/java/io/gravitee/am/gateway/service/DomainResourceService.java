@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.service;
+
+import io.gravitee.am.model.ExtensionGrant;
+import io.gravitee.am.model.IdentityProvider;
+import io.gravitee.am.model.Role;
+import io.gravitee.am.model.oauth2.Scope;
+import io.reactivex.Completable;
+import io.reactivex.Single;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Resources loaded by a security domain when it starts.
+ *
+ * The resources of a batch of domains about to be deployed can be preloaded with a single query per collection. Each
+ * domain then takes its own resources once; a domain which has not been preloaded is read from the repositories.
+ *
+ * @author GraviteeSource Team
+ */
+public interface DomainResourceService {
+
+    /**
+     * Load the resources of the given domains, grouped by domain.
+     *
+     * @param domains the domain ids
+     * @return completes when the resources have been loaded, a collection which could not be read is not preloaded
+     */
+    Completable preload(Collection<String> domains);
+
+    Single<Set<IdentityProvider>> findIdentityProviders(String domain);
+
+    Single<Set<ExtensionGrant>> findExtensionGrants(String domain);
+
+    Single<Set<Scope>> findScopes(String domain);
+
+    Single<Set<Role>> findRoles(String domain);
+
+    /**
+     * Release the resources which have been preloaded but not taken by their domain (domain failing to start, ...).
+     */
+    void clear();
+}
@@ -16,6 +16,7 @@
 package io.gravitee.am.gateway.service;
 
 import io.gravitee.am.model.Role;
+import io.gravitee.common.service.Service;
 import io.reactivex.Single;
 
 import java.util.List;
@@ -25,7 +26,13 @@ import java.util.Set;
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
  * @author GraviteeSource Team
  */
-public interface RoleService {
+public interface RoleService extends Service {
 
+    /**
+     * Resolve role ids against the in-memory roles of the domain.
+     *
+     * @param roles the role ids
+     * @return the known roles, unknown ids are ignored
+     */
     Single<Set<Role>> findByIdIn(List<String> roles);
 }
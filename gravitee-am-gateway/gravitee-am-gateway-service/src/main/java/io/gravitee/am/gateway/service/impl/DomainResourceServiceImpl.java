@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.service.impl;
+
+import io.gravitee.am.gateway.service.DomainResourceService;
+import io.gravitee.am.model.ExtensionGrant;
+import io.gravitee.am.model.IdentityProvider;
+import io.gravitee.am.model.Role;
+import io.gravitee.am.model.oauth2.Scope;
+import io.gravitee.am.repository.management.api.ExtensionGrantRepository;
+import io.gravitee.am.repository.management.api.IdentityProviderRepository;
+import io.gravitee.am.repository.management.api.RoleRepository;
+import io.gravitee.am.repository.management.api.ScopeRepository;
+import io.reactivex.Completable;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Shared by all the security domains of the gateway: it is declared in the gateway application context and not
+ * component-scanned with the per-domain services.
+ *
+ * @author GraviteeSource Team
+ */
+public class DomainResourceServiceImpl implements DomainResourceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomainResourceServiceImpl.class);
+
+    @Autowired
+    private IdentityProviderRepository identityProviderRepository;
+
+    @Autowired
+    private ExtensionGrantRepository extensionGrantRepository;
+
+    @Autowired
+    private ScopeRepository scopeRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private final ConcurrentMap<String, Set<IdentityProvider>> identityProviders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<ExtensionGrant>> extensionGrants = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Scope>> scopes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Role>> roles = new ConcurrentHashMap<>();
+
+    @Override
+    public Completable preload(Collection<String> domains) {
+        if (domains.isEmpty()) {
+            return Completable.complete();
+        }
+
+        // the collections are read concurrently
+        return Completable.mergeArray(
+                preload("identity providers", domains, identityProviderRepository.findByDomainIn(domains), IdentityProvider::getDomain, identityProviders),
+                preload("extension grants", domains, extensionGrantRepository.findByDomainIn(domains), ExtensionGrant::getDomain, extensionGrants),
+                preload("scopes", domains, scopeRepository.findByDomainIn(domains), Scope::getDomain, scopes),
+                preload("roles", domains, roleRepository.findByDomainIn(domains), Role::getDomain, roles));
+    }
+
+    @Override
+    public Single<Set<IdentityProvider>> findIdentityProviders(String domain) {
+        return find(domain, identityProviders, identityProviderRepository::findByDomain);
+    }
+
+    @Override
+    public Single<Set<ExtensionGrant>> findExtensionGrants(String domain) {
+        return find(domain, extensionGrants, extensionGrantRepository::findByDomain);
+    }
+
+    @Override
+    public Single<Set<Scope>> findScopes(String domain) {
+        return find(domain, scopes, scopeRepository::findByDomain);
+    }
+
+    @Override
+    public Single<Set<Role>> findRoles(String domain) {
+        return find(domain, roles, roleRepository::findByDomain);
+    }
+
+    @Override
+    public void clear() {
+        identityProviders.clear();
+        extensionGrants.clear();
+        scopes.clear();
+        roles.clear();
+    }
+
+    private <T> Completable preload(String name, Collection<String> domains, Single<Set<T>> resources,
+                                    Function<T, String> domainOf, ConcurrentMap<String, Set<T>> preloaded) {
+        final long start = System.currentTimeMillis();
+        return resources
+                .doOnSuccess(items -> {
+                    // a domain without resources is preloaded too, it must not query the repository
+                    Map<String, Set<T>> itemsByDomain = new HashMap<>();
+                    domains.forEach(domain -> itemsByDomain.put(domain, new HashSet<>()));
+                    items.forEach(item -> itemsByDomain.computeIfAbsent(domainOf.apply(item), domain -> new HashSet<>()).add(item));
+                    preloaded.putAll(itemsByDomain);
+                    logger.info("{} {} of {} domains loaded in {} ms", items.size(), name, domains.size(), System.currentTimeMillis() - start);
+                })
+                .toCompletable()
+                .doOnError(error -> logger.error("Unable to preload the {} of {} domains", name, domains.size(), error))
+                .onErrorComplete();
+    }
+
+    private <T> Single<Set<T>> find(String domain, ConcurrentMap<String, Set<T>> preloaded, Function<String, Single<Set<T>>> loader) {
+        // preloaded resources are taken once, a later deployment of the domain must read the current ones
+        Set<T> resources = preloaded.remove(domain);
+        return resources != null ? Single.just(resources) : loader.apply(domain);
+    }
+}
@@ -15,28 +15,143 @@
  */
 package io.gravitee.am.gateway.service.impl;
 
+import io.gravitee.am.gateway.core.event.RoleEvent;
+import io.gravitee.am.gateway.core.event.UnsubscribableEventManager;
+import io.gravitee.am.gateway.service.DomainResourceService;
 import io.gravitee.am.gateway.service.RoleService;
+import io.gravitee.am.model.Domain;
 import io.gravitee.am.model.Role;
+import io.gravitee.am.model.common.event.Payload;
 import io.gravitee.am.repository.management.api.RoleRepository;
+import io.gravitee.common.event.Event;
+import io.gravitee.common.event.EventListener;
+import io.gravitee.common.event.EventManager;
+import io.gravitee.common.service.AbstractService;
 import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Roles of the domain, loaded at domain startup and kept up to date with role events so that attaching role
+ * permissions to a user does not hit the repository on every login.
+ *
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
  * @author GraviteeSource Team
  */
 @Component
-public class RoleServiceImpl implements RoleService {
+public class RoleServiceImpl extends AbstractService implements RoleService, InitializingBean, EventListener<RoleEvent, Payload> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleServiceImpl.class);
 
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private DomainResourceService domainResourceService;
+
+    @Autowired
+    private Domain domain;
+
+    @Autowired
+    private EventManager eventManager;
+
+    /**
+     * Domain roles indexed by their id.
+     */
+    private final ConcurrentMap<String, Role> roles = new ConcurrentHashMap<>();
+
+    private volatile boolean initialized;
+
+    @Override
+    public Single<Set<Role>> findByIdIn(List<String> roleIds) {
+        if (!initialized) {
+            // roles are still loading, fall back to the repository
+            return roleRepository.findByIdIn(roleIds);
+        }
+        Set<Role> userRoles = new HashSet<>();
+        for (String roleId : roleIds) {
+            Role role = roles.get(roleId);
+            if (role != null) {
+                userRoles.add(role);
+            }
+        }
+        return Single.just(userRoles);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        logger.info("Initializing roles for domain {}", domain.getName());
+        domainResourceService.findRoles(domain.getId())
+                .subscribe(
+                        domainRoles -> {
+                            domainRoles.forEach(this::updateRole);
+                            initialized = true;
+                            logger.info("Roles loaded for domain {}", domain.getName());
+                        },
+                        error -> logger.error("Unable to initialize roles for domain {}", domain.getName(), error));
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+
+        logger.info("Register event listener for role events");
+        eventManager.subscribeForEvents(this, RoleEvent.class);
+    }
+
     @Override
-    public Single<Set<Role>> findByIdIn(List<String> roles) {
-        return roleRepository.findByIdIn(roles);
+    protected void doStop() throws Exception {
+        super.doStop();
+
+        logger.info("Unregister event listener for role events");
+        if (eventManager instanceof UnsubscribableEventManager) {
+            ((UnsubscribableEventManager) eventManager).unsubscribeForEvents(this, RoleEvent.class);
+        }
+    }
+
+    @Override
+    public void onEvent(Event<RoleEvent, Payload> event) {
+        if (domain.getId().equals(event.content().getDomain())) {
+            switch (event.type()) {
+                case DEPLOY:
+                case UPDATE:
+                    updateRole(event.content().getId(), event.type());
+                    break;
+                case UNDEPLOY:
+                    removeRole(event.content().getId());
+                    break;
+            }
+        }
+    }
+
+    private void updateRole(String roleId, RoleEvent roleEvent) {
+        final String eventType = roleEvent.toString().toLowerCase();
+        logger.info("Domain {} has received {} role event for {}", domain.getName(), eventType, roleId);
+        roleRepository.findById(roleId)
+                .subscribe(
+                        role -> {
+                            updateRole(role);
+                            logger.info("Role {} {}d for domain {}", roleId, eventType, domain.getName());
+                        },
+                        error -> logger.error("Unable to {} role for domain {}", eventType, domain.getName(), error),
+                        () -> logger.error("No role found with id {}", roleId));
+    }
+
+    private void removeRole(String roleId) {
+        logger.info("Domain {} has received role event, delete role {}", domain.getName(), roleId);
+        roles.remove(roleId);
+    }
+
+    private void updateRole(Role role) {
+        roles.put(role.getId(), role);
     }
 }
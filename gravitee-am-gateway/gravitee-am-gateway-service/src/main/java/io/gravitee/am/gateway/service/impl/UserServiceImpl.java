@@ -20,7 +20,6 @@ import io.gravitee.am.gateway.service.UserService;
 import io.gravitee.am.model.Domain;
 import io.gravitee.am.model.User;
 import io.gravitee.am.repository.management.api.UserRepository;
-import io.gravitee.am.service.exception.UserNotFoundException;
 import io.reactivex.Maybe;
 import io.reactivex.Single;
 import org.slf4j.Logger;
@@ -54,34 +53,14 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public Single<User> findOrCreate(io.gravitee.am.identityprovider.api.User user) {
-        return userRepository.findByUsernameAndDomain(domain.getId(), user.getUsername())
-                .switchIfEmpty(Maybe.error(new UserNotFoundException(user.getUsername())))
-                .flatMapSingle(existingUser -> {
-                    logger.debug("Updating user: username[%s]", user.getUsername());
-                    existingUser.setLoggedAt(new Date());
-                    existingUser.setLoginsCount(existingUser.getLoginsCount() + 1);
-                    existingUser.setRoles(user.getRoles());
-                    Map<String, Object> additionalInformation = user.getAdditionalInformation();
-                    extractAdditionalInformation(existingUser, additionalInformation);
-                    return userRepository.update(existingUser);
-                })
-                .onErrorResumeNext(ex -> {
-                    if (ex instanceof UserNotFoundException) {
-                        logger.debug("Creating a new user: username[%s]", user.getUsername());
-                        final User newUser = new User();
-                        newUser.setUsername(user.getUsername());
-                        newUser.setDomain(domain.getId());
-                        newUser.setCreatedAt(new Date());
-                        newUser.setLoggedAt(new Date());
-                        newUser.setLoginsCount(1L);
-                        newUser.setRoles(user.getRoles());
-
-                        Map<String, Object> additionalInformation = user.getAdditionalInformation();
-                        extractAdditionalInformation(newUser, additionalInformation);
-                        return userRepository.create(newUser);
-                    }
-                    return Single.error(ex);
-                })
+        logger.debug("Upserting user on login: username[{}]", user.getUsername());
+        final User loggedUser = new User();
+        loggedUser.setUsername(user.getUsername());
+        loggedUser.setDomain(domain.getId());
+        loggedUser.setLoggedAt(new Date());
+        loggedUser.setRoles(user.getRoles());
+        extractAdditionalInformation(loggedUser, user.getAdditionalInformation());
+        return userRepository.upsertOnLogin(loggedUser)
                 .flatMap(user1 -> enhanceUserWithRoles(user1));
     }
 
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.service;
+
+import io.gravitee.am.gateway.service.impl.DomainResourceServiceImpl;
+import io.gravitee.am.model.ExtensionGrant;
+import io.gravitee.am.model.IdentityProvider;
+import io.gravitee.am.model.Role;
+import io.gravitee.am.model.oauth2.Scope;
+import io.gravitee.am.repository.management.api.ExtensionGrantRepository;
+import io.gravitee.am.repository.management.api.IdentityProviderRepository;
+import io.gravitee.am.repository.management.api.RoleRepository;
+import io.gravitee.am.repository.management.api.ScopeRepository;
+import io.reactivex.Single;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class DomainResourceServiceTest {
+
+    private static final List<String> DOMAINS = Arrays.asList("domain-1", "domain-2");
+
+    @InjectMocks
+    private DomainResourceServiceImpl domainResourceService = new DomainResourceServiceImpl();
+
+    @Mock
+    private IdentityProviderRepository identityProviderRepository;
+
+    @Mock
+    private ExtensionGrantRepository extensionGrantRepository;
+
+    @Mock
+    private ScopeRepository scopeRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Before
+    public void setUp() {
+        when(identityProviderRepository.findByDomainIn(DOMAINS)).thenReturn(Single.just(new HashSet<>(Arrays.asList(
+                identityProvider("idp-1", "domain-1"),
+                identityProvider("idp-2", "domain-1"),
+                identityProvider("idp-3", "domain-2")))));
+        when(extensionGrantRepository.findByDomainIn(DOMAINS)).thenReturn(Single.just(Collections.emptySet()));
+        when(scopeRepository.findByDomainIn(DOMAINS)).thenReturn(Single.just(Collections.singleton(scope("scope-1", "domain-2"))));
+        when(roleRepository.findByDomainIn(DOMAINS)).thenReturn(Single.error(new IllegalStateException("connection refused")));
+        when(roleRepository.findByDomain(anyString())).thenReturn(Single.just(Collections.singleton(new Role())));
+    }
+
+    @Test
+    public void shouldFindPreloadedResources() {
+        domainResourceService.preload(DOMAINS).test().assertComplete();
+
+        domainResourceService.findIdentityProviders("domain-1").test().assertValue(idps -> idps.size() == 2);
+        domainResourceService.findIdentityProviders("domain-2").test().assertValue(idps -> idps.size() == 1);
+        domainResourceService.findScopes("domain-1").test().assertValue(scopes -> scopes.isEmpty());
+        domainResourceService.findExtensionGrants("domain-1").test().assertValue(extensionGrants -> extensionGrants.isEmpty());
+
+        verify(identityProviderRepository, never()).findByDomain(anyString());
+        verify(scopeRepository, never()).findByDomain(anyString());
+        verify(extensionGrantRepository, never()).findByDomain(anyString());
+    }
+
+    @Test
+    public void shouldFindResources_preloadFailed() {
+        // a collection which cannot be read does not prevent the other ones from being preloaded
+        domainResourceService.preload(DOMAINS).test().assertComplete();
+
+        domainResourceService.findRoles("domain-1").test().assertValue(roles -> roles.size() == 1);
+        verify(roleRepository, times(1)).findByDomain("domain-1");
+    }
+
+    @Test
+    public void shouldFindResources_takenOnce() {
+        when(identityProviderRepository.findByDomain("domain-1")).thenReturn(Single.just(Collections.emptySet()));
+        domainResourceService.preload(DOMAINS).test().assertComplete();
+
+        domainResourceService.findIdentityProviders("domain-1").test().assertValue(idps -> idps.size() == 2);
+        // a later deployment of the domain reads the current identity providers
+        domainResourceService.findIdentityProviders("domain-1").test().assertValue(idps -> idps.isEmpty());
+        verify(identityProviderRepository, times(1)).findByDomain("domain-1");
+    }
+
+    @Test
+    public void shouldFindResources_cleared() {
+        when(scopeRepository.findByDomain("domain-2")).thenReturn(Single.just(Collections.emptySet()));
+        domainResourceService.preload(DOMAINS).test().assertComplete();
+        domainResourceService.clear();
+
+        domainResourceService.findScopes("domain-2").test().assertValue(scopes -> scopes.isEmpty());
+        verify(scopeRepository, times(1)).findByDomain("domain-2");
+    }
+
+    private IdentityProvider identityProvider(String id, String domain) {
+        IdentityProvider identityProvider = new IdentityProvider();
+        identityProvider.setId(id);
+        identityProvider.setDomain(domain);
+        return identityProvider;
+    }
+
+    private Scope scope(String id, String domain) {
+        Scope scope = new Scope();
+        scope.setId(id);
+        scope.setDomain(domain);
+        return scope;
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.service;
+
+import io.gravitee.am.gateway.core.event.RoleEvent;
+import io.gravitee.am.gateway.service.impl.RoleServiceImpl;
+import io.gravitee.am.model.Domain;
+import io.gravitee.am.model.Role;
+import io.gravitee.am.model.common.event.Action;
+import io.gravitee.am.model.common.event.Payload;
+import io.gravitee.am.repository.management.api.RoleRepository;
+import io.gravitee.common.event.impl.SimpleEvent;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RoleServiceTest {
+
+    private static final String DOMAIN = "domain-1";
+
+    @InjectMocks
+    private RoleServiceImpl roleService = new RoleServiceImpl();
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private DomainResourceService domainResourceService;
+
+    @Mock
+    private Domain domain;
+
+    @Before
+    public void setUp() {
+        when(domain.getId()).thenReturn(DOMAIN);
+    }
+
+    private void initialize() {
+        when(domainResourceService.findRoles(DOMAIN)).thenReturn(Single.just(new HashSet<>(Arrays.asList(
+                role("role-1", "read"),
+                role("role-2", "write")))));
+        roleService.afterPropertiesSet();
+    }
+
+    @Test
+    public void shouldFindByIdIn_withoutRepositoryCall() {
+        initialize();
+        TestObserver<Set<Role>> testObserver = roleService.findByIdIn(Arrays.asList("role-1", "role-2", "unknown")).test();
+
+        testObserver.assertComplete();
+        testObserver.assertValue(roles -> roles.size() == 2);
+        verify(domainResourceService, times(1)).findRoles(DOMAIN);
+        verify(roleRepository, never()).findByIdIn(anyList());
+    }
+
+    @Test
+    public void shouldFindByIdIn_notInitialized() {
+        when(domainResourceService.findRoles(DOMAIN)).thenReturn(Single.never());
+        when(roleRepository.findByIdIn(Collections.singletonList("role-1"))).thenReturn(Single.just(Collections.singleton(role("role-1", "read"))));
+        roleService.afterPropertiesSet();
+
+        roleService.findByIdIn(Collections.singletonList("role-1")).test().assertValue(roles -> roles.size() == 1);
+        verify(roleRepository, times(1)).findByIdIn(Collections.singletonList("role-1"));
+    }
+
+    @Test
+    public void shouldUpdateRole() {
+        initialize();
+        when(roleRepository.findById("role-1")).thenReturn(Maybe.just(role("role-1", "read", "admin")));
+
+        roleService.onEvent(new SimpleEvent<>(RoleEvent.UPDATE, new Payload("role-1", DOMAIN, Action.UPDATE)));
+
+        roleService.findByIdIn(Collections.singletonList("role-1")).test()
+                .assertValue(roles -> roles.iterator().next().getPermissions().equals(Arrays.asList("read", "admin")));
+    }
+
+    @Test
+    public void shouldDeployRole() {
+        initialize();
+        when(roleRepository.findById("role-3")).thenReturn(Maybe.just(role("role-3", "admin")));
+
+        roleService.onEvent(new SimpleEvent<>(RoleEvent.DEPLOY, new Payload("role-3", DOMAIN, Action.CREATE)));
+
+        roleService.findByIdIn(Collections.singletonList("role-3")).test().assertValue(roles -> roles.size() == 1);
+    }
+
+    @Test
+    public void shouldRemoveRole() {
+        initialize();
+        roleService.onEvent(new SimpleEvent<>(RoleEvent.UNDEPLOY, new Payload("role-2", DOMAIN, Action.DELETE)));
+
+        roleService.findByIdIn(Arrays.asList("role-1", "role-2")).test()
+                .assertValue(roles -> roles.size() == 1 && "role-1".equals(roles.iterator().next().getId()));
+    }
+
+    @Test
+    public void shouldIgnoreEvent_otherDomain() {
+        initialize();
+        roleService.onEvent(new SimpleEvent<>(RoleEvent.UNDEPLOY, new Payload("role-2", "other-domain", Action.DELETE)));
+
+        roleService.findByIdIn(Collections.singletonList("role-2")).test().assertValue(roles -> roles.size() == 1);
+        verify(roleRepository, never()).findById(anyString());
+    }
+
+    private Role role(String id, String... permissions) {
+        Role role = new Role();
+        role.setId(id);
+        role.setDomain(DOMAIN);
+        role.setPermissions(Arrays.asList(permissions));
+        return role;
+    }
+}
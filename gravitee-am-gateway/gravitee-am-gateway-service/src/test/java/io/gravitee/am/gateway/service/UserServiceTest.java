@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.service;
+
+import io.gravitee.am.gateway.service.impl.UserServiceImpl;
+import io.gravitee.am.identityprovider.api.DefaultUser;
+import io.gravitee.am.model.Domain;
+import io.gravitee.am.model.Role;
+import io.gravitee.am.model.User;
+import io.gravitee.am.repository.management.api.UserRepository;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class UserServiceTest {
+
+    private static final String DOMAIN = "domain-1";
+
+    @InjectMocks
+    private UserServiceImpl userService = new UserServiceImpl();
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleService roleService;
+
+    @Mock
+    private Domain domain;
+
+    @Test
+    public void shouldFindOrCreate_singleUpsert() {
+        when(domain.getId()).thenReturn(DOMAIN);
+        when(userRepository.upsertOnLogin(any(User.class))).thenAnswer(invocation -> Single.just(invocation.getArguments()[0]));
+        when(roleService.findByIdIn(Collections.singletonList("role-1"))).thenReturn(Single.just(Collections.singleton(new Role())));
+
+        DefaultUser idpUser = new DefaultUser("username");
+        idpUser.setRoles(Collections.singletonList("role-1"));
+        Map<String, Object> additionalInformation = new HashMap<>();
+        additionalInformation.put("source", "idp-1");
+        additionalInformation.put("client_id", "client-1");
+        additionalInformation.put("email", "johndoe@test.com");
+        idpUser.setAdditonalInformation(additionalInformation);
+
+        TestObserver<User> testObserver = userService.findOrCreate(idpUser).test();
+
+        testObserver.assertComplete();
+        testObserver.assertValue(user -> user.getRolesPermissions().size() == 1);
+
+        ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
+        verify(userRepository, times(1)).upsertOnLogin(userCaptor.capture());
+        verify(userRepository, never()).findByUsernameAndDomain(anyString(), anyString());
+        verify(userRepository, never()).update(any(User.class));
+        verify(userRepository, never()).create(any(User.class));
+
+        User loggedUser = userCaptor.getValue();
+        Assert.assertEquals("username", loggedUser.getUsername());
+        Assert.assertEquals(DOMAIN, loggedUser.getDomain());
+        Assert.assertNotNull(loggedUser.getLoggedAt());
+        Assert.assertEquals("idp-1", loggedUser.getSource());
+        Assert.assertEquals("client-1", loggedUser.getClient());
+        Assert.assertEquals(Collections.singletonMap("email", "johndoe@test.com"), loggedUser.getAdditionalInformation());
+    }
+}
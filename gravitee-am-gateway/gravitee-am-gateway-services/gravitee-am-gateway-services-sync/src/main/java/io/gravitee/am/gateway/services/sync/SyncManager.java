@@ -16,37 +16,195 @@
 package io.gravitee.am.gateway.services.sync;
 
 import io.gravitee.am.gateway.core.event.DomainEvent;
+import io.gravitee.am.gateway.core.event.SyncEvent;
+import io.gravitee.am.gateway.service.DomainResourceService;
 import io.gravitee.am.model.Domain;
 import io.gravitee.am.model.common.event.Event;
 import io.gravitee.am.model.common.event.Type;
 import io.gravitee.am.repository.management.api.DomainRepository;
+import io.gravitee.am.repository.management.api.EventRepository;
 import io.gravitee.common.event.EventManager;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
+ * Keep the deployed security domains in sync with the management repository.
+ *
+ * The domains are fully loaded once, then the gateway only tails the events journal from the last sequence it has
+ * applied. A missing sequence is first considered as a write still in flight; if it does not show up before the gap
+ * timeout (failed write, event expired from the journal), the domains are fully re-synchronized.
+ *
+ * When watching is enabled, the events are pushed by the repository as soon as they are stored and the journal is
+ * only polled every watch poll interval, to catch up with events the stream may have missed. If the repository cannot
+ * push events, the gateway keeps polling the journal on each refresh.
+ *
+ * Domains loaded all at once (startup, full re-synchronization) are deployed in parallel on a bounded pool, their
+ * resources being preloaded with a single query per collection. Once the domains found at startup are deployed, a
+ * {@link SyncEvent#SYNCHRONIZED} event is published, a full re-synchronization publishes a
+ * {@link SyncEvent#RESYNCHRONIZED} event instead.
+ *
+ * Client and certificate events are published whether the domain is deployed or not: clients and certificates are
+ * held by gateway-wide registries which are only kept up to date by these events.
+ *
  * @author David BRASSELY (david.brassely at graviteesource.com)
  * @author GraviteeSource Team
  */
-public class SyncManager {
+public class SyncManager implements DisposableBean {
 
     private final Logger logger = LoggerFactory.getLogger(SyncManager.class);
 
+    private static final long NOT_SYNCHRONIZED = -1;
+
     @Autowired
     private DomainRepository domainRepository;
 
+    @Autowired
+    private EventRepository eventRepository;
+
     @Autowired
     private EventManager eventManager;
 
+    @Autowired
+    private DomainResourceService domainResourceService;
+
+    @Value("${services.sync.batchSize:1000}")
+    private int batchSize;
+
+    @Value("${services.sync.gapTimeout:30000}")
+    private long gapTimeout;
+
+    @Value("${services.sync.watch.enabled:false}")
+    private boolean watchEnabled;
+
+    @Value("${services.sync.watch.pollInterval:60000}")
+    private long watchPollInterval;
+
+    @Value("${services.sync.bootstrap.poolSize:0}")
+    private int bootstrapPoolSize;
+
     private Map<String, Domain> deployedDomains = new HashMap<>();
 
-    public void refresh() {
+    private long lastSequence = NOT_SYNCHRONIZED;
+
+    private long gapDetectedAt;
+
+    private long lastPolledAt;
+
+    private long watchFailedAt;
+
+    private volatile Disposable watcher;
+
+    public synchronized void refresh() {
         logger.debug("Refreshing sync state...");
 
+        if (lastSequence == NOT_SYNCHRONIZED) {
+            synchronizeDomains();
+        } else if (!isWatching() || gapDetectedAt != 0 || System.currentTimeMillis() - lastPolledAt >= watchPollInterval) {
+            synchronizeEvents();
+        }
+
+        if (watchEnabled && watcher == null && System.currentTimeMillis() - watchFailedAt >= watchPollInterval) {
+            watch();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the events are pushed by the repository
+     */
+    public boolean isWatching() {
+        return watcher != null;
+    }
+
+    /**
+     * @return the sequence of the last event applied, -1 until the domains have been loaded
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setGapTimeout(long gapTimeout) {
+        this.gapTimeout = gapTimeout;
+    }
+
+    public void setWatchEnabled(boolean watchEnabled) {
+        this.watchEnabled = watchEnabled;
+    }
+
+    public void setWatchPollInterval(long watchPollInterval) {
+        this.watchPollInterval = watchPollInterval;
+    }
+
+    public void setBootstrapPoolSize(int bootstrapPoolSize) {
+        this.bootstrapPoolSize = bootstrapPoolSize;
+    }
+
+    @Override
+    public void destroy() {
+        Disposable watcher = this.watcher;
+        if (watcher != null) {
+            watcher.dispose();
+        }
+    }
+
+    private void watch() {
+        logger.info("Watching the events journal");
+        watcher = eventRepository.watch()
+                // do not block the repository threads while applying the events
+                .observeOn(Schedulers.io())
+                .subscribe(this::onEvent, this::onWatchError);
+
+        // catch up with the events stored before the stream was opened
+        synchronizeEvents();
+    }
+
+    private synchronized void onEvent(Event event) {
+        if (lastSequence == NOT_SYNCHRONIZED || event.getSequence() <= lastSequence) {
+            // already applied
+            return;
+        }
+
+        if (event.getSequence() == lastSequence + 1) {
+            boolean waitingForEvent = gapDetectedAt != 0;
+            apply(Collections.singletonList(event));
+            if (waitingForEvent) {
+                // the following events have been pushed before this one
+                synchronizeEvents();
+            }
+        } else {
+            // events have not been pushed yet (or missed by the stream), read them from the journal
+            synchronizeEvents();
+        }
+    }
+
+    private synchronized void onWatchError(Throwable throwable) {
+        logger.warn("Unable to watch the events journal, falling back to polling", throwable);
+        watcher = null;
+        watchFailedAt = System.currentTimeMillis();
+    }
+
+    private void synchronizeDomains() {
+        // read the journal position first, changes made while loading the domains are replayed by the next refresh
+        long sequence = eventRepository.findLastSequence().blockingGet();
+
         // Registered domains
         Set<Domain> domains = domainRepository.findAll()
                 // remove master domains
@@ -88,26 +246,156 @@ public class SyncManager {
                 });
 
         // Deploy domains
+        List<Domain> deployments = new ArrayList<>();
         domains.stream()
                 .filter(domain -> domain.isEnabled())
                 .forEach(domain -> {
                     Domain deployedDomain = deployedDomains.get(domain.getId());
-                    if (deployedDomain == null) {
-                        eventManager.publishEvent(DomainEvent.DEPLOY, domain);
+                    // events may have been missed for an updated domain, redeploy the whole domain (an update only
+                    // reloads its metadata)
+                    if (deployedDomain == null || domain.getUpdatedAt().after(deployedDomain.getUpdatedAt())) {
+                        deployments.add(domain);
                         deployedDomains.put(domain.getId(), domain);
-                    } else {
-                        // Check last update date
-                        if (domain.getUpdatedAt().after(deployedDomain.getUpdatedAt())) {
-                            // get event type and publish corresponding event
-                            Event lastEvent = domain.getLastEvent();
-                            Enum eventType = io.gravitee.am.gateway.core.event.Event.valueOf(lastEvent);
-                            Object content = Type.DOMAIN.equals(lastEvent.getType()) ? domain : lastEvent.getPayload();
-                            eventManager.publishEvent(eventType, content);
-
-                            // update local domains map
-                            deployedDomains.put(domain.getId(), domain);
-                        }
                     }
                 });
+        deploy(deployments);
+
+        if (lastSequence == NOT_SYNCHRONIZED) {
+            eventManager.publishEvent(SyncEvent.SYNCHRONIZED, new HashSet<>(deployedDomains.values()));
+        } else {
+            // client and certificate events may have been missed as well, whatever the state of their domain
+            eventManager.publishEvent(SyncEvent.RESYNCHRONIZED, new HashSet<>(deployedDomains.values()));
+        }
+        lastSequence = sequence;
+        gapDetectedAt = 0;
+        logger.debug("{} domains synchronized at event #{}", deployedDomains.size(), sequence);
+    }
+
+    private void deploy(List<Domain> domains) {
+        if (domains.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        // the resources of the domains are read with a single query per collection instead of one per domain
+        domainResourceService.preload(domains.stream().map(Domain::getId).collect(Collectors.toList())).blockingAwait();
+
+        int threads = Math.min(domains.size(), bootstrapPoolSize > 0 ? bootstrapPoolSize : Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new BootstrapThreadFactory());
+        try {
+            List<Future<?>> deployments = new ArrayList<>(domains.size());
+            domains.forEach(domain -> deployments.add(executor.submit(() -> eventManager.publishEvent(DomainEvent.DEPLOY, domain))));
+
+            // the following events must not be applied before the domains are deployed
+            for (int i = 0; i < deployments.size(); i++) {
+                try {
+                    deployments.get(i).get();
+                } catch (ExecutionException ex) {
+                    logger.error("Unable to deploy domain {}", domains.get(i).getId(), ex.getCause());
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+            domainResourceService.clear();
+        }
+        logger.info("{} domains deployed in {} ms [threads: {}]", domains.size(), System.currentTimeMillis() - start, threads);
+    }
+
+    private void synchronizeEvents() {
+        lastPolledAt = System.currentTimeMillis();
+        List<Event> events;
+        do {
+            events = eventRepository.findSince(lastSequence, batchSize).blockingGet();
+            if (!apply(events)) {
+                return;
+            }
+        } while (events.size() == batchSize);
+    }
+
+    /**
+     * @return <code>false</code> if the batch has been interrupted by a gap in the journal
+     */
+    private boolean apply(List<Event> events) {
+        if (events.isEmpty()) {
+            return true;
+        }
+
+        // fetch the current state of the updated domains with a single query, a domain updated several times in the
+        // batch is deployed once
+        Set<String> domainIds = events.stream()
+                .filter(event -> Type.DOMAIN.equals(event.getType()))
+                .map(event -> event.getPayload().getId())
+                .collect(Collectors.toSet());
+        Map<String, Domain> domains = domainIds.isEmpty() ? Collections.emptyMap() :
+                domainRepository.findByIdIn(domainIds).blockingGet().stream().collect(Collectors.toMap(Domain::getId, Function.identity()));
+
+        for (Event event : events) {
+            if (event.getSequence() > lastSequence + 1) {
+                onGap(event.getSequence());
+                return false;
+            }
+            gapDetectedAt = 0;
+            lastSequence = event.getSequence();
+
+            if (Type.DOMAIN.equals(event.getType())) {
+                String domainId = event.getPayload().getId();
+                if (domainIds.remove(domainId)) {
+                    apply(domainId, domains.get(domainId));
+                }
+            } else if (isGatewayWide(event.getType()) || deployedDomains.containsKey(event.getPayload().getDomain())) {
+                eventManager.publishEvent(io.gravitee.am.gateway.core.event.Event.valueOf(event), event.getPayload());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return <code>true</code> if the resources of this type are held by the gateway rather than by their domain
+     */
+    private static boolean isGatewayWide(Type type) {
+        return Type.CLIENT.equals(type) || Type.CERTIFICATE.equals(type);
+    }
+
+    private void apply(String domainId, Domain domain) {
+        Domain deployedDomain = deployedDomains.get(domainId);
+        if (domain == null || domain.isMaster() || !domain.isEnabled()) {
+            if (deployedDomain != null) {
+                deployedDomains.remove(domainId);
+                eventManager.publishEvent(DomainEvent.UNDEPLOY, deployedDomain);
+            }
+        } else if (deployedDomain == null) {
+            eventManager.publishEvent(DomainEvent.DEPLOY, domain);
+            deployedDomains.put(domainId, domain);
+        } else {
+            eventManager.publishEvent(DomainEvent.UPDATE, domain);
+            deployedDomains.put(domainId, domain);
+        }
+    }
+
+    private void onGap(long sequence) {
+        long now = System.currentTimeMillis();
+        if (gapDetectedAt == 0) {
+            gapDetectedAt = now;
+        }
+        if (now - gapDetectedAt < gapTimeout) {
+            logger.debug("Waiting for events #{} to #{}", lastSequence + 1, sequence - 1);
+        } else {
+            logger.warn("Events #{} to #{} are missing from the journal, synchronizing all the domains", lastSequence + 1, sequence - 1);
+            synchronizeDomains();
+        }
+    }
+
+    private static class BootstrapThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "gio-am-sync-bootstrap-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 }
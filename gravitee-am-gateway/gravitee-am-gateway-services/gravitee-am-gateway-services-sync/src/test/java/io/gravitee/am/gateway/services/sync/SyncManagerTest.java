@@ -0,0 +1,414 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.gateway.services.sync;
+
+import io.gravitee.am.gateway.core.event.CertificateEvent;
+import io.gravitee.am.gateway.core.event.ClientEvent;
+import io.gravitee.am.gateway.core.event.DomainEvent;
+import io.gravitee.am.gateway.core.event.SyncEvent;
+import io.gravitee.am.gateway.service.DomainResourceService;
+import io.gravitee.am.model.Domain;
+import io.gravitee.am.model.common.event.Action;
+import io.gravitee.am.model.common.event.Event;
+import io.gravitee.am.model.common.event.Payload;
+import io.gravitee.am.model.common.event.Type;
+import io.gravitee.am.repository.management.api.DomainRepository;
+import io.gravitee.am.repository.management.api.EventRepository;
+import io.gravitee.common.event.EventManager;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.processors.PublishProcessor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SyncManagerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncManagerTest.class);
+
+    private static final int DOMAINS = 5000;
+
+    @InjectMocks
+    private SyncManager syncManager = new SyncManager();
+
+    @Mock
+    private DomainRepository domainRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventManager eventManager;
+
+    @Mock
+    private DomainResourceService domainResourceService;
+
+    @Before
+    public void setUp() {
+        syncManager.setBatchSize(100);
+        syncManager.setGapTimeout(TimeUnit.MINUTES.toMillis(1));
+        syncManager.setWatchPollInterval(TimeUnit.MINUTES.toMillis(1));
+
+        Set<Domain> domains = new HashSet<>();
+        for (int i = 0; i < DOMAINS; i++) {
+            domains.add(domain("domain-" + i, true));
+        }
+        Domain master = domain("admin", true);
+        master.setMaster(true);
+        domains.add(master);
+        domains.add(domain("disabled", false));
+
+        when(domainRepository.findAll()).thenReturn(Single.just(domains));
+        when(eventRepository.findLastSequence()).thenReturn(Single.just(10L));
+        when(eventRepository.findSince(anyLong(), anyInt())).thenReturn(Single.just(Collections.emptyList()));
+        when(domainResourceService.preload(anyCollection())).thenReturn(Completable.complete());
+    }
+
+    @After
+    public void tearDown() {
+        syncManager.destroy();
+    }
+
+    @Test
+    public void shouldDeployDomains() {
+        syncManager.refresh();
+
+        verify(eventManager, times(DOMAINS)).publishEvent(eq(DomainEvent.DEPLOY), any(Domain.class));
+        verify(eventRepository, never()).findSince(anyLong(), anyInt());
+        Assert.assertEquals(10L, syncManager.getLastSequence());
+    }
+
+    @Test
+    public void shouldDeployDomains_inParallel() {
+        Set<String> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        AtomicInteger concurrentDeployments = new AtomicInteger();
+        AtomicInteger maxConcurrentDeployments = new AtomicInteger();
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            maxConcurrentDeployments.accumulateAndGet(concurrentDeployments.incrementAndGet(), Math::max);
+            // stands for the creation of the domain application context
+            Thread.sleep(20);
+            concurrentDeployments.decrementAndGet();
+            return null;
+        }).when(eventManager).publishEvent(eq(DomainEvent.DEPLOY), any(Domain.class));
+
+        Set<Domain> domains = new HashSet<>();
+        for (int i = 0; i < 16; i++) {
+            domains.add(domain("domain-" + i, true));
+        }
+        when(domainRepository.findAll()).thenReturn(Single.just(domains));
+        syncManager.setBootstrapPoolSize(4);
+        syncManager.refresh();
+
+        Assert.assertEquals(4, threads.size());
+        Assert.assertTrue(maxConcurrentDeployments.get() > 1 && maxConcurrentDeployments.get() <= 4);
+        // the gateway is synchronized once all the domains are deployed
+        InOrder inOrder = inOrder(domainResourceService, eventManager);
+        inOrder.verify(domainResourceService).preload(anyCollection());
+        inOrder.verify(eventManager, times(16)).publishEvent(eq(DomainEvent.DEPLOY), any(Domain.class));
+        inOrder.verify(eventManager).publishEvent(SyncEvent.SYNCHRONIZED, domains);
+        verify(domainResourceService).clear();
+    }
+
+    @Test
+    public void shouldPreloadDomainResources_singleQuery() {
+        syncManager.refresh();
+        syncManager.refresh();
+
+        verify(domainResourceService, times(1)).preload(argThat(new ArgumentMatcher<Collection<String>>() {
+            @Override
+            public boolean matches(Object argument) {
+                return ((Collection<?>) argument).size() == DOMAINS;
+            }
+        }));
+        verify(domainResourceService, times(1)).clear();
+        verify(eventManager, times(1)).publishEvent(eq(SyncEvent.SYNCHRONIZED), anySet());
+    }
+
+    /**
+     * Cost of the refreshes once the domains are deployed and nothing changes: a single journal read per refresh,
+     * whatever the number of domains.
+     */
+    @Test
+    public void shouldNotLoadDomains_steadyState_benchmark() {
+        long start = System.nanoTime();
+        syncManager.refresh();
+        long initialSyncDuration = System.nanoTime() - start;
+
+        final int refreshes = 1000;
+        start = System.nanoTime();
+        for (int i = 0; i < refreshes; i++) {
+            syncManager.refresh();
+        }
+        long refreshDuration = (System.nanoTime() - start) / refreshes;
+
+        logger.info("{} domains: initial sync {}µs, steady-state refresh {}µs",
+                DOMAINS, TimeUnit.NANOSECONDS.toMicros(initialSyncDuration), TimeUnit.NANOSECONDS.toMicros(refreshDuration));
+
+        verify(domainRepository, times(1)).findAll();
+        verify(domainRepository, never()).findByIdIn(anyCollection());
+        verify(eventRepository, times(refreshes)).findSince(10L, 100);
+        verify(eventManager, times(DOMAINS)).publishEvent(eq(DomainEvent.DEPLOY), any());
+        verify(eventManager, times(1)).publishEvent(eq(SyncEvent.SYNCHRONIZED), any());
+        verify(eventManager, never()).publishEvent(eq(SyncEvent.RESYNCHRONIZED), any());
+    }
+
+    @Test
+    public void shouldPublishComponentEvents_withoutLoadingDomains() {
+        syncManager.refresh();
+        reset(eventManager);
+
+        Event clientEvent = event(11, Type.CLIENT, "client-1", "domain-1", Action.UPDATE);
+        Event unknownDomainEvent = event(12, Type.IDENTITY_PROVIDER, "idp-1", "unknown", Action.UPDATE);
+        when(eventRepository.findSince(10L, 100)).thenReturn(Single.just(Arrays.asList(clientEvent, unknownDomainEvent)));
+        syncManager.refresh();
+
+        verify(eventManager, times(1)).publishEvent(ClientEvent.UPDATE, clientEvent.getPayload());
+        verifyNoMoreInteractions(eventManager);
+        verify(domainRepository, never()).findByIdIn(anyCollection());
+        Assert.assertEquals(12L, syncManager.getLastSequence());
+    }
+
+    @Test
+    public void shouldPublishClientAndCertificateEvents_domainNotDeployed() {
+        syncManager.refresh();
+        reset(eventManager);
+
+        Event clientEvent = event(11, Type.CLIENT, "client-1", "disabled", Action.UPDATE);
+        Event certificateEvent = event(12, Type.CERTIFICATE, "certificate-1", "disabled", Action.UPDATE);
+        Event scopeEvent = event(13, Type.SCOPE, "scope-1", "disabled", Action.UPDATE);
+        when(eventRepository.findSince(10L, 100)).thenReturn(Single.just(Arrays.asList(clientEvent, certificateEvent, scopeEvent)));
+        syncManager.refresh();
+
+        // clients and certificates are held by the gateway, scopes are reloaded when the domain is deployed
+        verify(eventManager, times(1)).publishEvent(ClientEvent.UPDATE, clientEvent.getPayload());
+        verify(eventManager, times(1)).publishEvent(CertificateEvent.UPDATE, certificateEvent.getPayload());
+        verifyNoMoreInteractions(eventManager);
+        Assert.assertEquals(13L, syncManager.getLastSequence());
+    }
+
+    @Test
+    public void shouldRedeployDomainOnce() {
+        syncManager.refresh();
+        reset(eventManager);
+
+        Domain updatedDomain = domain("domain-1", true);
+        when(domainRepository.findByIdIn(Collections.singleton("domain-1"))).thenReturn(Single.just(Collections.singleton(updatedDomain)));
+        when(eventRepository.findSince(10L, 100)).thenReturn(Single.just(Arrays.asList(
+                event(11, Type.DOMAIN, "domain-1", "domain-1", Action.UPDATE),
+                event(12, Type.DOMAIN, "domain-1", "domain-1", Action.UPDATE))));
+        syncManager.refresh();
+
+        verify(domainRepository, times(1)).findByIdIn(anyCollection());
+        verify(eventManager, times(1)).publishEvent(DomainEvent.UPDATE, updatedDomain);
+        verifyNoMoreInteractions(eventManager);
+    }
+
+    @Test
+    public void shouldUndeployDeletedDomain() {
+        syncManager.refresh();
+        reset(eventManager);
+
+        when(domainRepository.findByIdIn(Collections.singleton("domain-1"))).thenReturn(Single.just(Collections.emptySet()));
+        when(eventRepository.findSince(10L, 100)).thenReturn(Single.just(Collections.singletonList(
+                event(11, Type.DOMAIN, "domain-1", "domain-1", Action.DELETE))));
+        syncManager.refresh();
+
+        verify(eventManager, times(1)).publishEvent(eq(DomainEvent.UNDEPLOY), any(Domain.class));
+        verifyNoMoreInteractions(eventManager);
+    }
+
+    @Test
+    public void shouldDeployEnabledDomain() {
+        syncManager.refresh();
+        reset(eventManager);
+
+        Domain enabledDomain = domain("disabled", true);
+        when(domainRepository.findByIdIn(Collections.singleton("disabled"))).thenReturn(Single.just(Collections.singleton(enabledDomain)));
+        when(eventRepository.findSince(10L, 100)).thenReturn(Single.just(Collections.singletonList(
+                event(11, Type.DOMAIN, "disabled", "disabled", Action.UPDATE))));
+        syncManager.refresh();
+
+        verify(eventManager, times(1)).publishEvent(DomainEvent.DEPLOY, enabledDomain);
+        verifyNoMoreInteractions(eventManager);
+    }
+
+    @Test
+    public void shouldReadJournalInBatches() {
+        syncManager.setBatchSize(2);
+        syncManager.refresh();
+
+        when(eventRepository.findSince(10L, 2)).thenReturn(Single.just(Arrays.asList(
+                event(11, Type.CLIENT, "client-1", "domain-1", Action.UPDATE),
+                event(12, Type.CLIENT, "client-2", "domain-1", Action.UPDATE))));
+        when(eventRepository.findSince(12L, 2)).thenReturn(Single.just(Collections.singletonList(
+                event(13, Type.CLIENT, "client-3", "domain-1", Action.UPDATE))));
+        syncManager.refresh();
+
+        verify(eventRepository, times(1)).findSince(10L, 2);
+        verify(eventRepository, times(1)).findSince(12L, 2);
+        Assert.assertEquals(13L, syncManager.getLastSequence());
+    }
+
+    @Test
+    public void shouldWaitForMissingEvents() {
+        syncManager.refresh();
+        reset(eventManager);
+
+        Event event11 = event(11, Type.CLIENT, "client-1", "domain-1", Action.UPDATE);
+        Event event12 = event(12, Type.CLIENT, "client-2", "domain-1", Action.UPDATE);
+        when(eventRepository.findSince(10L, 100)).thenReturn(Single.just(Collections.singletonList(event12)));
+        syncManager.refresh();
+
+        verifyZeroInteractions(eventManager);
+        Assert.assertEquals(10L, syncManager.getLastSequence());
+
+        // the write of the event #11 has completed
+        when(eventRepository.findSince(10L, 100)).thenReturn(Single.just(Arrays.asList(event11, event12)));
+        syncManager.refresh();
+
+        verify(eventManager, times(1)).publishEvent(ClientEvent.UPDATE, event11.getPayload());
+        verify(eventManager, times(1)).publishEvent(ClientEvent.UPDATE, event12.getPayload());
+        Assert.assertEquals(12L, syncManager.getLastSequence());
+    }
+
+    @Test
+    public void shouldSynchronizeDomains_missingEvents() {
+        syncManager.setGapTimeout(0);
+        syncManager.refresh();
+
+        when(eventRepository.findSince(10L, 100)).thenReturn(Single.just(Collections.singletonList(
+                event(12, Type.CLIENT, "client-1", "domain-1", Action.UPDATE))));
+        when(eventRepository.findLastSequence()).thenReturn(Single.just(12L));
+        Domain updatedDomain = domain("domain-1", true);
+        updatedDomain.setUpdatedAt(new Date(System.currentTimeMillis() + 1000));
+        when(domainRepository.findAll()).thenReturn(Single.just(Collections.singleton(updatedDomain)));
+        syncManager.refresh();
+
+        verify(domainRepository, times(2)).findAll();
+        // deployed, then redeployed
+        verify(eventManager, times(2)).publishEvent(DomainEvent.DEPLOY, updatedDomain);
+        // the missed client event is recovered by reloading the gateway-wide registries
+        verify(eventManager, times(1)).publishEvent(eq(SyncEvent.RESYNCHRONIZED), anySet());
+        verify(eventManager, never()).publishEvent(eq(ClientEvent.UPDATE), any());
+        Assert.assertEquals(12L, syncManager.getLastSequence());
+    }
+
+    @Test
+    public void shouldApplyPushedEvents_withoutPolling() {
+        PublishProcessor<Event> journal = PublishProcessor.create();
+        when(eventRepository.watch()).thenReturn(journal);
+        syncManager.setWatchEnabled(true);
+        syncManager.refresh();
+        reset(eventManager);
+
+        Assert.assertTrue(syncManager.isWatching());
+        // catch-up once the stream is opened
+        verify(eventRepository, times(1)).findSince(10L, 100);
+
+        Event event = event(11, Type.CLIENT, "client-1", "domain-1", Action.UPDATE);
+        journal.onNext(event);
+        verify(eventManager, timeout(1000)).publishEvent(ClientEvent.UPDATE, event.getPayload());
+
+        syncManager.refresh();
+        syncManager.refresh();
+
+        verify(eventRepository, times(1)).findSince(anyLong(), anyInt());
+        Assert.assertEquals(11L, syncManager.getLastSequence());
+    }
+
+    @Test
+    public void shouldReadJournal_eventsNotPushedInOrder() {
+        PublishProcessor<Event> journal = PublishProcessor.create();
+        when(eventRepository.watch()).thenReturn(journal);
+        syncManager.setWatchEnabled(true);
+        syncManager.refresh();
+        reset(eventManager);
+
+        Event event11 = event(11, Type.CLIENT, "client-1", "domain-1", Action.UPDATE);
+        Event event12 = event(12, Type.CLIENT, "client-2", "domain-1", Action.UPDATE);
+        when(eventRepository.findSince(10L, 100)).thenReturn(Single.just(Arrays.asList(event11, event12)));
+        journal.onNext(event12);
+
+        verify(eventManager, timeout(1000)).publishEvent(ClientEvent.UPDATE, event12.getPayload());
+        verify(eventManager, times(1)).publishEvent(ClientEvent.UPDATE, event11.getPayload());
+
+        // already applied
+        journal.onNext(event11);
+        syncManager.destroy();
+        verify(eventManager, times(2)).publishEvent(any(Enum.class), any());
+        Assert.assertEquals(12L, syncManager.getLastSequence());
+    }
+
+    @Test
+    public void shouldPoll_watchUnavailable() throws InterruptedException {
+        when(eventRepository.watch()).thenReturn(Flowable.error(new IllegalStateException("The $changeStream stage is only supported on replica sets")));
+        syncManager.setWatchEnabled(true);
+        syncManager.refresh();
+
+        long deadline = System.currentTimeMillis() + 1000;
+        while (syncManager.isWatching() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        syncManager.refresh();
+        syncManager.refresh();
+
+        Assert.assertFalse(syncManager.isWatching());
+        verify(eventRepository, times(3)).findSince(10L, 100);
+        // the stream is opened again after the watch poll interval only
+        verify(eventRepository, times(1)).watch();
+    }
+
+    private static Domain domain(String id, boolean enabled) {
+        Domain domain = new Domain();
+        domain.setId(id);
+        domain.setEnabled(enabled);
+        domain.setUpdatedAt(new Date());
+        return domain;
+    }
+
+    private static Event event(long sequence, Type type, String id, String domain, Action action) {
+        Event event = new Event(type, new Payload(id, domain, action));
+        event.setSequence(sequence);
+        return event;
+    }
+}
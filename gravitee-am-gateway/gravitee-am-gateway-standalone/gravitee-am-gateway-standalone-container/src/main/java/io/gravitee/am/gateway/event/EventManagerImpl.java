@@ -15,27 +15,29 @@
  */
 package io.gravitee.am.gateway.event;
 
-import com.google.common.collect.Lists;
+import io.gravitee.am.gateway.core.event.UnsubscribableEventManager;
 import io.gravitee.common.event.Event;
 import io.gravitee.common.event.EventListener;
-import io.gravitee.common.event.EventManager;
 import io.gravitee.common.event.impl.SimpleEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Override default event manager to enable concurrent access
+ * Override default event manager to enable concurrent access, listeners can subscribe and unsubscribe while events
+ * are published (security domains deployed or undeployed at runtime)
  *
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
  * @author GraviteeSource Team
  */
-public class EventManagerImpl implements EventManager {
+public class EventManagerImpl implements UnsubscribableEventManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(io.gravitee.common.event.impl.EventManagerImpl.class);
 
-    private Map<ComparableEventType, List<EventListenerWrapper>> listenersMap = new TreeMap<>();
+    private Map<ComparableEventType, List<EventListenerWrapper>> listenersMap = new ConcurrentHashMap<>();
 
     public void publishEvent(Enum type, Object content) {
         this.publishEvent(new SimpleEvent(type, content));
@@ -45,9 +47,8 @@ public class EventManagerImpl implements EventManager {
         LOGGER.debug("Publish event {} - {}", event.type(), event.content());
 
         List<EventListenerWrapper> listeners = getEventListeners(event.type().getClass());
-        List<EventListenerWrapper> safeConcurrentListeners = Lists.newArrayList(listeners.iterator());
 
-        for(EventListenerWrapper listener : safeConcurrentListeners) {
+        for(EventListenerWrapper listener : listeners) {
             listener.eventListener().onEvent(event);
         }
     }
@@ -62,6 +63,13 @@ public class EventManagerImpl implements EventManager {
         addEventListener(eventListener, events, EnumSet.allOf(events));
     }
 
+    @Override
+    public <T extends Enum> void unsubscribeForEvents(EventListener<T, ?> eventListener, Class<T> events) {
+        LOGGER.info("Unregister listener {} for event type {}", eventListener.getClass().getSimpleName(), events);
+
+        getEventListeners(events).removeIf(listener -> listener.eventListener() == eventListener);
+    }
+
     private <T extends Enum> void addEventListener(EventListener<T, ?> eventListener, Class<T> enumClass, Collection<T> events) {
         LOGGER.info("Register new listener {} for event type {}", eventListener.getClass().getSimpleName(), enumClass);
 
@@ -70,14 +78,7 @@ public class EventManagerImpl implements EventManager {
     }
 
     private <T extends Enum> List<EventListenerWrapper> getEventListeners(Class<T> eventType) {
-        List<EventListenerWrapper> listeners = this.listenersMap.get(new ComparableEventType(eventType));
-
-        if (listeners == null) {
-            listeners = new ArrayList<>();
-            this.listenersMap.put(new ComparableEventType(eventType), listeners);
-        }
-
-        return listeners;
+        return this.listenersMap.computeIfAbsent(new ComparableEventType(eventType), key -> new CopyOnWriteArrayList<>());
     }
 
     private class EventListenerWrapper<T extends Enum> {
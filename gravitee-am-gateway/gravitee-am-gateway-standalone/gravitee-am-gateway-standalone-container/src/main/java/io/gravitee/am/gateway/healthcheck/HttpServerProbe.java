@@ -15,6 +15,7 @@
  */
 package io.gravitee.am.gateway.healthcheck;
 
+import io.gravitee.am.gateway.reactor.SecurityDomainHandlerRegistry;
 import io.gravitee.node.api.healthcheck.Probe;
 import io.gravitee.node.api.healthcheck.Result;
 import io.vertx.core.net.NetClientOptions;
@@ -28,6 +29,9 @@ import java.util.concurrent.CompletableFuture;
 /**
  * HTTP Probe used to check the gateway itself.
  *
+ * The gateway is not reported healthy until the security domains found at startup have all been deployed, so that
+ * no traffic is routed to a node still answering 404 for domains it has not mounted yet.
+ *
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
  * @author GraviteeSource Team
  */
@@ -42,6 +46,9 @@ public class HttpServerProbe implements Probe {
     @Autowired
     private Vertx vertx;
 
+    @Autowired
+    private SecurityDomainHandlerRegistry securityDomainHandlerRegistry;
+
     @Override
     public String id() {
         return "http-server";
@@ -51,6 +58,11 @@ public class HttpServerProbe implements Probe {
     public CompletableFuture<Result> check() {
         final CompletableFuture<Result> future = new CompletableFuture<>();
 
+        if (!securityDomainHandlerRegistry.isReady()) {
+            future.complete(Result.unhealthy("Security domains are being deployed"));
+            return future;
+        }
+
         NetClientOptions options = new NetClientOptions().setConnectTimeout(500);
         NetClient client = vertx.createNetClient(options);
 
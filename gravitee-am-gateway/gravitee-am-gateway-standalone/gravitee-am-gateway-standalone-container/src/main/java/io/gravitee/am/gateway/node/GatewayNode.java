@@ -15,6 +15,9 @@
  */
 package io.gravitee.am.gateway.node;
 
+import io.gravitee.am.gateway.handler.certificate.CertificateRegistry;
+import io.gravitee.am.gateway.handler.oauth2.client.ClientRegistry;
+import io.gravitee.am.gateway.handler.oauth2.revocation.RevokedTokenService;
 import io.gravitee.am.gateway.reactor.Reactor;
 import io.gravitee.am.gateway.vertx.VertxEmbeddedContainer;
 import io.gravitee.common.component.LifecycleComponent;
@@ -43,6 +46,9 @@ public class GatewayNode extends AbstractNode {
     public List<Class<? extends LifecycleComponent>> components() {
         List<Class<? extends LifecycleComponent>> components = super.components();
 
+        components.add(ClientRegistry.class);
+        components.add(CertificateRegistry.class);
+        components.add(RevokedTokenService.class);
         components.add(Reactor.class);
         components.add(VertxEmbeddedContainer.class);
 
@@ -25,6 +25,7 @@ import io.gravitee.am.identityprovider.inline.InlineIdentityProviderMapper;
 import io.gravitee.am.identityprovider.inline.InlineIdentityProviderRoleMapper;
 import io.gravitee.am.identityprovider.inline.authentication.provisioning.InlineInMemoryUserDetailsManager;
 import io.gravitee.am.service.authentication.crypto.password.PasswordEncoder;
+import io.gravitee.am.service.authentication.crypto.password.PasswordHashingExecutor;
 import io.gravitee.am.service.exception.authentication.BadCredentialsException;
 import io.reactivex.Maybe;
 import org.slf4j.Logger;
@@ -52,6 +53,9 @@ public class InlineAuthenticationProvider implements AuthenticationProvider, Ini
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     @Autowired
     private InlineInMemoryUserDetailsManager userDetailsService;
 
@@ -72,13 +76,16 @@ public class InlineAuthenticationProvider implements AuthenticationProvider, Ini
     @Override
     public Maybe<User> loadUserByUsername(Authentication authentication) {
         return userDetailsService.loadUserByUsername((String) authentication.getPrincipal())
-                .map(user -> {
+                .flatMap(user -> {
                     String presentedPassword = authentication.getCredentials().toString();
-                    if (!passwordEncoder.matches(presentedPassword, user.getPassword())) {
-                        LOGGER.debug("Authentication failed: password does not match stored value");
-                        throw new BadCredentialsException("Bad credentials");
-                    }
-                    return createUser(user);
+                    return passwordHashingExecutor.matches(passwordEncoder, presentedPassword, user.getPassword())
+                            .flatMapMaybe(matches -> {
+                                if (!matches) {
+                                    LOGGER.debug("Authentication failed: password does not match stored value");
+                                    return Maybe.error(new BadCredentialsException("Bad credentials"));
+                                }
+                                return Maybe.just(createUser(user));
+                            });
                 });
     }
 
@@ -19,14 +19,18 @@ import io.gravitee.am.identityprovider.api.Authentication;
 import io.gravitee.am.identityprovider.api.User;
 import io.gravitee.am.identityprovider.inline.authentication.provisioning.InlineInMemoryUserDetailsManager;
 import io.gravitee.am.service.authentication.crypto.password.PasswordEncoder;
+import io.gravitee.am.service.authentication.crypto.password.PasswordHashingExecutor;
 import io.gravitee.am.service.exception.authentication.BadCredentialsException;
 import io.gravitee.am.service.exception.authentication.UsernameNotFoundException;
 import io.reactivex.Maybe;
 import io.reactivex.observers.TestObserver;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.mockito.Matchers.anyString;
@@ -49,6 +53,21 @@ public class InlineAuthenticationProviderTest {
     @Mock
     private InlineInMemoryUserDetailsManager userDetailsService;
 
+    @Spy
+    private PasswordHashingExecutor passwordHashingExecutor = new PasswordHashingExecutor();
+
+    @Before
+    public void setUp() {
+        passwordHashingExecutor.setPoolSize(1);
+        passwordHashingExecutor.setQueueCapacity(10);
+        passwordHashingExecutor.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() {
+        passwordHashingExecutor.destroy();
+    }
+
     @Test
     public void shouldLoadUserByUsername_authentication() {
         Authentication authentication = mock(Authentication.class);
@@ -82,6 +101,7 @@ public class InlineAuthenticationProviderTest {
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(false);
 
         TestObserver<User> testObserver = inlineAuthenticationProvider.loadUserByUsername(authentication).test();
+        testObserver.awaitTerminalEvent();
         testObserver.assertError(BadCredentialsException.class);
     }
 
@@ -45,6 +45,16 @@ public class LdapIdentityProviderConfiguration implements IdentityProviderConfig
 
     private Long responseTimeout = 5000l;
 
+    private Integer minPoolSize = 5;
+
+    private Integer maxPoolSize = 15;
+
+    private boolean cacheEnabled;
+
+    private Long cacheTtl = 300l;
+
+    private Integer cacheMaxSize = 10000;
+
     public String getContextSourceUrl() {
         return contextSourceUrl;
     }
@@ -132,4 +142,44 @@ public class LdapIdentityProviderConfiguration implements IdentityProviderConfig
     public void setResponseTimeout(Long responseTimeout) {
         this.responseTimeout = responseTimeout;
     }
+
+    public Integer getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    public void setMinPoolSize(Integer minPoolSize) {
+        this.minPoolSize = minPoolSize;
+    }
+
+    public Integer getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(Integer maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public Long getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Long cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public Integer getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public void setCacheMaxSize(Integer cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
 }
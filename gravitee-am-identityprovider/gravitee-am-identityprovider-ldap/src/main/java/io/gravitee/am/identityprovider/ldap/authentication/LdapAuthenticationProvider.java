@@ -32,7 +32,6 @@ import org.ldaptive.*;
 import org.ldaptive.auth.AuthenticationRequest;
 import org.ldaptive.auth.AuthenticationResponse;
 import org.ldaptive.auth.Authenticator;
-import org.ldaptive.auth.SearchDnResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
@@ -55,6 +54,11 @@ public class LdapAuthenticationProvider implements AuthenticationProvider, Initi
 
     private static final String MEMBEROF_ATTRIBUTE = "memberOf";
 
+    /**
+     * Credential attributes returned by the user search, removed before the user entry is cached.
+     */
+    private static final String[] PASSWORD_ATTRIBUTES = { "userPassword", "authPassword", "unicodePwd", "sambaNTPassword", "sambaLMPassword" };
+
     @Autowired
     private LdapIdentityProviderMapper mapper;
 
@@ -70,8 +74,20 @@ public class LdapAuthenticationProvider implements AuthenticationProvider, Initi
     private Authenticator authenticator;
 
     @Autowired
+    @Qualifier("connectionFactory")
     private ConnectionFactory connectionFactory;
 
+    @Autowired
+    private LdapWorkerExecutor ldapWorkerExecutor;
+
+    @Autowired
+    @Qualifier("groupCache")
+    private LdapCache<String[]> groupCache;
+
+    @Autowired
+    @Qualifier("userCache")
+    private LdapCache<LdapEntry> userCache;
+
     @Autowired
     @Qualifier("groupSearchExecutor")
     private SearchExecutor groupSearchExecutor;
@@ -99,85 +115,92 @@ public class LdapAuthenticationProvider implements AuthenticationProvider, Initi
 
     @Override
     public Maybe<User> loadUserByUsername(Authentication authentication) {
-        Maybe<User> userSource = Maybe.create(emitter -> {
+        return ldapWorkerExecutor.execute(() -> {
             try {
                 String username = (String) authentication.getPrincipal();
                 String password = (String) authentication.getCredentials();
                 // authenticate user
-                // unable *={0} authentication filter (ldaptive use *={user})
-                ((SearchDnResolver) authenticator.getDnResolver()).setUserFilterParameters(Collections.singleton(username).toArray());
+                // the DN resolver handles both *={0} and *={user} authentication filters
                 AuthenticationResponse response = authenticator.authenticate(
                         new AuthenticationRequest(username, new Credential(password), ReturnAttributes.ALL_USER.value()));
                 if (response.getResult()) { // authentication succeeded
                     LdapEntry userEntry = response.getLdapEntry();
                     // fetch user groups
-                    try {
-                        groupSearchExecutor.getSearchFilter().setParameter(0, userEntry.getDn());
-                        SearchResult searchResult = groupSearchExecutor.search(connectionFactory).getResult();
-                        Collection<LdapEntry> groupEntries = searchResult.getEntries();
-                        String[] groups = groupEntries.stream()
-                                .map(groupEntry -> groupEntry.getAttributes()
-                                        .stream()
-                                        .map(ldapAttribute -> ldapAttribute.getStringValue())
-                                        .collect(Collectors.toList()))
-                                .flatMap(List::stream)
-                                .toArray(size -> new String[size]);
-                        userEntry.addAttribute(new LdapAttribute(MEMBEROF_ATTRIBUTE, groups));
-                    } catch (Exception e) {
-                        LOGGER.warn("No group found for user {}", userEntry.getDn(), e);
-                    }
+                    addGroups(userEntry);
                     // return user
-                    emitter.onSuccess(createUser(userEntry));
+                    return createUser(userEntry);
                 } else { // authentication failed
                     LOGGER.debug("Failed to authenticate user", response.getMessage());
-                    emitter.onError(new BadCredentialsException(response.getMessage()));
+                    throw new BadCredentialsException(response.getMessage());
                 }
             } catch (LdapException e) {
                 LOGGER.error("An error occurs during LDAP authentication", e);
-                emitter.onError(new InternalAuthenticationServiceException(e.getMessage(), e));
+                throw new InternalAuthenticationServiceException(e.getMessage(), e);
             }
         });
-
-        return userSource;
     }
 
     @Override
     public Maybe<User> loadUserByUsername(String username) {
-        Maybe<User> userSource = Maybe.create(emitter -> {
+        return ldapWorkerExecutor.execute(() -> {
             try {
                 // find user
-                userSearchExecutor.getSearchFilter().setParameter(0, username);
-                SearchResult userSearchResult = userSearchExecutor.search(connectionFactory).getResult();
-                LdapEntry userEntry = userSearchResult.getEntry();
+                LdapEntry userEntry = findUser(username);
                 if (userEntry != null) {
                     // fetch user groups
-                    try {
-                        groupSearchExecutor.getSearchFilter().setParameter(0, userEntry.getDn());
-                        SearchResult searchResult = groupSearchExecutor.search(connectionFactory).getResult();
-                        Collection<LdapEntry> groupEntries = searchResult.getEntries();
-                        String[] groups = groupEntries.stream()
-                                .map(groupEntry -> groupEntry.getAttributes()
-                                        .stream()
-                                        .map(ldapAttribute -> ldapAttribute.getStringValue())
-                                        .collect(Collectors.toList()))
-                                .flatMap(List::stream)
-                                .toArray(size -> new String[size]);
-                        userEntry.addAttribute(new LdapAttribute(MEMBEROF_ATTRIBUTE, groups));
-                    } catch (Exception e) {
-                        LOGGER.warn("No group found for user {}", userEntry.getDn(), e);
-                    }
+                    addGroups(userEntry);
                     // return user
-                    emitter.onSuccess(createUser(userEntry));
+                    return createUser(userEntry);
                 } else { // failed to find user
-                    emitter.onError(new UsernameNotFoundException(username));
+                    throw new UsernameNotFoundException(username);
                 }
             } catch (LdapException e) {
                 LOGGER.error("An error occurs while searching for a LDAP user", e);
-                emitter.onError(new InternalAuthenticationServiceException(e.getMessage(), e));
+                throw new InternalAuthenticationServiceException(e.getMessage(), e);
             }
         });
+    }
+
+    private LdapEntry findUser(String username) throws LdapException {
+        LdapEntry userEntry = userCache.get(username);
+        if (userEntry == null) {
+            long generation = userCache.generation();
+            SearchFilter userSearchFilter = new SearchFilter(userSearchExecutor.getSearchFilter().getFilter());
+            userSearchFilter.setParameter(0, username);
+            userSearchFilter.setParameter("user", username);
+            SearchResult userSearchResult = userSearchExecutor.search(connectionFactory, userSearchFilter).getResult();
+            userEntry = userSearchResult.getEntry();
+            if (userEntry != null) {
+                Arrays.stream(PASSWORD_ATTRIBUTES).forEach(userEntry::removeAttribute);
+                userCache.put(username, userEntry, generation);
+            }
+        }
+        // the cached entry is shared, the groups are added to a copy
+        return userEntry == null ? null : new LdapEntry(userEntry.getDn(), userEntry.getAttributes());
+    }
 
-        return userSource;
+    private void addGroups(LdapEntry userEntry) {
+        try {
+            String[] groups = groupCache.get(userEntry.getDn());
+            if (groups == null) {
+                long generation = groupCache.generation();
+                SearchFilter groupSearchFilter = new SearchFilter(groupSearchExecutor.getSearchFilter().getFilter());
+                groupSearchFilter.setParameter(0, userEntry.getDn());
+                SearchResult searchResult = groupSearchExecutor.search(connectionFactory, groupSearchFilter).getResult();
+                Collection<LdapEntry> groupEntries = searchResult.getEntries();
+                groups = groupEntries.stream()
+                        .map(groupEntry -> groupEntry.getAttributes()
+                                .stream()
+                                .map(ldapAttribute -> ldapAttribute.getStringValue())
+                                .collect(Collectors.toList()))
+                        .flatMap(List::stream)
+                        .toArray(size -> new String[size]);
+                groupCache.put(userEntry.getDn(), groups, generation);
+            }
+            userEntry.addAttribute(new LdapAttribute(MEMBEROF_ATTRIBUTE, groups));
+        } catch (Exception e) {
+            LOGGER.warn("No group found for user {}", userEntry.getDn(), e);
+        }
     }
 
     private User createUser(LdapEntry ldapEntry) {
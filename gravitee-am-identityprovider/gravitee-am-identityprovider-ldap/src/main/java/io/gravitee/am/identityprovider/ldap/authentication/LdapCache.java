@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.identityprovider.ldap.authentication;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of LDAP search results with a time-to-live, oldest entries are evicted first.
+ *
+ * Only directory data is cached (group memberships, user entries), credentials are never cached.
+ * A value loaded before a {@link #flush()} is never cached afterwards (see {@link #generation()}).
+ *
+ * @author GraviteeSource Team
+ */
+public class LdapCache<V> {
+
+    private final boolean enabled;
+    private final long ttl;
+    private final int maxSize;
+
+    private final ConcurrentMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Entries in insertion order, replaced or removed entries are skipped when evicting
+     */
+    private final Queue<Entry<V>> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param enabled whether values are cached
+     * @param ttl the maximum time (seconds) a value is served from the cache
+     * @param maxSize the maximum number of cached values
+     */
+    public LdapCache(boolean enabled, long ttl, int maxSize) {
+        this.enabled = enabled;
+        this.ttl = TimeUnit.SECONDS.toMillis(ttl);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param key the cache key
+     * @return the cached value, or <code>null</code> if the value is not cached
+     */
+    public V get(String key) {
+        if (!enabled || key == null) {
+            return null;
+        }
+
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expireAt <= System.currentTimeMillis()) {
+            if (remove(entry)) {
+                evictions.incrementAndGet();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * @return the current generation of the cache, to be read before loading a value from the directory
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String key, V value) {
+        put(key, value, generation());
+    }
+
+    /**
+     * @param key the cache key
+     * @param value the value loaded from the directory
+     * @param generation the generation of the cache when the value started to be loaded
+     */
+    public void put(String key, V value, long generation) {
+        if (!enabled || key == null || value == null || generation != this.generation.get()) {
+            return;
+        }
+
+        Entry<V> entry = new Entry<>(key, value, System.currentTimeMillis() + ttl);
+        if (entries.put(key, entry) == null) {
+            size.incrementAndGet();
+        }
+
+        // the cache may have been flushed since the first check, the generation is changed before the entries are
+        // removed so either the flush removes this entry or this entry is removed here
+        if (generation != this.generation.get()) {
+            remove(entry);
+            return;
+        }
+
+        insertionOrder.offer(entry);
+        queued.incrementAndGet();
+        evict();
+    }
+
+    /**
+     * Remove all the cached values, the next lookups will hit the directory.
+     */
+    public void flush() {
+        generation.incrementAndGet();
+        entries.values().forEach(this::remove);
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private void evict() {
+        // replaced or removed entries stay queued until they are polled, they are bounded as well
+        while (size.get() > maxSize || queued.get() > 2 * maxSize) {
+            Entry<V> oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (remove(oldest)) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean remove(Entry<V> entry) {
+        if (!entries.remove(entry.key, entry)) {
+            return false;
+        }
+        size.decrementAndGet();
+        return true;
+    }
+
+    private static class Entry<V> {
+
+        private final String key;
+        private final V value;
+        private final long expireAt;
+
+        Entry(String key, V value, long expireAt) {
+            this.key = key;
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.identityprovider.ldap.authentication;
+
+import io.gravitee.am.service.exception.authentication.InternalAuthenticationServiceException;
+import io.reactivex.Maybe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded thread-pool used to run the blocking LDAP operations outside of the Vert.x event loop.
+ *
+ * When both the workers and the queue are full, the task is rejected and the caller receives an authentication
+ * service error instead of stalling the event loop.
+ *
+ * @author GraviteeSource Team
+ */
+public class LdapWorkerExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LdapWorkerExecutor.class);
+
+    private static final int QUEUE_CAPACITY = 1000;
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong rejectedTasks = new AtomicLong();
+
+    public LdapWorkerExecutor(int poolSize) {
+        final int pool = POOL_COUNTER.incrementAndGet();
+        final AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread thread = new Thread(r, "gio-am-ldap-" + pool + "-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Execute the given LDAP operation on the worker pool.
+     *
+     * @param task the LDAP operation, returning <code>null</code> when there is no result
+     * @return the task result, or an {@link InternalAuthenticationServiceException} if the pool is saturated
+     */
+    public <T> Maybe<T> execute(Callable<T> task) {
+        return Maybe.create(emitter -> {
+            try {
+                Future<?> future = executor.submit(() -> {
+                    try {
+                        T result = task.call();
+                        if (result != null) {
+                            emitter.onSuccess(result);
+                        } else {
+                            emitter.onComplete();
+                        }
+                    } catch (Throwable t) {
+                        emitter.tryOnError(t);
+                    }
+                });
+                emitter.setCancellable(() -> future.cancel(false));
+            } catch (RejectedExecutionException ex) {
+                rejectedTasks.incrementAndGet();
+                LOGGER.warn("LDAP worker pool is saturated (queue size: {}), rejecting task", executor.getQueue().size());
+                emitter.onError(new InternalAuthenticationServiceException("The LDAP server is too busy to process the request", ex));
+            }
+        });
+    }
+
+    /**
+     * @return the number of tasks waiting in the queue
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of threads actively executing tasks
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return the number of tasks rejected because the pool was saturated
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTasks.get();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
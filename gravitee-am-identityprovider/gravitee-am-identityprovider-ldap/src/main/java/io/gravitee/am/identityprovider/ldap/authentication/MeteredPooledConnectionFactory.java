@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.identityprovider.ldap.authentication;
+
+import org.ldaptive.Connection;
+import org.ldaptive.LdapException;
+import org.ldaptive.pool.ConnectionPool;
+import org.ldaptive.pool.PooledConnectionFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pooled connection factory recording the time spent waiting for a pooled connection.
+ *
+ * @author GraviteeSource Team
+ */
+public class MeteredPooledConnectionFactory extends PooledConnectionFactory {
+
+    private final AtomicLong checkoutCount = new AtomicLong();
+    private final AtomicLong totalWaitTime = new AtomicLong();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    public MeteredPooledConnectionFactory(ConnectionPool pool) {
+        super(pool);
+    }
+
+    @Override
+    public Connection getConnection() throws LdapException {
+        final long start = System.nanoTime();
+        try {
+            return super.getConnection();
+        } finally {
+            long waitTime = System.nanoTime() - start;
+            checkoutCount.incrementAndGet();
+            totalWaitTime.addAndGet(waitTime);
+            maxWaitTime.accumulateAndGet(waitTime, Math::max);
+        }
+    }
+
+    public void close() {
+        getConnectionPool().close();
+    }
+
+    /**
+     * @return the number of connections currently checked out of the pool
+     */
+    public int getActiveCount() {
+        return getConnectionPool().activeCount();
+    }
+
+    /**
+     * @return the number of connections available in the pool
+     */
+    public int getIdleCount() {
+        return getConnectionPool().availableCount();
+    }
+
+    /**
+     * @return the number of connections checked out of the pool since startup
+     */
+    public long getCheckoutCount() {
+        return checkoutCount.get();
+    }
+
+    /**
+     * @return the average time (microseconds) waited for a pooled connection
+     */
+    public long getAverageWaitTime() {
+        long checkouts = checkoutCount.get();
+        return checkouts == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitTime.get() / checkouts);
+    }
+
+    /**
+     * @return the maximum time (microseconds) waited for a pooled connection
+     */
+    public long getMaxWaitTime() {
+        return TimeUnit.NANOSECONDS.toMicros(maxWaitTime.get());
+    }
+}
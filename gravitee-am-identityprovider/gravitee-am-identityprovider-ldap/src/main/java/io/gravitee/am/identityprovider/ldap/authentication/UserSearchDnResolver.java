@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.identityprovider.ldap.authentication;
+
+import org.ldaptive.SearchFilter;
+import org.ldaptive.auth.PooledSearchDnResolver;
+import org.ldaptive.auth.User;
+import org.ldaptive.pool.PooledConnectionFactory;
+
+/**
+ * Resolve the user DN with the <code>{user}</code> filter placeholder of ldaptive as well as the <code>{0}</code> one
+ * of the identity provider configuration, with a new search filter for each request.
+ *
+ * @author GraviteeSource Team
+ */
+public class UserSearchDnResolver extends PooledSearchDnResolver {
+
+    public UserSearchDnResolver(PooledConnectionFactory factory) {
+        super(factory);
+    }
+
+    @Override
+    protected SearchFilter createSearchFilter(User user) {
+        SearchFilter searchFilter = super.createSearchFilter(user);
+        if (searchFilter.getFilter() != null) {
+            searchFilter.setParameter(0, user.getIdentifier());
+        }
+        return searchFilter;
+    }
+}
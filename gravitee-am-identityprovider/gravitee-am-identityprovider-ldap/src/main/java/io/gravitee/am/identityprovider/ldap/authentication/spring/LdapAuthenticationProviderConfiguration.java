@@ -16,12 +16,20 @@
 package io.gravitee.am.identityprovider.ldap.authentication.spring;
 
 import io.gravitee.am.identityprovider.ldap.LdapIdentityProviderConfiguration;
+import io.gravitee.am.identityprovider.ldap.authentication.LdapCache;
+import io.gravitee.am.identityprovider.ldap.authentication.LdapWorkerExecutor;
+import io.gravitee.am.identityprovider.ldap.authentication.MeteredPooledConnectionFactory;
+import io.gravitee.am.identityprovider.ldap.authentication.UserSearchDnResolver;
 import org.ldaptive.*;
 import org.ldaptive.auth.Authenticator;
-import org.ldaptive.auth.BindAuthenticationHandler;
-import org.ldaptive.auth.SearchDnResolver;
+import org.ldaptive.auth.PooledBindAuthenticationHandler;
+import org.ldaptive.auth.PooledSearchEntryResolver;
 import org.ldaptive.auth.ext.PasswordPolicyAuthenticationResponseHandler;
 import org.ldaptive.control.PasswordPolicyControl;
+import org.ldaptive.pool.BlockingConnectionPool;
+import org.ldaptive.pool.IdlePruneStrategy;
+import org.ldaptive.pool.PoolConfig;
+import org.ldaptive.pool.SearchValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -38,12 +46,32 @@ public class LdapAuthenticationProviderConfiguration {
 
     private static final String LDAP_SEPARATOR = ",";
 
+    private static final Duration VALIDATE_PERIOD = Duration.ofMinutes(5);
+
+    private static final Duration PRUNE_PERIOD = Duration.ofMinutes(5);
+
+    private static final Duration PRUNE_IDLE_TIME = Duration.ofMinutes(10);
+
     @Autowired
     private LdapIdentityProviderConfiguration configuration;
 
-    @Bean
-    public ConnectionFactory connectionFactory() {
-        return new DefaultConnectionFactory(connectionConfig());
+    /**
+     * Connections bound with the configured principal, used to search for users and groups.
+     */
+    @Bean(destroyMethod = "close")
+    public MeteredPooledConnectionFactory connectionFactory() {
+        return pooledConnectionFactory("search", connectionConfig());
+    }
+
+    /**
+     * Connections used to bind the users being authenticated, kept apart so that the search connections are never
+     * bound with a user identity.
+     */
+    @Bean(destroyMethod = "close")
+    public MeteredPooledConnectionFactory bindConnectionFactory() {
+        ConnectionConfig connectionConfig = ConnectionConfig.newConnectionConfig(connectionConfig());
+        connectionConfig.setConnectionInitializer(null);
+        return pooledConnectionFactory("bind", connectionConfig);
     }
 
     @Bean
@@ -58,6 +86,29 @@ public class LdapAuthenticationProviderConfiguration {
         return connectionConfig;
     }
 
+    /**
+     * Group names of the users, keyed by user DN. Flushed when the identity provider is updated or removed.
+     */
+    @Bean(value = "groupCache", destroyMethod = "flush")
+    public LdapCache<String[]> groupCache() {
+        return new LdapCache<>(configuration.isCacheEnabled(), configuration.getCacheTtl(), configuration.getCacheMaxSize());
+    }
+
+    /**
+     * User entries loaded without credentials (pre-authenticated users), keyed by username, password attributes are
+     * never cached. Flushed when the identity provider is updated or removed.
+     */
+    @Bean(value = "userCache", destroyMethod = "flush")
+    public LdapCache<LdapEntry> userCache() {
+        return new LdapCache<>(configuration.isCacheEnabled(), configuration.getCacheTtl(), configuration.getCacheMaxSize());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public LdapWorkerExecutor ldapWorkerExecutor() {
+        // each worker holds at most one connection of each pool at a time
+        return new LdapWorkerExecutor(configuration.getMaxPoolSize());
+    }
+
     @Bean("userSearchExecutor")
     public SearchExecutor userSearchExecutor() {
         SearchExecutor searchExecutor = new SearchExecutor();
@@ -86,15 +137,35 @@ public class LdapAuthenticationProviderConfiguration {
 
     @Bean
     public Authenticator authenticator() {
-        SearchDnResolver dnResolver = new SearchDnResolver(connectionFactory());
+        UserSearchDnResolver dnResolver = new UserSearchDnResolver(connectionFactory());
         dnResolver.setBaseDn(configuration.getContextSourceBase());
         dnResolver.setUserFilter(configuration.getUserSearchFilter());
         dnResolver.setSubtreeSearch(true);
-        BindAuthenticationHandler authHandler = new BindAuthenticationHandler(connectionFactory());
+        PooledBindAuthenticationHandler authHandler = new PooledBindAuthenticationHandler(bindConnectionFactory());
         authHandler.setAuthenticationControls(new PasswordPolicyControl());
 
         Authenticator auth = new Authenticator(dnResolver, authHandler);
+        // read the user entry with the search connections, the bind connection is released once the user is bound
+        auth.setEntryResolver(new PooledSearchEntryResolver(connectionFactory()));
         auth.setAuthenticationResponseHandlers(new PasswordPolicyAuthenticationResponseHandler());
         return auth;
     }
+
+    private MeteredPooledConnectionFactory pooledConnectionFactory(String name, ConnectionConfig connectionConfig) {
+        PoolConfig poolConfig = new PoolConfig();
+        poolConfig.setMinPoolSize(Math.min(configuration.getMinPoolSize(), configuration.getMaxPoolSize()));
+        poolConfig.setMaxPoolSize(configuration.getMaxPoolSize());
+        poolConfig.setValidatePeriodically(true);
+        poolConfig.setValidatePeriod(VALIDATE_PERIOD);
+
+        BlockingConnectionPool pool = new BlockingConnectionPool(poolConfig, new DefaultConnectionFactory(connectionConfig));
+        pool.setName("ldap-" + name);
+        pool.setBlockWaitTime(Duration.ofMillis(configuration.getResponseTimeout()));
+        pool.setValidator(new SearchValidator());
+        pool.setPruneStrategy(new IdlePruneStrategy(PRUNE_PERIOD, PRUNE_IDLE_TIME));
+        // do not prevent the identity provider from starting if the LDAP server is not reachable yet
+        pool.setFailFastInitialize(false);
+        pool.initialize();
+        return new MeteredPooledConnectionFactory(pool);
+    }
 }
@@ -24,10 +24,13 @@ import io.gravitee.am.identityprovider.ldap.LdapIdentityProviderRoleMapper;
 import io.gravitee.am.identityprovider.ldap.authentication.spring.LdapAuthenticationProviderConfiguration;
 import io.gravitee.am.service.exception.authentication.BadCredentialsException;
 import io.reactivex.observers.TestObserver;
+import org.junit.Assert;
+import org.ldaptive.LdapEntry;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
@@ -35,7 +38,11 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.zapodot.junit.ldap.EmbeddedLdapRule;
 import org.zapodot.junit.ldap.EmbeddedLdapRuleBuilder;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -50,6 +57,19 @@ public class LdapAuthenticationProviderTest {
     @Autowired
     private AuthenticationProvider authenticationProvider;
 
+    @Autowired
+    @Qualifier("connectionFactory")
+    private MeteredPooledConnectionFactory connectionFactory;
+
+    @Autowired
+    @Qualifier("groupCache")
+    private LdapCache<String[]> groupCache;
+
+    @Autowired
+    @Qualifier("userCache")
+    private LdapCache<LdapEntry> userCache;
+
+
     @Rule
     public EmbeddedLdapRule embeddedLdapRule = EmbeddedLdapRuleBuilder
             .newInstance()
@@ -106,6 +126,7 @@ public class LdapAuthenticationProviderTest {
             }
         }).test();
 
+        testObserver.awaitTerminalEvent();
         testObserver.assertError(BadCredentialsException.class);
     }
 
@@ -129,9 +150,112 @@ public class LdapAuthenticationProviderTest {
             }
         }).test();
 
+        testObserver.awaitTerminalEvent();
+        testObserver.assertError(BadCredentialsException.class);
+    }
+
+
+    @Test
+    public void shouldLoadUserByUsername_authentication_concurrently() throws Exception {
+        embeddedLdapRule.ldapConnection();
+        List<String[]> credentials = Arrays.asList(
+                new String[] { "bob", "bobspassword", "bob" },
+                new String[] { "jerry", "jerryspassword", "jerry" },
+                new String[] { "bob", "wrongpassword", null });
+
+        List<TestObserver<User>> testObservers = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String[] credential = credentials.get(i % credentials.size());
+            testObservers.add(authenticationProvider.loadUserByUsername(authentication(credential[0], credential[1])).test());
+        }
+
+        for (int i = 0; i < testObservers.size(); i++) {
+            TestObserver<User> testObserver = testObservers.get(i);
+            String expectedUsername = credentials.get(i % credentials.size())[2];
+            testObserver.awaitTerminalEvent(10, TimeUnit.SECONDS);
+            if (expectedUsername != null) {
+                testObserver.assertValue(u -> expectedUsername.equals(u.getUsername()));
+            } else {
+                testObserver.assertError(BadCredentialsException.class);
+            }
+        }
+
+        Assert.assertTrue(connectionFactory.getCheckoutCount() >= 300);
+        Assert.assertEquals(0, connectionFactory.getActiveCount());
+        Assert.assertTrue(connectionFactory.getIdleCount() <= 15);
+    }
+
+    @Test
+    public void shouldLoadUserByUsername_cached() throws Exception {
+        embeddedLdapRule.ldapConnection();
+        groupCache.flush();
+        userCache.flush();
+        long userHits = userCache.getHitCount();
+        long userMisses = userCache.getMissCount();
+
+        TestObserver<User> testObserver = authenticationProvider.loadUserByUsername("bob").test();
+        testObserver.awaitTerminalEvent();
+        testObserver.assertValue(u -> "bob".equals(u.getUsername()));
+        Assert.assertEquals(userHits, userCache.getHitCount());
+        Assert.assertEquals(userMisses + 1, userCache.getMissCount());
+
+        testObserver = authenticationProvider.loadUserByUsername("bob").test();
+        testObserver.awaitTerminalEvent();
+        testObserver.assertValue(u -> "bob".equals(u.getUsername()));
+        Assert.assertEquals(userHits + 1, userCache.getHitCount());
+
+        groupCache.flush();
+        userCache.flush();
+        testObserver = authenticationProvider.loadUserByUsername("bob").test();
+        testObserver.awaitTerminalEvent();
+        testObserver.assertValue(u -> "bob".equals(u.getUsername()));
+        Assert.assertEquals(userHits + 1, userCache.getHitCount());
+        Assert.assertEquals(userMisses + 2, userCache.getMissCount());
+    }
+
+    @Test
+    public void shouldNotCachePassword() throws Exception {
+        embeddedLdapRule.ldapConnection();
+        userCache.flush();
+
+        TestObserver<User> testObserver = authenticationProvider.loadUserByUsername("bob").test();
+        testObserver.awaitTerminalEvent();
+        testObserver.assertValue(u -> "bob".equals(u.getUsername()));
+
+        LdapEntry cachedEntry = userCache.get("bob");
+        Assert.assertNotNull(cachedEntry);
+        Assert.assertNotNull(cachedEntry.getAttribute("uid"));
+        Assert.assertNull(cachedEntry.getAttribute("userPassword"));
+    }
+
+    @Test
+    public void shouldNotLoadUserByUsername_authentication_cachedUser_badCredentials() throws Exception {
+        embeddedLdapRule.ldapConnection();
+        authenticationProvider.loadUserByUsername("bob").test().awaitTerminalEvent();
+
+        TestObserver<User> testObserver = authenticationProvider.loadUserByUsername(authentication("bob", "wrongpassword")).test();
+        testObserver.awaitTerminalEvent();
         testObserver.assertError(BadCredentialsException.class);
     }
 
+    private Authentication authentication(String username, String password) {
+        return new Authentication() {
+            @Override
+            public Object getCredentials() {
+                return password;
+            }
+
+            @Override
+            public Object getPrincipal() {
+                return username;
+            }
+
+            @Override
+            public Map<String, Object> getAdditionalInformation() {
+                return null;
+            }
+        };
+    }
 
     @Configuration
     static class LdapAuthenticationConfiguration {
@@ -152,6 +276,8 @@ public class LdapAuthenticationProviderTest {
             configuration.setGroupSearchFilter("member={0}");
             configuration.setGroupRoleAttribute("cn");
 
+            configuration.setCacheEnabled(true);
+
             return configuration;
         }
 
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.identityprovider.ldap.authentication;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class LdapCacheTest {
+
+    @Test
+    public void shouldGet() {
+        LdapCache<String> cache = new LdapCache<>(true, 60, 10);
+        cache.put("uid=bob", "developers");
+
+        Assert.assertEquals("developers", cache.get("uid=bob"));
+        Assert.assertNull(cache.get("uid=joe"));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void shouldNotGet_disabled() {
+        LdapCache<String> cache = new LdapCache<>(false, 60, 10);
+        cache.put("uid=bob", "developers");
+
+        Assert.assertNull(cache.get("uid=bob"));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldNotGet_expired() {
+        LdapCache<String> cache = new LdapCache<>(true, 0, 10);
+        cache.put("uid=bob", "developers");
+
+        Assert.assertNull(cache.get("uid=bob"));
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void shouldEvictOldest_maxSize() {
+        LdapCache<String> cache = new LdapCache<>(true, 60, 2);
+        cache.put("uid=bob", "developers");
+        cache.put("uid=joe", "managers");
+        cache.put("uid=ben", "developers");
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get("uid=bob"));
+        Assert.assertEquals("managers", cache.get("uid=joe"));
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void shouldFlush() {
+        LdapCache<String> cache = new LdapCache<>(true, 60, 10);
+        cache.put("uid=bob", "developers");
+        cache.flush();
+
+        Assert.assertNull(cache.get("uid=bob"));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldNotPut_loadedBeforeFlush() {
+        LdapCache<String> cache = new LdapCache<>(true, 60, 10);
+        // the value is loaded from the directory while the cache is flushed
+        long generation = cache.generation();
+        cache.flush();
+        cache.put("uid=bob", "developers", generation);
+
+        Assert.assertNull(cache.get("uid=bob"));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldNotGet_concurrentPutAndFlush() throws Exception {
+        LdapCache<String> cache = new LdapCache<>(true, 60, 10000);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                String key = "uid=bob" + i;
+                long generation = cache.generation();
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<?> put = executor.submit(() -> {
+                    barrier.await();
+                    cache.put(key, "developers", generation);
+                    return null;
+                });
+                Future<?> flush = executor.submit(() -> {
+                    barrier.await();
+                    cache.flush();
+                    return null;
+                });
+                put.get();
+                flush.get();
+
+                Assert.assertNull(cache.get(key));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(0, cache.size());
+    }
+}
@@ -33,6 +33,8 @@ public class MongoIdentityProviderConfiguration implements IdentityProviderConfi
     private String usersCollection;
     private String findUserByUsernameQuery;
     private String passwordField;
+    private String passwordEncoder = "None";
+    private int passwordEncoderStrength = 10;
 
     public String getUri() {
         return this.uri;
@@ -121,4 +123,20 @@ public class MongoIdentityProviderConfiguration implements IdentityProviderConfi
     public void setPasswordField(String passwordField) {
         this.passwordField = passwordField;
     }
+
+    public String getPasswordEncoder() {
+        return this.passwordEncoder;
+    }
+
+    public void setPasswordEncoder(String passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    public int getPasswordEncoderStrength() {
+        return this.passwordEncoderStrength;
+    }
+
+    public void setPasswordEncoderStrength(int passwordEncoderStrength) {
+        this.passwordEncoderStrength = passwordEncoderStrength;
+    }
 }
@@ -15,6 +15,8 @@
  */
 package io.gravitee.am.identityprovider.mongo.authentication;
 
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
 import com.mongodb.reactivestreams.client.MongoClient;
 import com.mongodb.reactivestreams.client.MongoCollection;
 import io.gravitee.am.common.oidc.StandardClaims;
@@ -26,19 +28,29 @@ import io.gravitee.am.identityprovider.mongo.MongoIdentityProviderConfiguration;
 import io.gravitee.am.identityprovider.mongo.MongoIdentityProviderMapper;
 import io.gravitee.am.identityprovider.mongo.authentication.spring.MongoAuthenticationProviderConfiguration;
 import io.gravitee.am.service.authentication.crypto.password.PasswordEncoder;
+import io.gravitee.am.service.authentication.crypto.password.PasswordHashingExecutor;
 import io.gravitee.am.service.exception.authentication.BadCredentialsException;
 import io.gravitee.am.service.exception.authentication.UsernameNotFoundException;
 import io.reactivex.Maybe;
 import io.reactivex.Observable;
-import org.bson.BsonDocument;
+import io.reactivex.Single;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Import;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Updates.set;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -46,34 +58,72 @@ import java.util.Map;
  * @author GraviteeSource Team
  */
 @Import({MongoAuthenticationProviderConfiguration.class})
-public class MongoAuthenticationProvider implements AuthenticationProvider {
+public class MongoAuthenticationProvider implements AuthenticationProvider, InitializingBean {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MongoAuthenticationProvider.class);
 
+    private static final String FIELD_ID = "_id";
+
     @Autowired
     private MongoIdentityProviderMapper mapper;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     @Autowired
     private MongoIdentityProviderConfiguration configuration;
 
     @Autowired
     private MongoClient mongoClient;
 
+    private MongoCollection<Document> usersCollection;
+
+    private UsernameQueryTemplate findUserByUsernameQuery;
+
+    private Bson projection;
+
+    @Override
+    public void afterPropertiesSet() {
+        usersCollection = this.mongoClient.getDatabase(this.configuration.getDatabase()).getCollection(this.configuration.getUsersCollection());
+        findUserByUsernameQuery = new UsernameQueryTemplate(this.configuration.getFindUserByUsernameQuery());
+
+        // only fetch the password and the mapped attributes
+        Set<String> fields = new HashSet<>();
+        fields.add(this.configuration.getPasswordField());
+        if (this.mapper.getMappers() != null) {
+            fields.addAll(this.mapper.getMappers().values());
+        }
+        projection = Projections.include(new ArrayList<>(fields));
+
+        // index the username field(s), no-op if the index already exists
+        findUserByUsernameQuery.getUsernameFields().forEach(field ->
+                Observable.fromPublisher(usersCollection.createIndex(Indexes.ascending(field)))
+                        .subscribe(
+                                index -> LOGGER.debug("Index {} checked on users collection {}", index, this.configuration.getUsersCollection()),
+                                error -> LOGGER.warn("Unable to create index on field {} of users collection {}", field, this.configuration.getUsersCollection(), error)));
+    }
+
     public Maybe<User> loadUserByUsername(Authentication authentication) {
         String username = (String)authentication.getPrincipal();
         return findUserByUsername(username)
                 .switchIfEmpty(Maybe.error(new UsernameNotFoundException(username)))
-                .map(user -> {
+                .flatMap(user -> {
                     String password = user.getString(this.configuration.getPasswordField());
                     String presentedPassword = authentication.getCredentials().toString();
-                    if (!passwordEncoder.matches(presentedPassword, password)) {
-                        LOGGER.debug("Authentication failed: password does not match stored value");
-                        throw new BadCredentialsException("Bad credentials");
-                    }
-                    return createUser(username, user);
+                    return passwordHashingExecutor.matches(passwordEncoder, presentedPassword, password)
+                            .flatMapMaybe(matches -> {
+                                if (!matches) {
+                                    LOGGER.debug("Authentication failed: password does not match stored value");
+                                    return Maybe.error(new BadCredentialsException("Bad credentials"));
+                                }
+                                if (passwordEncoder.upgradeEncoding(password)) {
+                                    upgradePassword(user, password, presentedPassword);
+                                }
+                                return Maybe.just(createUser(username, user));
+                            });
                 });
     }
 
@@ -83,11 +133,21 @@ public class MongoAuthenticationProvider implements AuthenticationProvider {
     }
 
     private Maybe<Document> findUserByUsername(String username) {
-        MongoCollection<Document> usersCol = this.mongoClient.getDatabase(this.configuration.getDatabase()).getCollection(this.configuration.getUsersCollection());
-        String rawQuery = this.configuration.getFindUserByUsernameQuery().replaceAll("\\?", username);
-        String jsonQuery = convertToJsonString(rawQuery);
-        BsonDocument query = BsonDocument.parse(jsonQuery);
-        return Observable.fromPublisher(usersCol.find(query).first()).firstElement();
+        return Observable.fromPublisher(usersCollection.find(findUserByUsernameQuery.bind(username)).projection(projection).first()).firstElement();
+    }
+
+    /**
+     * Hash the password again with the configured cost, in the background. The stored password is only replaced if it
+     * has not been changed in the meantime.
+     */
+    private void upgradePassword(Document user, String password, String presentedPassword) {
+        passwordHashingExecutor.encode(passwordEncoder, presentedPassword)
+                .flatMap(encodedPassword -> Single.fromPublisher(usersCollection.updateOne(
+                        and(eq(FIELD_ID, user.get(FIELD_ID)), eq(this.configuration.getPasswordField(), password)),
+                        set(this.configuration.getPasswordField(), encodedPassword))))
+                .subscribe(
+                        result -> LOGGER.debug("Password of user {} has been hashed again ({} updated)", user.get(FIELD_ID), result.getModifiedCount()),
+                        error -> LOGGER.warn("Unable to hash again the password of user {}", user.get(FIELD_ID), error));
     }
 
     private User createUser(String username, Document document) {
@@ -102,9 +162,4 @@ public class MongoAuthenticationProvider implements AuthenticationProvider {
         user.setAdditonalInformation(claims);
         return user;
     }
-
-    private String convertToJsonString(String rawString) {
-        rawString = rawString.replaceAll("[^\\{\\}\\[\\],:]+", "\"$0\"").replaceAll("\\s+","");
-        return rawString;
-    }
 }
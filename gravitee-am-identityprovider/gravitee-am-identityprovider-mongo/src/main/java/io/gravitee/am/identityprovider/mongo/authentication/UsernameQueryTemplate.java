@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.identityprovider.mongo.authentication;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonRegularExpression;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The <code>findUserByUsernameQuery</code> of the identity provider, parsed once into a BSON template.
+ *
+ * The <code>?</code> placeholder of the configured query is bound to the username as a BSON value, the username is
+ * never spliced into the query text. A placeholder embedded in a string (e.g. <code>{email: ?@acme.com}</code>) is
+ * replaced by the username as is, or quoted when it is part of a <code>$regex</code> so that the username is only
+ * matched literally.
+ *
+ * @author GraviteeSource Team
+ */
+public class UsernameQueryTemplate {
+
+    private static final String PLACEHOLDER = "__gravitee_am_username__";
+
+    private static final String REGEX_OPERATOR = "$regex";
+
+    private final BsonDocument template;
+
+    private final List<String> usernameFields = new ArrayList<>();
+
+    public UsernameQueryTemplate(String query) {
+        // same lax syntax as before, e.g. {username: ?}
+        this.template = BsonDocument.parse(convertToJsonString(query.replaceAll("\\?", PLACEHOLDER)));
+        collectUsernameFields(template, null);
+    }
+
+    /**
+     * @param username the username of the user to find
+     * @return the query finding the given user
+     */
+    public BsonDocument bind(String username) {
+        return (BsonDocument) bind(template, new BsonString(username), false);
+    }
+
+    /**
+     * @return the fields (dotted path) compared to the username, used to index the users collection
+     */
+    public List<String> getUsernameFields() {
+        return usernameFields;
+    }
+
+    private BsonValue bind(BsonValue value, BsonString username, boolean regex) {
+        if (value.isDocument()) {
+            BsonDocument document = new BsonDocument();
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                document.put(entry.getKey(), bind(entry.getValue(), username, REGEX_OPERATOR.equals(entry.getKey())));
+            }
+            return document;
+        }
+        if (value.isArray()) {
+            BsonArray array = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                array.add(bind(element, username, regex));
+            }
+            return array;
+        }
+        if (value.isRegularExpression() && value.asRegularExpression().getPattern().contains(PLACEHOLDER)) {
+            // {$regex: ..., $options: ...} is parsed as a regular expression
+            BsonRegularExpression regularExpression = value.asRegularExpression();
+            return new BsonRegularExpression(regularExpression.getPattern().replace(PLACEHOLDER, Pattern.quote(username.getValue())), regularExpression.getOptions());
+        }
+        if (value.isString() && value.asString().getValue().contains(PLACEHOLDER)) {
+            String string = value.asString().getValue();
+            if (regex) {
+                // regex metacharacters of the username must not change the pattern
+                return new BsonString(string.replace(PLACEHOLDER, Pattern.quote(username.getValue())));
+            }
+            return string.equals(PLACEHOLDER) ? username : new BsonString(string.replace(PLACEHOLDER, username.getValue()));
+        }
+        return value;
+    }
+
+    private void collectUsernameFields(BsonDocument document, String path) {
+        for (Map.Entry<String, BsonValue> entry : document.entrySet()) {
+            if (entry.getKey().startsWith("$")) {
+                // operator ($or, $and, $eq...), the field is the enclosing one
+                if (entry.getValue().isDocument()) {
+                    collectUsernameFields(entry.getValue().asDocument(), path);
+                } else if (entry.getValue().isArray()) {
+                    entry.getValue().asArray().stream()
+                            .filter(BsonValue::isDocument)
+                            .forEach(element -> collectUsernameFields(element.asDocument(), path));
+                } else if (path != null && PLACEHOLDER.equals(stringValue(entry.getValue()))) {
+                    usernameFields.add(path);
+                }
+            } else {
+                String field = path == null ? entry.getKey() : path + "." + entry.getKey();
+                if (entry.getValue().isDocument()) {
+                    collectUsernameFields(entry.getValue().asDocument(), field);
+                } else if (PLACEHOLDER.equals(stringValue(entry.getValue()))) {
+                    usernameFields.add(field);
+                }
+            }
+        }
+    }
+
+    private static String stringValue(BsonValue value) {
+        return value.isString() ? value.asString().getValue() : null;
+    }
+
+    private static String convertToJsonString(String rawString) {
+        return rawString.replaceAll("[^\\{\\}\\[\\],:]+", "\"$0\"").replaceAll("\\s+","");
+    }
+}
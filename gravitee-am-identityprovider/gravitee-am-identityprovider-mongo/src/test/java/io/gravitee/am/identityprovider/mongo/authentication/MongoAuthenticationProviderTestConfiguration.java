@@ -21,6 +21,7 @@ import io.gravitee.am.identityprovider.api.AuthenticationProvider;
 import io.gravitee.am.identityprovider.mongo.MongoIdentityProviderConfiguration;
 import io.gravitee.am.identityprovider.mongo.MongoIdentityProviderMapper;
 import io.gravitee.am.identityprovider.mongo.MongoIdentityProviderRoleMapper;
+import io.gravitee.am.service.authentication.crypto.password.PasswordHashingExecutor;
 import io.reactivex.Observable;
 import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -76,6 +77,11 @@ public class MongoAuthenticationProviderTestConfiguration {
         return new MongoIdentityProviderRoleMapper();
     }
 
+    @Bean
+    public PasswordHashingExecutor passwordHashingExecutor() {
+        return new PasswordHashingExecutor();
+    }
+
     @Bean
     public EmbeddedClient embeddedClient() {
         return new EmbeddedClient("test-idp-mongo");
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.identityprovider.mongo.authentication;
+
+import org.bson.BsonDocument;
+import org.bson.BsonRegularExpression;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class UsernameQueryTemplateTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameQueryTemplateTest.class);
+
+    @Test
+    public void shouldBindUsername() {
+        UsernameQueryTemplate template = new UsernameQueryTemplate("{username: ?}");
+
+        Assert.assertEquals(BsonDocument.parse("{\"username\": \"bob\"}"), template.bind("bob"));
+        Assert.assertEquals(Collections.singletonList("username"), template.getUsernameFields());
+    }
+
+    @Test
+    public void shouldBindUsername_operators() {
+        UsernameQueryTemplate template = new UsernameQueryTemplate("{$or:[{username: ?},{email: ?}]}");
+
+        Assert.assertEquals(BsonDocument.parse("{\"$or\": [{\"username\": \"bob\"}, {\"email\": \"bob\"}]}"), template.bind("bob"));
+        Assert.assertEquals(Arrays.asList("username", "email"), template.getUsernameFields());
+    }
+
+    @Test
+    public void shouldBindUsername_asValue() {
+        UsernameQueryTemplate template = new UsernameQueryTemplate("{username: ?}");
+
+        // would have been an injection with the username spliced into the query
+        BsonDocument query = template.bind("bob\"}, {$where: \"true");
+        Assert.assertEquals(1, query.size());
+        Assert.assertEquals("bob\"}, {$where: \"true", query.getString("username").getValue());
+    }
+
+    @Test
+    public void shouldBindUsername_embedded() {
+        UsernameQueryTemplate template = new UsernameQueryTemplate("{email: ?@acme.com}");
+
+        Assert.assertEquals("bob.*|joe@acme.com", template.bind("bob.*|joe").getString("email").getValue());
+    }
+
+    @Test
+    public void shouldBindUsername_regexQuoted() {
+        UsernameQueryTemplate template = new UsernameQueryTemplate("{username:{$regex: ^?$}}");
+
+        String username = "bob.*|^admin$\\E(";
+        Pattern pattern = Pattern.compile(template.bind(username).getDocument("username").getString("$regex").getValue());
+        Assert.assertTrue(pattern.matcher(username).matches());
+        Assert.assertFalse(pattern.matcher("bobby").matches());
+        Assert.assertFalse(pattern.matcher("admin").matches());
+    }
+
+    @Test
+    public void shouldBindUsername_regularExpressionQuoted() {
+        UsernameQueryTemplate template = new UsernameQueryTemplate("{username:{$regex: ^?$, $options: i}}");
+
+        String username = "bob.*|^admin$\\E(";
+        BsonRegularExpression regularExpression = template.bind(username).getRegularExpression("username");
+        Pattern pattern = Pattern.compile(regularExpression.getPattern());
+        Assert.assertEquals("i", regularExpression.getOptions());
+        Assert.assertTrue(pattern.matcher(username).matches());
+        Assert.assertFalse(pattern.matcher("bobby").matches());
+        Assert.assertFalse(pattern.matcher("admin").matches());
+    }
+
+    @Test
+    public void shouldNotShareBoundQueries() {
+        UsernameQueryTemplate template = new UsernameQueryTemplate("{username: ?}");
+
+        BsonDocument query = template.bind("bob");
+        query.remove("username");
+
+        Assert.assertEquals(BsonDocument.parse("{\"username\": \"joe\"}"), template.bind("joe"));
+    }
+
+    /**
+     * Per-login query construction: text substitution and parsing (former implementation) against template binding.
+     */
+    @Test
+    public void shouldBuildQueryFaster_benchmark() {
+        final String query = "{$or:[{username: ?},{email: ?}]}";
+        final int iterations = 100_000;
+        final UsernameQueryTemplate template = new UsernameQueryTemplate(query);
+
+        // warm-up
+        for (int i = 0; i < iterations; i++) {
+            parse(query, "user" + i);
+            template.bind("user" + i);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            parse(query, "user" + i);
+        }
+        long parseDuration = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            template.bind("user" + i);
+        }
+        long bindDuration = System.nanoTime() - start;
+
+        logger.info("Query parsing: {} ns/op, query template binding: {} ns/op", parseDuration / iterations, bindDuration / iterations);
+
+        Assert.assertEquals(parse(query, "bob"), template.bind("bob"));
+        Assert.assertTrue(bindDuration < parseDuration);
+    }
+
+    private static BsonDocument parse(String query, String username) {
+        String rawQuery = query.replaceAll("\\?", username);
+        String jsonQuery = rawQuery.replaceAll("[^\\{\\}\\[\\],:]+", "\"$0\"").replaceAll("\\s+","");
+        return BsonDocument.parse(jsonQuery);
+    }
+}
@@ -42,4 +42,9 @@ public class AuthorizationCodeRepositoryProxy extends AbstractProxy<Authorizatio
     public Maybe<AuthorizationCode> findByCode(String code) {
         return target.findByCode(code);
     }
+
+    @Override
+    public Maybe<AuthorizationCode> consume(String code, String clientId) {
+        return target.consume(code, clientId);
+    }
 }
@@ -22,6 +22,7 @@ import io.reactivex.Maybe;
 import io.reactivex.Single;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -35,6 +36,10 @@ public class ExtensionGrantRepositoryProxy extends AbstractProxy<ExtensionGrantR
         return target.findByDomain(domain);
     }
 
+    public Single<Set<ExtensionGrant>> findByDomainIn(Collection<String> domains) {
+        return target.findByDomainIn(domains);
+    }
+
     @Override
     public Maybe<ExtensionGrant> findById(String id) {
         return target.findById(id);
@@ -22,6 +22,7 @@ import io.reactivex.Maybe;
 import io.reactivex.Single;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -36,6 +37,11 @@ public class IdentityProviderRepositoryProxy extends AbstractProxy<IdentityProvi
         return target.findByDomain(domain);
     }
 
+    @Override
+    public Single<Set<IdentityProvider>> findByDomainIn(Collection<String> domains) {
+        return target.findByDomainIn(domains);
+    }
+
     @Override
     public Maybe<IdentityProvider> findById(String id) {
         return target.findById(id);
@@ -22,6 +22,7 @@ import io.reactivex.Maybe;
 import io.reactivex.Single;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -37,6 +38,11 @@ public class RoleRepositoryProxy extends AbstractProxy<RoleRepository> implement
         return target.findByDomain(domain);
     }
 
+    @Override
+    public Single<Set<Role>> findByDomainIn(Collection<String> domains) {
+        return target.findByDomainIn(domains);
+    }
+
     @Override
     public Single<Set<Role>> findByIdIn(List<String> ids) {
         return target.findByIdIn(ids);
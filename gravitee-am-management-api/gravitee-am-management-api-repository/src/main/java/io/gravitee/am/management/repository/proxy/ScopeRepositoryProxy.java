@@ -22,6 +22,7 @@ import io.reactivex.Maybe;
 import io.reactivex.Single;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -35,6 +36,10 @@ public class ScopeRepositoryProxy extends AbstractProxy<ScopeRepository> impleme
         return target.findByDomain(domain);
     }
 
+    public Single<Set<Scope>> findByDomainIn(Collection<String> domains) {
+        return target.findByDomainIn(domains);
+    }
+
     public Maybe<Scope> findByDomainAndKey(String domain, String key) {
         return target.findByDomainAndKey(domain, key);
     }
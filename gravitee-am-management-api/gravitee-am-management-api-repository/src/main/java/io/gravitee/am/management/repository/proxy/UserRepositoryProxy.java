@@ -47,6 +47,11 @@ public class UserRepositoryProxy extends AbstractProxy<UserRepository> implement
         return target.findByUsernameAndDomain(username, domain);
     }
 
+    @Override
+    public Single<User> upsertOnLogin(User user) {
+        return target.upsertOnLogin(user);
+    }
+
     @Override
     public Maybe<User> findById(String id) {
         return target.findById(id);
@@ -73,6 +73,9 @@ public class Client {
      */
     private Date updatedAt;
 
+    /**
+     * Identity providers in priority order (the iteration order of the set is the order configured for the client).
+     */
     private Set<String> identities;
 
     private Set<String> oauth2Identities;
@@ -81,6 +84,10 @@ public class Client {
 
     private boolean enhanceScopesWithUserPermissions;
 
+    private boolean statelessAccessTokens;
+
+    private IdentityProviderStrategy identityProviderStrategy;
+
     public String getId() {
         return id;
     }
@@ -233,6 +240,22 @@ public class Client {
         this.enhanceScopesWithUserPermissions = enhanceScopesWithUserPermissions;
     }
 
+    public boolean isStatelessAccessTokens() {
+        return statelessAccessTokens;
+    }
+
+    public void setStatelessAccessTokens(boolean statelessAccessTokens) {
+        this.statelessAccessTokens = statelessAccessTokens;
+    }
+
+    public IdentityProviderStrategy getIdentityProviderStrategy() {
+        return identityProviderStrategy;
+    }
+
+    public void setIdentityProviderStrategy(IdentityProviderStrategy identityProviderStrategy) {
+        this.identityProviderStrategy = identityProviderStrategy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.model;
+
+/**
+ * How the identity providers of a client are used to authenticate a user.
+ *
+ * Whatever the strategy, when several identity providers authenticate the user, the first one in the client's priority
+ * order wins (see {@link Client#getIdentities()}).
+ *
+ * @author GraviteeSource Team
+ */
+public enum IdentityProviderStrategy {
+
+    /**
+     * Identity providers are tried one after the other.
+     */
+    ORDERED,
+
+    /**
+     * All the identity providers are tried at the same time.
+     */
+    PARALLEL,
+
+    /**
+     * The next identity provider is tried when the previous one fails or has not answered within the hedge delay.
+     */
+    HEDGED
+}
@@ -15,6 +15,8 @@
  */
 package io.gravitee.am.model.common.event;
 
+import java.util.Date;
+
 /**
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
  * @author GraviteeSource Team
@@ -24,6 +26,13 @@ public class Event {
     private Type type;
     private Payload payload;
 
+    /**
+     * Position of the event in the events journal, assigned when the event is stored
+     */
+    private long sequence;
+
+    private Date createdAt;
+
     public Event(Type type, Payload payload) {
         this.type = type;
         this.payload = payload;
@@ -36,4 +45,20 @@ public class Event {
     public Payload getPayload() {
         return payload;
     }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
 }
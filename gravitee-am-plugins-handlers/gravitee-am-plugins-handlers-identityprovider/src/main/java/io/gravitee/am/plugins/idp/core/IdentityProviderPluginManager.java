@@ -38,5 +38,12 @@ public interface IdentityProviderPluginManager {
 
     AuthenticationProvider create(String type, String configuration, Map<String, String> mappers, Map<String, String[]> roleMapper);
 
+    /**
+     * Release the resources (connection pools, ...) held by an authentication provider previously created by this manager.
+     *
+     * @param authenticationProvider the authentication provider to close
+     */
+    void close(AuthenticationProvider authenticationProvider);
+
     String getSchema(String identityProviderId) throws IOException;
 }
@@ -18,6 +18,7 @@ package io.gravitee.am.plugins.idp.core.impl;
 import io.gravitee.am.identityprovider.api.*;
 import io.gravitee.am.identityprovider.api.oauth2.OAuth2IdentityProvider;
 import io.gravitee.am.plugins.idp.core.*;
+import io.gravitee.am.service.authentication.crypto.password.PasswordHashingExecutor;
 import io.gravitee.plugin.core.api.Plugin;
 import io.gravitee.plugin.core.api.PluginContextFactory;
 import io.gravitee.plugin.core.internal.AnnotationBasedPluginContextConfigurer;
@@ -36,6 +37,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -51,6 +53,7 @@ public class IdentityProviderPluginManagerImpl implements IdentityProviderPlugin
     private final Map<String, IdentityProvider> identityProviders = new HashMap<>();
     private final Map<IdentityProvider, Plugin> identityProviderPlugins = new HashMap<>();
     private final Map<IdentityProvider, Plugin> oauth2IdentityProviderPlugins = new HashMap<>();
+    private final Map<Object, ConfigurableApplicationContext> identityProviderContexts = new ConcurrentHashMap<>();
 
     @Autowired
     private PluginContextFactory pluginContextFactory;
@@ -71,6 +74,9 @@ public class IdentityProviderPluginManagerImpl implements IdentityProviderPlugin
     @Autowired
     private Vertx vertx;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     @Override
     public void register(IdentityProviderDefinition identityProviderPluginDefinition, boolean oauth2Provider) {
         identityProviders.putIfAbsent(identityProviderPluginDefinition.getPlugin().id(),
@@ -130,6 +136,22 @@ public class IdentityProviderPluginManagerImpl implements IdentityProviderPlugin
         }
     }
 
+    @Override
+    public void close(AuthenticationProvider authenticationProvider) {
+        if (authenticationProvider == null) {
+            return;
+        }
+
+        ConfigurableApplicationContext idpApplicationContext = identityProviderContexts.remove(authenticationProvider);
+        if (idpApplicationContext != null) {
+            try {
+                idpApplicationContext.close();
+            } catch (Exception ex) {
+                logger.error("An unexpected error occurs while closing identity provider", ex);
+            }
+        }
+    }
+
     @Override
     public String getSchema(String identityProviderId) throws IOException {
         IdentityProvider identityProvider = identityProviders.get(identityProviderId);
@@ -179,6 +201,10 @@ public class IdentityProviderPluginManagerImpl implements IdentityProviderPlugin
                     configurableApplicationContext.addBeanFactoryPostProcessor(
                             new VertxBeanFactoryPostProcessor(vertx));
 
+                    // Add password hashing pool, shared by all the identity providers
+                    configurableApplicationContext.addBeanFactoryPostProcessor(
+                            new PasswordHashingExecutorBeanFactoryPostProcessor(passwordHashingExecutor));
+
                     // Add identity provider configuration bean
                     configurableApplicationContext.addBeanFactoryPostProcessor(
                             new IdentityProviderConfigurationBeanFactoryPostProcessor(identityProviderConfiguration));
@@ -201,6 +227,10 @@ public class IdentityProviderPluginManagerImpl implements IdentityProviderPlugin
                 ((InitializingBean) identityObj).afterPropertiesSet();
             }
 
+            if (idpApplicationContext instanceof ConfigurableApplicationContext) {
+                identityProviderContexts.put(identityObj, (ConfigurableApplicationContext) idpApplicationContext);
+            }
+
             return identityObj;
         } catch (Exception ex) {
             logger.error("An unexpected error occurs while loading identity provider", ex);
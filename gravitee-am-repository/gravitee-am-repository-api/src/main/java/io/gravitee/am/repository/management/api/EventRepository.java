@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.repository.management.api;
+
+import io.gravitee.am.model.common.event.Event;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+
+import java.util.List;
+
+/**
+ * Journal of the configuration events published by the management API, consumed by the gateways to synchronize
+ * their security domains.
+ *
+ * @author GraviteeSource Team
+ */
+public interface EventRepository {
+
+    /**
+     * Append an event to the journal. The event is assigned the next sequence of the journal, sequences are strictly
+     * increasing but may contain gaps (e.g. a write failing after the sequence allocation).
+     *
+     * @param event the event to store
+     * @return the stored event with its sequence
+     */
+    Single<Event> create(Event event);
+
+    /**
+     * @param sequence the last sequence already consumed
+     * @param limit the maximum number of events to return
+     * @return the events whose sequence is greater than the given one, in sequence order
+     */
+    Single<List<Event>> findSince(long sequence, int limit);
+
+    /**
+     * @return the last sequence allocated by the journal, 0 if no event has ever been stored
+     */
+    Single<Long> findLastSequence();
+
+    /**
+     * Push the events as they are stored. The events are not guaranteed to be notified in sequence order, and the
+     * stream fails if the repository is not able to push events (callers must then fall back to
+     * {@link #findSince(long, int)}).
+     *
+     * @return the stream of the stored events
+     */
+    Flowable<Event> watch();
+}
@@ -20,6 +20,7 @@ import io.gravitee.am.repository.common.CrudRepository;
 import io.reactivex.Maybe;
 import io.reactivex.Single;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -30,5 +31,7 @@ public interface ExtensionGrantRepository extends CrudRepository<ExtensionGrant,
 
     Single<Set<ExtensionGrant>> findByDomain(String domain);
 
+    Single<Set<ExtensionGrant>> findByDomainIn(Collection<String> domains);
+
     Maybe<ExtensionGrant> findByDomainAndGrantType(String domain, String grantType);
 }
@@ -19,6 +19,7 @@ import io.gravitee.am.model.IdentityProvider;
 import io.gravitee.am.repository.common.CrudRepository;
 import io.reactivex.Single;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -28,4 +29,6 @@ import java.util.Set;
 public interface IdentityProviderRepository extends CrudRepository<IdentityProvider, String> {
 
     Single<Set<IdentityProvider>> findByDomain(String domain);
+
+    Single<Set<IdentityProvider>> findByDomainIn(Collection<String> domains);
 }
@@ -20,6 +20,7 @@ import io.gravitee.am.repository.common.CrudRepository;
 import io.gravitee.am.repository.exceptions.TechnicalException;
 import io.reactivex.Single;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -31,5 +32,7 @@ public interface RoleRepository extends CrudRepository<Role, String> {
 
     Single<Set<Role>> findByDomain(String domain);
 
+    Single<Set<Role>> findByDomainIn(Collection<String> domains);
+
     Single<Set<Role>> findByIdIn(List<String> ids);
 }
@@ -20,6 +20,7 @@ import io.gravitee.am.repository.common.CrudRepository;
 import io.reactivex.Maybe;
 import io.reactivex.Single;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -30,5 +31,7 @@ public interface ScopeRepository extends CrudRepository<Scope, String> {
 
     Single<Set<Scope>> findByDomain(String domain);
 
+    Single<Set<Scope>> findByDomainIn(Collection<String> domains);
+
     Maybe<Scope> findByDomainAndKey(String domain, String key);
 }
@@ -36,4 +36,15 @@ public interface UserRepository extends CrudRepository<User, String> {
 
     Maybe<User> findByUsernameAndDomain(String domain, String username);
 
+    /**
+     * Record a login of the user identified by its domain and username, creating the user if it does not exist yet.
+     *
+     * The logins count is incremented and the last login date, the roles and (if additional information is provided)
+     * the source, client and additional information of the user are refreshed in a single atomic operation.
+     *
+     * @param user the authenticated user
+     * @return the user as stored after the login
+     */
+    Single<User> upsertOnLogin(User user);
+
 }
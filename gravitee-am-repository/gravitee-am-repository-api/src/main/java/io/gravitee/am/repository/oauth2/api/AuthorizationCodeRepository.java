@@ -48,4 +48,13 @@ public interface AuthorizationCodeRepository {
      * @return
      */
     Maybe<AuthorizationCode> findByCode(String code);
+
+    /**
+     * Atomically find an {@link AuthorizationCode} by its code and client and delete it, so that a code can be redeemed only once.
+     *
+     * @param code The authorization code.
+     * @param clientId The client redeeming the code.
+     * @return the consumed authorization code, or empty if the code is unknown, already consumed or issued to another client
+     */
+    Maybe<AuthorizationCode> consume(String code, String clientId);
 }
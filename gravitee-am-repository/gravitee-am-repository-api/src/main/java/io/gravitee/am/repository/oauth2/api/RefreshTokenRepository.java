@@ -31,4 +31,12 @@ public interface RefreshTokenRepository {
     Single<RefreshToken> create(RefreshToken refreshToken);
 
     Completable delete(String token);
+
+    /**
+     * Atomically find a {@link RefreshToken} by its token and delete it, so that a refresh token can be used only once.
+     *
+     * @param token The refresh token.
+     * @return the consumed refresh token, or empty if the token is unknown or already consumed
+     */
+    Maybe<RefreshToken> consume(String token);
 }
@@ -0,0 +1,257 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.repository.mongodb.common;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import io.reactivex.Completable;
+import io.reactivex.CompletableEmitter;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Write-behind stage coalescing concurrent single document inserts into bulk inserts.
+ *
+ * A batch is flushed as soon as it reaches the maximum batch size, or when the linger delay following the first
+ * pending insert has elapsed. Each caller is completed when the bulk insert containing its document has been
+ * acknowledged (or failed, for the documents rejected by an unordered bulk insert).
+ *
+ * @author GraviteeSource Team
+ */
+public class BulkInsertPipeline<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkInsertPipeline.class);
+
+    private final String name;
+    private final Function<List<T>, Publisher<?>> bulkWriter;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final Queue<PendingInsert<T>> pendingInserts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong insertCount = new AtomicLong();
+    private final AtomicLong failedInsertCount = new AtomicLong();
+    private final AtomicLong totalFlushLatency = new AtomicLong();
+    private final AtomicLong maxFlushLatency = new AtomicLong();
+
+    /**
+     * @param name the pipeline name, used for logging and thread naming
+     * @param bulkWriter the bulk insert of a batch of documents (an unordered <code>insertMany</code>)
+     * @param maxBatchSize the maximum number of documents per bulk insert
+     * @param linger the maximum time a document waits for other documents before being flushed
+     * @param unit the linger time unit
+     */
+    public BulkInsertPipeline(String name, Function<List<T>, Publisher<?>> bulkWriter, int maxBatchSize, long linger, TimeUnit unit) {
+        this.name = name;
+        this.bulkWriter = bulkWriter;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = unit.toNanos(linger);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gio-am-bulk-insert-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Completable insert(T document) {
+        return Completable.create(emitter -> {
+            pendingInserts.offer(new PendingInsert<>(document, emitter));
+            try {
+                if (pendingCount.incrementAndGet() >= maxBatchSize) {
+                    scheduler.execute(this::flush);
+                } else if (flushScheduled.compareAndSet(false, true)) {
+                    scheduler.schedule(this::lingerFlush, lingerNanos, TimeUnit.NANOSECONDS);
+                }
+            } catch (RejectedExecutionException ex) {
+                emitter.tryOnError(new IllegalStateException("Bulk insert pipeline " + name + " is closed", ex));
+            }
+        });
+    }
+
+    /**
+     * Flush the pending documents and stop accepting new ones.
+     */
+    public void close() {
+        try {
+            scheduler.execute(this::flush);
+        } catch (RejectedExecutionException ex) {
+            // already closed
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Bulk insert pipeline {} has been closed with pending inserts", name);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the number of documents waiting to be flushed
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * @return the number of bulk inserts sent to the database
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return the number of documents sent to the database
+     */
+    public long getInsertCount() {
+        return insertCount.get();
+    }
+
+    /**
+     * @return the number of documents rejected by the database
+     */
+    public long getFailedInsertCount() {
+        return failedInsertCount.get();
+    }
+
+    /**
+     * @return the average number of documents per bulk insert
+     */
+    public double getAverageBatchSize() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : (double) insertCount.get() / batches;
+    }
+
+    /**
+     * @return the average time (microseconds) between sending a bulk insert and its acknowledgement
+     */
+    public long getAverageFlushLatency() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalFlushLatency.get() / batches);
+    }
+
+    /**
+     * @return the maximum time (microseconds) between sending a bulk insert and its acknowledgement
+     */
+    public long getMaxFlushLatency() {
+        return TimeUnit.NANOSECONDS.toMicros(maxFlushLatency.get());
+    }
+
+    private void lingerFlush() {
+        // reset the flag before draining so that an insert racing with this flush schedules its own one
+        flushScheduled.set(false);
+        flush();
+    }
+
+    private void flush() {
+        while (pendingCount.get() > 0) {
+            List<PendingInsert<T>> batch = new ArrayList<>(Math.min(pendingCount.get(), maxBatchSize));
+            PendingInsert<T> pendingInsert;
+            while (batch.size() < maxBatchSize && (pendingInsert = pendingInserts.poll()) != null) {
+                batch.add(pendingInsert);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            pendingCount.addAndGet(-batch.size());
+            write(batch);
+        }
+    }
+
+    private void write(List<PendingInsert<T>> batch) {
+        List<T> documents = new ArrayList<>(batch.size());
+        batch.forEach(pendingInsert -> documents.add(pendingInsert.document));
+
+        final long start = System.nanoTime();
+        Publisher<?> publisher;
+        try {
+            publisher = bulkWriter.apply(documents);
+        } catch (Exception ex) {
+            onError(batch, start, ex);
+            return;
+        }
+        Completable.fromPublisher(publisher)
+                .subscribe(
+                        () -> {
+                            record(batch.size(), start);
+                            batch.forEach(pendingInsert -> pendingInsert.emitter.onComplete());
+                        },
+                        error -> onError(batch, start, error));
+    }
+
+    private void onError(List<PendingInsert<T>> batch, long start, Throwable error) {
+        record(batch.size(), start);
+        if (error instanceof MongoBulkWriteException) {
+            // unordered bulk insert, only the rejected documents have failed
+            Set<Integer> failedIndexes = new HashSet<>();
+            for (BulkWriteError writeError : ((MongoBulkWriteException) error).getWriteErrors()) {
+                failedIndexes.add(writeError.getIndex());
+            }
+            failedInsertCount.addAndGet(failedIndexes.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (failedIndexes.contains(i)) {
+                    batch.get(i).emitter.tryOnError(error);
+                } else {
+                    batch.get(i).emitter.onComplete();
+                }
+            }
+        } else {
+            logger.error("Unable to insert {} documents with bulk insert pipeline {}", batch.size(), name, error);
+            failedInsertCount.addAndGet(batch.size());
+            batch.forEach(pendingInsert -> pendingInsert.emitter.tryOnError(error));
+        }
+    }
+
+    private void record(int batchSize, long start) {
+        long latency = System.nanoTime() - start;
+        batchCount.incrementAndGet();
+        insertCount.addAndGet(batchSize);
+        totalFlushLatency.addAndGet(latency);
+        maxFlushLatency.accumulateAndGet(latency, Math::max);
+    }
+
+    private static class PendingInsert<T> {
+
+        private final T document;
+        private final CompletableEmitter emitter;
+
+        private PendingInsert(T document, CompletableEmitter emitter) {
+            this.document = document;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.repository.mongodb.common;
+
+import io.reactivex.Completable;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Write-behind stage coalescing the login statistics (logins count and last login date) of users.
+ *
+ * Logins are accumulated in memory per user and flushed with a single bulk write every flush interval, so that the
+ * repeated logins of a user between two flushes cost a single update. Statistics of a failed flush are kept for the
+ * next one.
+ *
+ * @author GraviteeSource Team
+ */
+public class LoginStatsBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginStatsBuffer.class);
+
+    private final String name;
+    private final Function<Map<String, LoginStats>, Publisher<?>> bulkWriter;
+    private final ScheduledExecutorService scheduler;
+
+    private final ConcurrentMap<String, LoginStats> pendingStats = new ConcurrentHashMap<>();
+
+    private final AtomicLong loginCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+
+    /**
+     * @param name the buffer name, used for logging and thread naming
+     * @param bulkWriter the bulk update of the statistics of a batch of users, indexed by user id
+     * @param flushInterval the delay between two flushes
+     * @param unit the flush interval time unit
+     */
+    public LoginStatsBuffer(String name, Function<Map<String, LoginStats>, Publisher<?>> bulkWriter, long flushInterval, TimeUnit unit) {
+        this.name = name;
+        this.bulkWriter = bulkWriter;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gio-am-login-stats-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, unit);
+    }
+
+    /**
+     * Record a login of the given user.
+     *
+     * @param userId the user id
+     * @param loggedAt the login date
+     */
+    public void record(String userId, Date loggedAt) {
+        loginCount.incrementAndGet();
+        pendingStats.merge(userId, new LoginStats(1, loggedAt), LoginStats::merge);
+    }
+
+    /**
+     * @param userId the user id
+     * @return the statistics of the user not flushed yet, or <code>null</code> if there is none
+     */
+    public LoginStats getPendingStats(String userId) {
+        return pendingStats.get(userId);
+    }
+
+    /**
+     * Flush the pending statistics and stop the periodic flushes.
+     */
+    public void close() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Login statistics buffer {} has been closed during a flush", name);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * @return the number of users with statistics waiting to be flushed
+     */
+    public int getPendingCount() {
+        return pendingStats.size();
+    }
+
+    /**
+     * @return the number of recorded logins
+     */
+    public long getLoginCount() {
+        return loginCount.get();
+    }
+
+    /**
+     * @return the number of bulk writes sent to the database
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * @return the number of user updates sent to the database
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * @return the number of failed bulk writes
+     */
+    public long getFailedFlushCount() {
+        return failedFlushCount.get();
+    }
+
+    void flush() {
+        if (pendingStats.isEmpty()) {
+            return;
+        }
+
+        // removing the entries one by one lets a concurrent login start a new entry for the next flush
+        Map<String, LoginStats> batch = new HashMap<>();
+        for (String userId : pendingStats.keySet()) {
+            LoginStats stats = pendingStats.remove(userId);
+            if (stats != null) {
+                batch.put(userId, stats);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        flushCount.incrementAndGet();
+        writeCount.addAndGet(batch.size());
+        try {
+            Completable.fromPublisher(bulkWriter.apply(batch)).blockingAwait();
+        } catch (Exception ex) {
+            logger.error("Unable to flush the login statistics of {} users with buffer {}, retrying on next flush", batch.size(), name, ex);
+            failedFlushCount.incrementAndGet();
+            batch.forEach((userId, stats) -> pendingStats.merge(userId, stats, LoginStats::merge));
+        }
+    }
+
+    public static class LoginStats {
+
+        private final long count;
+        private final Date loggedAt;
+
+        public LoginStats(long count, Date loggedAt) {
+            this.count = count;
+            this.loggedAt = loggedAt;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public Date getLoggedAt() {
+            return loggedAt;
+        }
+
+        private LoginStats merge(LoginStats other) {
+            return new LoginStats(count + other.count, loggedAt.after(other.loggedAt) ? loggedAt : other.loggedAt);
+        }
+    }
+}
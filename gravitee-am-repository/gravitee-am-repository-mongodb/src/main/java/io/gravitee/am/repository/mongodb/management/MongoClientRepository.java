@@ -15,8 +15,11 @@
  */
 package io.gravitee.am.repository.mongodb.management;
 
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.reactivestreams.client.MongoCollection;
 import io.gravitee.am.model.Client;
+import io.gravitee.am.model.IdentityProviderStrategy;
 import io.gravitee.am.model.common.Page;
 import io.gravitee.am.repository.management.api.ClientRepository;
 import io.gravitee.am.repository.mongodb.common.IdGenerator;
@@ -31,7 +34,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import static com.mongodb.client.model.Filters.*;
@@ -119,13 +124,13 @@ public class MongoClientRepository extends AbstractManagementMongoRepository imp
     public Single<Client> create(Client item) {
         ClientMongo client = convert(item);
         client.setId(client.getId() == null ? (String) idGenerator.generate() : client.getId());
-        return Single.fromPublisher(clientsCollection.insertOne(client)).flatMap(success -> findById(client.getId()).toSingle());
+        return Single.fromPublisher(clientsCollection.insertOne(client)).map(success -> convert(client));
     }
 
     @Override
     public Single<Client> update(Client item) {
         ClientMongo client = convert(item);
-        return Single.fromPublisher(clientsCollection.replaceOne(eq(FIELD_ID, client.getId()), client)).flatMap(success -> findById(client.getId()).toSingle());
+        return Single.fromPublisher(clientsCollection.findOneAndReplace(eq(FIELD_ID, client.getId()), client, new FindOneAndReplaceOptions().returnDocument(ReturnDocument.AFTER))).map(this::convert);
     }
 
     @Override
@@ -158,7 +163,8 @@ public class MongoClientRepository extends AbstractManagementMongoRepository imp
         client.setScopes(clientMongo.getScopes());
         client.setAutoApproveScopes(clientMongo.getAutoApproveScopes());
         client.setEnabled(clientMongo.isEnabled());
-        client.setIdentities(clientMongo.getIdentities());
+        // identity providers are stored as an array to keep their priority order
+        client.setIdentities(clientMongo.getIdentities() == null ? null : new LinkedHashSet<>(clientMongo.getIdentities()));
         client.setOauth2Identities(clientMongo.getOauth2Identities());
         client.setDomain(clientMongo.getDomain());
         client.setAuthorizedGrantTypes(clientMongo.getAuthorizedGrantTypes());
@@ -166,6 +172,8 @@ public class MongoClientRepository extends AbstractManagementMongoRepository imp
         client.setIdTokenCustomClaims(clientMongo.getIdTokenCustomClaims());
         client.setCertificate(clientMongo.getCertificate());
         client.setEnhanceScopesWithUserPermissions(clientMongo.isEnhanceScopesWithUserPermissions());
+        client.setStatelessAccessTokens(clientMongo.isStatelessAccessTokens());
+        client.setIdentityProviderStrategy(clientMongo.getIdentityProviderStrategy() != null ? IdentityProviderStrategy.valueOf(clientMongo.getIdentityProviderStrategy()) : null);
         client.setCreatedAt(clientMongo.getCreatedAt());
         client.setUpdatedAt(clientMongo.getUpdatedAt());
         return client;
@@ -187,13 +195,15 @@ public class MongoClientRepository extends AbstractManagementMongoRepository imp
         clientMongo.setScopes(client.getScopes());
         clientMongo.setAutoApproveScopes(client.getAutoApproveScopes());
         clientMongo.setEnabled(client.isEnabled());
-        clientMongo.setIdentities(client.getIdentities());
+        clientMongo.setIdentities(client.getIdentities() == null ? null : new ArrayList<>(client.getIdentities()));
         clientMongo.setOauth2Identities(client.getOauth2Identities());
         clientMongo.setDomain(client.getDomain());
         clientMongo.setIdTokenValiditySeconds(client.getIdTokenValiditySeconds());
         clientMongo.setIdTokenCustomClaims(client.getIdTokenCustomClaims() != null ? new Document(client.getIdTokenCustomClaims()) : new Document());
         clientMongo.setCertificate(client.getCertificate());
         clientMongo.setEnhanceScopesWithUserPermissions(client.isEnhanceScopesWithUserPermissions());
+        clientMongo.setStatelessAccessTokens(client.isStatelessAccessTokens());
+        clientMongo.setIdentityProviderStrategy(client.getIdentityProviderStrategy() != null ? client.getIdentityProviderStrategy().name() : null);
         clientMongo.setCreatedAt(client.getCreatedAt());
         clientMongo.setUpdatedAt(client.getUpdatedAt());
         return clientMongo;
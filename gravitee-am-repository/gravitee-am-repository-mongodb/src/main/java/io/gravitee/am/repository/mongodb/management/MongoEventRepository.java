@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.repository.mongodb.management;
+
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import io.gravitee.am.model.common.event.Action;
+import io.gravitee.am.model.common.event.Event;
+import io.gravitee.am.model.common.event.Payload;
+import io.gravitee.am.model.common.event.Type;
+import io.gravitee.am.repository.management.api.EventRepository;
+import io.gravitee.am.repository.mongodb.common.LoggableIndexSubscriber;
+import io.gravitee.am.repository.mongodb.management.internal.model.EventMongo;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Sorts.ascending;
+import static com.mongodb.client.model.Updates.inc;
+
+/**
+ * Events journal. Sequences are allocated from a counter document and used as the event identifier, so that gateways
+ * can tail the journal with an index range scan. Stored events are pushed with a change stream on the events
+ * collection, which requires a replica set.
+ *
+ * @author GraviteeSource Team
+ */
+@Component
+public class MongoEventRepository extends AbstractManagementMongoRepository implements EventRepository {
+
+    private static final String FIELD_ID = "_id";
+    private static final String FIELD_CREATED_AT = "createdAt";
+    private static final String FIELD_VALUE = "value";
+    private static final String FIELD_ACTION = "action";
+    private static final String FIELD_OPERATION_TYPE = "operationType";
+    private static final String EVENTS_SEQUENCE = "events";
+    private MongoCollection<EventMongo> eventsCollection;
+    private MongoCollection<Document> sequencesCollection;
+
+    @Autowired
+    private Environment environment;
+
+    @PostConstruct
+    public void init() {
+        eventsCollection = mongoOperations.getCollection("events", EventMongo.class);
+        sequencesCollection = mongoOperations.getCollection("sequences");
+        // gateways lagging further behind than the retention period re-synchronize from the domains
+        long retention = environment.getProperty("management.mongodb.events.retention", Long.class, TimeUnit.DAYS.toSeconds(7));
+        eventsCollection.createIndex(new Document(FIELD_CREATED_AT, 1), new IndexOptions().expireAfter(retention, TimeUnit.SECONDS)).subscribe(new LoggableIndexSubscriber());
+    }
+
+    @Override
+    public Single<Event> create(Event item) {
+        return Single.fromPublisher(sequencesCollection.findOneAndUpdate(eq(FIELD_ID, EVENTS_SEQUENCE), inc(FIELD_VALUE, 1L),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER)))
+                .flatMap(sequence -> {
+                    EventMongo event = convert(item);
+                    event.setId(sequence.getLong(FIELD_VALUE));
+                    event.setCreatedAt(new Date());
+                    return Single.fromPublisher(eventsCollection.insertOne(event)).map(success -> convert(event));
+                });
+    }
+
+    @Override
+    public Single<List<Event>> findSince(long sequence, int limit) {
+        return Observable.fromPublisher(eventsCollection.find(gt(FIELD_ID, sequence)).sort(ascending(FIELD_ID)).limit(limit))
+                .map(this::convert)
+                .collect(ArrayList::new, List::add);
+    }
+
+    @Override
+    public Single<Long> findLastSequence() {
+        return Observable.fromPublisher(sequencesCollection.find(eq(FIELD_ID, EVENTS_SEQUENCE)).first())
+                .map(sequence -> sequence.getLong(FIELD_VALUE))
+                .first(0L);
+    }
+
+    @Override
+    public Flowable<Event> watch() {
+        return Flowable.fromPublisher(eventsCollection.watch(Collections.singletonList(Aggregates.match(eq(FIELD_OPERATION_TYPE, "insert"))), EventMongo.class))
+                .map(change -> convert(change.getFullDocument()));
+    }
+
+    private Event convert(EventMongo eventMongo) {
+        Payload payload = new Payload(eventMongo.getPayload());
+        payload.put(FIELD_ACTION, Action.valueOf((String) payload.get(FIELD_ACTION)));
+
+        Event event = new Event(Type.valueOf(eventMongo.getType()), payload);
+        event.setSequence(eventMongo.getId());
+        event.setCreatedAt(eventMongo.getCreatedAt());
+        return event;
+    }
+
+    private EventMongo convert(Event event) {
+        // copy the payload, the caller may still be using the event
+        Document payload = new Document(event.getPayload());
+        payload.put(FIELD_ACTION, event.getPayload().getAction().toString());
+
+        EventMongo eventMongo = new EventMongo();
+        eventMongo.setType(event.getType().toString());
+        eventMongo.setPayload(payload);
+        return eventMongo;
+    }
+}
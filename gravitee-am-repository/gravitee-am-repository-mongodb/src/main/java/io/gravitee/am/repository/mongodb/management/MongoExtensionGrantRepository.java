@@ -15,6 +15,8 @@
  */
 package io.gravitee.am.repository.mongodb.management;
 
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.reactivestreams.client.MongoCollection;
 import io.gravitee.am.model.ExtensionGrant;
 import io.gravitee.am.repository.management.api.ExtensionGrantRepository;
@@ -30,11 +32,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
 
 /**
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
@@ -63,6 +67,11 @@ public class MongoExtensionGrantRepository extends AbstractManagementMongoReposi
         return Observable.fromPublisher(extensionGrantsCollection.find(eq(FIELD_DOMAIN, domain))).map(this::convert).collect(HashSet::new, Set::add);
     }
 
+    @Override
+    public Single<Set<ExtensionGrant>> findByDomainIn(Collection<String> domains) {
+        return Observable.fromPublisher(extensionGrantsCollection.find(in(FIELD_DOMAIN, domains))).map(this::convert).collect(HashSet::new, Set::add);
+    }
+
     @Override
     public Maybe<ExtensionGrant> findByDomainAndGrantType(String domain, String grantType) {
         return Observable.fromPublisher(extensionGrantsCollection.find(and(eq(FIELD_DOMAIN, domain), eq(FIELD_GRANT_TYPE, grantType))).first()).firstElement().map(this::convert);
@@ -77,13 +86,13 @@ public class MongoExtensionGrantRepository extends AbstractManagementMongoReposi
     public Single<ExtensionGrant> create(ExtensionGrant item) {
         ExtensionGrantMongo extensionGrant = convert(item);
         extensionGrant.setId(extensionGrant.getId() == null ? (String) idGenerator.generate() : extensionGrant.getId());
-        return Single.fromPublisher(extensionGrantsCollection.insertOne(extensionGrant)).flatMap(success -> findById(extensionGrant.getId()).toSingle());
+        return Single.fromPublisher(extensionGrantsCollection.insertOne(extensionGrant)).map(success -> convert(extensionGrant));
     }
 
     @Override
     public Single<ExtensionGrant> update(ExtensionGrant item) {
         ExtensionGrantMongo extensionGrant = convert(item);
-        return Single.fromPublisher(extensionGrantsCollection.replaceOne(eq(FIELD_ID, extensionGrant.getId()), extensionGrant)).flatMap(updateResult -> findById(extensionGrant.getId()).toSingle());
+        return Single.fromPublisher(extensionGrantsCollection.findOneAndReplace(eq(FIELD_ID, extensionGrant.getId()), extensionGrant, new FindOneAndReplaceOptions().returnDocument(ReturnDocument.AFTER))).map(this::convert);
     }
 
     @Override
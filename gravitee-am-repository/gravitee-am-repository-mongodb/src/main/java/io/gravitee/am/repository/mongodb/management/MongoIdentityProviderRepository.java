@@ -15,6 +15,8 @@
  */
 package io.gravitee.am.repository.mongodb.management;
 
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.reactivestreams.client.MongoCollection;
 import io.gravitee.am.model.IdentityProvider;
 import io.gravitee.am.repository.management.api.IdentityProviderRepository;
@@ -33,6 +35,7 @@ import javax.annotation.PostConstruct;
 import java.util.*;
 
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -60,6 +63,11 @@ public class MongoIdentityProviderRepository extends AbstractManagementMongoRepo
         return Observable.fromPublisher(identitiesCollection.find(eq(FIELD_DOMAIN, domain))).map(this::convert).collect(HashSet::new, Set::add);
     }
 
+    @Override
+    public Single<Set<IdentityProvider>> findByDomainIn(Collection<String> domains) {
+        return Observable.fromPublisher(identitiesCollection.find(in(FIELD_DOMAIN, domains))).map(this::convert).collect(HashSet::new, Set::add);
+    }
+
     @Override
     public Maybe<IdentityProvider> findById(String identityProviderId) {
         return Observable.fromPublisher(identitiesCollection.find(eq(FIELD_ID, identityProviderId)).first()).firstElement().map(this::convert);
@@ -69,13 +77,13 @@ public class MongoIdentityProviderRepository extends AbstractManagementMongoRepo
     public Single<IdentityProvider> create(IdentityProvider item) {
         IdentityProviderMongo identityProvider = convert(item);
         identityProvider.setId(identityProvider.getId() == null ? (String) idGenerator.generate() : identityProvider.getId());
-        return Single.fromPublisher(identitiesCollection.insertOne(identityProvider)).flatMap(success -> findById(identityProvider.getId()).toSingle());
+        return Single.fromPublisher(identitiesCollection.insertOne(identityProvider)).map(success -> convert(identityProvider));
     }
 
     @Override
     public Single<IdentityProvider> update(IdentityProvider item) {
         IdentityProviderMongo identityProvider = convert(item);
-        return Single.fromPublisher(identitiesCollection.replaceOne(eq(FIELD_ID, identityProvider.getId()), identityProvider)).flatMap(updateResult -> findById(identityProvider.getId()).toSingle());
+        return Single.fromPublisher(identitiesCollection.findOneAndReplace(eq(FIELD_ID, identityProvider.getId()), identityProvider, new FindOneAndReplaceOptions().returnDocument(ReturnDocument.AFTER))).map(this::convert);
     }
 
     @Override
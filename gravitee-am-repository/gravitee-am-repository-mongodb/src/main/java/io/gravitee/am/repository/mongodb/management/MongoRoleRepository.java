@@ -15,6 +15,8 @@
  */
 package io.gravitee.am.repository.mongodb.management;
 
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.reactivestreams.client.MongoCollection;
 import io.gravitee.am.model.Role;
 import io.gravitee.am.repository.management.api.RoleRepository;
@@ -30,6 +32,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -62,6 +65,11 @@ public class MongoRoleRepository extends AbstractManagementMongoRepository imple
         return Observable.fromPublisher(rolesCollection.find(eq(FIELD_DOMAIN, domain))).map(this::convert).collect(HashSet::new, Set::add);
     }
 
+    @Override
+    public Single<Set<Role>> findByDomainIn(Collection<String> domains) {
+        return Observable.fromPublisher(rolesCollection.find(in(FIELD_DOMAIN, domains))).map(this::convert).collect(HashSet::new, Set::add);
+    }
+
     @Override
     public Single<Set<Role>> findByIdIn(List<String> ids) {
         return Observable.fromPublisher(rolesCollection.find(in(FIELD_ID, ids))).map(this::convert).collect(HashSet::new, Set::add);
@@ -76,13 +84,13 @@ public class MongoRoleRepository extends AbstractManagementMongoRepository imple
     public Single<Role> create(Role item) {
         RoleMongo role = convert(item);
         role.setId(role.getId() == null ? (String) idGenerator.generate() : role.getId());
-        return Single.fromPublisher(rolesCollection.insertOne(role)).flatMap(success -> findById(role.getId()).toSingle());
+        return Single.fromPublisher(rolesCollection.insertOne(role)).map(success -> convert(role));
     }
 
     @Override
     public Single<Role> update(Role item) {
         RoleMongo role = convert(item);
-        return Single.fromPublisher(rolesCollection.replaceOne(eq(FIELD_ID, role.getId()), role)).flatMap(updateResult -> findById(role.getId()).toSingle());
+        return Single.fromPublisher(rolesCollection.findOneAndReplace(eq(FIELD_ID, role.getId()), role, new FindOneAndReplaceOptions().returnDocument(ReturnDocument.AFTER))).map(this::convert);
     }
 
     @Override
@@ -15,27 +15,51 @@
  */
 package io.gravitee.am.repository.mongodb.management;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.reactivestreams.client.MongoCollection;
 import io.gravitee.am.model.User;
 import io.gravitee.am.model.common.Page;
 import io.gravitee.am.repository.management.api.UserRepository;
 import io.gravitee.am.repository.mongodb.common.IdGenerator;
 import io.gravitee.am.repository.mongodb.common.LoggableIndexSubscriber;
+import io.gravitee.am.repository.mongodb.common.LoginStatsBuffer;
 import io.gravitee.am.repository.mongodb.management.internal.model.UserMongo;
 import io.reactivex.Completable;
 import io.reactivex.Maybe;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.inc;
+import static com.mongodb.client.model.Updates.max;
+import static com.mongodb.client.model.Updates.set;
+import static com.mongodb.client.model.Updates.setOnInsert;
 
 /**
  * @author Titouan COMPIEGNE (david.brassely at graviteesource.com)
@@ -47,17 +71,44 @@ public class MongoUserRepository extends AbstractManagementMongoRepository imple
     private static final String FIELD_ID = "_id";
     private static final String FIELD_DOMAIN = "domain";
     private static final String FIELD_USERNAME = "username";
+    private static final String FIELD_SOURCE = "source";
+    private static final String FIELD_CLIENT = "client";
+    private static final String FIELD_ROLES = "roles";
+    private static final String FIELD_ADDITIONAL_INFORMATION = "additionalInformation";
+    private static final String FIELD_LOGINS_COUNT = "loginsCount";
+    private static final String FIELD_LOGGED_AT = "loggedAt";
+    private static final String FIELD_CREATED_AT = "createdAt";
+    private static final String FIELD_ACCOUNT_NON_EXPIRED = "accountNonExpired";
+    private static final String FIELD_ACCOUNT_NON_LOCKED = "accountNonLocked";
+    private static final String FIELD_CREDENTIALS_NON_EXPIRED = "credentialsNonExpired";
+    private static final String FIELD_ENABLED = "enabled";
 
     private MongoCollection<UserMongo> usersCollection;
+    private LoginStatsBuffer loginStatsBuffer;
 
     @Autowired
     private IdGenerator idGenerator;
 
+    @Autowired
+    private Environment environment;
+
     @PostConstruct
     public void init() {
         usersCollection = mongoOperations.getCollection("users", UserMongo.class);
         usersCollection.createIndex(new Document(FIELD_DOMAIN, 1)).subscribe(new LoggableIndexSubscriber());
-        usersCollection.createIndex(new Document(FIELD_DOMAIN, 1).append(FIELD_USERNAME, 1)).subscribe(new LoggableIndexSubscriber());
+        usersCollection.createIndex(new Document(FIELD_DOMAIN, 1).append(FIELD_USERNAME, 1), new IndexOptions().unique(true)).subscribe(new LoggableIndexSubscriber());
+
+        if (environment.getProperty("management.mongodb.loginStats.writeBehind", Boolean.class, false)) {
+            long flushInterval = environment.getProperty("management.mongodb.loginStats.flushInterval", Long.class, 5000L);
+            loginStatsBuffer = new LoginStatsBuffer("users", this::updateLoginStats, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (loginStatsBuffer != null) {
+            loginStatsBuffer.close();
+        }
     }
 
     @Override
@@ -83,6 +134,54 @@ public class MongoUserRepository extends AbstractManagementMongoRepository imple
                 .map(this::convert);
     }
 
+    @Override
+    public Single<User> upsertOnLogin(User user) {
+        List<Bson> updates = new ArrayList<>();
+        updates.add(set(FIELD_ROLES, user.getRoles()));
+        if (user.getAdditionalInformation() != null) {
+            updates.add(set(FIELD_SOURCE, user.getSource()));
+            updates.add(set(FIELD_CLIENT, user.getClient()));
+            updates.add(set(FIELD_ADDITIONAL_INFORMATION, new Document(user.getAdditionalInformation())));
+        }
+        final String newUserId = (String) idGenerator.generate();
+        updates.add(setOnInsert(FIELD_ID, newUserId));
+        updates.add(setOnInsert(FIELD_CREATED_AT, user.getLoggedAt()));
+        updates.add(setOnInsert(FIELD_ACCOUNT_NON_EXPIRED, true));
+        updates.add(setOnInsert(FIELD_ACCOUNT_NON_LOCKED, true));
+        updates.add(setOnInsert(FIELD_CREDENTIALS_NON_EXPIRED, true));
+        updates.add(setOnInsert(FIELD_ENABLED, true));
+        if (loginStatsBuffer == null) {
+            updates.add(inc(FIELD_LOGINS_COUNT, 1L));
+            updates.add(set(FIELD_LOGGED_AT, user.getLoggedAt()));
+        } else {
+            // login statistics of a new user are written right away, the following ones are buffered
+            updates.add(setOnInsert(FIELD_LOGINS_COUNT, 1L));
+            updates.add(setOnInsert(FIELD_LOGGED_AT, user.getLoggedAt()));
+        }
+
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
+        // two concurrent upserts of a new user may both try to insert it, the loser of the unique index
+        // fails with a duplicate key error and is retried once to update the document inserted by the winner
+        Single<User> upsert = Single.fromPublisher(usersCollection.findOneAndUpdate(
+                and(eq(FIELD_DOMAIN, user.getDomain()), eq(FIELD_USERNAME, user.getUsername())), combine(updates), options))
+                .retry((attempt, throwable) -> attempt <= 1 && isDuplicateKey(throwable))
+                .map(this::convert);
+        if (loginStatsBuffer == null) {
+            return upsert;
+        }
+        return upsert.map(upsertedUser -> {
+            if (!newUserId.equals(upsertedUser.getId())) {
+                loginStatsBuffer.record(upsertedUser.getId(), user.getLoggedAt());
+                LoginStatsBuffer.LoginStats pendingStats = loginStatsBuffer.getPendingStats(upsertedUser.getId());
+                if (pendingStats != null) {
+                    upsertedUser.setLoginsCount(upsertedUser.getLoginsCount() + pendingStats.getCount());
+                    upsertedUser.setLoggedAt(pendingStats.getLoggedAt());
+                }
+            }
+            return upsertedUser;
+        });
+    }
+
     @Override
     public Maybe<User> findById(String userId) {
         return Observable.fromPublisher(usersCollection.find(eq(FIELD_ID, userId)).first()).firstElement().map(this::convert);
@@ -92,13 +191,13 @@ public class MongoUserRepository extends AbstractManagementMongoRepository imple
     public Single<User> create(User item) {
         UserMongo user = convert(item);
         user.setId(user.getId() == null ? (String) idGenerator.generate() : user.getId());
-        return Single.fromPublisher(usersCollection.insertOne(user)).flatMap(success -> findById(user.getId()).toSingle());
+        return Single.fromPublisher(usersCollection.insertOne(user)).map(success -> convert(user));
     }
 
     @Override
     public Single<User> update(User item) {
         UserMongo user = convert(item);
-        return Single.fromPublisher(usersCollection.replaceOne(eq(FIELD_ID, user.getId()), user)).flatMap(updateResult -> findById(user.getId()).toSingle());
+        return Single.fromPublisher(usersCollection.findOneAndReplace(eq(FIELD_ID, user.getId()), user, new FindOneAndReplaceOptions().returnDocument(ReturnDocument.AFTER))).map(this::convert);
     }
 
     @Override
@@ -106,6 +205,23 @@ public class MongoUserRepository extends AbstractManagementMongoRepository imple
         return Completable.fromPublisher(usersCollection.deleteOne(eq(FIELD_ID, id)));
     }
 
+    private static boolean isDuplicateKey(Throwable throwable) {
+        if (throwable instanceof MongoCommandException) {
+            return ErrorCategory.fromErrorCode(((MongoCommandException) throwable).getErrorCode()) == ErrorCategory.DUPLICATE_KEY;
+        }
+        if (throwable instanceof MongoWriteException) {
+            return ((MongoWriteException) throwable).getError().getCategory() == ErrorCategory.DUPLICATE_KEY;
+        }
+        return false;
+    }
+
+    private Publisher<?> updateLoginStats(Map<String, LoginStatsBuffer.LoginStats> loginStats) {
+        List<WriteModel<UserMongo>> updates = new ArrayList<>(loginStats.size());
+        loginStats.forEach((userId, stats) -> updates.add(new UpdateOneModel<>(eq(FIELD_ID, userId),
+                combine(inc(FIELD_LOGINS_COUNT, stats.getCount()), max(FIELD_LOGGED_AT, stats.getLoggedAt())))));
+        return usersCollection.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+    }
+
     private User convert(UserMongo userMongo) {
         if (userMongo == null) {
             return null;
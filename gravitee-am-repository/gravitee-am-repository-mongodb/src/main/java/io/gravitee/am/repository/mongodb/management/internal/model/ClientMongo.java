@@ -65,7 +65,7 @@ public class ClientMongo extends Auditable {
      */
     private boolean enabled;
 
-    private Set<String> identities;
+    private List<String> identities;
 
     private Set<String> oauth2Identities;
 
@@ -73,6 +73,10 @@ public class ClientMongo extends Auditable {
 
     private boolean enhanceScopesWithUserPermissions;
 
+    private boolean statelessAccessTokens;
+
+    private String identityProviderStrategy;
+
     private boolean generateNewTokenPerRequest;
 
     public String getId() {
@@ -163,11 +167,11 @@ public class ClientMongo extends Auditable {
         this.domain = domain;
     }
 
-    public Set<String> getIdentities() {
+    public List<String> getIdentities() {
         return identities;
     }
 
-    public void setIdentities(Set<String> identities) {
+    public void setIdentities(List<String> identities) {
         this.identities = identities;
     }
 
@@ -211,6 +215,22 @@ public class ClientMongo extends Auditable {
         this.enhanceScopesWithUserPermissions = enhanceScopesWithUserPermissions;
     }
 
+    public boolean isStatelessAccessTokens() {
+        return statelessAccessTokens;
+    }
+
+    public void setStatelessAccessTokens(boolean statelessAccessTokens) {
+        this.statelessAccessTokens = statelessAccessTokens;
+    }
+
+    public String getIdentityProviderStrategy() {
+        return identityProviderStrategy;
+    }
+
+    public void setIdentityProviderStrategy(String identityProviderStrategy) {
+        this.identityProviderStrategy = identityProviderStrategy;
+    }
+
     public boolean isGenerateNewTokenPerRequest() {
         return generateNewTokenPerRequest;
     }
@@ -15,9 +15,15 @@
  */
 package io.gravitee.am.repository.mongodb.oauth2;
 
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.reactivestreams.client.MongoCollection;
 import com.mongodb.reactivestreams.client.MongoDatabase;
+import io.gravitee.am.repository.mongodb.common.BulkInsertPipeline;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
@@ -28,4 +34,25 @@ public abstract class AbstractOAuth2MongoRepository {
     @Autowired
     @Qualifier("oauth2MongoTemplate")
     protected MongoDatabase mongoOperations;
+
+    @Autowired
+    private Environment environment;
+
+    /**
+     * Create the write-behind stage used to coalesce the inserts of a collection, if enabled.
+     *
+     * @param collection the collection
+     * @return the bulk insert pipeline, or <code>null</code> if documents must be inserted one by one
+     */
+    protected <T> BulkInsertPipeline<T> createBulkInsertPipeline(MongoCollection<T> collection) {
+        if (!environment.getProperty("oauth2.mongodb.batch.enabled", Boolean.class, false)) {
+            return null;
+        }
+
+        int maxSize = environment.getProperty("oauth2.mongodb.batch.maxSize", Integer.class, 100);
+        long linger = environment.getProperty("oauth2.mongodb.batch.linger", Long.class, 500L);
+        InsertManyOptions insertManyOptions = new InsertManyOptions().ordered(false);
+        return new BulkInsertPipeline<>(collection.getNamespace().getCollectionName(),
+                documents -> collection.insertMany(documents, insertManyOptions), maxSize, linger, TimeUnit.MICROSECONDS);
+    }
 }
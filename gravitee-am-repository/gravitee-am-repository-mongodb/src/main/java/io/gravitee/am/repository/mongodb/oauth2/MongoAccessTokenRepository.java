@@ -17,6 +17,7 @@ package io.gravitee.am.repository.mongodb.oauth2;
 
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.reactivestreams.client.MongoCollection;
+import io.gravitee.am.repository.mongodb.common.BulkInsertPipeline;
 import io.gravitee.am.repository.mongodb.common.LoggableIndexSubscriber;
 import io.gravitee.am.repository.mongodb.oauth2.internal.model.AccessTokenMongo;
 import io.gravitee.am.repository.oauth2.api.AccessTokenRepository;
@@ -29,6 +30,7 @@ import org.bson.Document;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.concurrent.TimeUnit;
 
 import static com.mongodb.client.model.Filters.and;
@@ -42,8 +44,8 @@ import static com.mongodb.client.model.Filters.eq;
 public class MongoAccessTokenRepository extends AbstractOAuth2MongoRepository implements AccessTokenRepository {
 
     private MongoCollection<AccessTokenMongo> accessTokenCollection;
+    private BulkInsertPipeline<AccessTokenMongo> bulkInsertPipeline;
 
-    private static final String FIELD_ID = "_id";
     private static final String FIELD_TOKEN = "token";
     private static final String FIELD_RESET_TIME = "expire_at";
     private static final String FIELD_CLIENT_ID = "client";
@@ -64,13 +66,15 @@ public class MongoAccessTokenRepository extends AbstractOAuth2MongoRepository im
 
         // expire after index
         accessTokenCollection.createIndex(new Document(FIELD_RESET_TIME, 1), new IndexOptions().expireAfter(0L, TimeUnit.SECONDS)).subscribe(new LoggableIndexSubscriber());
+
+        bulkInsertPipeline = createBulkInsertPipeline(accessTokenCollection);
     }
 
-    private Maybe<AccessToken> findById(String id) {
-        return Observable
-                .fromPublisher(accessTokenCollection.find(eq(FIELD_ID, id)).limit(1).first())
-                .firstElement()
-                .map(this::convert);
+    @PreDestroy
+    public void destroy() {
+        if (bulkInsertPipeline != null) {
+            bulkInsertPipeline.close();
+        }
     }
 
     @Override
@@ -83,9 +87,14 @@ public class MongoAccessTokenRepository extends AbstractOAuth2MongoRepository im
 
     @Override
     public Single<AccessToken> create(AccessToken accessToken) {
+        AccessTokenMongo accessTokenMongo = convert(accessToken);
+        if (bulkInsertPipeline != null) {
+            return bulkInsertPipeline.insert(accessTokenMongo).toSingle(() -> convert(accessTokenMongo));
+        }
+
         return Single
-                .fromPublisher(accessTokenCollection.insertOne(convert(accessToken)))
-                .flatMap(success -> findById(accessToken.getId()).toSingle());
+                .fromPublisher(accessTokenCollection.insertOne(accessTokenMongo))
+                .map(success -> convert(accessTokenMongo));
     }
 
     @Override
@@ -35,6 +35,7 @@ import javax.annotation.PostConstruct;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
 
 /**
@@ -46,6 +47,7 @@ public class MongoAuthorizationCodeRepository extends AbstractOAuth2MongoReposit
 
     private static final String FIELD_ID = "_id";
     private static final String FIELD_CODE = "code";
+    private static final String FIELD_CLIENT_ID = "client_id";
     private static final String FIELD_RESET_TIME = "expire_at";
     private MongoCollection<AuthorizationCodeMongo> authorizationCodeCollection;
 
@@ -59,22 +61,16 @@ public class MongoAuthorizationCodeRepository extends AbstractOAuth2MongoReposit
         authorizationCodeCollection.createIndex(new Document(FIELD_RESET_TIME, 1), new IndexOptions().expireAfter(0l, TimeUnit.SECONDS)).subscribe(new LoggableIndexSubscriber());
     }
 
-    private Maybe<AuthorizationCode> findById(String id) {
-        return Observable
-                .fromPublisher(authorizationCodeCollection.find(eq(FIELD_ID, id)).first())
-                .firstElement()
-                .map(this::convert);
-    }
-
     @Override
     public Single<AuthorizationCode> create(AuthorizationCode authorizationCode) {
         if (authorizationCode.getId() == null) {
             authorizationCode.setId((String) idGenerator.generate());
         }
 
+        AuthorizationCodeMongo authorizationCodeMongo = convert(authorizationCode);
         return Single
-                .fromPublisher(authorizationCodeCollection.insertOne(convert(authorizationCode)))
-                .flatMap(success -> findById(authorizationCode.getId()).toSingle());
+                .fromPublisher(authorizationCodeCollection.insertOne(authorizationCodeMongo))
+                .map(success -> convert(authorizationCodeMongo));
     }
 
     @Override
@@ -87,6 +83,11 @@ public class MongoAuthorizationCodeRepository extends AbstractOAuth2MongoReposit
         return Observable.fromPublisher(authorizationCodeCollection.find(eq(FIELD_CODE, code)).first()).firstElement().map(this::convert);
     }
 
+    @Override
+    public Maybe<AuthorizationCode> consume(String code, String clientId) {
+        return Observable.fromPublisher(authorizationCodeCollection.findOneAndDelete(and(eq(FIELD_CODE, code), eq(FIELD_CLIENT_ID, clientId)))).firstElement().map(this::convert);
+    }
+
     private AuthorizationCode convert(AuthorizationCodeMongo authorizationCodeMongo) {
         if (authorizationCodeMongo == null) {
             return null;
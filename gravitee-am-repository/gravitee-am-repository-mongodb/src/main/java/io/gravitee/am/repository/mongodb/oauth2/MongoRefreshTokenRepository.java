@@ -17,6 +17,7 @@ package io.gravitee.am.repository.mongodb.oauth2;
 
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.reactivestreams.client.MongoCollection;
+import io.gravitee.am.repository.mongodb.common.BulkInsertPipeline;
 import io.gravitee.am.repository.mongodb.common.IdGenerator;
 import io.gravitee.am.repository.mongodb.common.LoggableIndexSubscriber;
 import io.gravitee.am.repository.mongodb.oauth2.internal.model.RefreshTokenMongo;
@@ -31,6 +32,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.concurrent.TimeUnit;
 
 import static com.mongodb.client.model.Filters.eq;
@@ -43,7 +45,7 @@ import static com.mongodb.client.model.Filters.eq;
 public class MongoRefreshTokenRepository extends AbstractOAuth2MongoRepository implements RefreshTokenRepository {
 
     private MongoCollection<RefreshTokenMongo> refreshTokenCollection;
-    private static final String FIELD_ID = "_id";
+    private BulkInsertPipeline<RefreshTokenMongo> bulkInsertPipeline;
     private static final String FIELD_RESET_TIME = "expire_at";
     private static final String FIELD_TOKEN = "token";
 
@@ -55,15 +57,16 @@ public class MongoRefreshTokenRepository extends AbstractOAuth2MongoRepository i
         refreshTokenCollection = mongoOperations.getCollection("refresh_tokens", RefreshTokenMongo.class);
         refreshTokenCollection.createIndex(new Document(FIELD_TOKEN, 1)).subscribe(new LoggableIndexSubscriber());
         refreshTokenCollection.createIndex(new Document(FIELD_RESET_TIME, 1), new IndexOptions().expireAfter(0L, TimeUnit.SECONDS)).subscribe(new LoggableIndexSubscriber());
-    }
 
-    private Maybe<RefreshToken> findById(String id) {
-        return Observable
-                .fromPublisher(refreshTokenCollection.find(eq(FIELD_ID, id)).first())
-                .firstElement()
-                .map(this::convert);
+        bulkInsertPipeline = createBulkInsertPipeline(refreshTokenCollection);
     }
 
+    @PreDestroy
+    public void destroy() {
+        if (bulkInsertPipeline != null) {
+            bulkInsertPipeline.close();
+        }
+    }
 
     @Override
     public Maybe<RefreshToken> findByToken(String token) {
@@ -79,9 +82,14 @@ public class MongoRefreshTokenRepository extends AbstractOAuth2MongoRepository i
             refreshToken.setId((String) idGenerator.generate());
         }
 
+        RefreshTokenMongo refreshTokenMongo = convert(refreshToken);
+        if (bulkInsertPipeline != null) {
+            return bulkInsertPipeline.insert(refreshTokenMongo).toSingle(() -> convert(refreshTokenMongo));
+        }
+
         return Single
-                .fromPublisher(refreshTokenCollection.insertOne(convert(refreshToken)))
-                .flatMap(success -> findById(refreshToken.getId()).toSingle());
+                .fromPublisher(refreshTokenCollection.insertOne(refreshTokenMongo))
+                .map(success -> convert(refreshTokenMongo));
     }
 
     @Override
@@ -89,6 +97,14 @@ public class MongoRefreshTokenRepository extends AbstractOAuth2MongoRepository i
         return Completable.fromPublisher(refreshTokenCollection.deleteOne(eq(FIELD_TOKEN, token)));
     }
 
+    @Override
+    public Maybe<RefreshToken> consume(String token) {
+        return Observable
+                .fromPublisher(refreshTokenCollection.findOneAndDelete(eq(FIELD_TOKEN, token)))
+                .firstElement()
+                .map(this::convert);
+    }
+
     private RefreshTokenMongo convert(RefreshToken refreshToken) {
         if (refreshToken == null) {
             return null;
@@ -78,7 +78,7 @@ public class MongoScopeApprovalRepository extends AbstractOAuth2MongoRepository
     public Single<ScopeApproval> create(ScopeApproval scopeApproval) {
         ScopeApprovalMongo scopeApprovalMongo = convert(scopeApproval);
         scopeApprovalMongo.setId(scopeApprovalMongo.getId() == null ? (String) idGenerator.generate() : scopeApprovalMongo.getId());
-        return Single.fromPublisher(scopeApprovalsCollection.insertOne(scopeApprovalMongo)).flatMap(success -> _findById(scopeApprovalMongo.getId()));
+        return Single.fromPublisher(scopeApprovalsCollection.insertOne(scopeApprovalMongo)).map(success -> convert(scopeApprovalMongo));
     }
 
     @Override
@@ -128,10 +128,6 @@ public class MongoScopeApprovalRepository extends AbstractOAuth2MongoRepository
         return Observable.fromPublisher(scopeApprovalsCollection.find(and(eq(FIELD_DOMAIN, domain), eq(FIELD_CLIENT_ID, clientId), eq(FIELD_USER_ID, userId)))).map(this::convert).collect(HashSet::new, Set::add);
     }
 
-    private Single<ScopeApproval> _findById(String id) {
-        return Single.fromPublisher(scopeApprovalsCollection.find(eq(FIELD_ID, id)).first()).map(this::convert);
-    }
-
     private ScopeApproval convert(ScopeApprovalMongo scopeApprovalMongo) {
         if (scopeApprovalMongo == null) {
             return null;
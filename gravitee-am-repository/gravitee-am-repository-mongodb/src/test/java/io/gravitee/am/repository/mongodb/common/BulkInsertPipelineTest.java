@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.repository.mongodb.common;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import org.bson.BsonDocument;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class BulkInsertPipelineTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkInsertPipelineTest.class);
+
+    private final ExecutorService databaseConnections = Executors.newFixedThreadPool(4);
+
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private BulkInsertPipeline<String> pipeline;
+
+    @After
+    public void tearDown() {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        databaseConnections.shutdownNow();
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentInserts() {
+        pipeline = new BulkInsertPipeline<>("test", documents -> {
+            batches.add(documents);
+            return Flowable.just("ok");
+        }, 50, 1, TimeUnit.MILLISECONDS);
+
+        List<Completable> inserts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            inserts.add(pipeline.insert("document-" + i).subscribeOn(Schedulers.io()));
+        }
+        Completable.merge(inserts).blockingAwait(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1000, batches.stream().mapToInt(List::size).sum());
+        Assert.assertTrue(batches.stream().allMatch(batch -> batch.size() <= 50));
+        Assert.assertTrue(batches.size() < 1000);
+        Assert.assertEquals(batches.size(), pipeline.getBatchCount());
+        Assert.assertEquals(1000, pipeline.getInsertCount());
+        Assert.assertEquals(0, pipeline.getPendingCount());
+        Assert.assertTrue(pipeline.getAverageBatchSize() > 1);
+    }
+
+    @Test
+    public void shouldFlushAfterLinger() {
+        pipeline = new BulkInsertPipeline<>("test", documents -> {
+            batches.add(documents);
+            return Flowable.just("ok");
+        }, 100, 500, TimeUnit.MICROSECONDS);
+
+        TestObserver testObserver = pipeline.insert("document-1").test();
+        testObserver.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        testObserver.assertComplete();
+        Assert.assertEquals(Collections.singletonList(Collections.singletonList("document-1")), batches);
+    }
+
+    @Test
+    public void shouldFailRejectedDocumentsOnly() {
+        pipeline = new BulkInsertPipeline<>("test", documents -> Flowable.error(new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(),
+                Collections.singletonList(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)),
+                null, new ServerAddress())), 2, 1, TimeUnit.SECONDS);
+
+        TestObserver testObserver1 = pipeline.insert("document-1").test();
+        TestObserver testObserver2 = pipeline.insert("document-2").test();
+        testObserver1.awaitTerminalEvent(1, TimeUnit.SECONDS);
+        testObserver2.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        testObserver1.assertComplete();
+        testObserver2.assertError(MongoBulkWriteException.class);
+        Assert.assertEquals(1, pipeline.getFailedInsertCount());
+    }
+
+    @Test
+    public void shouldFailAllDocuments_writeError() {
+        pipeline = new BulkInsertPipeline<>("test", documents -> Flowable.error(new IllegalStateException("connection refused")), 2, 1, TimeUnit.SECONDS);
+
+        TestObserver testObserver1 = pipeline.insert("document-1").test();
+        TestObserver testObserver2 = pipeline.insert("document-2").test();
+        testObserver1.awaitTerminalEvent(1, TimeUnit.SECONDS);
+        testObserver2.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        testObserver1.assertError(IllegalStateException.class);
+        testObserver2.assertError(IllegalStateException.class);
+        Assert.assertEquals(2, pipeline.getFailedInsertCount());
+    }
+
+    @Test
+    public void shouldRejectInserts_closed() {
+        pipeline = new BulkInsertPipeline<>("test", documents -> Flowable.just("ok"), 2, 1, TimeUnit.SECONDS);
+        pipeline.close();
+
+        pipeline.insert("document-1").test().assertError(IllegalStateException.class);
+    }
+
+    /**
+     * Throughput of 5000 inserts against a database stand-in: 4 connections, 1ms round-trip per request whatever the
+     * number of documents it carries.
+     */
+    @Test
+    public void shouldIncreaseThroughput_benchmark() {
+        final int inserts = 5000;
+        final AtomicInteger roundTrips = new AtomicInteger();
+        Function<List<String>, Publisher<?>> database = documents -> {
+            roundTrips.incrementAndGet();
+            return Flowable.fromCallable(() -> {
+                Thread.sleep(1);
+                return "ok";
+            }).subscribeOn(Schedulers.from(databaseConnections));
+        };
+
+        long start = System.nanoTime();
+        List<Completable> singleInserts = new ArrayList<>();
+        for (int i = 0; i < inserts; i++) {
+            singleInserts.add(Completable.fromPublisher(database.apply(Collections.singletonList("document-" + i))));
+        }
+        Completable.merge(singleInserts).blockingAwait(30, TimeUnit.SECONDS);
+        long singleInsertsDuration = System.nanoTime() - start;
+        int singleInsertsRoundTrips = roundTrips.getAndSet(0);
+
+        pipeline = new BulkInsertPipeline<>("benchmark", database::apply, 100, 500, TimeUnit.MICROSECONDS);
+        start = System.nanoTime();
+        List<Completable> bulkInserts = new ArrayList<>();
+        for (int i = 0; i < inserts; i++) {
+            bulkInserts.add(pipeline.insert("document-" + i));
+        }
+        Completable.merge(bulkInserts).blockingAwait(30, TimeUnit.SECONDS);
+        long bulkInsertsDuration = System.nanoTime() - start;
+
+        logger.info("Single inserts: {} inserts/s, {} round-trips", inserts * TimeUnit.SECONDS.toNanos(1) / singleInsertsDuration, singleInsertsRoundTrips);
+        logger.info("Bulk inserts: {} inserts/s, {} round-trips, average batch size {}, average flush latency {}µs, max flush latency {}µs",
+                inserts * TimeUnit.SECONDS.toNanos(1) / bulkInsertsDuration, roundTrips.get(),
+                pipeline.getAverageBatchSize(), pipeline.getAverageFlushLatency(), pipeline.getMaxFlushLatency());
+
+        Assert.assertEquals(inserts, singleInsertsRoundTrips);
+        Assert.assertEquals(inserts, pipeline.getInsertCount());
+        Assert.assertTrue(roundTrips.get() <= inserts / 10);
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.repository.mongodb.common;
+
+import io.reactivex.Flowable;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class LoginStatsBufferTest {
+
+    private final List<Map<String, LoginStatsBuffer.LoginStats>> flushes = Collections.synchronizedList(new ArrayList<>());
+
+    private LoginStatsBuffer buffer;
+
+    @After
+    public void tearDown() {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    @Test
+    public void shouldCoalesceLogins() {
+        buffer = new LoginStatsBuffer("test", stats -> {
+            flushes.add(new HashMap<>(stats));
+            return Flowable.just("ok");
+        }, 1, TimeUnit.HOURS);
+
+        for (int i = 0; i < 1000; i++) {
+            buffer.record("user-" + (i % 10), new Date(i));
+        }
+        Assert.assertEquals(10, buffer.getPendingCount());
+        Assert.assertEquals(100, buffer.getPendingStats("user-3").getCount());
+
+        buffer.flush();
+
+        Assert.assertEquals(1, flushes.size());
+        Assert.assertEquals(10, flushes.get(0).size());
+        Assert.assertEquals(100, flushes.get(0).get("user-3").getCount());
+        Assert.assertEquals(new Date(993), flushes.get(0).get("user-3").getLoggedAt());
+        Assert.assertEquals(0, buffer.getPendingCount());
+        Assert.assertEquals(1000, buffer.getLoginCount());
+        Assert.assertEquals(10, buffer.getWriteCount());
+        Assert.assertNull(buffer.getPendingStats("user-3"));
+    }
+
+    @Test
+    public void shouldKeepLastLoginDate() {
+        buffer = new LoginStatsBuffer("test", stats -> {
+            flushes.add(new HashMap<>(stats));
+            return Flowable.just("ok");
+        }, 1, TimeUnit.HOURS);
+
+        buffer.record("user-1", new Date(2000));
+        buffer.record("user-1", new Date(1000));
+
+        Assert.assertEquals(new Date(2000), buffer.getPendingStats("user-1").getLoggedAt());
+    }
+
+    @Test
+    public void shouldRetryFailedFlush() {
+        AtomicBoolean fail = new AtomicBoolean(true);
+        buffer = new LoginStatsBuffer("test", stats -> {
+            if (fail.get()) {
+                return Flowable.error(new IllegalStateException("connection refused"));
+            }
+            flushes.add(new HashMap<>(stats));
+            return Flowable.just("ok");
+        }, 1, TimeUnit.HOURS);
+
+        buffer.record("user-1", new Date(1000));
+        buffer.flush();
+
+        Assert.assertEquals(1, buffer.getFailedFlushCount());
+        Assert.assertEquals(1, buffer.getPendingStats("user-1").getCount());
+
+        buffer.record("user-1", new Date(2000));
+        fail.set(false);
+        buffer.flush();
+
+        Assert.assertEquals(1, flushes.size());
+        Assert.assertEquals(2, flushes.get(0).get("user-1").getCount());
+        Assert.assertEquals(new Date(2000), flushes.get(0).get("user-1").getLoggedAt());
+    }
+
+    @Test
+    public void shouldFlushPeriodically() throws Exception {
+        buffer = new LoginStatsBuffer("test", stats -> {
+            flushes.add(new HashMap<>(stats));
+            return Flowable.just("ok");
+        }, 10, TimeUnit.MILLISECONDS);
+
+        buffer.record("user-1", new Date());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (flushes.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, flushes.size());
+        Assert.assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    public void shouldFlushOnClose() {
+        buffer = new LoginStatsBuffer("test", stats -> {
+            flushes.add(new HashMap<>(stats));
+            return Flowable.just("ok");
+        }, 1, TimeUnit.HOURS);
+
+        buffer.record("user-1", new Date());
+        buffer.close();
+
+        Assert.assertEquals(1, flushes.size());
+    }
+}
@@ -19,13 +19,20 @@ import io.gravitee.am.model.Client;
 import io.gravitee.am.model.common.Page;
 import io.gravitee.am.repository.exceptions.TechnicalException;
 import io.gravitee.am.repository.management.api.ClientRepository;
+import io.gravitee.am.repository.mongodb.CommandCounter;
 import io.reactivex.observers.TestObserver;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
  * @author GraviteeSource Team
@@ -35,6 +42,9 @@ public class MongoClientRepositoryTest extends AbstractManagementRepositoryTest
     @Autowired
     private ClientRepository clientRepository;
 
+    @Autowired
+    private CommandCounter commandCounter;
+
     @Override
     public String collectionName() {
         return "clients";
@@ -95,6 +105,22 @@ public class MongoClientRepositoryTest extends AbstractManagementRepositoryTest
         testObserver.assertValue(c -> c.getClientId().equals("testClientId"));
     }
 
+    @Test
+    public void testFindById_identitiesPriorityOrder() throws TechnicalException {
+        // create client
+        Client client = new Client();
+        client.setClientId("testClientId");
+        client.setIdentities(new LinkedHashSet<>(Arrays.asList("idp-3", "idp-1", "idp-2")));
+        Client clientCreated = clientRepository.create(client).blockingGet();
+
+        // fetch client
+        TestObserver<Client> testObserver = clientRepository.findById(clientCreated.getId()).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertValue(c -> new ArrayList<>(c.getIdentities()).equals(Arrays.asList("idp-3", "idp-1", "idp-2")));
+    }
+
     @Test
     public void testNotFoundById() throws TechnicalException {
         clientRepository.findById("test").test().assertEmpty();
@@ -134,6 +160,53 @@ public class MongoClientRepositoryTest extends AbstractManagementRepositoryTest
         testObserver.assertValue(c -> c.getClientId().equals(updatedClient.getClientId()));
     }
 
+    @Test
+    public void testCreate_singleRoundTrip() throws TechnicalException {
+        Client client = new Client();
+        client.setClientId("testClientId");
+
+        commandCounter.reset();
+        TestObserver<Client> testObserver = clientRepository.create(client).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertValue(c -> c.getId() != null && c.getClientId().equals(client.getClientId()));
+        assertEquals(1, commandCounter.roundTrips());
+        assertEquals(1, commandCounter.count("insert"));
+    }
+
+    @Test
+    public void testUpdate_singleRoundTrip() throws TechnicalException {
+        Client client = new Client();
+        client.setClientId("testClientId");
+        Client clientCreated = clientRepository.create(client).blockingGet();
+
+        Client updatedClient = new Client();
+        updatedClient.setId(clientCreated.getId());
+        updatedClient.setClientId("testUpdatedClientId");
+
+        commandCounter.reset();
+        TestObserver<Client> testObserver = clientRepository.update(updatedClient).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertValue(c -> c.getClientId().equals(updatedClient.getClientId()));
+        assertEquals(1, commandCounter.roundTrips());
+        assertEquals(1, commandCounter.count("findAndModify"));
+    }
+
+    @Test
+    public void testUpdate_notFound() throws TechnicalException {
+        Client client = new Client();
+        client.setId("unknown");
+        client.setClientId("testClientId");
+
+        TestObserver<Client> testObserver = clientRepository.update(client).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertError(NoSuchElementException.class);
+    }
+
     @Test
     public void testDelete() throws TechnicalException {
         // create client
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.repository.mongodb.management;
+
+import io.gravitee.am.model.common.event.Action;
+import io.gravitee.am.model.common.event.Event;
+import io.gravitee.am.model.common.event.Payload;
+import io.gravitee.am.model.common.event.Type;
+import io.gravitee.am.repository.exceptions.TechnicalException;
+import io.gravitee.am.repository.management.api.EventRepository;
+import io.reactivex.observers.TestObserver;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class MongoEventRepositoryTest extends AbstractManagementRepositoryTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Override
+    public String collectionName() {
+        return "events";
+    }
+
+    @Test
+    public void testCreate() throws TechnicalException {
+        long lastSequence = eventRepository.findLastSequence().blockingGet();
+
+        Event event = new Event(Type.CLIENT, new Payload("client-id", "testDomain", Action.UPDATE));
+        TestObserver<Event> testObserver = eventRepository.create(event).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+        testObserver.assertValue(e -> e.getSequence() == lastSequence + 1 && e.getCreatedAt() != null);
+        eventRepository.findLastSequence().test().assertValue(lastSequence + 1);
+    }
+
+    @Test
+    public void testFindSince() throws TechnicalException {
+        long lastSequence = eventRepository.findLastSequence().blockingGet();
+        for (int i = 0; i < 5; i++) {
+            eventRepository.create(new Event(Type.DOMAIN, new Payload("domain-" + i, "domain-" + i, Action.UPDATE))).blockingGet();
+        }
+
+        TestObserver<List<Event>> testObserver = eventRepository.findSince(lastSequence + 1, 3).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+        testObserver.assertValue(events -> events.size() == 3
+                && events.get(0).getSequence() == lastSequence + 2
+                && events.get(2).getSequence() == lastSequence + 4
+                && events.get(0).getPayload().getId().equals("domain-1")
+                && events.get(0).getPayload().getAction() == Action.UPDATE);
+    }
+}
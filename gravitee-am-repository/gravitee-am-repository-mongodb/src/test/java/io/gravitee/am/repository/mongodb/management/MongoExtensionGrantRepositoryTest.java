@@ -22,6 +22,7 @@ import io.reactivex.observers.TestObserver;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Arrays;
 import java.util.Set;
 
 /**
@@ -55,6 +56,25 @@ public class MongoExtensionGrantRepositoryTest extends AbstractManagementReposit
         testObserver.assertValue(extensionGrants -> extensionGrants.size() == 1);
     }
 
+    @Test
+    public void testFindByDomainIn() throws TechnicalException {
+        // create extension grants on several domains
+        for (String domain : Arrays.asList("testDomain", "testDomain2", "otherDomain")) {
+            ExtensionGrant extensionGrant = new ExtensionGrant();
+            extensionGrant.setName("testName");
+            extensionGrant.setDomain(domain);
+            extensionGrantRepository.create(extensionGrant).blockingGet();
+        }
+
+        // fetch extension grants
+        TestObserver<Set<ExtensionGrant>> testObserver = extensionGrantRepository.findByDomainIn(Arrays.asList("testDomain", "testDomain2")).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+        testObserver.assertValue(extensionGrants -> extensionGrants.size() == 2 && extensionGrants.stream().noneMatch(extensionGrant -> "otherDomain".equals(extensionGrant.getDomain())));
+    }
+
     @Test
     public void testFindById() throws TechnicalException {
         // create extension grant
@@ -22,6 +22,7 @@ import io.reactivex.observers.TestObserver;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
 
@@ -56,6 +57,25 @@ public class MongoIdentityProviderRepositoryTest extends AbstractManagementRepos
         testObserver.assertValue(idps -> idps.size() == 1);
     }
 
+    @Test
+    public void testFindByDomainIn() throws TechnicalException {
+        // create idps on several domains
+        for (String domain : Arrays.asList("testDomain", "testDomain2", "otherDomain")) {
+            IdentityProvider identityProvider = new IdentityProvider();
+            identityProvider.setName("testName");
+            identityProvider.setDomain(domain);
+            identityProviderRepository.create(identityProvider).blockingGet();
+        }
+
+        // fetch idps
+        TestObserver<Set<IdentityProvider>> testObserver = identityProviderRepository.findByDomainIn(Arrays.asList("testDomain", "testDomain2")).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+        testObserver.assertValue(idps -> idps.size() == 2 && idps.stream().noneMatch(identityProvider -> "otherDomain".equals(identityProvider.getDomain())));
+    }
+
     @Test
     public void testFindById() throws TechnicalException {
         // create idp
@@ -22,6 +22,7 @@ import io.reactivex.observers.TestObserver;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Arrays;
 import java.util.Set;
 
 /**
@@ -55,6 +56,25 @@ public class MongoRoleRepositoryTest extends AbstractManagementRepositoryTest {
         testObserver.assertValue(roles -> roles.size() == 1);
     }
 
+    @Test
+    public void testFindByDomainIn() throws TechnicalException {
+        // create roles on several domains
+        for (String domain : Arrays.asList("testDomain", "testDomain2", "otherDomain")) {
+            Role role = new Role();
+            role.setName("testName");
+            role.setDomain(domain);
+            roleRepository.create(role).blockingGet();
+        }
+
+        // fetch roles
+        TestObserver<Set<Role>> testObserver = roleRepository.findByDomainIn(Arrays.asList("testDomain", "testDomain2")).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+        testObserver.assertValue(roles -> roles.size() == 2 && roles.stream().noneMatch(role -> "otherDomain".equals(role.getDomain())));
+    }
+
     @Test
     public void testFindById() throws TechnicalException {
         // create role
@@ -22,6 +22,7 @@ import io.reactivex.observers.TestObserver;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
 
@@ -56,6 +57,25 @@ public class MongoScopeRepositoryTest extends AbstractManagementRepositoryTest {
         testObserver.assertValue(scopes -> scopes.size() == 1);
     }
 
+    @Test
+    public void testFindByDomainIn() throws TechnicalException {
+        // create scopes on several domains
+        for (String domain : Arrays.asList("testDomain", "testDomain2", "otherDomain")) {
+            Scope scope = new Scope();
+            scope.setName("testName");
+            scope.setDomain(domain);
+            scopeRepository.create(scope).blockingGet();
+        }
+
+        // fetch scopes
+        TestObserver<Set<Scope>> testObserver = scopeRepository.findByDomainIn(Arrays.asList("testDomain", "testDomain2")).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+        testObserver.assertValue(scopes -> scopes.size() == 2 && scopes.stream().noneMatch(scope -> "otherDomain".equals(scope.getDomain())));
+    }
+
     @Test
     public void testFindById() throws TechnicalException {
         // create scope
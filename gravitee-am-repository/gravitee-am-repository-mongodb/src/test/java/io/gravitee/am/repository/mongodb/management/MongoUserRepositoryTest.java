@@ -18,11 +18,17 @@ package io.gravitee.am.repository.mongodb.management;
 import io.gravitee.am.model.User;
 import io.gravitee.am.repository.exceptions.TechnicalException;
 import io.gravitee.am.repository.management.api.UserRepository;
+import io.reactivex.Single;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -132,4 +138,78 @@ public class MongoUserRepositoryTest extends AbstractManagementRepositoryTest {
         userRepository.findById(userCreated.getId()).test().assertEmpty();
     }
 
+    @Test
+    public void testUpsertOnLogin_create() throws TechnicalException {
+        User user = new User();
+        user.setUsername("testsUsername");
+        user.setDomain("testDomain");
+        user.setLoggedAt(new Date());
+        user.setRoles(Collections.singletonList("role-1"));
+        user.setAdditionalInformation(Collections.singletonMap("email", "johndoe@test.com"));
+
+        TestObserver<User> testObserver = userRepository.upsertOnLogin(user).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+        testObserver.assertValue(u -> u.getId() != null
+                && u.getLoginsCount() == 1
+                && u.getCreatedAt() != null
+                && u.isEnabled()
+                && u.getRoles().equals(user.getRoles())
+                && u.getAdditionalInformation().containsKey("email"));
+    }
+
+    @Test
+    public void testUpsertOnLogin_update() throws TechnicalException {
+        // create user
+        User user = new User();
+        user.setUsername("testsUsername");
+        user.setDomain("testDomain");
+        user.setEmail("johndoe@test.com");
+        user.setLoginsCount(3L);
+        User userCreated = userRepository.create(user).blockingGet();
+
+        // login
+        User loggedUser = new User();
+        loggedUser.setUsername("testsUsername");
+        loggedUser.setDomain("testDomain");
+        loggedUser.setLoggedAt(new Date());
+        loggedUser.setRoles(Arrays.asList("role-1", "role-2"));
+
+        TestObserver<User> testObserver = userRepository.upsertOnLogin(loggedUser).test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+        testObserver.assertValue(u -> u.getId().equals(userCreated.getId())
+                && u.getLoginsCount() == 4
+                && u.getLoggedAt().equals(loggedUser.getLoggedAt())
+                && u.getRoles().size() == 2
+                && "johndoe@test.com".equals(u.getEmail()));
+    }
+
+    @Test
+    public void testUpsertOnLogin_concurrent() throws TechnicalException {
+        List<Single<User>> upserts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User loggedUser = new User();
+            loggedUser.setUsername("testsUsername");
+            loggedUser.setDomain("testDomain");
+            loggedUser.setLoggedAt(new Date());
+            upserts.add(userRepository.upsertOnLogin(loggedUser).subscribeOn(Schedulers.io()));
+        }
+
+        TestObserver<List<User>> testObserver = Single.merge(upserts).toList().test();
+        testObserver.awaitTerminalEvent();
+
+        testObserver.assertComplete();
+        testObserver.assertNoErrors();
+        testObserver.assertValue(users -> users.stream().map(User::getId).distinct().count() == 1);
+
+        // fetch users
+        TestObserver<Set<User>> usersObserver = userRepository.findByDomain("testDomain").test();
+        usersObserver.awaitTerminalEvent();
+        usersObserver.assertValue(users -> users.size() == 1 && users.iterator().next().getLoginsCount() == 10);
+    }
 }
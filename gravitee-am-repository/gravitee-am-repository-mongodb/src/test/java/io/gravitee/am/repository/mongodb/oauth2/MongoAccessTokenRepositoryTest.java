@@ -15,6 +15,7 @@
  */
 package io.gravitee.am.repository.mongodb.oauth2;
 
+import io.gravitee.am.repository.mongodb.CommandCounter;
 import io.gravitee.am.repository.oauth2.api.AccessTokenRepository;
 import io.gravitee.am.repository.oauth2.model.AccessToken;
 import io.reactivex.observers.TestObserver;
@@ -32,6 +33,9 @@ public class MongoAccessTokenRepositoryTest extends AbstractOAuth2RepositoryTest
     @Autowired
     private AccessTokenRepository accessTokenRepository;
 
+    @Autowired
+    private CommandCounter commandCounter;
+
     @Override
     public String collectionName() {
         return "access_tokens";
@@ -123,4 +127,22 @@ public class MongoAccessTokenRepositoryTest extends AbstractOAuth2RepositoryTest
         observer.assertNoErrors();
         observer.assertValue(new Long(1));
     }
+
+    @Test
+    public void shouldCreate_singleRoundTrip() {
+        AccessToken token = new AccessToken();
+        token.setId(UUID.randomUUID().toString());
+        token.setToken("my-token");
+        token.setClient("my-client-id");
+
+        commandCounter.reset();
+        TestObserver<AccessToken> observer = accessTokenRepository.create(token).test();
+
+        observer.awaitTerminalEvent();
+        observer.assertComplete();
+        observer.assertNoErrors();
+        observer.assertValue(accessToken -> accessToken.getToken().equals("my-token") && accessToken.getClient().equals("my-client-id"));
+        assertEquals(1, commandCounter.roundTrips());
+        assertEquals(1, commandCounter.count("insert"));
+    }
 }
@@ -21,6 +21,8 @@ import io.reactivex.observers.TestObserver;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
  * @author GraviteeSource Team
@@ -71,4 +73,24 @@ public class MongoAuthorizationCodeRepositoryTest extends AbstractOAuth2Reposito
                 .test().assertEmpty();
     }
 
+    @Test
+    public void shouldConsumeCodeOnce() {
+        String code = "testCode";
+        AuthorizationCode authorizationCode = new AuthorizationCode();
+        authorizationCode.setId(code);
+        authorizationCode.setCode(code);
+        authorizationCode.setClientId("testClientId");
+        authorizationCodeRepository.create(authorizationCode).blockingGet();
+
+        // another client cannot consume the code
+        authorizationCodeRepository.consume(code, "otherClientId").test().awaitDone(10, TimeUnit.SECONDS).assertNoValues();
+
+        TestObserver<AuthorizationCode> testObserver = authorizationCodeRepository.consume(code, "testClientId").test();
+        testObserver.awaitTerminalEvent();
+        testObserver.assertComplete();
+        testObserver.assertValue(authorizationCode1 -> authorizationCode1.getCode().equals(code));
+
+        // replay
+        authorizationCodeRepository.consume(code, "testClientId").test().awaitDone(10, TimeUnit.SECONDS).assertNoValues();
+    }
 }
@@ -21,6 +21,7 @@ import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Titouan COMPIEGNE (titouan.compiegne at graviteesource.com)
@@ -80,4 +81,20 @@ public class MongoRefreshTokenRepositoryTest extends AbstractOAuth2RepositoryTes
                 .andThen(refreshTokenRepository.findByToken("my-token"))
                 .test().assertEmpty();
     }
+
+    @Test
+    public void shouldConsumeOnce() {
+        RefreshToken token = new RefreshToken();
+        token.setId(UUID.randomUUID().toString());
+        token.setToken("my-token");
+        refreshTokenRepository.create(token).blockingGet();
+
+        TestObserver<RefreshToken> observer = refreshTokenRepository.consume("my-token").test();
+        observer.awaitTerminalEvent();
+        observer.assertComplete();
+        observer.assertValue(refreshToken -> refreshToken.getToken().equals("my-token"));
+
+        refreshTokenRepository.consume("my-token").test().awaitDone(10, TimeUnit.SECONDS).assertNoValues();
+        refreshTokenRepository.findByToken("my-token").test().awaitDone(10, TimeUnit.SECONDS).assertNoValues();
+    }
 }
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.repository.mongodb.oauth2;
+
+import io.gravitee.am.repository.oauth2.model.RevokedToken;
+import io.reactivex.observers.TestObserver;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class MongoRevokedTokenRepositoryTest extends AbstractOAuth2RepositoryTest {
+
+    @Autowired
+    private MongoRevokedTokenRepository revokedTokenRepository;
+
+    @Override
+    public String collectionName() {
+        return "revoked_tokens";
+    }
+
+    @Test
+    public void shouldFindByCreatedAtAfter() {
+        RevokedToken oldToken = new RevokedToken();
+        oldToken.setId(UUID.randomUUID().toString());
+        oldToken.setToken("old-token");
+        oldToken.setCreatedAt(new Date(System.currentTimeMillis() - 60000));
+        oldToken.setExpireAt(new Date(System.currentTimeMillis() + 60000));
+
+        RevokedToken newToken = new RevokedToken();
+        newToken.setId(UUID.randomUUID().toString());
+        newToken.setToken("new-token");
+        newToken.setCreatedAt(new Date());
+        newToken.setExpireAt(new Date(System.currentTimeMillis() + 60000));
+
+        TestObserver<List<RevokedToken>> observer = revokedTokenRepository
+                .create(oldToken)
+                .flatMap(token -> revokedTokenRepository.create(newToken))
+                .toCompletable()
+                .andThen(revokedTokenRepository.findByCreatedAtAfter(new Date(System.currentTimeMillis() - 30000)).toList())
+                .test();
+
+        observer.awaitTerminalEvent();
+
+        observer.assertComplete();
+        observer.assertNoErrors();
+        observer.assertValue(tokens -> tokens.size() == 1 && "new-token".equals(tokens.get(0).getToken()));
+    }
+}
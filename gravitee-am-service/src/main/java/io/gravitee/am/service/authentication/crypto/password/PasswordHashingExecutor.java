@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.service.authentication.crypto.password;
+
+import io.gravitee.am.service.exception.authentication.InternalAuthenticationServiceException;
+import io.reactivex.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded thread-pool used to encode and verify passwords outside of the Vert.x event loop (a BCrypt verification
+ * takes tens of milliseconds).
+ *
+ * The pool is shared by all the identity providers of the node. When both the workers and the queue are full, the
+ * task is rejected and the caller receives an authentication service error instead of stalling the event loop.
+ *
+ * @author GraviteeSource Team
+ */
+public class PasswordHashingExecutor implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    @Value("${password.hashing.poolSize:0}")
+    private int poolSize;
+
+    @Value("${password.hashing.queueCapacity:1000}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong rejectedTasks = new AtomicLong();
+
+    /**
+     * @see PasswordEncoder#matches(CharSequence, String)
+     */
+    public Single<Boolean> matches(PasswordEncoder passwordEncoder, CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * @see PasswordEncoder#encode(CharSequence)
+     */
+    public Single<String> encode(PasswordEncoder passwordEncoder, CharSequence rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * @return the number of tasks waiting in the queue
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of threads actively executing tasks
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return the number of tasks completed since startup
+     */
+    public long getCompletedTaskCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    /**
+     * @return the number of tasks rejected because the pool was saturated
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTasks.get();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        logger.info("Initializing password hashing pool [threads: {}, queue capacity: {}]", threads, queueCapacity);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    private <T> Single<T> execute(Callable<T> task) {
+        return Single.create(emitter -> {
+            try {
+                Future<?> future = executor.submit(() -> {
+                    try {
+                        emitter.onSuccess(task.call());
+                    } catch (Throwable t) {
+                        emitter.tryOnError(t);
+                    }
+                });
+                emitter.setCancellable(() -> future.cancel(false));
+            } catch (RejectedExecutionException ex) {
+                rejectedTasks.incrementAndGet();
+                logger.warn("Password hashing pool is saturated (queue size: {}), rejecting task", executor.getQueue().size());
+                emitter.onError(new InternalAuthenticationServiceException("The server is too busy to verify the credentials", ex));
+            }
+        });
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "gio-am-password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
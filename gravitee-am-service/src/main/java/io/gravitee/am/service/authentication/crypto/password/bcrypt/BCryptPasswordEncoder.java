@@ -93,4 +93,17 @@ public class BCryptPasswordEncoder implements PasswordEncoder {
 
         return BCrypt.checkpw(rawPassword.toString(), encodedPassword);
     }
+
+    /**
+     * A password is encoded again when its cost (log rounds) differs from the strength of this encoder.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || !BCRYPT_PATTERN.matcher(encodedPassword).matches()) {
+            return false;
+        }
+
+        int cost = Integer.parseInt(encodedPassword.substring(encodedPassword.length() - 56, encodedPassword.length() - 54));
+        return cost != (strength > 0 ? strength : BCrypt.GENSALT_DEFAULT_LOG2_ROUNDS);
+    }
 }
@@ -317,6 +317,8 @@ public class ClientServiceImpl implements ClientService {
                     client.setIdTokenCustomClaims(updateClient.getIdTokenCustomClaims());
                     client.setCertificate(updateClient.getCertificate());
                     client.setEnhanceScopesWithUserPermissions(updateClient.isEnhanceScopesWithUserPermissions());
+                    client.setStatelessAccessTokens(updateClient.isStatelessAccessTokens());
+                    client.setIdentityProviderStrategy(updateClient.getIdentityProviderStrategy());
                     client.setUpdatedAt(new Date());
 
                     return clientRepository.update(client)
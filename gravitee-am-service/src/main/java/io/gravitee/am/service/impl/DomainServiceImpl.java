@@ -22,6 +22,7 @@ import io.gravitee.am.model.common.event.Payload;
 import io.gravitee.am.model.common.event.Type;
 import io.gravitee.am.model.login.LoginForm;
 import io.gravitee.am.repository.management.api.DomainRepository;
+import io.gravitee.am.repository.management.api.EventRepository;
 import io.gravitee.am.service.*;
 import io.gravitee.am.service.exception.*;
 import io.gravitee.am.service.model.NewDomain;
@@ -58,6 +59,9 @@ public class DomainServiceImpl implements DomainService {
     @Autowired
     private DomainRepository domainRepository;
 
+    @Autowired
+    private EventRepository eventRepository;
+
     @Autowired
     private ClientService clientService;
 
@@ -127,7 +131,8 @@ public class DomainServiceImpl implements DomainService {
                         domain.setCreatedAt(new Date());
                         domain.setUpdatedAt(domain.getCreatedAt());
                         domain.setLastEvent(new Event(Type.DOMAIN, new Payload(id, id, Action.CREATE)));
-                        return domainRepository.create(domain);
+                        return domainRepository.create(domain)
+                                .flatMap(domain1 -> publishEvent(domain1, new Event(Type.DOMAIN, new Payload(id, id, Action.CREATE))));
                     }
                 })
                 .flatMap(this::createSystemScopes)
@@ -162,7 +167,8 @@ public class DomainServiceImpl implements DomainService {
                     domain.setLoginForm(oldDomain.getLoginForm());
                     domain.setLastEvent(new Event(Type.DOMAIN, new Payload(domainId, domainId, Action.UPDATE)));
 
-                    return domainRepository.update(domain);
+                    return domainRepository.update(domain)
+                            .flatMap(domain1 -> publishEvent(domain1, new Event(Type.DOMAIN, new Payload(domainId, domainId, Action.UPDATE))));
                 })
                 .onErrorResumeNext(ex -> {
                     if (ex instanceof AbstractManagementException) {
@@ -183,7 +189,7 @@ public class DomainServiceImpl implements DomainService {
                     oldDomain.setUpdatedAt(new Date());
                     oldDomain.setLastEvent(event);
 
-                    return domainRepository.update(oldDomain);
+                    return domainRepository.update(oldDomain).flatMap(domain -> publishEvent(domain, event));
                 })
                 .onErrorResumeNext(ex -> {
                     if (ex instanceof AbstractManagementException) {
@@ -213,7 +219,8 @@ public class DomainServiceImpl implements DomainService {
                     domain.setLoginForm(oldDomain.getLoginForm());
                     domain.setIdentities(oldDomain.getIdentities());
                     domain.setOauth2Identities(oldDomain.getOauth2Identities());
-                    return domainRepository.update(domain);
+                    return domainRepository.update(domain)
+                            .flatMap(domain1 -> publishEvent(domain1, new Event(Type.DOMAIN, new Payload(domainId, domainId, Action.UPDATE))));
                 })
                 .onErrorResumeNext(ex -> {
                     if (ex instanceof AbstractManagementException) {
@@ -277,7 +284,8 @@ public class DomainServiceImpl implements DomainService {
                                         List<Completable> deleteScopesCompletable = scopes.stream().map(s -> scopeService.delete(s.getId(), true)).collect(Collectors.toList());
                                         return Completable.concat(deleteScopesCompletable);
                                     })
-                            .andThen(domainRepository.delete(domainId)));
+                            .andThen(domainRepository.delete(domainId))
+                            .andThen(eventRepository.create(new Event(Type.DOMAIN, new Payload(domainId, domainId, Action.DELETE))).toCompletable()));
                 })
                 .onErrorResumeNext(ex -> {
                     if (ex instanceof AbstractManagementException) {
@@ -303,7 +311,9 @@ public class DomainServiceImpl implements DomainService {
                     domain.setLoginForm(form);
                     domain.setUpdatedAt(new Date());
 
-                    return domainRepository.update(domain).map(domain1 -> form);
+                    return domainRepository.update(domain)
+                            .flatMap(domain1 -> publishEvent(domain1, new Event(Type.DOMAIN, new Payload(domainId, domainId, Action.UPDATE))))
+                            .map(domain1 -> form);
                 })
                 .onErrorResumeNext(ex -> {
                     if (ex instanceof AbstractManagementException) {
@@ -324,7 +334,8 @@ public class DomainServiceImpl implements DomainService {
                     domain.setLoginForm(null);
                     domain.setUpdatedAt(new Date());
 
-                    return domainRepository.update(domain);
+                    return domainRepository.update(domain)
+                            .flatMap(domain1 -> publishEvent(domain1, new Event(Type.DOMAIN, new Payload(domainId, domainId, Action.UPDATE))));
                 })
                 .onErrorResumeNext(ex -> {
                     if (ex instanceof AbstractManagementException) {
@@ -336,6 +347,13 @@ public class DomainServiceImpl implements DomainService {
                 });
     }
 
+    /**
+     * Append the event to the events journal tailed by the gateways, once the domain change has been stored.
+     */
+    private Single<Domain> publishEvent(Domain domain, Event event) {
+        return eventRepository.create(event).map(event1 -> domain);
+    }
+
     private Single<Domain> createSystemScopes(Domain domain) {
         return Observable.fromArray(io.gravitee.am.common.oidc.Scope.values())
                 .flatMapSingle(systemScope -> {
@@ -15,10 +15,15 @@
  */
 package io.gravitee.am.service.impl;
 
+import io.gravitee.am.model.common.event.Action;
+import io.gravitee.am.model.common.event.Event;
+import io.gravitee.am.model.common.event.Payload;
+import io.gravitee.am.model.common.event.Type;
 import io.gravitee.am.model.oauth2.Scope;
 import io.gravitee.am.repository.management.api.ScopeRepository;
 import io.gravitee.am.repository.oauth2.api.ScopeApprovalRepository;
 import io.gravitee.am.service.ClientService;
+import io.gravitee.am.service.DomainService;
 import io.gravitee.am.service.RoleService;
 import io.gravitee.am.service.ScopeService;
 import io.gravitee.am.service.exception.*;
@@ -62,6 +67,9 @@ public class ScopeServiceImpl implements ScopeService {
     @Autowired
     private ClientService clientService;
 
+    @Autowired
+    private DomainService domainService;
+
     @Override
     public Maybe<Scope> findById(String id) {
         LOGGER.debug("Find scope by ID: {}", id);
@@ -92,7 +100,12 @@ public class ScopeServiceImpl implements ScopeService {
                         scope.setCreatedAt(new Date());
                         scope.setUpdatedAt(new Date());
 
-                        return scopeRepository.create(scope);
+                        return scopeRepository.create(scope)
+                                .flatMap(scope1 -> {
+                                    // Reload domain to take care about scope creation
+                                    Event event = new Event(Type.SCOPE, new Payload(scope1.getId(), scope1.getDomain(), Action.CREATE));
+                                    return domainService.reload(domain, event).flatMap(domain1 -> Single.just(scope1));
+                                });
                     })
                 .onErrorResumeNext(ex -> {
                     if (ex instanceof AbstractManagementException) {
@@ -124,7 +137,12 @@ public class ScopeServiceImpl implements ScopeService {
                     scope.setDescription(newScope.getDescription());
                     scope.setCreatedAt(new Date());
                     scope.setUpdatedAt(new Date());
-                    return scopeRepository.create(scope);
+                    return scopeRepository.create(scope)
+                            .flatMap(scope1 -> {
+                                // Reload domain to take care about scope creation
+                                Event event = new Event(Type.SCOPE, new Payload(scope1.getId(), scope1.getDomain(), Action.CREATE));
+                                return domainService.reload(domain, event).flatMap(domain1 -> Single.just(scope1));
+                            });
                 })
                 .onErrorResumeNext(ex -> {
                     if (ex instanceof AbstractManagementException) {
@@ -145,7 +163,12 @@ public class ScopeServiceImpl implements ScopeService {
                     scope.setDescription(updateScope.getDescription());
                     scope.setUpdatedAt(new Date());
 
-                    return scopeRepository.update(scope);
+                    return scopeRepository.update(scope)
+                            .flatMap(scope1 -> {
+                                // Reload domain to take care about scope update
+                                Event event = new Event(Type.SCOPE, new Payload(scope1.getId(), scope1.getDomain(), Action.UPDATE));
+                                return domainService.reload(domain, event).flatMap(domain1 -> Single.just(scope1));
+                            });
                 })
                 .onErrorResumeNext(ex -> {
                     if (ex instanceof AbstractManagementException) {
@@ -167,7 +190,12 @@ public class ScopeServiceImpl implements ScopeService {
                     scope.setUpdatedAt(new Date());
                     scope.setSystem(true);
                     scope.setClaims(updateScope.getClaims());
-                    return scopeRepository.update(scope);
+                    return scopeRepository.update(scope)
+                            .flatMap(scope1 -> {
+                                // Reload domain to take care about scope update
+                                Event event = new Event(Type.SCOPE, new Payload(scope1.getId(), scope1.getDomain(), Action.UPDATE));
+                                return domainService.reload(domain, event).flatMap(domain1 -> Single.just(scope1));
+                            });
                 })
                 .onErrorResumeNext(ex -> {
                     if (ex instanceof AbstractManagementException) {
@@ -226,6 +254,8 @@ public class ScopeServiceImpl implements ScopeService {
                                                     updateClient.setCertificate(client.getCertificate());
                                                     updateClient.setEnabled(client.isEnabled());
                                                     updateClient.setEnhanceScopesWithUserPermissions(client.isEnhanceScopesWithUserPermissions());
+                                                    updateClient.setStatelessAccessTokens(client.isStatelessAccessTokens());
+                                                    updateClient.setIdentityProviderStrategy(client.getIdentityProviderStrategy());
                                                     updateClient.setIdentities(client.getIdentities());
                                                     updateClient.setIdTokenCustomClaims(client.getIdTokenCustomClaims());
                                                     updateClient.setIdTokenValiditySeconds(client.getIdTokenValiditySeconds());
@@ -236,7 +266,9 @@ public class ScopeServiceImpl implements ScopeService {
                                 // 3_ Remove scopes from scope_approvals
                                 .andThen(scopeApprovalRepository.delete(scope.getDomain(), scope.getKey()))
                                 // 4_ Delete scope
-                                .andThen(scopeRepository.delete(scopeId)))
+                                .andThen(scopeRepository.delete(scopeId))
+                                // 5_ Reload domain to take care about scope deletion
+                                .andThen(domainService.reload(scope.getDomain(), new Event(Type.SCOPE, new Payload(scope.getId(), scope.getDomain(), Action.DELETE))).toCompletable()))
                                 .onErrorResumeNext(ex -> {
                                     if (ex instanceof AbstractManagementException) {
                                         return Completable.error(ex);
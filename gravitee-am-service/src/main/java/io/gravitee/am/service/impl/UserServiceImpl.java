@@ -20,6 +20,7 @@ import io.gravitee.am.model.common.Page;
 import io.gravitee.am.repository.management.api.UserRepository;
 import io.gravitee.am.service.UserService;
 import io.gravitee.am.service.authentication.crypto.password.PasswordEncoder;
+import io.gravitee.am.service.authentication.crypto.password.PasswordHashingExecutor;
 import io.gravitee.am.service.authentication.crypto.password.bcrypt.BCryptPasswordEncoder;
 import io.gravitee.am.service.exception.AbstractManagementException;
 import io.gravitee.am.service.exception.TechnicalManagementException;
@@ -54,6 +55,9 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     private PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     @Override
@@ -138,9 +142,17 @@ public class UserServiceImpl implements UserService {
         return userRepository.findById(id)
                 .switchIfEmpty(Maybe.error(new UserNotFoundException(id)))
                 .flatMapSingle(oldUser -> {
-                    if (updateUser.getPassword() != null) {
-                        oldUser.setPassword(passwordEncoder.encode(updateUser.getPassword()));
+                    if (updateUser.getPassword() == null) {
+                        return Single.just(oldUser);
                     }
+                    // the password is hashed out of the repository driver threads
+                    return passwordHashingExecutor.encode(passwordEncoder, updateUser.getPassword())
+                            .map(password -> {
+                                oldUser.setPassword(password);
+                                return oldUser;
+                            });
+                })
+                .flatMap(oldUser -> {
                     oldUser.setFirstName(updateUser.getFirstName());
                     oldUser.setLastName(updateUser.getLastName());
                     oldUser.setEmail(updateUser.getEmail());
@@ -15,6 +15,10 @@
  */
 package io.gravitee.am.service.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.gravitee.am.model.IdentityProviderStrategy;
+
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +47,10 @@ public class UpdateClient {
 
     private boolean enabled;
 
+    /**
+     * Identity providers in priority order.
+     */
+    @JsonDeserialize(as = LinkedHashSet.class)
     private Set<String> identities;
 
     private Set<String> oauth2Identities;
@@ -51,6 +59,10 @@ public class UpdateClient {
 
     private boolean enhanceScopesWithUserPermissions;
 
+    private boolean statelessAccessTokens;
+
+    private IdentityProviderStrategy identityProviderStrategy;
+
     public List<String> getRedirectUris() {
         return redirectUris;
     }
@@ -154,4 +166,20 @@ public class UpdateClient {
     public void setEnhanceScopesWithUserPermissions(boolean enhanceScopesWithUserPermissions) {
         this.enhanceScopesWithUserPermissions = enhanceScopesWithUserPermissions;
     }
+
+    public boolean isStatelessAccessTokens() {
+        return statelessAccessTokens;
+    }
+
+    public void setStatelessAccessTokens(boolean statelessAccessTokens) {
+        this.statelessAccessTokens = statelessAccessTokens;
+    }
+
+    public IdentityProviderStrategy getIdentityProviderStrategy() {
+        return identityProviderStrategy;
+    }
+
+    public void setIdentityProviderStrategy(IdentityProviderStrategy identityProviderStrategy) {
+        this.identityProviderStrategy = identityProviderStrategy;
+    }
 }
@@ -15,6 +15,8 @@
  */
 package io.gravitee.am.service.spring;
 
+import io.gravitee.am.service.authentication.crypto.password.PasswordHashingExecutor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
@@ -25,4 +27,9 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @ComponentScan("io.gravitee.am.service")
 public class ServiceConfiguration {
+
+    @Bean
+    public PasswordHashingExecutor passwordHashingExecutor() {
+        return new PasswordHashingExecutor();
+    }
 }
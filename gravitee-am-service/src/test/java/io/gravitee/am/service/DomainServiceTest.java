@@ -16,9 +16,14 @@
 package io.gravitee.am.service;
 
 import io.gravitee.am.model.*;
+import io.gravitee.am.model.common.event.Action;
+import io.gravitee.am.model.common.event.Event;
+import io.gravitee.am.model.common.event.Payload;
+import io.gravitee.am.model.common.event.Type;
 import io.gravitee.am.model.oauth2.Scope;
 import io.gravitee.am.repository.exceptions.TechnicalException;
 import io.gravitee.am.repository.management.api.DomainRepository;
+import io.gravitee.am.repository.management.api.EventRepository;
 import io.gravitee.am.service.exception.DomainAlreadyExistsException;
 import io.gravitee.am.service.exception.DomainDeleteMasterException;
 import io.gravitee.am.service.exception.DomainNotFoundException;
@@ -32,8 +37,10 @@ import io.reactivex.Completable;
 import io.reactivex.Maybe;
 import io.reactivex.Single;
 import io.reactivex.observers.TestObserver;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -85,6 +92,9 @@ public class DomainServiceTest {
     @Mock
     private DomainRepository domainRepository;
 
+    @Mock
+    private EventRepository eventRepository;
+
     @Mock
     private ClientService clientService;
 
@@ -103,6 +113,11 @@ public class DomainServiceTest {
     @Mock
     private ScopeService scopeService;
 
+    @Before
+    public void setUp() {
+        when(eventRepository.create(any(Event.class))).thenReturn(Single.just(new Event(Type.DOMAIN, new Payload(DOMAIN_ID, DOMAIN_ID, Action.UPDATE))));
+    }
+
     @Test
     public void shouldFindById() {
         when(domainRepository.findById("my-domain")).thenReturn(Maybe.just(new Domain()));
@@ -256,6 +271,13 @@ public class DomainServiceTest {
 
         verify(domainRepository, times(1)).findById(anyString());
         verify(domainRepository, times(1)).update(any(Domain.class));
+        verify(eventRepository, times(1)).create(argThat(new ArgumentMatcher<Event>() {
+            @Override
+            public boolean matches(Object argument) {
+                Event event = (Event) argument;
+                return event.getType() == Type.DOMAIN && event.getPayload().getAction() == Action.UPDATE;
+            }
+        }));
     }
 
     @Test
@@ -344,6 +366,13 @@ public class DomainServiceTest {
         verify(roleService, times(1)).delete(ROLE_ID);
         verify(userService, times(1)).delete(USER_ID);
         verify(scopeService, times(1)).delete(SCOPE_ID, true);
+        verify(eventRepository, times(1)).create(argThat(new ArgumentMatcher<Event>() {
+            @Override
+            public boolean matches(Object argument) {
+                Event event = (Event) argument;
+                return event.getType() == Type.DOMAIN && event.getPayload().getAction() == Action.DELETE;
+            }
+        }));
     }
 
     @Test
@@ -541,6 +570,7 @@ public class DomainServiceTest {
         testObserver.assertNoErrors();
 
         verify(domainRepository, times(1)).update(any(Domain.class));
+        verify(eventRepository, times(1)).create(any(Event.class));
     }
 
     @Test
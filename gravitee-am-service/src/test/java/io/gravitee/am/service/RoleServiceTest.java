@@ -15,7 +15,11 @@
  */
 package io.gravitee.am.service;
 
+import io.gravitee.am.model.Domain;
 import io.gravitee.am.model.Role;
+import io.gravitee.am.model.common.event.Action;
+import io.gravitee.am.model.common.event.Event;
+import io.gravitee.am.model.common.event.Type;
 import io.gravitee.am.repository.exceptions.TechnicalException;
 import io.gravitee.am.repository.management.api.RoleRepository;
 import io.gravitee.am.service.exception.RoleAlreadyExistsException;
@@ -30,6 +34,7 @@ import io.reactivex.Single;
 import io.reactivex.observers.TestObserver;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -142,7 +147,8 @@ public class RoleServiceTest {
     public void shouldCreate() {
         NewRole newRole = Mockito.mock(NewRole.class);
         when(roleRepository.findByDomain(DOMAIN)).thenReturn(Single.just(Collections.emptySet()));
-        when(roleRepository.create(any(Role.class))).thenReturn(Single.just(new Role()));
+        when(roleRepository.create(any(Role.class))).thenReturn(Single.just(role("my-role")));
+        when(domainService.reload(anyString(), any(Event.class))).thenReturn(Single.just(new Domain()));
 
         TestObserver testObserver = roleService.create(DOMAIN, newRole).test();
         testObserver.awaitTerminalEvent();
@@ -152,6 +158,7 @@ public class RoleServiceTest {
 
         verify(roleRepository, times(1)).findByDomain(DOMAIN);
         verify(roleRepository, times(1)).create(any(Role.class));
+        verify(domainService, times(1)).reload(eq(DOMAIN), argThat(roleEvent("my-role", Action.CREATE)));
     }
 
     @Test
@@ -193,7 +200,8 @@ public class RoleServiceTest {
         UpdateRole updateRole = Mockito.mock(UpdateRole.class);
         when(roleRepository.findById("my-role")).thenReturn(Maybe.just(new Role()));
         when(roleRepository.findByDomain(DOMAIN)).thenReturn(Single.just(Collections.emptySet()));
-        when(roleRepository.update(any(Role.class))).thenReturn(Single.just(new Role()));
+        when(roleRepository.update(any(Role.class))).thenReturn(Single.just(role("my-role")));
+        when(domainService.reload(anyString(), any(Event.class))).thenReturn(Single.just(new Domain()));
 
         TestObserver testObserver = roleService.update(DOMAIN,"my-role", updateRole).test();
         testObserver.awaitTerminalEvent();
@@ -204,6 +212,7 @@ public class RoleServiceTest {
         verify(roleRepository, times(1)).findById("my-role");
         verify(roleRepository, times(1)).findByDomain(DOMAIN);
         verify(roleRepository, times(1)).update(any(Role.class));
+        verify(domainService, times(1)).reload(eq(DOMAIN), argThat(roleEvent("my-role", Action.UPDATE)));
     }
 
     @Test
@@ -283,8 +292,9 @@ public class RoleServiceTest {
 
     @Test
     public void shouldDelete() {
-        when(roleRepository.findById("my-role")).thenReturn(Maybe.just(new Role()));
+        when(roleRepository.findById("my-role")).thenReturn(Maybe.just(role("my-role")));
         when(roleRepository.delete("my-role")).thenReturn(Completable.complete());
+        when(domainService.reload(anyString(), any(Event.class))).thenReturn(Single.just(new Domain()));
 
         TestObserver testObserver = roleService.delete( "my-role").test();
         testObserver.awaitTerminalEvent();
@@ -293,5 +303,26 @@ public class RoleServiceTest {
         testObserver.assertNoErrors();
 
         verify(roleRepository, times(1)).delete("my-role");
+        verify(domainService, times(1)).reload(eq(DOMAIN), argThat(roleEvent("my-role", Action.DELETE)));
+    }
+
+    private static Role role(String id) {
+        Role role = new Role();
+        role.setId(id);
+        role.setDomain(DOMAIN);
+        return role;
+    }
+
+    private static ArgumentMatcher<Event> roleEvent(String roleId, Action action) {
+        return new ArgumentMatcher<Event>() {
+            @Override
+            public boolean matches(Object argument) {
+                Event event = (Event) argument;
+                return Type.ROLE.equals(event.getType())
+                        && roleId.equals(event.getPayload().getId())
+                        && DOMAIN.equals(event.getPayload().getDomain())
+                        && action.equals(event.getPayload().getAction());
+            }
+        };
     }
 }
@@ -16,7 +16,9 @@
 package io.gravitee.am.service;
 
 import io.gravitee.am.model.Client;
+import io.gravitee.am.model.Domain;
 import io.gravitee.am.model.Role;
+import io.gravitee.am.model.common.event.Event;
 import io.gravitee.am.model.oauth2.Scope;
 import io.gravitee.am.repository.exceptions.TechnicalException;
 import io.gravitee.am.repository.management.api.ScopeRepository;
@@ -72,6 +74,9 @@ public class ScopeServiceTest {
     @Mock
     private ScopeApprovalRepository scopeApprovalRepository;
 
+    @Mock
+    private DomainService domainService;
+
     private final static String DOMAIN = "domain1";
 
     @Test
@@ -132,6 +137,7 @@ public class ScopeServiceTest {
         when(newScope.getKey()).thenReturn("my-scope");
         when(scopeRepository.findByDomainAndKey(DOMAIN, "my-scope")).thenReturn(Maybe.empty());
         when(scopeRepository.create(any(Scope.class))).thenReturn(Single.just(new Scope()));
+        when(domainService.reload(anyString(), any(Event.class))).thenReturn(Single.just(new Domain()));
 
         TestObserver testObserver = scopeService.create(DOMAIN, newScope).test();
         testObserver.awaitTerminalEvent();
@@ -141,6 +147,7 @@ public class ScopeServiceTest {
 
         verify(scopeRepository, times(1)).findByDomainAndKey(anyString(), anyString());
         verify(scopeRepository, times(1)).create(any(Scope.class));
+        verify(domainService, times(1)).reload(anyString(), any(Event.class));
     }
 
     @Test
@@ -149,6 +156,7 @@ public class ScopeServiceTest {
         when(newScope.getKey()).thenReturn("MY-SCOPE");
         when(scopeRepository.findByDomainAndKey(DOMAIN, "my-scope")).thenReturn(Maybe.empty());
         when(scopeRepository.create(any(Scope.class))).thenReturn(Single.just(new Scope()));
+        when(domainService.reload(anyString(), any(Event.class))).thenReturn(Single.just(new Domain()));
 
         TestObserver testObserver = scopeService.create(DOMAIN, newScope).test();
         testObserver.awaitTerminalEvent();
@@ -251,6 +259,7 @@ public class ScopeServiceTest {
         when(clientService.findByDomain(DOMAIN)).thenReturn(Single.just(Collections.emptySet()));
         when(scopeRepository.findById("my-scope")).thenReturn(Maybe.just(scope));
         when(scopeRepository.delete("my-scope")).thenReturn(Completable.complete());
+        when(domainService.reload(anyString(), any(Event.class))).thenReturn(Single.just(new Domain()));
         when(scopeApprovalRepository.delete(scope.getDomain(), scope.getKey())).thenReturn(Completable.complete());
 
         TestObserver testObserver = scopeService.delete("my-scope", false).test();
@@ -262,6 +271,7 @@ public class ScopeServiceTest {
         verify(roleService, times(1)).findByDomain(DOMAIN);
         verify(clientService, times(1)).findByDomain(DOMAIN);
         verify(scopeRepository, times(1)).delete("my-scope");
+        verify(domainService, times(1)).reload(anyString(), any(Event.class));
     }
 
     @Test
@@ -284,6 +294,7 @@ public class ScopeServiceTest {
         when(clientService.update(anyString(), anyString(), any(UpdateClient.class))).thenReturn(Single.just(new Client()));
         when(scopeRepository.findById("my-scope")).thenReturn(Maybe.just(scope));
         when(scopeRepository.delete("my-scope")).thenReturn(Completable.complete());
+        when(domainService.reload(anyString(), any(Event.class))).thenReturn(Single.just(new Domain()));
         when(scopeApprovalRepository.delete(scope.getDomain(), scope.getKey())).thenReturn(Completable.complete());
 
         TestObserver testObserver = scopeService.delete("my-scope", false).test();
@@ -297,6 +308,7 @@ public class ScopeServiceTest {
         verify(roleService, times(1)).update(anyString(), anyString(), any(UpdateRole.class));
         verify(clientService, times(1)).update(anyString(), anyString(), any(UpdateClient.class));
         verify(scopeRepository, times(1)).delete("my-scope");
+        verify(domainService, times(1)).reload(anyString(), any(Event.class));
     }
 
     @Test
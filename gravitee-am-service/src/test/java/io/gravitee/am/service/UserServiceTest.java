@@ -20,6 +20,7 @@ import io.gravitee.am.model.common.Page;
 import io.gravitee.am.repository.exceptions.TechnicalException;
 import io.gravitee.am.repository.management.api.UserRepository;
 import io.gravitee.am.service.authentication.crypto.password.PasswordEncoder;
+import io.gravitee.am.service.authentication.crypto.password.PasswordHashingExecutor;
 import io.gravitee.am.service.exception.TechnicalManagementException;
 import io.gravitee.am.service.exception.UserNotFoundException;
 import io.gravitee.am.service.impl.UserServiceImpl;
@@ -58,6 +59,9 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     private final static String DOMAIN = "domain1";
 
     @Test
@@ -191,6 +195,7 @@ public class UserServiceTest {
 
         TestObserver testObserver = new TestObserver();
         userService.create(DOMAIN, newUser).subscribe(testObserver);
+        testObserver.awaitTerminalEvent();
 
         testObserver.assertError(TechnicalManagementException.class);
         testObserver.assertNotComplete();
@@ -200,7 +205,7 @@ public class UserServiceTest {
     public void shouldUpdate() {
         UpdateUser updateUser = Mockito.mock(UpdateUser.class);
         when(updateUser.getPassword()).thenReturn("password");
-        when(passwordEncoder.encode("password")).thenReturn("password");
+        when(passwordHashingExecutor.encode(passwordEncoder, "password")).thenReturn(Single.just("password"));
         when(userRepository.findById("my-user")).thenReturn(Maybe.just(new User()));
         when(userRepository.update(any(User.class))).thenReturn(Single.just(new User()));
 
@@ -212,18 +217,20 @@ public class UserServiceTest {
 
         verify(userRepository, times(1)).findById("my-user");
         verify(userRepository, times(1)).update(any(User.class));
+        verify(passwordHashingExecutor, times(1)).encode(passwordEncoder, "password");
     }
 
     @Test
     public void shouldUpdate_technicalException() {
         UpdateUser updateUser = Mockito.mock(UpdateUser.class);
         when(updateUser.getPassword()).thenReturn("password");
-        when(passwordEncoder.encode("password")).thenReturn("password");
+        when(passwordHashingExecutor.encode(passwordEncoder, "password")).thenReturn(Single.just("password"));
         when(userRepository.findById("my-user")).thenReturn(Maybe.just(new User()));
         when(userRepository.update(any(User.class))).thenReturn(Single.error(TechnicalException::new));
 
         TestObserver testObserver = new TestObserver();
         userService.update(DOMAIN, "my-user", updateUser).subscribe(testObserver);
+        testObserver.awaitTerminalEvent();
 
         testObserver.assertError(TechnicalManagementException.class);
         testObserver.assertNotComplete();
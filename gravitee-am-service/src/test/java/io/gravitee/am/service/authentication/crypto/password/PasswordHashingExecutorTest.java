@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.service.authentication.crypto.password;
+
+import io.gravitee.am.service.authentication.crypto.password.bcrypt.BCryptPasswordEncoder;
+import io.gravitee.am.service.exception.authentication.InternalAuthenticationServiceException;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class PasswordHashingExecutorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutorTest.class);
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(6);
+
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    private ExecutorService eventLoop;
+
+    @After
+    public void tearDown() {
+        if (passwordHashingExecutor != null) {
+            passwordHashingExecutor.destroy();
+        }
+        if (eventLoop != null) {
+            eventLoop.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldMatch() {
+        passwordHashingExecutor = passwordHashingExecutor(2, 10);
+        String encodedPassword = passwordEncoder.encode("password");
+
+        TestObserver<Boolean> testObserver = passwordHashingExecutor.matches(passwordEncoder, "password", encodedPassword).test();
+        testObserver.awaitTerminalEvent();
+        testObserver.assertValue(true);
+
+        testObserver = passwordHashingExecutor.matches(passwordEncoder, "wrongpassword", encodedPassword).test();
+        testObserver.awaitTerminalEvent();
+        testObserver.assertValue(false);
+    }
+
+    @Test
+    public void shouldEncode() {
+        passwordHashingExecutor = passwordHashingExecutor(2, 10);
+
+        TestObserver<String> testObserver = passwordHashingExecutor.encode(passwordEncoder, "password").test();
+        testObserver.awaitTerminalEvent();
+        testObserver.assertValue(encodedPassword -> passwordEncoder.matches("password", encodedPassword));
+    }
+
+    @Test
+    public void shouldReject_saturated() throws Exception {
+        passwordHashingExecutor = passwordHashingExecutor(1, 1);
+        CountDownLatch latch = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+
+        TestObserver<Boolean> running = passwordHashingExecutor.matches(blockingEncoder, "password", "password").test();
+        TestObserver<Boolean> queued = passwordHashingExecutor.matches(blockingEncoder, "password", "password").test();
+        TestObserver<Boolean> rejected = passwordHashingExecutor.matches(blockingEncoder, "password", "password").test();
+
+        rejected.assertError(InternalAuthenticationServiceException.class);
+        Assert.assertEquals(1, passwordHashingExecutor.getRejectedTaskCount());
+
+        latch.countDown();
+        running.awaitTerminalEvent();
+        queued.awaitTerminalEvent();
+        running.assertValue(true);
+        queued.assertValue(true);
+    }
+
+    /**
+     * A login storm on a single-threaded event loop: the event loop latency is measured with a task submitted every
+     * millisecond while 50 logins verify their password on the event loop, then on the hashing pool.
+     */
+    @Test
+    public void shouldKeepEventLoopLatencyFlat_benchmark() throws Exception {
+        passwordHashingExecutor = passwordHashingExecutor(2, 1000);
+        eventLoop = Executors.newSingleThreadExecutor();
+        final String encodedPassword = passwordEncoder.encode("password");
+        final int logins = 50;
+
+        long blockingLatency = measureEventLoopLatency(logins, () ->
+                Single.just(passwordEncoder.matches("password", encodedPassword)));
+        long offloadedLatency = measureEventLoopLatency(logins, () ->
+                passwordHashingExecutor.matches(passwordEncoder, "password", encodedPassword));
+
+        logger.info("Max event loop latency during {} logins: {}µs when verifying passwords on the event loop, {}µs when verifying on the hashing pool",
+                logins, blockingLatency, offloadedLatency);
+
+        Assert.assertEquals(0, passwordHashingExecutor.getRejectedTaskCount());
+        Assert.assertTrue(offloadedLatency < blockingLatency);
+    }
+
+    private static PasswordHashingExecutor passwordHashingExecutor(int poolSize, int queueCapacity) {
+        PasswordHashingExecutor passwordHashingExecutor = new PasswordHashingExecutor();
+        passwordHashingExecutor.setPoolSize(poolSize);
+        passwordHashingExecutor.setQueueCapacity(queueCapacity);
+        passwordHashingExecutor.afterPropertiesSet();
+        return passwordHashingExecutor;
+    }
+
+    private long measureEventLoopLatency(int logins, java.util.concurrent.Callable<Single<Boolean>> login) throws Exception {
+        CountDownLatch completed = new CountDownLatch(logins);
+        List<Boolean> results = new ArrayList<>();
+        for (int i = 0; i < logins; i++) {
+            eventLoop.execute(() -> {
+                try {
+                    login.call().subscribe(result -> {
+                        synchronized (results) {
+                            results.add(result);
+                        }
+                        completed.countDown();
+                    });
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        AtomicLong maxLatency = new AtomicLong();
+        while (completed.getCount() > 0) {
+            final long submittedAt = System.nanoTime();
+            CountDownLatch ping = new CountDownLatch(1);
+            eventLoop.execute(() -> {
+                maxLatency.accumulateAndGet(System.nanoTime() - submittedAt, Math::max);
+                ping.countDown();
+            });
+            ping.await(10, TimeUnit.SECONDS);
+            Thread.sleep(1);
+        }
+
+        Assert.assertEquals(logins, results.size());
+        Assert.assertTrue(results.stream().allMatch(Boolean::booleanValue));
+        return TimeUnit.NANOSECONDS.toMicros(maxLatency.get());
+    }
+}
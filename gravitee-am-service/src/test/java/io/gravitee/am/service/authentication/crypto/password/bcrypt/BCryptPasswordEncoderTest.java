@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.am.service.authentication.crypto.password.bcrypt;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class BCryptPasswordEncoderTest {
+
+    @Test
+    public void shouldMatch() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        String encodedPassword = passwordEncoder.encode("password");
+
+        Assert.assertTrue(passwordEncoder.matches("password", encodedPassword));
+        Assert.assertFalse(passwordEncoder.matches("wrongpassword", encodedPassword));
+    }
+
+    @Test
+    public void shouldNotUpgradeEncoding_sameStrength() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+        Assert.assertFalse(passwordEncoder.upgradeEncoding(passwordEncoder.encode("password")));
+    }
+
+    @Test
+    public void shouldUpgradeEncoding_otherStrength() {
+        String encodedPassword = new BCryptPasswordEncoder(5).encode("password");
+
+        Assert.assertTrue(new BCryptPasswordEncoder(4).upgradeEncoding(encodedPassword));
+    }
+
+    @Test
+    public void shouldUpgradeEncoding_defaultStrength() {
+        String encodedPassword = new BCryptPasswordEncoder(4).encode("password");
+
+        Assert.assertTrue(new BCryptPasswordEncoder().upgradeEncoding(encodedPassword));
+        Assert.assertFalse(new BCryptPasswordEncoder(10).upgradeEncoding(BCrypt.hashpw("password", BCrypt.gensalt())));
+    }
+
+    @Test
+    public void shouldNotUpgradeEncoding_notBCrypt() {
+        Assert.assertFalse(new BCryptPasswordEncoder(4).upgradeEncoding("password"));
+        Assert.assertFalse(new BCryptPasswordEncoder(4).upgradeEncoding(null));
+    }
+}
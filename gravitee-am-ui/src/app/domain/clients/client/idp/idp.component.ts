@@ -18,6 +18,7 @@ import { ClientService } from "../../../../services/client.service";
 import { SnackbarService } from "../../../../services/snackbar.service";
 import { ActivatedRoute } from "@angular/router";
 import { ProviderService } from "../../../../services/provider.service";
+import * as _ from "lodash";
 
 @Component({
   selector: 'app-idp',
@@ -29,6 +30,11 @@ export class ClientIdPComponent implements OnInit {
   client: any;
   identityProviders: any[] = [];
   oauth2IdentityProviders: any[] = [];
+  identityProviderStrategies: any[] = [
+    { name: 'Ordered (one provider after the other)', value: 'ORDERED' },
+    { name: 'Parallel (all providers at the same time)', value: 'PARALLEL' },
+    { name: 'Hedged (next provider when the previous one is slow)', value: 'HEDGED' }
+  ];
 
   constructor(private route: ActivatedRoute, private clientService: ClientService, private snackbarService: SnackbarService,
               private providerService: ProviderService) { }
@@ -42,6 +48,24 @@ export class ClientIdPComponent implements OnInit {
     });
   }
 
+  onIdentitiesChange(identities: string[]) {
+    // keep the priority order of the providers already selected, newly selected ones go last
+    let current = (this.client.identities || []).filter(identity => identities.indexOf(identity) !== -1);
+    this.client.identities = current.concat(identities.filter(identity => current.indexOf(identity) === -1));
+  }
+
+  moveIdentity(index: number, offset: number) {
+    let identities = this.client.identities.slice();
+    let identity = identities.splice(index, 1)[0];
+    identities.splice(index + offset, 0, identity);
+    this.client.identities = identities;
+  }
+
+  identityProviderName(identityId: string) {
+    let identityProvider = _.find(this.identityProviders, { 'id': identityId });
+    return identityProvider ? identityProvider.name : identityId;
+  }
+
   update() {
     this.clientService.update(this.domainId, this.client.id, this.client).map(res => res.json()).subscribe(data => {
       this.client = data;
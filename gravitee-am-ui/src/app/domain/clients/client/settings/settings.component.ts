@@ -154,6 +154,15 @@ export class ClientSettingsComponent implements OnInit {
     return this.client.enhanceScopesWithUserPermissions;
   }
 
+  enableStatelessAccessTokens(event) {
+    this.client.statelessAccessTokens = event.checked;
+    this.formChanged = true;
+  }
+
+  isStatelessAccessTokens() {
+    return this.client.statelessAccessTokens;
+  }
+
   update() {
     this.client.authorizedGrantTypes = this.selectedGrantTypes.concat(this.selectedCustomGrantTypes);
     this.client.scopes = _.map(this.selectedScopes, scope => scope.key);
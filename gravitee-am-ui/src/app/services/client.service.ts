@@ -50,7 +50,9 @@ export class ClientService {
       'identities': client.identities,
       'oauth2Identities': client.oauth2Identities,
       'certificate': client.certificate,
-      'enhanceScopesWithUserPermissions' : client.enhanceScopesWithUserPermissions
+      'enhanceScopesWithUserPermissions' : client.enhanceScopesWithUserPermissions,
+      'statelessAccessTokens' : client.statelessAccessTokens,
+      'identityProviderStrategy' : client.identityProviderStrategy
     });
   }
 